@@ -0,0 +1,24 @@
+package com.aprendizaje.backend.admision;
+
+/**
+ * Clases de endpoints según su costo en la base de datos
+ * El orden es también la prioridad: cuando se libera un permiso se atiende primero
+ * la cola de LECTURA_BARATA, luego ESCRITURA y al final LECTURA_COSTOSA
+ */
+public enum ClaseEndpoint {
+
+    /**
+     * GET por ID o por lista de IDs: una búsqueda por clave primaria
+     */
+    LECTURA_BARATA,
+
+    /**
+     * POST, PUT y DELETE
+     */
+    ESCRITURA,
+
+    /**
+     * Listados completos, búsquedas y sincronización: recorren muchas filas
+     */
+    LECTURA_COSTOSA
+}
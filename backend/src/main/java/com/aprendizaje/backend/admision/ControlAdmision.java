@@ -0,0 +1,274 @@
+package com.aprendizaje.backend.admision;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Control de admisión delante del pool de conexiones de la base de datos
+ *
+ * - Cada clase de endpoint tiene su propio límite adaptativo y su cola acotada
+ * - Además nunca hay más de "limiteTotal" peticiones en curso (el tamaño del pool)
+ * - Al liberarse un permiso se atiende primero la clase de mayor prioridad
+ * - Las lecturas costosas no entran mientras haya lecturas baratas o escrituras esperando
+ * - Si la cola está llena o se vence la espera, la petición se rechaza de inmediato
+ *
+ * Así, en un pico de tráfico, las peticiones sobrantes reciben un 503 rápido
+ * en lugar de esperar una conexión hasta que todas vencen a la vez.
+ */
+public class ControlAdmision {
+
+    private final ReentrantLock candado = new ReentrantLock();
+    private final Map<ClaseEndpoint, EstadoClase> clases = new EnumMap<>(ClaseEndpoint.class);
+    private final int limiteTotal;
+    private final long esperaMaximaMs;
+    private int totalEnCurso;
+
+    /**
+     * @param limiteTotal - máximo de peticiones en curso entre todas las clases
+     * @param capacidadCola - peticiones que pueden esperar en cada clase
+     * @param esperaMaximaMs - tiempo máximo en la cola antes de rechazar
+     */
+    public ControlAdmision(int limiteTotal, int capacidadCola, long esperaMaximaMs) {
+        this.limiteTotal = Math.max(1, limiteTotal);
+        this.esperaMaximaMs = esperaMaximaMs;
+        for (ClaseEndpoint clase : ClaseEndpoint.values()) {
+            // Las lecturas costosas nunca pueden ocupar más de la mitad del pool
+            int maximo = clase == ClaseEndpoint.LECTURA_COSTOSA ? Math.max(1, this.limiteTotal / 2) : this.limiteTotal;
+            clases.put(clase, new EstadoClase(new LimiteAdaptativo(maximo, 1, maximo), capacidadCola));
+        }
+    }
+
+    /**
+     * Pide permiso para atender una petición; si no hay lugar, espera en la cola de su clase
+     * @param clase - clase del endpoint
+     * @return el permiso, o null si la petición debe rechazarse
+     * @throws InterruptedException si el hilo se interrumpe mientras espera (sin retener ningún permiso)
+     */
+    public Permiso adquirir(ClaseEndpoint clase) throws InterruptedException {
+        EstadoClase estado = clases.get(clase);
+        Espera espera;
+
+        candado.lock();
+        try {
+            if (estado.cola.isEmpty() && hayLugar(estado) && !hayEsperaPrioritaria(clase)) {
+                entrar(estado);
+                return new Permiso(clase, System.nanoTime());
+            }
+            if (estado.cola.size() >= estado.capacidadCola
+                    || (clase == ClaseEndpoint.LECTURA_COSTOSA && hayEsperaPrioritaria(clase))) {
+                estado.rechazadas++;
+                return null;
+            }
+            espera = new Espera();
+            estado.cola.addLast(espera);
+        } finally {
+            candado.unlock();
+        }
+
+        boolean concedido = false;
+        InterruptedException interrupcion = null;
+        try {
+            concedido = espera.listo.await(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            interrupcion = e;
+        }
+        if (!concedido) {
+            candado.lock();
+            try {
+                // El permiso pudo llegar justo al vencer la espera o al interrumpirse el hilo
+                concedido = espera.concedido;
+                if (!concedido) {
+                    estado.cola.remove(espera);
+                    estado.rechazadas++;
+                } else if (interrupcion != null) {
+                    // Nadie va a liberar este permiso: se devuelve para no perder el lugar
+                    estado.enCurso--;
+                    totalEnCurso--;
+                    despachar();
+                }
+            } finally {
+                candado.unlock();
+            }
+        }
+        if (interrupcion != null) {
+            throw interrupcion;
+        }
+        return concedido ? new Permiso(clase, System.nanoTime()) : null;
+    }
+
+    /**
+     * Devuelve el permiso, ajusta el límite con la latencia medida y atiende la siguiente espera
+     * @param permiso - permiso obtenido con adquirir()
+     * @param exito - false si la petición terminó con error del servidor
+     */
+    public void liberar(Permiso permiso, boolean exito) {
+        long duracion = System.nanoTime() - permiso.inicioNs;
+        candado.lock();
+        try {
+            EstadoClase estado = clases.get(permiso.clase);
+            estado.limite.registrar(duracion, estado.enCurso, exito);
+            estado.enCurso--;
+            totalEnCurso--;
+            despachar();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Segundos sugeridos al cliente para reintentar (cabecera Retry-After)
+     * Estimación: tiempo en vaciar la cola actual al ritmo de la latencia promedio
+     * @param clase - clase del endpoint rechazado
+     * @return segundos, al menos 1
+     */
+    public long segundosParaReintentar(ClaseEndpoint clase) {
+        candado.lock();
+        try {
+            EstadoClase estado = clases.get(clase);
+            double ms = estado.limite.getRttPromedioMs() * (estado.cola.size() + 1) / Math.max(1, estado.limite.getLimite());
+            return Math.max(1, (long) Math.ceil(ms / 1000));
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Estado actual de cada clase: límite, en curso, cola, latencias y contadores
+     * @return una entrada por clase de endpoint
+     */
+    public List<Map<String, Object>> metricas() {
+        candado.lock();
+        try {
+            List<Map<String, Object>> resultado = new ArrayList<>();
+            for (Map.Entry<ClaseEndpoint, EstadoClase> entrada : clases.entrySet()) {
+                EstadoClase estado = entrada.getValue();
+                Map<String, Object> datos = new LinkedHashMap<>();
+                datos.put("clase", entrada.getKey());
+                datos.put("limite", estado.limite.getLimite());
+                datos.put("enCurso", estado.enCurso);
+                datos.put("enCola", estado.cola.size());
+                datos.put("capacidadCola", estado.capacidadCola);
+                datos.put("rttMinimoMs", estado.limite.getRttMinimoMs());
+                datos.put("rttPromedioMs", estado.limite.getRttPromedioMs());
+                datos.put("admitidas", estado.admitidas);
+                datos.put("rechazadas", estado.rechazadas);
+                resultado.add(datos);
+            }
+            return resultado;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Límite global (tamaño del pool de conexiones)
+     */
+    public int getLimiteTotal() {
+        return limiteTotal;
+    }
+
+    /**
+     * Peticiones en curso entre todas las clases
+     */
+    public int getTotalEnCurso() {
+        candado.lock();
+        try {
+            return totalEnCurso;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // ========== AUXILIARES (con el candado tomado) ==========
+
+    private boolean hayLugar(EstadoClase estado) {
+        return totalEnCurso < limiteTotal && estado.enCurso < estado.limite.getLimite();
+    }
+
+    /**
+     * Indica si hay peticiones esperando en alguna clase de mayor prioridad
+     */
+    private boolean hayEsperaPrioritaria(ClaseEndpoint clase) {
+        for (ClaseEndpoint otra : ClaseEndpoint.values()) {
+            if (otra == clase) {
+                return false;
+            }
+            if (!clases.get(otra).cola.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void entrar(EstadoClase estado) {
+        estado.enCurso++;
+        estado.admitidas++;
+        totalEnCurso++;
+    }
+
+    /**
+     * Entrega los lugares libres a las esperas, en orden de prioridad de clase
+     */
+    private void despachar() {
+        for (EstadoClase estado : clases.values()) {
+            while (!estado.cola.isEmpty() && hayLugar(estado)) {
+                Espera espera = estado.cola.pollFirst();
+                espera.concedido = true;
+                entrar(estado);
+                espera.listo.countDown();
+            }
+        }
+    }
+
+    /**
+     * Estado de una clase de endpoint
+     */
+    private static class EstadoClase {
+
+        final LimiteAdaptativo limite;
+        final int capacidadCola;
+        final ArrayDeque<Espera> cola = new ArrayDeque<>();
+        int enCurso;
+        long admitidas;
+        long rechazadas;
+
+        EstadoClase(LimiteAdaptativo limite, int capacidadCola) {
+            this.limite = limite;
+            this.capacidadCola = capacidadCola;
+        }
+    }
+
+    /**
+     * Petición esperando un lugar
+     */
+    private static class Espera {
+
+        final CountDownLatch listo = new CountDownLatch(1);
+        boolean concedido;
+    }
+
+    /**
+     * Permiso para atender una petición; debe devolverse con liberar()
+     */
+    public static class Permiso {
+
+        private final ClaseEndpoint clase;
+        private final long inicioNs;
+
+        Permiso(ClaseEndpoint clase, long inicioNs) {
+            this.clase = clase;
+            this.inicioNs = inicioNs;
+        }
+
+        public ClaseEndpoint getClase() {
+            return clase;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.aprendizaje.backend.admision;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro que pasa cada petición de /api/tareas y /api/productos por el control de admisión
+ *
+ * Si no hay lugar responde 503 Service Unavailable con la cabecera Retry-After,
+ * sin llegar a pedir una conexión a la base de datos.
+ * Las suscripciones SSE (/eventos) no pasan por el filtro porque quedan abiertas,
+ * y el autocompletado (/autocompletar) tampoco porque se responde desde memoria.
+ */
+public class ControlAdmisionFilter extends OncePerRequestFilter {
+
+    /**
+     * /api/tareas/{id} o /api/productos/{id}
+     */
+    private static final Pattern RUTA_POR_ID = Pattern.compile("^/api/(tareas|productos)/\\d+$");
+
+    private final ControlAdmision controlAdmision;
+
+    public ControlAdmisionFilter(ControlAdmision controlAdmision) {
+        this.controlAdmision = controlAdmision;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/eventos")
+                || request.getRequestURI().endsWith("/autocompletar")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ClaseEndpoint clase = clasificar(request);
+
+        ControlAdmision.Permiso permiso;
+        try {
+            permiso = controlAdmision.adquirir(clase);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        if (permiso == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(controlAdmision.segundosParaReintentar(clase)));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor saturado, intente más tarde");
+            return;
+        }
+
+        boolean exito = false;
+        try {
+            chain.doFilter(request, response);
+            exito = response.getStatus() < 500;
+        } finally {
+            controlAdmision.liberar(permiso, exito);
+        }
+    }
+
+    /**
+     * Clasifica la petición según su costo esperado en la base de datos
+     * @param request - petición HTTP
+     * @return clase del endpoint
+     */
+    static ClaseEndpoint clasificar(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String metodo = request.getMethod();
+
+        if ("GET".equals(metodo)) {
+            if (RUTA_POR_ID.matcher(uri).matches() || request.getParameter("ids") != null) {
+                return ClaseEndpoint.LECTURA_BARATA;
+            }
+            return ClaseEndpoint.LECTURA_COSTOSA;
+        }
+        if ("POST".equals(metodo) && uri.endsWith("/por-ids")) {
+            return ClaseEndpoint.LECTURA_BARATA;
+        }
+        return ClaseEndpoint.ESCRITURA;
+    }
+}
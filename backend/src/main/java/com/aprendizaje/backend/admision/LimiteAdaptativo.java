@@ -0,0 +1,90 @@
+package com.aprendizaje.backend.admision;
+
+/**
+ * Límite de concurrencia que se ajusta según la latencia observada (algoritmo de gradiente)
+ *
+ * Se guarda la latencia mínima vista (la de la base de datos sin carga). Si la latencia actual
+ * supera "tolerancia" veces la mínima, hay cola en el pool de conexiones y el límite baja en
+ * proporción; si no, el límite sube de a poco (raíz cuadrada del límite).
+ * Un error o timeout reduce el límite un 10%.
+ *
+ * No es thread-safe: ControlAdmision lo usa siempre bajo su candado.
+ */
+public class LimiteAdaptativo {
+
+    /**
+     * Cuántas veces la latencia mínima se acepta antes de considerar que hay congestión
+     */
+    private static final double TOLERANCIA = 2.0;
+
+    /**
+     * Peso del nuevo valor en el promedio móvil del límite
+     */
+    private static final double SUAVIZADO = 0.2;
+
+    /**
+     * Cada cuántas muestras se olvida parte de la latencia mínima (por si la base de datos cambió)
+     */
+    private static final int MUESTRAS_POR_REINICIO = 500;
+
+    private final int minimo;
+    private final int maximo;
+    private double limite;
+    private double rttMinimoNs = Double.MAX_VALUE;
+    private double rttPromedioNs;
+    private int muestras;
+
+    public LimiteAdaptativo(int inicial, int minimo, int maximo) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+    }
+
+    /**
+     * Registra el resultado de una petición y recalcula el límite
+     * @param rttNs - duración de la petición en nanosegundos
+     * @param enCurso - peticiones en curso cuando se tomó la muestra
+     * @param exito - false si la petición falló por error del servidor
+     */
+    public void registrar(long rttNs, int enCurso, boolean exito) {
+        if (!exito) {
+            limite = Math.max(minimo, limite * 0.9);
+            return;
+        }
+
+        rttPromedioNs = rttPromedioNs == 0 ? rttNs : rttPromedioNs * 0.9 + rttNs * 0.1;
+        if (++muestras % MUESTRAS_POR_REINICIO == 0) {
+            rttMinimoNs = Math.min(rttMinimoNs * 1.5, rttPromedioNs);
+        }
+        rttMinimoNs = Math.min(rttMinimoNs, rttNs);
+
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * rttMinimoNs / Math.max(1, rttNs)));
+        double nuevo = limite * gradiente + Math.sqrt(limite);
+        if (nuevo > limite && enCurso < limite / 2) {
+            // Con el límite casi sin usar, una buena latencia no prueba que aguante más
+            nuevo = limite;
+        }
+        limite = Math.max(minimo, Math.min(maximo, limite * (1 - SUAVIZADO) + nuevo * SUAVIZADO));
+    }
+
+    /**
+     * Límite actual de peticiones concurrentes
+     */
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    /**
+     * Latencia mínima observada en milisegundos
+     */
+    public double getRttMinimoMs() {
+        return rttMinimoNs == Double.MAX_VALUE ? 0 : rttMinimoNs / 1_000_000.0;
+    }
+
+    /**
+     * Promedio móvil de la latencia en milisegundos
+     */
+    public double getRttPromedioMs() {
+        return rttPromedioNs / 1_000_000.0;
+    }
+}
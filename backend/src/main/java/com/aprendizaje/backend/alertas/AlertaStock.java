@@ -0,0 +1,90 @@
+package com.aprendizaje.backend.alertas;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alerta de stock: un producto cruzó su umbral hacia abajo (BAJO) o volvió a la recuperación (RECUPERADO)
+ */
+public class AlertaStock {
+
+    /**
+     * Tipo de cruce
+     */
+    public enum Tipo {
+        BAJO,
+        RECUPERADO
+    }
+
+    /**
+     * Número creciente de la alerta; sirve como cursor para leer el historial
+     */
+    private final long secuencia;
+
+    private final Tipo tipo;
+
+    private final long productoId;
+
+    private final String nombre;
+
+    private final String categoria;
+
+    /**
+     * Stock del producto al producirse el cruce
+     */
+    private final int stock;
+
+    private final int minimo;
+
+    private final int recuperacion;
+
+    private final LocalDateTime fecha;
+
+    public AlertaStock(long secuencia, Tipo tipo, long productoId, String nombre, String categoria,
+                       int stock, int minimo, int recuperacion, LocalDateTime fecha) {
+        this.secuencia = secuencia;
+        this.tipo = tipo;
+        this.productoId = productoId;
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.stock = stock;
+        this.minimo = minimo;
+        this.recuperacion = recuperacion;
+        this.fecha = fecha;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public long getProductoId() {
+        return productoId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public int getMinimo() {
+        return minimo;
+    }
+
+    public int getRecuperacion() {
+        return recuperacion;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
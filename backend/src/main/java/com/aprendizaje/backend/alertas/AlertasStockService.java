@@ -0,0 +1,464 @@
+package com.aprendizaje.backend.alertas;
+
+import com.aprendizaje.backend.categorias.DiccionarioCategorias;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import com.aprendizaje.backend.repository.UmbralStockRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alertas de stock bajo evaluadas con cada cambio de productos, sin recorrer la tabla
+ *
+ * - Los umbrales se definen por producto o por categoría (el del producto tiene prioridad)
+ *   y se mantienen en memoria
+ * - Cada cambio confirmado de un producto (CambioEntidadEvent) se compara con su umbral:
+ *   solo se genera una alerta al cruzarlo (BAJO al quedar por debajo del mínimo,
+ *   RECUPERADO al llegar a la recuperación); entre ambos valores no pasa nada (histéresis)
+ * - Las alertas quedan en un historial en memoria (consultable con un cursor) y se envían
+ *   por lotes a los destinos (DestinoAlertasStock) desde un hilo programado
+ *
+ * Al arrancar y al cambiar un umbral se leen solo los productos de ese umbral, para saber cuáles
+ * ya están por debajo; al arrancar no se generan alertas (ya se enviaron antes del reinicio).
+ */
+@Service
+public class AlertasStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertasStockService.class);
+
+    /**
+     * Versión de los productos eliminados (mayor que cualquier versión real)
+     */
+    private static final long ELIMINADO = Long.MAX_VALUE;
+
+    @Autowired
+    private UmbralStockRepository umbralStockRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private DiccionarioCategorias diccionarioCategorias;
+
+    /**
+     * Destinos registrados
+     */
+    @Autowired(required = false)
+    private List<DestinoAlertasStock> destinos = List.of();
+
+    @Value("${app.alertas-stock.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Distancia por defecto entre el mínimo y la recuperación
+     */
+    @Value("${app.alertas-stock.histeresis:5}")
+    private int histeresis;
+
+    /**
+     * Alertas que se conservan en el historial
+     */
+    @Value("${app.alertas-stock.historial:1000}")
+    private int tamanoHistorial;
+
+    /**
+     * Máximo de alertas esperando envío; si los destinos no responden, las nuevas se descartan
+     */
+    @Value("${app.alertas-stock.pendientes-max:10000}")
+    private int pendientesMax;
+
+    /**
+     * Máximo de alertas por envío (y de productos por página al leer una categoría)
+     */
+    @Value("${app.alertas-stock.tamano-lote:500}")
+    private int tamanoLote;
+
+    private final Map<Long, UmbralStock> porProducto = new ConcurrentHashMap<>();
+
+    private final Map<String, UmbralStock> porCategoria = new ConcurrentHashMap<>();
+
+    /**
+     * Productos en alerta: ID -> alerta BAJO que la abrió
+     */
+    private final Map<Long, AlertaStock> activas = new ConcurrentHashMap<>();
+
+    /**
+     * Última versión de cambio evaluada de cada producto con umbral: ID -> versionCambio
+     * Los eventos de transacciones simultáneas pueden llegar desordenados; los anteriores se ignoran.
+     * Un producto eliminado queda con ELIMINADO como versión, así un evento atrasado no reabre su alerta.
+     * Solo se escribe dentro de activas.compute, que serializa por ID.
+     */
+    private final Map<Long, Long> versiones = new ConcurrentHashMap<>();
+
+    /**
+     * Últimas alertas, de la más vieja a la más nueva (protegido por sí mismo)
+     */
+    private final Deque<AlertaStock> historial = new ArrayDeque<>();
+
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /**
+     * Alertas esperando envío (acotada a pendientesMax)
+     */
+    private BlockingQueue<AlertaStock> pendientes;
+
+    /**
+     * Lote que falló y se reintenta antes de tomar alertas nuevas
+     */
+    private volatile List<AlertaStock> loteReintento = List.of();
+
+    private final AtomicLong descartadas = new AtomicLong();
+
+    private volatile String ultimoError;
+
+    @PostConstruct
+    void iniciar() {
+        pendientes = new LinkedBlockingQueue<>(Math.max(1, pendientesMax));
+    }
+
+    /**
+     * Carga los umbrales y marca los productos que ya están por debajo (sin generar alertas)
+     * Se ejecuta después de MigracionCategorias, que carga el diccionario de categorías antes de arrancar el servidor
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void cargar() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        for (UmbralStockRepository.FilaUmbral fila : umbralStockRepository.todos()) {
+            if (UmbralStock.AMBITO_PRODUCTO.equals(fila.getAmbito())) {
+                porProducto.put(fila.getClave(), new UmbralStock(fila.getAmbito(), String.valueOf(fila.getClave()),
+                        fila.getMinimo(), fila.getRecuperacion()));
+            } else {
+                String categoria = diccionarioCategorias.nombre((short) fila.getClave());
+                if (categoria != null) {
+                    porCategoria.put(categoria, new UmbralStock(fila.getAmbito(), categoria,
+                            fila.getMinimo(), fila.getRecuperacion()));
+                }
+            }
+        }
+        porCategoria.keySet().forEach(categoria -> evaluarCategoria(categoria, false));
+        porProducto.keySet().forEach(id -> evaluarProducto(id, false));
+        if (!porProducto.isEmpty() || !porCategoria.isEmpty()) {
+            log.info("Umbrales de stock cargados: {} de productos, {} de categorías, {} productos en alerta ({} ms)",
+                    porProducto.size(), porCategoria.size(), activas.size(), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * Evalúa los cambios confirmados de productos
+     * @param evento - cambio publicado por ProductoService o AjusteProductosService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        if (!habilitado || !CambioEntidadEvent.ENTIDAD_PRODUCTO.equals(evento.getEntidad())) {
+            return;
+        }
+        if (evento.getTipo() == TipoCambio.ELIMINADO) {
+            eliminado(evento.getId());
+        } else if (evento.getDatos() instanceof Producto producto) {
+            evaluar(producto, true);
+        }
+    }
+
+    /**
+     * Crea o reemplaza un umbral y evalúa los productos que cubre
+     * @param ambito - "producto" o "categoria"
+     * @param clave - ID del producto o nombre de la categoría
+     * @param datos - mínimo y, opcionalmente, recuperación
+     * @return el umbral guardado, o vacío si el producto no existe
+     * @throws IllegalArgumentException si el ámbito, la clave o los valores no son válidos
+     */
+    public Optional<UmbralStock> guardarUmbral(String ambito, String clave, UmbralStock datos) {
+        Integer minimo = datos.getMinimo();
+        if (minimo == null || minimo < 0) {
+            throw new IllegalArgumentException("El mínimo es obligatorio y no puede ser negativo");
+        }
+        int recuperacion = datos.getRecuperacion() != null ? datos.getRecuperacion() : minimo + histeresis;
+        if (recuperacion <= minimo) {
+            throw new IllegalArgumentException("La recuperación debe ser mayor que el mínimo");
+        }
+        if (UmbralStock.AMBITO_PRODUCTO.equals(ambito)) {
+            long id = idProducto(clave);
+            if (!productoRepository.existsById(id)) {
+                return Optional.empty();
+            }
+            UmbralStock umbral = new UmbralStock(ambito, String.valueOf(id), minimo, recuperacion);
+            umbralStockRepository.guardar(ambito, id, minimo, recuperacion);
+            porProducto.put(id, umbral);
+            evaluarProducto(id, true);
+            return Optional.of(umbral);
+        }
+        UmbralStock umbral = new UmbralStock(UmbralStock.AMBITO_CATEGORIA, nombreCategoria(ambito, clave),
+                minimo, recuperacion);
+        umbralStockRepository.guardar(umbral.getAmbito(), diccionarioCategorias.codigo(umbral.getClave()),
+                minimo, recuperacion);
+        porCategoria.put(umbral.getClave(), umbral);
+        evaluarCategoria(umbral.getClave(), true);
+        return Optional.of(umbral);
+    }
+
+    /**
+     * Elimina un umbral; los productos que cubría dejan de estar en alerta (sin generar RECUPERADO)
+     * @param ambito - "producto" o "categoria"
+     * @param clave - ID del producto o nombre de la categoría
+     * @return true si existía
+     * @throws IllegalArgumentException si el ámbito o la clave no son válidos
+     */
+    public boolean eliminarUmbral(String ambito, String clave) {
+        if (UmbralStock.AMBITO_PRODUCTO.equals(ambito)) {
+            long id = idProducto(clave);
+            if (porProducto.remove(id) == null) {
+                return false;
+            }
+            umbralStockRepository.eliminar(ambito, id);
+            evaluarProducto(id, true);
+            return true;
+        }
+        String categoria = nombreCategoria(ambito, clave);
+        if (porCategoria.remove(categoria) == null) {
+            return false;
+        }
+        umbralStockRepository.eliminar(UmbralStock.AMBITO_CATEGORIA, diccionarioCategorias.codigo(categoria));
+        evaluarCategoria(categoria, true);
+        return true;
+    }
+
+    /**
+     * Umbrales definidos
+     * @return umbrales de productos y luego de categorías
+     */
+    public List<UmbralStock> umbrales() {
+        List<UmbralStock> umbrales = new ArrayList<>(porProducto.values());
+        umbrales.addAll(porCategoria.values());
+        return umbrales;
+    }
+
+    /**
+     * Productos que están en alerta ahora
+     * @return alertas BAJO vigentes, de la más vieja a la más nueva
+     */
+    public List<AlertaStock> activas() {
+        return activas.values().stream()
+                .sorted(Comparator.comparingLong(AlertaStock::getSecuencia))
+                .toList();
+    }
+
+    /**
+     * Alertas del historial posteriores a un cursor
+     * @param desde - secuencia de la última alerta ya leída (0 para empezar)
+     * @param limite - máximo de alertas
+     * @return alertas en orden de secuencia
+     */
+    public List<AlertaStock> historial(long desde, int limite) {
+        List<AlertaStock> resultado = new ArrayList<>();
+        synchronized (historial) {
+            for (AlertaStock alerta : historial) {
+                if (alerta.getSecuencia() > desde) {
+                    resultado.add(alerta);
+                    if (resultado.size() >= limite) {
+                        break;
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Estado del envío de alertas
+     * @return mapa con umbrales, productos en alerta, última secuencia, pendientes, descartadas y último error
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", habilitado);
+        estado.put("umbrales", porProducto.size() + porCategoria.size());
+        estado.put("activas", activas.size());
+        estado.put("ultimaSecuencia", secuencia.get());
+        estado.put("pendientes", pendientes.size() + loteReintento.size());
+        estado.put("descartadas", descartadas.get());
+        estado.put("ultimoError", ultimoError);
+        estado.put("destinos", destinos.stream().map(DestinoAlertasStock::getNombre).toList());
+        return estado;
+    }
+
+    /**
+     * Envía las alertas pendientes a todos los destinos, por lotes
+     * Se detiene en el primer fallo; el mismo lote se reintenta en la siguiente pasada
+     * @return cantidad de alertas enviadas
+     */
+    @Scheduled(fixedDelayString = "${app.alertas-stock.intervalo-ms:1000}")
+    public synchronized int entregar() {
+        int total = 0;
+        try {
+            while (true) {
+                List<AlertaStock> lote = loteReintento;
+                if (lote.isEmpty()) {
+                    lote = new ArrayList<>();
+                    pendientes.drainTo(lote, tamanoLote);
+                    if (lote.isEmpty()) {
+                        break;
+                    }
+                    loteReintento = lote;
+                }
+                for (DestinoAlertasStock destino : destinos) {
+                    destino.enviar(lote);
+                }
+                loteReintento = List.of();
+                total += lote.size();
+            }
+            ultimoError = null;
+        } catch (IOException | RuntimeException e) {
+            if (ultimoError == null) {
+                log.warn("No se pudieron enviar las alertas de stock; se reintentará", e);
+            }
+            ultimoError = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        return total;
+    }
+
+    /**
+     * Compara el stock de un producto con su umbral y genera la alerta si lo cruzó
+     * Si el producto trae una versión anterior a la ya evaluada, se ignora
+     * @param producto - estado del producto (ID, nombre, stock y categoría)
+     * @param avisar - false para solo reconstruir el estado (al arrancar)
+     */
+    void evaluar(Producto producto, boolean avisar) {
+        UmbralStock umbral = umbralPara(producto.getId(), producto.getCategoria());
+        Long version = producto.getVersionCambio();
+        activas.compute(producto.getId(), (id, activa) -> {
+            Long evaluada = versiones.get(id);
+            if (version != null && evaluada != null && evaluada > version) {
+                return activa;
+            }
+            if (umbral == null || producto.getStock() == null) {
+                // Sin umbral el producto deja de vigilarse
+                versiones.remove(id);
+                return null;
+            }
+            if (version != null) {
+                versiones.put(id, version);
+            }
+            int stock = producto.getStock();
+            if (activa == null && stock < umbral.getMinimo()) {
+                return nuevaAlerta(AlertaStock.Tipo.BAJO, producto, umbral, avisar);
+            }
+            if (activa != null && stock >= umbral.getRecuperacion()) {
+                nuevaAlerta(AlertaStock.Tipo.RECUPERADO, producto, umbral, avisar);
+                return null;
+            }
+            return activa;
+        });
+    }
+
+    private UmbralStock umbralPara(Long id, String categoria) {
+        UmbralStock umbral = porProducto.get(id);
+        if (umbral == null && categoria != null) {
+            umbral = porCategoria.get(categoria);
+        }
+        return umbral;
+    }
+
+    private AlertaStock nuevaAlerta(AlertaStock.Tipo tipo, Producto producto, UmbralStock umbral, boolean avisar) {
+        AlertaStock alerta = new AlertaStock(secuencia.incrementAndGet(), tipo, producto.getId(), producto.getNombre(),
+                producto.getCategoria(), producto.getStock(), umbral.getMinimo(), umbral.getRecuperacion(),
+                LocalDateTime.now());
+        if (avisar) {
+            synchronized (historial) {
+                historial.addLast(alerta);
+                while (historial.size() > tamanoHistorial) {
+                    historial.removeFirst();
+                }
+            }
+            if (!pendientes.offer(alerta) && descartadas.getAndIncrement() == 0) {
+                log.warn("Cola de alertas de stock llena ({}); se descartan las nuevas", pendientesMax);
+            }
+        }
+        return alerta;
+    }
+
+    /**
+     * Evalúa todos los productos de una categoría (una página por consulta)
+     */
+    private void evaluarCategoria(String categoria, boolean avisar) {
+        short codigo = diccionarioCategorias.codigo(categoria);
+        long desde = 0;
+        List<Producto> pagina;
+        do {
+            pagina = umbralStockRepository.stockDeCategoria(codigo, desde, tamanoLote);
+            for (Producto producto : pagina) {
+                producto.setCategoria(categoria);
+                evaluar(producto, avisar);
+                desde = producto.getId();
+            }
+        } while (pagina.size() == tamanoLote);
+    }
+
+    private void evaluarProducto(long id, boolean avisar) {
+        Optional<Producto> producto = productoRepository.findById(id);
+        if (producto.isPresent()) {
+            evaluar(producto.get(), avisar);
+        } else {
+            eliminado(id);
+        }
+    }
+
+    /**
+     * Cierra la alerta de un producto eliminado sin generar RECUPERADO
+     * Si el producto se vigilaba, su versión queda como ELIMINADO
+     */
+    private void eliminado(long id) {
+        activas.compute(id, (clave, activa) -> {
+            if (activa != null || versiones.containsKey(clave)) {
+                versiones.put(clave, ELIMINADO);
+            }
+            return null;
+        });
+    }
+
+    private static long idProducto(String clave) {
+        try {
+            return Long.parseLong(clave);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID de producto inválido: " + clave);
+        }
+    }
+
+    private static String nombreCategoria(String ambito, String clave) {
+        if (!UmbralStock.AMBITO_CATEGORIA.equals(ambito)) {
+            throw new IllegalArgumentException("Ámbito inválido: " + ambito);
+        }
+        if (clave == null || clave.isBlank()) {
+            throw new IllegalArgumentException("Falta la categoría");
+        }
+        return clave;
+    }
+}
@@ -0,0 +1,25 @@
+package com.aprendizaje.backend.alertas;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino al que AlertasStockService envía las alertas de stock, por lotes y en orden
+ *
+ * Si un envío falla, el mismo lote se reintenta en la siguiente pasada: un destino puede
+ * recibir una alerta repetida y debe descartarla por su secuencia.
+ */
+public interface DestinoAlertasStock {
+
+    /**
+     * Nombre del destino (para el estado y los logs)
+     */
+    String getNombre();
+
+    /**
+     * Envía un lote de alertas
+     * @param lote - alertas a enviar (nunca vacío)
+     * @throws IOException si el lote no se pudo entregar completo
+     */
+    void enviar(List<AlertaStock> lote) throws IOException;
+}
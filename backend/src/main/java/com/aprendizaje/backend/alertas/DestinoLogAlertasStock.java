@@ -0,0 +1,33 @@
+package com.aprendizaje.backend.alertas;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Destino por defecto: escribe cada alerta de stock en el log
+ * Se reemplaza por DestinoWebhookAlertasStock con app.alertas-stock.webhook.habilitado=true
+ */
+@Component
+@ConditionalOnProperty(name = "app.alertas-stock.webhook.habilitado", havingValue = "false", matchIfMissing = true)
+public class DestinoLogAlertasStock implements DestinoAlertasStock {
+
+    private static final Logger log = LoggerFactory.getLogger(DestinoLogAlertasStock.class);
+
+    @Override
+    public String getNombre() {
+        return "log";
+    }
+
+    @Override
+    public void enviar(List<AlertaStock> lote) {
+        for (AlertaStock alerta : lote) {
+            log.info("Alerta de stock {}: producto {} \"{}\" con stock {} (mínimo {}, recuperación {})",
+                    alerta.getTipo(), alerta.getProductoId(), alerta.getNombre(), alerta.getStock(),
+                    alerta.getMinimo(), alerta.getRecuperacion());
+        }
+    }
+}
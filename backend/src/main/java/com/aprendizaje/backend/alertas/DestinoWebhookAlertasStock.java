@@ -0,0 +1,67 @@
+package com.aprendizaje.backend.alertas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Destino que envía cada lote en un POST con un arreglo JSON de alertas de stock
+ * Cualquier respuesta 2xx confirma el lote completo
+ */
+@Component
+@ConditionalOnProperty(name = "app.alertas-stock.webhook.habilitado", havingValue = "true")
+public class DestinoWebhookAlertasStock implements DestinoAlertasStock {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * URL que recibe los lotes
+     */
+    @Value("${app.alertas-stock.webhook.url}")
+    private String url;
+
+    /**
+     * Tiempo máximo de cada envío
+     */
+    @Value("${app.alertas-stock.webhook.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public String getNombre() {
+        return "webhook";
+    }
+
+    @Override
+    public void enviar(List<AlertaStock> lote) throws IOException {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(lote)))
+                .build();
+        HttpResponse<Void> respuesta;
+        try {
+            respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Envío interrumpido", e);
+        }
+        if (respuesta.statusCode() / 100 != 2) {
+            throw new IOException("El webhook " + url + " respondió " + respuesta.statusCode());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.aprendizaje.backend.alertas;
+
+/**
+ * Umbral de stock bajo de un producto o de una categoría
+ *
+ * Un producto entra en alerta cuando su stock queda por debajo de minimo y sale cuando llega
+ * a recuperacion (mayor que minimo). La distancia entre ambos es la histéresis: evita que
+ * un stock que oscila alrededor del mínimo genere una alerta con cada venta y reposición.
+ */
+public class UmbralStock {
+
+    /**
+     * Ámbito de un umbral propio de un producto (clave = ID del producto)
+     */
+    public static final String AMBITO_PRODUCTO = "producto";
+
+    /**
+     * Ámbito de un umbral de categoría (clave = nombre de la categoría)
+     */
+    public static final String AMBITO_CATEGORIA = "categoria";
+
+    private String ambito;
+
+    private String clave;
+
+    /**
+     * Stock por debajo del cual se genera la alerta BAJO
+     */
+    private Integer minimo;
+
+    /**
+     * Stock desde el cual se genera la alerta RECUPERADO (si no se indica: minimo + histéresis)
+     */
+    private Integer recuperacion;
+
+    /**
+     * Constructor vacío (para recibir el umbral en JSON)
+     */
+    public UmbralStock() {
+    }
+
+    public UmbralStock(String ambito, String clave, Integer minimo, Integer recuperacion) {
+        this.ambito = ambito;
+        this.clave = clave;
+        this.minimo = minimo;
+        this.recuperacion = recuperacion;
+    }
+
+    public String getAmbito() {
+        return ambito;
+    }
+
+    public void setAmbito(String ambito) {
+        this.ambito = ambito;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public Integer getMinimo() {
+        return minimo;
+    }
+
+    public void setMinimo(Integer minimo) {
+        this.minimo = minimo;
+    }
+
+    public Integer getRecuperacion() {
+        return recuperacion;
+    }
+
+    public void setRecuperacion(Integer recuperacion) {
+        this.recuperacion = recuperacion;
+    }
+}
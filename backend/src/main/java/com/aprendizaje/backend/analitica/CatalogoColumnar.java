@@ -0,0 +1,529 @@
+package com.aprendizaje.backend.analitica;
+
+import com.aprendizaje.backend.dto.Histograma;
+import com.aprendizaje.backend.dto.ResumenCatalogo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Copia en memoria del catálogo de productos organizada por columnas
+ *
+ * Cada producto ocupa una posición ("slot") en arreglos primitivos: precios (double[]),
+ * stock (int[]) y categoría codificada con un diccionario (int[]). Así los recorridos
+ * de análisis leen memoria contigua y se reparten entre varios hilos con fork-join.
+ *
+ * Además se mantiene un índice de slots ordenado por precio, que se actualiza
+ * en cada cambio, para búsquedas por rango y percentiles.
+ *
+ * Escrituras con candado exclusivo; consultas con candado compartido.
+ */
+public class CatalogoColumnar {
+
+    /**
+     * Código para productos sin categoría
+     */
+    public static final int SIN_CATEGORIA = -1;
+
+    /**
+     * Nombre con el que se reportan los productos sin categoría (JSON no admite claves null)
+     */
+    public static final String NOMBRE_SIN_CATEGORIA = "sin_categoria";
+
+    /**
+     * Por debajo de esta cantidad de slots el recorrido no se divide entre hilos
+     */
+    private static final int UMBRAL_PARALELO = 16_384;
+
+    private final ForkJoinPool pool;
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    // ========== COLUMNAS ==========
+
+    private long[] ids = new long[1024];
+    private long[] versiones = new long[1024];
+    private double[] precios = new double[1024];
+    private int[] stock = new int[1024];
+    private int[] categorias = new int[1024];
+    private boolean[] vivos = new boolean[1024];
+
+    /**
+     * Cantidad de slots usados (incluye los libres por eliminaciones)
+     */
+    private int tope;
+
+    /**
+     * Slots liberados que se reutilizan en las siguientes inserciones
+     */
+    private int[] libres = new int[64];
+    private int cantidadLibres;
+
+    private final Map<Long, Integer> slotPorId = new HashMap<>();
+
+    // ========== DICCIONARIO DE CATEGORÍAS ==========
+
+    private final List<String> nombresCategoria = new ArrayList<>();
+    private final Map<String, Integer> codigosCategoria = new HashMap<>();
+
+    // ========== ÍNDICE ORDENADO POR PRECIO ==========
+
+    /**
+     * Slots vivos ordenados por (precio, slot)
+     */
+    private int[] indicePrecios = new int[1024];
+    private int tamanoIndice;
+
+    public CatalogoColumnar(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // ========== ESCRITURA ==========
+
+    /**
+     * Inserta o actualiza un producto
+     * Se ignora si ya hay una versión más nueva del mismo producto
+     * @return true si se aplicó el cambio
+     */
+    public boolean guardar(long id, long version, double precio, int cantidadStock, String categoria) {
+        candado.writeLock().lock();
+        try {
+            Integer existente = slotPorId.get(id);
+            int codigo = codificar(categoria);
+            if (existente != null) {
+                int slot = existente;
+                if (versiones[slot] > version) {
+                    return false;
+                }
+                if (Double.compare(precios[slot], precio) != 0) {
+                    quitarDelIndice(slot);
+                    precios[slot] = precio;
+                    insertarEnIndice(slot);
+                }
+                versiones[slot] = version;
+                stock[slot] = cantidadStock;
+                categorias[slot] = codigo;
+                return true;
+            }
+
+            int slot = nuevoSlot();
+            ids[slot] = id;
+            versiones[slot] = version;
+            precios[slot] = precio;
+            stock[slot] = cantidadStock;
+            categorias[slot] = codigo;
+            vivos[slot] = true;
+            slotPorId.put(id, slot);
+            insertarEnIndice(slot);
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del catálogo
+     * @param id - identificador del producto
+     */
+    public void eliminar(long id) {
+        candado.writeLock().lock();
+        try {
+            Integer slot = slotPorId.remove(id);
+            if (slot == null) {
+                return;
+            }
+            quitarDelIndice(slot);
+            vivos[slot] = false;
+            if (cantidadLibres == libres.length) {
+                libres = Arrays.copyOf(libres, libres.length * 2);
+            }
+            libres[cantidadLibres++] = slot;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Cantidad de productos en el catálogo
+     */
+    public int tamano() {
+        candado.readLock().lock();
+        try {
+            return slotPorId.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resumen de precios y stock, opcionalmente de una sola categoría
+     * @param categoria - categoría a filtrar o null para todo el catálogo
+     * @return cantidad, precio mínimo, máximo, promedio y stock total
+     */
+    public ResumenCatalogo resumen(String categoria) {
+        candado.readLock().lock();
+        try {
+            int filtro = codigoFiltro(categoria);
+            if (filtro == CATEGORIA_INEXISTENTE) {
+                return new ResumenCatalogo();
+            }
+            return recorrer(ResumenCatalogo::new, (resumen, slot) -> {
+                if (coincide(slot, filtro)) {
+                    resumen.agregar(precios[slot], stock[slot]);
+                }
+            }, ResumenCatalogo::combinar);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resumen de cada categoría en un solo recorrido
+     * @return resumen por nombre de categoría
+     */
+    public Map<String, ResumenCatalogo> resumenPorCategoria() {
+        candado.readLock().lock();
+        try {
+            int cantidadCategorias = nombresCategoria.size();
+            // Posición 0 para "sin categoría", el resto desplazado en 1
+            ResumenCatalogo[] totales = recorrer(() -> nuevosResumenes(cantidadCategorias + 1), (parcial, slot) -> {
+                if (vivos[slot]) {
+                    parcial[categorias[slot] + 1].agregar(precios[slot], stock[slot]);
+                }
+            }, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i].combinar(b[i]);
+                }
+                return a;
+            });
+
+            Map<String, ResumenCatalogo> resultado = new LinkedHashMap<>();
+            for (int i = 0; i < totales.length; i++) {
+                if (totales[i].getCantidad() > 0) {
+                    resultado.put(i == 0 ? NOMBRE_SIN_CATEGORIA : nombresCategoria.get(i - 1), totales[i]);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Histograma de precios con intervalos del mismo ancho
+     * @param categoria - categoría a filtrar o null
+     * @param minimo - precio inicial del primer intervalo
+     * @param maximo - precio final del último intervalo
+     * @param intervalos - cantidad de intervalos
+     * @return conteo de productos por intervalo
+     */
+    public Histograma histograma(String categoria, double minimo, double maximo, int intervalos) {
+        if (intervalos <= 0 || !(maximo > minimo)) {
+            throw new IllegalArgumentException("Se necesita maximo > minimo y al menos un intervalo");
+        }
+        candado.readLock().lock();
+        try {
+            int filtro = codigoFiltro(categoria);
+            if (filtro == CATEGORIA_INEXISTENTE) {
+                return new Histograma(minimo, maximo, new long[intervalos]);
+            }
+            double ancho = (maximo - minimo) / intervalos;
+            long[] conteos = recorrer(() -> new long[intervalos], (parcial, slot) -> {
+                double precio = precios[slot];
+                if (coincide(slot, filtro) && precio >= minimo && precio <= maximo) {
+                    int intervalo = Math.min((int) ((precio - minimo) / ancho), intervalos - 1);
+                    parcial[intervalo]++;
+                }
+            }, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            });
+            return new Histograma(minimo, maximo, conteos);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Percentiles de precio usando el índice ordenado (método del rango más cercano)
+     * @param categoria - categoría a filtrar o null
+     * @param percentiles - valores entre 0 y 100
+     * @return precio de cada percentil (vacío si no hay productos)
+     */
+    public Map<Double, Double> percentiles(String categoria, double[] percentiles) {
+        candado.readLock().lock();
+        try {
+            Map<Double, Double> resultado = new LinkedHashMap<>();
+            int filtro = codigoFiltro(categoria);
+            if (filtro == CATEGORIA_INEXISTENTE || tamanoIndice == 0) {
+                return resultado;
+            }
+
+            if (filtro == TODAS) {
+                // Sin filtro el índice ya da la posición exacta
+                for (double p : percentiles) {
+                    resultado.put(p, precios[indicePrecios[rango(p, tamanoIndice)]]);
+                }
+                return resultado;
+            }
+
+            // Con filtro: se copian en orden los precios de la categoría y se toma cada rango
+            double[] ordenados = new double[tamanoIndice];
+            int cantidad = 0;
+            for (int i = 0; i < tamanoIndice; i++) {
+                int slot = indicePrecios[i];
+                if (categorias[slot] == filtro) {
+                    ordenados[cantidad++] = precios[slot];
+                }
+            }
+            if (cantidad > 0) {
+                for (double p : percentiles) {
+                    resultado.put(p, ordenados[rango(p, cantidad)]);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Productos con precio dentro de un rango, usando búsqueda binaria sobre el índice
+     * @param minimo - precio mínimo (incluido)
+     * @param maximo - precio máximo (incluido)
+     * @param categoria - categoría a filtrar o null
+     * @param limite - máximo de IDs a devolver
+     * @return total de productos en el rango y los primeros IDs ordenados por precio
+     */
+    public RangoPrecio rangoPrecio(double minimo, double maximo, String categoria, int limite) {
+        candado.readLock().lock();
+        try {
+            int filtro = codigoFiltro(categoria);
+            List<Long> encontrados = new ArrayList<>();
+            if (filtro == CATEGORIA_INEXISTENTE) {
+                return new RangoPrecio(0, encontrados);
+            }
+            int desde = primeraPosicionDesde(minimo);
+            long total = 0;
+            for (int i = desde; i < tamanoIndice; i++) {
+                int slot = indicePrecios[i];
+                if (precios[slot] > maximo) {
+                    break;
+                }
+                if (filtro == TODAS || categorias[slot] == filtro) {
+                    total++;
+                    if (encontrados.size() < limite) {
+                        encontrados.add(ids[slot]);
+                    }
+                }
+            }
+            return new RangoPrecio(total, encontrados);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resultado de una búsqueda por rango de precio
+     */
+    public static class RangoPrecio {
+
+        private final long total;
+        private final List<Long> ids;
+
+        public RangoPrecio(long total, List<Long> ids) {
+            this.total = total;
+            this.ids = ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+    }
+
+    // ========== RECORRIDO PARALELO ==========
+
+    /**
+     * Recorre todos los slots repartiéndolos entre los hilos del pool fork-join
+     * Cada tarea acumula en su propio resultado parcial y luego se combinan
+     * Debe llamarse con el candado de lectura tomado
+     */
+    private <A> A recorrer(Supplier<A> nuevo, ObjIntConsumer<A> acumular, BinaryOperator<A> combinar) {
+        return pool.invoke(new Recorrido<>(0, tope, nuevo, acumular, combinar));
+    }
+
+    /**
+     * Tarea fork-join que divide el rango de slots a la mitad hasta que es pequeño
+     */
+    private static class Recorrido<A> extends RecursiveTask<A> {
+
+        private final int desde;
+        private final int hasta;
+        private final Supplier<A> nuevo;
+        private final ObjIntConsumer<A> acumular;
+        private final BinaryOperator<A> combinar;
+
+        Recorrido(int desde, int hasta, Supplier<A> nuevo, ObjIntConsumer<A> acumular, BinaryOperator<A> combinar) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.nuevo = nuevo;
+            this.acumular = acumular;
+            this.combinar = combinar;
+        }
+
+        @Override
+        protected A compute() {
+            if (hasta - desde <= UMBRAL_PARALELO) {
+                A parcial = nuevo.get();
+                for (int slot = desde; slot < hasta; slot++) {
+                    acumular.accept(parcial, slot);
+                }
+                return parcial;
+            }
+            int medio = (desde + hasta) >>> 1;
+            Recorrido<A> izquierda = new Recorrido<>(desde, medio, nuevo, acumular, combinar);
+            izquierda.fork();
+            A derecha = new Recorrido<>(medio, hasta, nuevo, acumular, combinar).compute();
+            return combinar.apply(izquierda.join(), derecha);
+        }
+    }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Valor de filtro que significa "todas las categorías"
+     */
+    private static final int TODAS = Integer.MIN_VALUE;
+
+    /**
+     * Valor de filtro para una categoría que no existe en el diccionario
+     */
+    private static final int CATEGORIA_INEXISTENTE = Integer.MIN_VALUE + 1;
+
+    private int codigoFiltro(String categoria) {
+        if (categoria == null) {
+            return TODAS;
+        }
+        Integer codigo = codigosCategoria.get(categoria);
+        return codigo != null ? codigo : CATEGORIA_INEXISTENTE;
+    }
+
+    private boolean coincide(int slot, int filtro) {
+        return vivos[slot] && (filtro == TODAS || categorias[slot] == filtro);
+    }
+
+    /**
+     * Código del diccionario para una categoría (la agrega si es nueva)
+     */
+    private int codificar(String categoria) {
+        if (categoria == null) {
+            return SIN_CATEGORIA;
+        }
+        Integer codigo = codigosCategoria.get(categoria);
+        if (codigo == null) {
+            codigo = nombresCategoria.size();
+            nombresCategoria.add(categoria);
+            codigosCategoria.put(categoria, codigo);
+        }
+        return codigo;
+    }
+
+    private static ResumenCatalogo[] nuevosResumenes(int cantidad) {
+        ResumenCatalogo[] resumenes = new ResumenCatalogo[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            resumenes[i] = new ResumenCatalogo();
+        }
+        return resumenes;
+    }
+
+    /**
+     * Posición (base 0) del percentil p entre n valores ordenados
+     */
+    private static int rango(double p, int n) {
+        int posicion = (int) Math.ceil(Math.max(0, Math.min(100, p)) / 100.0 * n) - 1;
+        return Math.max(0, Math.min(n - 1, posicion));
+    }
+
+    /**
+     * Reserva un slot, reutilizando uno libre o agrandando las columnas
+     */
+    private int nuevoSlot() {
+        if (cantidadLibres > 0) {
+            return libres[--cantidadLibres];
+        }
+        if (tope == ids.length) {
+            int capacidad = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacidad);
+            versiones = Arrays.copyOf(versiones, capacidad);
+            precios = Arrays.copyOf(precios, capacidad);
+            stock = Arrays.copyOf(stock, capacidad);
+            categorias = Arrays.copyOf(categorias, capacidad);
+            vivos = Arrays.copyOf(vivos, capacidad);
+        }
+        return tope++;
+    }
+
+    /**
+     * Primera posición del índice cuyo (precio, slot) no es menor al dado
+     */
+    private int posicionEnIndice(double precio, int slot) {
+        int bajo = 0;
+        int alto = tamanoIndice;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            int otro = indicePrecios[medio];
+            int comparacion = Double.compare(precios[otro], precio);
+            if (comparacion < 0 || (comparacion == 0 && otro < slot)) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Primera posición del índice con precio mayor o igual al dado
+     */
+    private int primeraPosicionDesde(double precio) {
+        return posicionEnIndice(precio, Integer.MIN_VALUE);
+    }
+
+    private void insertarEnIndice(int slot) {
+        int posicion = posicionEnIndice(precios[slot], slot);
+        if (tamanoIndice == indicePrecios.length) {
+            indicePrecios = Arrays.copyOf(indicePrecios, indicePrecios.length * 2);
+        }
+        System.arraycopy(indicePrecios, posicion, indicePrecios, posicion + 1, tamanoIndice - posicion);
+        indicePrecios[posicion] = slot;
+        tamanoIndice++;
+    }
+
+    /**
+     * Quita el slot del índice; debe llamarse antes de cambiar su precio
+     */
+    private void quitarDelIndice(int slot) {
+        int posicion = posicionEnIndice(precios[slot], slot);
+        if (posicion < tamanoIndice && indicePrecios[posicion] == slot) {
+            System.arraycopy(indicePrecios, posicion + 1, indicePrecios, posicion, tamanoIndice - posicion - 1);
+            tamanoIndice--;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.aprendizaje.backend.analitica;
+
+import com.aprendizaje.backend.dto.Histograma;
+import com.aprendizaje.backend.dto.ResumenCatalogo;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Servicio que mantiene el snapshot columnar del catálogo y responde las consultas de análisis
+ *
+ * - Al iniciar la aplicación se carga el catálogo completo por páginas (en segundo plano)
+ * - Después se actualiza con cada cambio publicado por ProductoService
+ * - Las consultas nunca van a PostgreSQL; mientras no termina la carga se rechazan
+ */
+@Service
+public class CatalogoColumnarService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoColumnarService.class);
+
+    /**
+     * Repositorio de productos, solo para la carga inicial
+     */
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    /**
+     * Indica si el snapshot se carga al iniciar
+     */
+    @Value("${app.analitica.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Productos leídos por cada consulta durante la carga inicial
+     */
+    @Value("${app.analitica.tamano-pagina-carga:5000}")
+    private int tamanoPagina;
+
+    /**
+     * Hilos dedicados a los recorridos, separados del pool común de la JVM
+     */
+    private final ForkJoinPool pool;
+
+    private final CatalogoColumnar catalogo;
+
+    /**
+     * IDs eliminados mientras la carga inicial está en curso
+     * Evita que la carga vuelva a agregar un producto que ya no existe
+     */
+    private final Set<Long> eliminadosDuranteCarga = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cargando;
+    private volatile boolean listo;
+
+    public CatalogoColumnarService(@Value("${app.analitica.paralelismo:4}") int paralelismo) {
+        this.pool = new ForkJoinPool(Math.max(1, paralelismo));
+        this.catalogo = new CatalogoColumnar(pool);
+    }
+
+    /**
+     * Inicia la carga del snapshot cuando la aplicación ya está lista
+     * Se ejecuta antes que CalentamientoService, que espera a que esta carga termine
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void alIniciar() {
+        if (!habilitado) {
+            return;
+        }
+        Thread hilo = new Thread(this::cargar, "analitica-carga");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Lee todos los productos por páginas usando el ID como cursor
+     */
+    void cargar() {
+        cargando = true;
+        long inicio = System.currentTimeMillis();
+        try {
+            long ultimoId = 0;
+            List<Producto> pagina;
+            do {
+                pagina = productoRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, Limit.of(tamanoPagina));
+                for (Producto producto : pagina) {
+                    if (!eliminadosDuranteCarga.contains(producto.getId())) {
+                        guardar(producto);
+                    }
+                    ultimoId = producto.getId();
+                }
+            } while (pagina.size() == tamanoPagina);
+
+            // Un producto eliminado entre la lectura y el registro anterior pudo quedar cargado
+            eliminadosDuranteCarga.forEach(catalogo::eliminar);
+            listo = true;
+            log.info("Snapshot columnar cargado: {} productos en {} ms",
+                    catalogo.tamano(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el snapshot columnar de productos", e);
+        } finally {
+            cargando = false;
+            eliminadosDuranteCarga.clear();
+        }
+    }
+
+    /**
+     * Aplica al snapshot los cambios de productos ya confirmados
+     * @param evento - cambio publicado por ProductoService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        if (!CambioEntidadEvent.ENTIDAD_PRODUCTO.equals(evento.getEntidad())) {
+            return;
+        }
+        if (evento.getTipo() == TipoCambio.ELIMINADO) {
+            if (cargando) {
+                eliminadosDuranteCarga.add(evento.getId());
+            }
+            catalogo.eliminar(evento.getId());
+        } else if (evento.getDatos() instanceof Producto producto) {
+            guardar(producto);
+        }
+    }
+
+    /**
+     * Indica si el snapshot ya se puede consultar
+     * @return true cuando terminó la carga inicial
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Indica si la carga está habilitada (app.analitica.habilitado)
+     * @return false si nunca se va a cargar
+     */
+    public boolean estaHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Cantidad de productos en el snapshot
+     */
+    public int tamano() {
+        return catalogo.tamano();
+    }
+
+    public ResumenCatalogo resumen(String categoria) {
+        verificarListo();
+        return catalogo.resumen(categoria);
+    }
+
+    public Map<String, ResumenCatalogo> resumenPorCategoria() {
+        verificarListo();
+        return catalogo.resumenPorCategoria();
+    }
+
+    public Histograma histograma(String categoria, double minimo, double maximo, int intervalos) {
+        verificarListo();
+        return catalogo.histograma(categoria, minimo, maximo, intervalos);
+    }
+
+    public Map<Double, Double> percentiles(String categoria, double[] percentiles) {
+        verificarListo();
+        return catalogo.percentiles(categoria, percentiles);
+    }
+
+    public CatalogoColumnar.RangoPrecio rangoPrecio(double minimo, double maximo, String categoria, int limite) {
+        verificarListo();
+        return catalogo.rangoPrecio(minimo, maximo, categoria, limite);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Lanza IllegalStateException si la carga inicial no terminó
+     */
+    private void verificarListo() {
+        if (!listo) {
+            throw new IllegalStateException("El snapshot de análisis todavía se está cargando");
+        }
+    }
+
+    private void guardar(Producto producto) {
+        long version = producto.getVersionCambio() != null ? producto.getVersionCambio() : 0;
+        double precio = producto.getPrecio() != null ? producto.getPrecio() : 0;
+        int stock = producto.getStock() != null ? producto.getStock() : 0;
+        catalogo.guardar(producto.getId(), version, precio, stock, producto.getCategoria());
+    }
+}
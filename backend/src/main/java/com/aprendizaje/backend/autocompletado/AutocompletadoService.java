@@ -0,0 +1,210 @@
+package com.aprendizaje.backend.autocompletado;
+
+import com.aprendizaje.backend.dto.SugerenciaProducto;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de autocompletado de nombres de productos
+ *
+ * - Al iniciar la aplicación carga todos los nombres en el índice de prefijos (en segundo plano)
+ * - Después se actualiza con cada cambio publicado por ProductoService
+ * - Las vistas de cada producto se acumulan en memoria y se aplican al índice por lotes;
+ *   periódicamente se reducen a la mitad para que solo pesen las recientes
+ * - Las consultas nunca van a PostgreSQL
+ */
+@Service
+public class AutocompletadoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutocompletadoService.class);
+
+    /**
+     * Repositorio de productos, solo para la carga inicial
+     */
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Value("${app.autocompletado.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.autocompletado.tamano-pagina-carga:5000}")
+    private int tamanoPagina;
+
+    private final IndicePrefijos indice;
+
+    /**
+     * Vistas registradas desde la última vez que se aplicaron al índice
+     */
+    private final Map<Long, Integer> vistasPendientes = new ConcurrentHashMap<>();
+
+    /**
+     * IDs eliminados mientras la carga inicial está en curso
+     */
+    private final Set<Long> eliminadosDuranteCarga = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cargando;
+    private volatile boolean listo;
+
+    public AutocompletadoService(@Value("${app.autocompletado.k:10}") int k,
+                                 @Value("${app.autocompletado.peso-vista:5}") long pesoVista) {
+        this.indice = new IndicePrefijos(k, pesoVista);
+    }
+
+    /**
+     * Inicia la carga del índice cuando la aplicación ya está lista
+     * Se ejecuta antes que CalentamientoService, que espera a que esta carga termine
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void alIniciar() {
+        if (!habilitado) {
+            return;
+        }
+        Thread hilo = new Thread(this::cargar, "autocompletado-carga");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Lee todos los productos por páginas usando el ID como cursor
+     */
+    void cargar() {
+        cargando = true;
+        long inicio = System.currentTimeMillis();
+        try {
+            long ultimoId = 0;
+            List<Producto> pagina;
+            do {
+                pagina = productoRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, Limit.of(tamanoPagina));
+                for (Producto producto : pagina) {
+                    if (!eliminadosDuranteCarga.contains(producto.getId())) {
+                        guardar(producto);
+                    }
+                    ultimoId = producto.getId();
+                }
+            } while (pagina.size() == tamanoPagina);
+
+            eliminadosDuranteCarga.forEach(indice::eliminar);
+            listo = true;
+            log.info("Índice de autocompletado cargado: {} productos en {} ms",
+                    indice.tamano(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el índice de autocompletado", e);
+        } finally {
+            cargando = false;
+            eliminadosDuranteCarga.clear();
+        }
+    }
+
+    /**
+     * Aplica al índice los cambios de productos ya confirmados
+     * @param evento - cambio publicado por ProductoService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        if (!CambioEntidadEvent.ENTIDAD_PRODUCTO.equals(evento.getEntidad())) {
+            return;
+        }
+        if (evento.getTipo() == TipoCambio.ELIMINADO) {
+            if (cargando) {
+                eliminadosDuranteCarga.add(evento.getId());
+            }
+            indice.eliminar(evento.getId());
+            vistasPendientes.remove(evento.getId());
+        } else if (evento.getDatos() instanceof Producto producto) {
+            guardar(producto);
+        }
+    }
+
+    /**
+     * Registra que un producto se consultó; no bloquea, solo suma un contador
+     * @param id - ID del producto
+     */
+    public void registrarVista(Long id) {
+        if (habilitado && id != null) {
+            vistasPendientes.merge(id, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Aplica al índice las vistas acumuladas
+     */
+    @Scheduled(fixedDelayString = "${app.autocompletado.aplicar-vistas-ms:5000}")
+    public void aplicarVistas() {
+        if (vistasPendientes.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> vistas = new HashMap<>();
+        for (Long id : vistasPendientes.keySet()) {
+            Integer cantidad = vistasPendientes.remove(id);
+            if (cantidad != null) {
+                vistas.put(id, cantidad);
+            }
+        }
+        indice.sumarVistas(vistas);
+    }
+
+    /**
+     * Reduce a la mitad las vistas acumuladas (vida media de las vistas)
+     */
+    @Scheduled(fixedDelayString = "${app.autocompletado.vida-media-vistas-ms:3600000}",
+            initialDelayString = "${app.autocompletado.vida-media-vistas-ms:3600000}")
+    public void reducirVistas() {
+        indice.reducirVistas();
+    }
+
+    /**
+     * Indica si el índice ya se puede consultar
+     * @return true cuando terminó la carga inicial
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Indica si la carga está habilitada (app.autocompletado.habilitado)
+     * @return false si nunca se va a cargar
+     */
+    public boolean estaHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Sugerencias para el texto escrito
+     * @param prefijo - texto escrito por el usuario (sin distinguir mayúsculas ni acentos)
+     * @param limite - máximo de sugerencias
+     * @return productos de mayor a menor puntaje
+     * @throws IllegalStateException si la carga inicial no terminó
+     */
+    public List<SugerenciaProducto> sugerir(String prefijo, int limite) {
+        if (!listo) {
+            throw new IllegalStateException("El índice de autocompletado todavía se está cargando");
+        }
+        return indice.sugerir(prefijo, limite);
+    }
+
+    private void guardar(Producto producto) {
+        long version = producto.getVersionCambio() != null ? producto.getVersionCambio() : 0;
+        int stock = producto.getStock() != null ? producto.getStock() : 0;
+        indice.guardar(producto.getId(), producto.getNombre(), version, stock);
+    }
+}
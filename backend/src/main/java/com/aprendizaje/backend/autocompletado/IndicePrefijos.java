@@ -0,0 +1,408 @@
+package com.aprendizaje.backend.autocompletado;
+
+import com.aprendizaje.backend.dto.SugerenciaProducto;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Árbol de prefijos (trie) sobre los nombres de productos normalizados,
+ * con los k mejores productos precalculados en cada nodo
+ *
+ * - Los nombres se pasan a minúsculas, sin acentos y con un solo espacio entre palabras
+ * - Cada nombre se indexa desde el inicio de cada palabra: "Leche entera" aparece
+ *   al escribir "le" y también al escribir "ent"
+ * - Cada nodo guarda los k productos de mayor puntaje de todo su subárbol, así que una
+ *   consulta solo recorre tantos nodos como letras tiene el prefijo
+ * - Al guardar, eliminar o cambiar el puntaje de un producto se recalculan solo los nodos
+ *   de sus caminos, de abajo hacia arriba
+ *
+ * Los hijos de cada nodo se guardan en dos arreglos ordenados (letras y nodos) en lugar
+ * de un mapa, para ocupar menos memoria con cientos de miles de nodos.
+ */
+public class IndicePrefijos {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{IsAlphabetic}\\p{IsDigit}]+");
+    private static final char[] SIN_LETRAS = new char[0];
+    private static final Nodo[] SIN_HIJOS = new Nodo[0];
+    private static final Entrada[] VACIO = new Entrada[0];
+
+    /**
+     * Mayor puntaje primero; a igual puntaje, orden alfabético y luego por ID
+     */
+    private static final Comparator<Entrada> ORDEN = Comparator.comparingLong(Entrada::puntaje).reversed()
+            .thenComparing(e -> e.nombre)
+            .thenComparingLong(e -> e.id);
+
+    private final int k;
+    private final long pesoVista;
+    private final Nodo raiz = new Nodo();
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param k - cantidad de sugerencias precalculadas por nodo (máximo por consulta)
+     * @param pesoVista - puntaje que suma cada vista reciente (el stock suma 1 por unidad)
+     */
+    public IndicePrefijos(int k, long pesoVista) {
+        this.k = Math.max(1, k);
+        this.pesoVista = pesoVista;
+    }
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo: minúsculas, sin acentos,
+     * solo letras y dígitos separados por un espacio
+     * @param texto - texto original
+     * @return texto normalizado ("" si no tiene letras ni dígitos)
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinAcentos.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /**
+     * Agrega o actualiza un producto
+     * Se ignora si ya hay una versión más nueva (la carga inicial puede llegar después de un cambio)
+     * @param id - ID del producto
+     * @param nombre - nombre tal como se muestra
+     * @param version - versión de cambio del producto
+     * @param stock - stock actual (parte del puntaje)
+     */
+    public void guardar(long id, String nombre, long version, int stock) {
+        String clave = normalizar(nombre);
+        lock.writeLock().lock();
+        try {
+            Entrada anterior = entradas.get(id);
+            if (anterior != null && anterior.version > version) {
+                return;
+            }
+            long vistas = 0;
+            if (anterior != null) {
+                vistas = anterior.vistas;
+                if (anterior.clave.equals(clave)) {
+                    // Mismo nombre indexado: solo cambia el puntaje
+                    anterior.nombre = nombre;
+                    anterior.version = version;
+                    anterior.stock = stock;
+                    recalcularCaminos(anterior);
+                    return;
+                }
+                quitar(anterior);
+            }
+            if (clave.isEmpty()) {
+                entradas.remove(id);
+                return;
+            }
+            Entrada entrada = new Entrada(id, nombre, clave, version, stock, vistas);
+            entradas.put(id, entrada);
+            for (String sufijo : sufijos(clave)) {
+                Nodo nodo = raiz;
+                for (int i = 0; i < sufijo.length(); i++) {
+                    nodo = nodo.hijoOCrear(sufijo.charAt(i));
+                }
+                nodo.terminales = agregar(nodo.terminales, entrada);
+            }
+            recalcularCaminos(entrada);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del índice
+     * @param id - ID del producto
+     */
+    public void eliminar(long id) {
+        lock.writeLock().lock();
+        try {
+            Entrada entrada = entradas.remove(id);
+            if (entrada != null) {
+                quitar(entrada);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suma vistas recientes a varios productos de una vez
+     * @param vistasPorId - ID del producto -> vistas nuevas
+     */
+    public void sumarVistas(Map<Long, Integer> vistasPorId) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Integer> vistas : vistasPorId.entrySet()) {
+                Entrada entrada = entradas.get(vistas.getKey());
+                if (entrada != null) {
+                    entrada.vistas += vistas.getValue();
+                    recalcularCaminos(entrada);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reduce a la mitad las vistas de todos los productos, para que solo pesen las recientes
+     * Como cambian todos los puntajes, se recalculan todos los nodos
+     */
+    public void reducirVistas() {
+        lock.writeLock().lock();
+        try {
+            for (Entrada entrada : entradas.values()) {
+                entrada.vistas /= 2;
+            }
+            recalcularSubarbol(raiz);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mejores productos cuyo nombre (o alguna de sus palabras) empieza con el prefijo
+     * @param prefijo - texto escrito por el usuario
+     * @param limite - máximo de sugerencias (como mucho k)
+     * @return sugerencias de mayor a menor puntaje
+     */
+    public List<SugerenciaProducto> sugerir(String prefijo, int limite) {
+        String clave = normalizar(prefijo);
+        if (clave.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Nodo nodo = raiz;
+            for (int i = 0; i < clave.length() && nodo != null; i++) {
+                nodo = nodo.hijo(clave.charAt(i));
+            }
+            if (nodo == null) {
+                return List.of();
+            }
+            int cantidad = Math.min(limite, nodo.top.length);
+            List<SugerenciaProducto> sugerencias = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                Entrada entrada = nodo.top[i];
+                sugerencias.add(new SugerenciaProducto(entrada.id, entrada.nombre, entrada.puntaje()));
+            }
+            return sugerencias;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de productos indexados
+     */
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Textos indexados de una clave: desde el inicio de cada palabra hasta el final
+     */
+    private static List<String> sufijos(String clave) {
+        List<String> sufijos = new ArrayList<>();
+        sufijos.add(clave);
+        for (int i = clave.indexOf(' '); i >= 0; i = clave.indexOf(' ', i + 1)) {
+            sufijos.add(clave.substring(i + 1));
+        }
+        return sufijos;
+    }
+
+    /**
+     * Quita una entrada de sus nodos terminales, recalcula sus caminos y poda los nodos vacíos
+     */
+    private void quitar(Entrada entrada) {
+        for (String sufijo : sufijos(entrada.clave)) {
+            Nodo[] camino = camino(sufijo);
+            if (camino == null) {
+                continue;
+            }
+            Nodo fin = camino[camino.length - 1];
+            fin.terminales = quitar(fin.terminales, entrada);
+            for (int i = camino.length - 1; i >= 0; i--) {
+                Nodo nodo = camino[i];
+                if (i > 0 && nodo.terminales.length == 0 && nodo.letras.length == 0) {
+                    camino[i - 1].quitarHijo(sufijo.charAt(i - 1));
+                } else {
+                    recalcular(nodo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalcula los k mejores de todos los nodos en los caminos de una entrada
+     */
+    private void recalcularCaminos(Entrada entrada) {
+        for (String sufijo : sufijos(entrada.clave)) {
+            Nodo[] camino = camino(sufijo);
+            if (camino == null) {
+                continue;
+            }
+            for (int i = camino.length - 1; i >= 0; i--) {
+                recalcular(camino[i]);
+            }
+        }
+    }
+
+    /**
+     * Nodos desde la raíz hasta el final del texto (null si el camino no existe)
+     */
+    private Nodo[] camino(String texto) {
+        Nodo[] camino = new Nodo[texto.length() + 1];
+        camino[0] = raiz;
+        for (int i = 0; i < texto.length(); i++) {
+            camino[i + 1] = camino[i].hijo(texto.charAt(i));
+            if (camino[i + 1] == null) {
+                return null;
+            }
+        }
+        return camino;
+    }
+
+    /**
+     * Recalcula en post-orden los k mejores de todo un subárbol
+     */
+    private void recalcularSubarbol(Nodo nodo) {
+        for (Nodo hijo : nodo.hijos) {
+            recalcularSubarbol(hijo);
+        }
+        recalcular(nodo);
+    }
+
+    /**
+     * Los k mejores de un nodo salen de sus terminales y de los k mejores de cada hijo
+     * Una misma entrada puede llegar por dos hijos ("papa papas"), por eso se eliminan repetidas
+     */
+    private void recalcular(Nodo nodo) {
+        List<Entrada> candidatas = new ArrayList<>(Arrays.asList(nodo.terminales));
+        for (Nodo hijo : nodo.hijos) {
+            candidatas.addAll(Arrays.asList(hijo.top));
+        }
+        candidatas.sort(ORDEN);
+        Map<Entrada, Boolean> vistas = new IdentityHashMap<>();
+        List<Entrada> top = new ArrayList<>(k);
+        for (Entrada candidata : candidatas) {
+            if (top.size() == k) {
+                break;
+            }
+            if (vistas.put(candidata, Boolean.TRUE) == null) {
+                top.add(candidata);
+            }
+        }
+        nodo.top = top.toArray(VACIO);
+    }
+
+    private static Entrada[] agregar(Entrada[] arreglo, Entrada entrada) {
+        Entrada[] nuevo = Arrays.copyOf(arreglo, arreglo.length + 1);
+        nuevo[arreglo.length] = entrada;
+        return nuevo;
+    }
+
+    private static Entrada[] quitar(Entrada[] arreglo, Entrada entrada) {
+        for (int i = 0; i < arreglo.length; i++) {
+            if (arreglo[i] == entrada) {
+                Entrada[] nuevo = new Entrada[arreglo.length - 1];
+                System.arraycopy(arreglo, 0, nuevo, 0, i);
+                System.arraycopy(arreglo, i + 1, nuevo, i, arreglo.length - i - 1);
+                return nuevo;
+            }
+        }
+        return arreglo;
+    }
+
+    /**
+     * Nodo del trie: hijos en arreglos ordenados por letra, productos que terminan aquí
+     * y los k mejores del subárbol
+     */
+    private static class Nodo {
+        char[] letras = SIN_LETRAS;
+        Nodo[] hijos = SIN_HIJOS;
+        Entrada[] terminales = VACIO;
+        Entrada[] top = VACIO;
+
+        Nodo hijo(char letra) {
+            int posicion = Arrays.binarySearch(letras, letra);
+            return posicion >= 0 ? hijos[posicion] : null;
+        }
+
+        Nodo hijoOCrear(char letra) {
+            int posicion = Arrays.binarySearch(letras, letra);
+            if (posicion >= 0) {
+                return hijos[posicion];
+            }
+            int insercion = -posicion - 1;
+            char[] nuevasLetras = new char[letras.length + 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length + 1];
+            System.arraycopy(letras, 0, nuevasLetras, 0, insercion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, insercion);
+            nuevasLetras[insercion] = letra;
+            Nodo hijo = new Nodo();
+            nuevosHijos[insercion] = hijo;
+            System.arraycopy(letras, insercion, nuevasLetras, insercion + 1, letras.length - insercion);
+            System.arraycopy(hijos, insercion, nuevosHijos, insercion + 1, hijos.length - insercion);
+            letras = nuevasLetras;
+            hijos = nuevosHijos;
+            return hijo;
+        }
+
+        void quitarHijo(char letra) {
+            int posicion = Arrays.binarySearch(letras, letra);
+            if (posicion < 0) {
+                return;
+            }
+            char[] nuevasLetras = new char[letras.length - 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length - 1];
+            System.arraycopy(letras, 0, nuevasLetras, 0, posicion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, posicion);
+            System.arraycopy(letras, posicion + 1, nuevasLetras, posicion, letras.length - posicion - 1);
+            System.arraycopy(hijos, posicion + 1, nuevosHijos, posicion, hijos.length - posicion - 1);
+            letras = nuevasLetras;
+            hijos = nuevosHijos;
+        }
+    }
+
+    /**
+     * Producto indexado
+     */
+    private class Entrada {
+        final long id;
+        final String clave;
+        String nombre;
+        long version;
+        int stock;
+        long vistas;
+
+        Entrada(long id, String nombre, String clave, long version, int stock, long vistas) {
+            this.id = id;
+            this.nombre = nombre;
+            this.clave = clave;
+            this.version = version;
+            this.stock = stock;
+            this.vistas = vistas;
+        }
+
+        long puntaje() {
+            return Math.max(0, stock) + pesoVista * vistas;
+        }
+    }
+}
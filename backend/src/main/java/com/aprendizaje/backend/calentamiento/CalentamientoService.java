@@ -0,0 +1,310 @@
+package com.aprendizaje.backend.calentamiento;
+
+import com.aprendizaje.backend.analitica.CatalogoColumnarService;
+import com.aprendizaje.backend.autocompletado.AutocompletadoService;
+import com.aprendizaje.backend.dto.InfoCalentamiento;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import com.aprendizaje.backend.repository.TareaRepository;
+import com.aprendizaje.backend.service.ProductoService;
+import com.aprendizaje.backend.service.TareaService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calentamiento de la instancia después de arrancar, antes de recibir tráfico
+ *
+ * Tras un despliegue, las primeras peticiones encuentran el código sin compilar por el JIT,
+ * el pool de conexiones vacío y las cachés frías, y el p99 se dispara. Este servicio:
+ *
+ * 1. CONEXIONES: abre a la vez el mínimo de conexiones del pool (minimumIdle de Hikari)
+ * 2. CODIGO: repite llamadas representativas de ProductoService y TareaService sobre las
+ *    entidades modificadas más recientemente, y serializa los resultados con el ObjectMapper
+ *    de Spring, hasta que el compilador JIT deja de compilar (o se acaba el presupuesto)
+ * 3. CACHES: espera a que terminen de cargar el snapshot de análisis y el índice de autocompletado
+ *
+ * Se ejecuta dentro del evento ApplicationReadyEvent: Spring Boot publica ReadinessState.ACCEPTING_TRAFFIC
+ * recién cuando terminan esos listeners, así que /api/salud/listo responde 503 hasta el final del calentamiento.
+ * Si algo falla o se acaba el presupuesto, la instancia se marca lista igualmente.
+ *
+ * Solo se usan lecturas sin efectos secundarios: obtenerProductoPorId no se llama porque
+ * cuenta vistas para el autocompletado.
+ */
+@Service
+public class CalentamientoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CalentamientoService.class);
+
+    /**
+     * Fases del calentamiento
+     */
+    public enum Fase {
+        PENDIENTE, CONEXIONES, CODIGO, CACHES, TERMINADO
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private TareaService tareaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TareaRepository tareaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogoColumnarService catalogoColumnarService;
+
+    @Autowired
+    private AutocompletadoService autocompletadoService;
+
+    @Value("${app.calentamiento.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Tiempo máximo del calentamiento completo
+     */
+    @Value("${app.calentamiento.presupuesto-ms:60000}")
+    private long presupuestoMs;
+
+    /**
+     * Conexiones a abrir; 0 = minimumIdle del pool
+     */
+    @Value("${app.calentamiento.conexiones:0}")
+    private int conexiones;
+
+    /**
+     * Cantidad de tareas y de productos recientes que se leen en cada ronda
+     */
+    @Value("${app.calentamiento.entidades-calientes:100}")
+    private int entidadesCalientes;
+
+    /**
+     * Rondas que se ejecutan siempre, aunque el JIT parezca inactivo
+     */
+    @Value("${app.calentamiento.rondas-minimas:500}")
+    private int rondasMinimas;
+
+    /**
+     * Tiempo sin nuevas compilaciones del JIT para dar el código por caliente (0 = no esperar)
+     */
+    @Value("${app.calentamiento.silencio-jit-ms:2000}")
+    private long silencioJitMs;
+
+    private volatile Fase fase = Fase.PENDIENTE;
+    private volatile long rondas;
+    private volatile Instant inicio;
+    private volatile Instant fin;
+
+    /**
+     * Ejecuta el calentamiento al arrancar, después de iniciar las cargas en segundo plano
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void alIniciar() {
+        if (!habilitado) {
+            fase = Fase.TERMINADO;
+            return;
+        }
+        calentar();
+    }
+
+    /**
+     * Indica si el calentamiento ya terminó
+     */
+    public boolean estaTerminado() {
+        return fase == Fase.TERMINADO;
+    }
+
+    /**
+     * Estado actual del calentamiento
+     * @param listo - si la instancia acepta tráfico
+     */
+    public InfoCalentamiento info(boolean listo) {
+        return new InfoCalentamiento(listo, fase.name(), rondas, inicio, fin);
+    }
+
+    /**
+     * Ejecuta las tres fases dentro del presupuesto
+     */
+    void calentar() {
+        inicio = Instant.now();
+        long limite = System.nanoTime() + presupuestoMs * 1_000_000;
+        try {
+            fase = Fase.CONEXIONES;
+            int abiertas = abrirConexiones();
+
+            fase = Fase.CODIGO;
+            ejercitarCodigo(limite);
+
+            fase = Fase.CACHES;
+            boolean cachesListas = esperarCaches(limite);
+
+            log.info("Calentamiento terminado en {} ms: {} conexiones, {} rondas{}",
+                    System.currentTimeMillis() - inicio.toEpochMilli(), abiertas, rondas,
+                    cachesListas ? "" : " (las cachés siguen cargando)");
+        } catch (RuntimeException e) {
+            log.warn("El calentamiento falló en la fase {}; la instancia se marca lista igualmente", fase, e);
+        } finally {
+            fin = Instant.now();
+            fase = Fase.TERMINADO;
+        }
+    }
+
+    /**
+     * Pide varias conexiones a la vez para que el pool las cree ahora y no en las primeras peticiones
+     * @return cantidad de conexiones abiertas
+     */
+    int abrirConexiones() {
+        int cantidad = conexiones > 0 ? conexiones : minimoDelPool();
+        List<Connection> abiertas = new ArrayList<>();
+        try {
+            for (int i = 0; i < cantidad; i++) {
+                Connection conexion = dataSource.getConnection();
+                abiertas.add(conexion);
+                try (Statement sentencia = conexion.createStatement()) {
+                    // Con LazyConnectionDataSourceProxy la conexión real se pide en la primera sentencia
+                    sentencia.execute("SELECT 1");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudieron abrir las conexiones del pool", e);
+        } finally {
+            for (Connection conexion : abiertas) {
+                try {
+                    conexion.close();
+                } catch (SQLException e) {
+                    log.debug("Error al devolver una conexión al pool", e);
+                }
+            }
+        }
+        return abiertas.size();
+    }
+
+    /**
+     * Repite las lecturas más comunes hasta que el JIT deja de compilar
+     */
+    void ejercitarCodigo(long limite) {
+        List<Long> idsProductos = new ArrayList<>();
+        List<String> categorias = new ArrayList<>();
+        for (Producto producto : productoRepository.findByVersionCambioNotNullOrderByVersionCambioDesc(
+                Limit.of(entidadesCalientes))) {
+            idsProductos.add(producto.getId());
+            if (producto.getCategoria() != null && !categorias.contains(producto.getCategoria())) {
+                categorias.add(producto.getCategoria());
+            }
+        }
+        List<Long> idsTareas = tareaRepository.findByVersionCambioNotNullOrderByVersionCambioDesc(
+                Limit.of(entidadesCalientes)).stream().map(Tarea::getId).toList();
+
+        CompilationMXBean compilador = ManagementFactory.getCompilationMXBean();
+        boolean medirJit = compilador != null && compilador.isCompilationTimeMonitoringSupported();
+        long tiempoCompilacion = medirJit ? compilador.getTotalCompilationTime() : 0;
+        long ultimoCambio = System.nanoTime();
+
+        while (System.nanoTime() < limite) {
+            long ronda = rondas;
+            serializar(productoService.obtenerProductosPorIds(idsProductos));
+            serializar(tareaService.obtenerTareasPorIds(idsTareas));
+            if (!idsTareas.isEmpty()) {
+                serializar(tareaService.obtenerTareaPorId(idsTareas.get((int) (ronda % idsTareas.size()))));
+            }
+            if (!categorias.isEmpty()) {
+                serializar(productoService.buscarPorCategoria(categorias.get((int) (ronda % categorias.size()))));
+            }
+            rondas = ronda + 1;
+
+            if (rondas >= rondasMinimas) {
+                if (!medirJit) {
+                    return;
+                }
+                long ahora = System.nanoTime();
+                long compilado = compilador.getTotalCompilationTime();
+                if (compilado != tiempoCompilacion) {
+                    tiempoCompilacion = compilado;
+                    ultimoCambio = ahora;
+                }
+                if (ahora - ultimoCambio >= silencioJitMs * 1_000_000) {
+                    return;
+                }
+            }
+        }
+        log.warn("Se acabó el presupuesto de calentamiento con el JIT todavía compilando ({} rondas)", rondas);
+    }
+
+    /**
+     * Espera a que las cargas en memoria habilitadas terminen
+     * @return true si terminaron dentro del presupuesto
+     */
+    boolean esperarCaches(long limite) {
+        while (cargando(catalogoColumnarService.estaHabilitado(), catalogoColumnarService.estaListo())
+                || cargando(autocompletadoService.estaHabilitado(), autocompletadoService.estaListo())) {
+            if (System.nanoTime() >= limite) {
+                return false;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean cargando(boolean habilitada, boolean lista) {
+        return habilitada && !lista;
+    }
+
+    /**
+     * Serializa como lo haría un controlador, para compilar también los serializadores de Jackson
+     */
+    private void serializar(Object valor) {
+        try {
+            objectMapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar durante el calentamiento", e);
+        }
+    }
+
+    /**
+     * minimumIdle del pool de Hikari, o 10 (el valor por defecto de Hikari) si no se puede obtener
+     */
+    private int minimoDelPool() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMinimumIdle();
+        } catch (SQLException | RuntimeException e) {
+            return 10;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.aprendizaje.backend.categorias;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Convierte la categoría de un producto entre su nombre (en Java y en el JSON)
+ * y su código SMALLINT (en la columna productos.categoria_id)
+ *
+ * Hibernate pide el converter al contenedor de Spring (SpringBeanContainer), por eso admite @Autowired.
+ * El diccionario se obtiene al primer uso con ObjectProvider: el converter se crea junto con el
+ * EntityManagerFactory, antes de que existan la transacción y el JdbcTemplate que usa el diccionario.
+ */
+@Converter
+public class CategoriaConverter implements AttributeConverter<String, Short> {
+
+    @Autowired
+    private ObjectProvider<DiccionarioCategorias> diccionario;
+
+    @Override
+    public Short convertToDatabaseColumn(String nombre) {
+        // Solo traduce: la categoría ya la registró ProductoService antes de abrir la transacción
+        return nombre == null ? null : diccionario.getObject().codigoRegistrado(nombre);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short codigo) {
+        return codigo == null ? null : diccionario.getObject().nombre(codigo);
+    }
+}
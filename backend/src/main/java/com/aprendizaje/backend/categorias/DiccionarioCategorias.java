@@ -0,0 +1,185 @@
+package com.aprendizaje.backend.categorias;
+
+import com.aprendizaje.backend.dto.InfoCategoria;
+import com.aprendizaje.backend.repository.CategoriaRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario en memoria de las categorías de productos (nombre <-> código)
+ *
+ * Los productos guardan solo el código SMALLINT de su categoría; este diccionario
+ * traduce en ambos sentidos sin ir a la base de datos. Las categorías nunca cambian de código
+ * ni se borran, así que lo que ya está en memoria nunca queda viejo: solo puede faltar
+ * una categoría nueva creada por otra instancia, y entonces se busca en la tabla.
+ *
+ * Las categorías nuevas se insertan en una transacción propia (REQUIRES_NEW): si la transacción
+ * del producto se revierte, el código ya confirmado sigue siendo válido para todas las instancias.
+ * ProductoService las registra antes de abrir la transacción del producto, así la inserción
+ * nunca necesita una segunda conexión mientras la primera está retenida.
+ */
+@Component
+public class DiccionarioCategorias {
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Transacción propia de escritura para las categorías nuevas (y las búsquedas por fallo);
+     * también evita leer de una réplica atrasada
+     */
+    private TransactionTemplate transaccionPropia;
+
+    private final Map<String, Short> codigos = new ConcurrentHashMap<>();
+    private final Map<Short, String> nombres = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() {
+        transaccionPropia = new TransactionTemplate(transactionManager);
+        transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Carga el diccionario completo desde la tabla
+     */
+    public void cargar() {
+        transaccionPropia.execute(estado -> {
+            categoriaRepository.todas().forEach(this::recordar);
+            return null;
+        });
+    }
+
+    /**
+     * Obtiene el código de una categoría, creándola si no existe
+     * @param nombre - nombre de la categoría (null si el producto no tiene)
+     * @return código de la categoría, o null
+     */
+    public Short codigo(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        Short codigo = codigos.get(nombre);
+        if (codigo != null) {
+            return codigo;
+        }
+        codigo = transaccionPropia.execute(estado -> categoriaRepository.insertar(nombre));
+        if (codigo == null) {
+            throw new IllegalStateException("No se pudo registrar la categoría: " + nombre);
+        }
+        recordar(codigo, nombre);
+        return codigo;
+    }
+
+    /**
+     * Obtiene el código de una categoría ya registrada, sin crearla ni consultar la base
+     * Lo usa CategoriaConverter durante el flush de Hibernate, donde no se debe pedir otra conexión
+     * @param nombre - nombre de la categoría (null si el producto no tiene)
+     * @return código de la categoría, o null
+     * @throws IllegalStateException si la categoría no se registró antes con codigo()
+     */
+    public Short codigoRegistrado(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        Short codigo = codigos.get(nombre);
+        if (codigo == null) {
+            throw new IllegalStateException("Categoría no registrada: " + nombre);
+        }
+        return codigo;
+    }
+
+    /**
+     * Indica si una categoría está registrada, sin crearla
+     * @param nombre - nombre de la categoría
+     * @return true si existe
+     */
+    public boolean existe(String nombre) {
+        if (nombre == null) {
+            return false;
+        }
+        if (codigos.containsKey(nombre)) {
+            return true;
+        }
+        Short codigo = transaccionPropia.execute(estado -> categoriaRepository.buscarId(nombre));
+        if (codigo == null) {
+            return false;
+        }
+        recordar(codigo, nombre);
+        return true;
+    }
+
+    /**
+     * Obtiene el nombre de una categoría por su código
+     * @param codigo - código guardado en el producto (null si no tiene)
+     * @return nombre de la categoría, o null
+     */
+    public String nombre(Short codigo) {
+        if (codigo == null) {
+            return null;
+        }
+        String nombre = nombres.get(codigo);
+        if (nombre != null) {
+            return nombre;
+        }
+        nombre = transaccionPropia.execute(estado -> categoriaRepository.buscarNombre(codigo));
+        if (nombre == null) {
+            throw new IllegalStateException("Código de categoría desconocido: " + codigo);
+        }
+        recordar(codigo, nombre);
+        return nombre;
+    }
+
+    /**
+     * Actualiza los contadores cuando un producto entra, sale o cambia de categoría
+     * Debe llamarse dentro de la transacción que guarda el producto
+     * @param anterior - categoría antes del cambio (null si es un producto nuevo o no tenía)
+     * @param nueva - categoría después del cambio (null si no tiene)
+     */
+    public void ajustarCantidad(String anterior, String nueva) {
+        if (Objects.equals(anterior, nueva)) {
+            return;
+        }
+        if (anterior != null) {
+            categoriaRepository.sumar(codigo(anterior), -1);
+        }
+        if (nueva != null) {
+            categoriaRepository.sumar(codigo(nueva), 1);
+        }
+    }
+
+    /**
+     * Categorías con productos y su cantidad; también completa el diccionario en memoria
+     * @return categorías ordenadas por nombre
+     */
+    public List<InfoCategoria> listar() {
+        List<InfoCategoria> categorias = categoriaRepository.listar();
+        for (InfoCategoria categoria : categorias) {
+            recordar(categoria.getId(), categoria.getNombre());
+        }
+        return categorias;
+    }
+
+    /**
+     * Cantidad de categorías en memoria
+     */
+    public int tamano() {
+        return codigos.size();
+    }
+
+    private void recordar(Short codigo, String nombre) {
+        nombres.put(codigo, nombre);
+        codigos.put(nombre, codigo);
+    }
+}
@@ -0,0 +1,96 @@
+package com.aprendizaje.backend.categorias;
+
+import com.aprendizaje.backend.repository.CategoriaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migra los productos que todavía tienen la categoría como texto (columna categoria)
+ * al código del diccionario (columna categoria_id)
+ *
+ * Recorre la tabla por lotes usando el ID como cursor; cada lote son dos sentencias cortas
+ * que se confirman por separado: registrar sus categorías en el diccionario y actualizar las filas
+ * (guardando el código, vaciando el texto y sumando el lote a los contadores).
+ * Si la aplicación se detiene a la mitad, al volver a arrancar continúa con las filas que faltan.
+ * Cuando no queda ninguna fila por migrar se elimina la columna de texto (y sus índices).
+ *
+ * Se ejecuta al terminar de crear los beans (SmartInitializingSingleton), antes de que arranque
+ * el servidor web: ninguna petición ve filas con categoria_id todavía vacío ni contadores incompletos,
+ * y las tareas de arranque que leen productos (ApplicationReadyEvent) ya encuentran el diccionario cargado.
+ */
+@Component
+public class MigracionCategorias implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionCategorias.class);
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private DiccionarioCategorias diccionarioCategorias;
+
+    /**
+     * Filas de productos por lote
+     */
+    @Value("${app.categorias.migracion.tamano-lote:1000}")
+    private int tamanoLote;
+
+    /**
+     * Migra las filas pendientes y carga el diccionario en memoria, antes de aceptar peticiones
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (categoriaRepository.existeColumnaTexto()) {
+            migrar();
+            eliminarColumnaTexto();
+        }
+        diccionarioCategorias.cargar();
+    }
+
+    /**
+     * Elimina la columna de texto si ya no quedan filas por migrar
+     * @return true si se eliminó
+     */
+    boolean eliminarColumnaTexto() {
+        if (categoriaRepository.quedanSinMigrar()) {
+            return false;
+        }
+        try {
+            categoriaRepository.eliminarColumnaTexto();
+            log.info("Columna productos.categoria eliminada: todas las filas usan categoria_id");
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("No se pudo eliminar la columna productos.categoria; se reintentará en el próximo arranque", e);
+            return false;
+        }
+    }
+
+    /**
+     * Migra todas las filas pendientes por lotes
+     * @return cantidad de lotes migrados
+     */
+    int migrar() {
+        long inicio = System.currentTimeMillis();
+        long desde = 0;
+        int lotes = 0;
+        while (true) {
+            categoriaRepository.internarLote(desde, tamanoLote);
+            Long ultimoId = categoriaRepository.migrarLote(desde, tamanoLote);
+            if (ultimoId == null) {
+                break;
+            }
+            desde = ultimoId;
+            lotes++;
+        }
+        if (lotes > 0) {
+            log.info("Categorías de productos migradas al diccionario en {} lotes ({} ms)",
+                    lotes, System.currentTimeMillis() - inicio);
+        }
+        return lotes;
+    }
+}
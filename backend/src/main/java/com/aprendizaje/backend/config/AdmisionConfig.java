@@ -0,0 +1,52 @@
+package com.aprendizaje.backend.config;
+
+import com.aprendizaje.backend.admision.ControlAdmision;
+import com.aprendizaje.backend.admision.ControlAdmisionFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del control de admisión (load shedding) de /api/tareas y /api/productos
+ * Se desactiva con app.admision.habilitado=false
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admision.habilitado", havingValue = "true", matchIfMissing = true)
+public class AdmisionConfig {
+
+    /**
+     * Por defecto, el mismo tamaño que el pool de conexiones de Hikari
+     */
+    @Value("${app.admision.limite-total:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int limiteTotal;
+
+    @Value("${app.admision.capacidad-cola:50}")
+    private int capacidadCola;
+
+    @Value("${app.admision.espera-maxima-ms:1000}")
+    private long esperaMaximaMs;
+
+    /**
+     * Límites y colas compartidos por todas las peticiones
+     * @return control de admisión
+     */
+    @Bean
+    public ControlAdmision controlAdmision() {
+        return new ControlAdmision(limiteTotal, capacidadCola, esperaMaximaMs);
+    }
+
+    /**
+     * Registra el filtro solo para las rutas que usan la base de datos
+     * @param controlAdmision - control de admisión
+     * @return registro del filtro
+     */
+    @Bean
+    public FilterRegistrationBean<ControlAdmisionFilter> controlAdmisionFilter(ControlAdmision controlAdmision) {
+        FilterRegistrationBean<ControlAdmisionFilter> registro =
+                new FilterRegistrationBean<>(new ControlAdmisionFilter(controlAdmision));
+        registro.addUrlPatterns("/api/tareas/*", "/api/tareas", "/api/productos/*", "/api/productos");
+        return registro;
+    }
+}
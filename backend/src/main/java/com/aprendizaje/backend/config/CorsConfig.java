@@ -20,6 +20,7 @@ public class CorsConfig implements WebMvcConfigurer {
         registry.addMapping("/api/**") // Aplica a todas las rutas que empiecen con /api
                 .allowedOrigins("http://localhost:3000") // Permite peticiones desde React
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH") // Métodos HTTP permitidos
-                .allowedHeaders("*"); // Permite todos los headers
+                .allowedHeaders("*") // Permite todos los headers
+                .exposedHeaders("X-Trace-Id"); // Permite a React leer el ID de la traza
     }
 }
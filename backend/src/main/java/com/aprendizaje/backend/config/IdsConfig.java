@@ -0,0 +1,97 @@
+package com.aprendizaje.backend.config;
+
+import com.aprendizaje.backend.ids.EstrategiaIds;
+import com.aprendizaje.backend.ids.IdsTemporales;
+import com.aprendizaje.backend.ids.SecuenciaAgrupada;
+import com.aprendizaje.backend.shards.IdsPorShard;
+import com.aprendizaje.backend.shards.MapaBuckets;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración de la generación de IDs de Tarea y Producto
+ *
+ * app.ids.estrategia:
+ * - SECUENCIA: secuencia agrupada, un nextval() cada app.ids.tamano-bloque inserts;
+ *   al arrancar se comprueba que las secuencias *_id_seq_pool tengan ese mismo INCREMENT BY
+ * - TEMPORAL: IDs de 53 bits ordenados por tiempo, sin ir a la base de datos;
+ *   cada instancia necesita un app.ids.nodo distinto
+ */
+@Configuration
+public class IdsConfig {
+
+    /**
+     * Estrategias disponibles
+     */
+    public enum Estrategia {
+        SECUENCIA,
+        TEMPORAL
+    }
+
+    @Value("${app.ids.estrategia:SECUENCIA}")
+    private Estrategia estrategia;
+
+    @Value("${app.ids.tamano-bloque:50}")
+    private int tamanoBloque;
+
+    @Value("${app.ids.nodo:0}")
+    private int nodo;
+
+    /**
+     * Estrategia de IDs activa
+     * @param mapaBuckets - reparto de tareas entre shards, si están habilitados
+     * @return implementación según app.ids.estrategia
+     */
+    @Bean
+    public EstrategiaIds estrategiaIds(ObjectProvider<MapaBuckets> mapaBuckets) {
+        EstrategiaIds base = switch (estrategia) {
+            case SECUENCIA -> new SecuenciaAgrupada(tamanoBloque);
+            case TEMPORAL -> new IdsTemporales(nodo);
+        };
+        // Con shards de tareas (ShardsConfig), el ID de una tarea nueva debe caer en el shard donde se inserta
+        MapaBuckets mapa = mapaBuckets.getIfAvailable();
+        return mapa != null ? new IdsPorShard(base, mapa) : base;
+    }
+
+    /**
+     * Con SECUENCIA, detiene el arranque si INCREMENT BY de alguna secuencia *_id_seq_pool
+     * no coincide con app.ids.tamano-bloque (schema.sql solo la crea si no existe, así que
+     * cambiar la propiedad no cambia una secuencia ya creada)
+     * Con shards basta el shard 0: ShardsTareas copia su incremento a los demás
+     * @param jdbcTemplate - base de datos principal (shard 0 si hay shards)
+     * @return verificación que se ejecuta antes de que el servidor reciba peticiones
+     */
+    @Bean
+    public SmartInitializingSingleton verificacionSecuenciasIds(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            if (estrategia != Estrategia.SECUENCIA) {
+                return;
+            }
+            Map<String, Long> incrementos = new LinkedHashMap<>();
+            jdbcTemplate.query("SELECT sequencename, increment_by FROM pg_sequences "
+                            + "WHERE schemaname = current_schema() AND sequencename LIKE '%\\_id\\_seq\\_pool'",
+                    fila -> {
+                        incrementos.put(fila.getString("sequencename"), fila.getLong("increment_by"));
+                    });
+            SecuenciaAgrupada.verificarIncrementos(tamanoBloque, incrementos);
+        };
+    }
+
+    /**
+     * Pasa la estrategia a Hibernate, que es quien crea los generadores de @IdGenerado
+     * @param estrategiaIds - estrategia activa
+     * @return personalizador de las propiedades de Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer estrategiaIdsHibernate(EstrategiaIds estrategiaIds) {
+        return propiedades -> propiedades.put(EstrategiaIds.PROPIEDAD_HIBERNATE, estrategiaIds);
+    }
+}
@@ -0,0 +1,118 @@
+package com.aprendizaje.backend.config;
+
+import com.aprendizaje.backend.datasource.EnrutadorLecturasDataSource;
+import com.aprendizaje.backend.datasource.LecturaPropiaInterceptor;
+import com.aprendizaje.backend.datasource.ReplicaLectura;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de réplicas de lectura
+ * Solo se activa con app.datasource.replicas.habilitado=true; si no, se usa el DataSource normal
+ *
+ * Los métodos @Transactional(readOnly = true) de los servicios van a una réplica
+ * (round-robin o la menos cargada); las escrituras y todo lo demás van al primario
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.habilitado", havingValue = "true")
+public class ReplicasConfig implements WebMvcConfigurer {
+
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> urls;
+
+    @Value("${app.datasource.replicas.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${app.datasource.replicas.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${app.datasource.replicas.estrategia:ROUND_ROBIN}")
+    private EnrutadorLecturasDataSource.Estrategia estrategia;
+
+    @Value("${app.datasource.replicas.lag-maximo-ms:5000}")
+    private long lagMaximoMs;
+
+    @Value("${app.datasource.replicas.ventana-lectura-propia-ms:3000}")
+    private long ventanaLecturaPropiaMs;
+
+    /**
+     * Pool del primario: spring.datasource.* y, como en la configuración de Spring Boot,
+     * spring.datasource.hikari.* (tamaño del pool, timeouts, reWriteBatchedInserts...)
+     * @param properties - propiedades spring.datasource del primario
+     * @return pool del primario
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName("primario");
+        return primario;
+    }
+
+    /**
+     * Enrutador entre el primario y las réplicas
+     * Las réplicas usan la misma configuración spring.datasource.hikari.* que el primario
+     * @param primario - pool del primario
+     * @param environment - para leer spring.datasource.hikari.*
+     * @return enrutador de lecturas
+     */
+    @Bean
+    public EnrutadorLecturasDataSource enrutadorLecturasDataSource(HikariDataSource primario, Environment environment) {
+        List<ReplicaLectura> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = Binder.get(environment)
+                    .bind("spring.datasource.hikari", Bindable.ofInstance(new HikariDataSource()))
+                    .orElseGet(HikariDataSource::new);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replicas.add(new ReplicaLectura(replica.getPoolName(), replica));
+        }
+        return new EnrutadorLecturasDataSource(primario, replicas, estrategia, lagMaximoMs);
+    }
+
+    /**
+     * DataSource principal de la aplicación
+     * El proxy "lazy" pide la conexión real en la primera sentencia, cuando Spring ya
+     * marcó la transacción como de solo lectura
+     * @param enrutador - enrutador de lecturas
+     * @return DataSource que usan JPA y JdbcTemplate
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(EnrutadorLecturasDataSource enrutador) {
+        return new LazyConnectionDataSourceProxy(enrutador);
+    }
+
+    /**
+     * Interceptor que lleva al primario las lecturas de un cliente que acaba de escribir
+     * @return interceptor de read-your-writes
+     */
+    @Bean
+    public LecturaPropiaInterceptor lecturaPropiaInterceptor() {
+        return new LecturaPropiaInterceptor(ventanaLecturaPropiaMs);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(lecturaPropiaInterceptor()).addPathPatterns("/api/**");
+    }
+}
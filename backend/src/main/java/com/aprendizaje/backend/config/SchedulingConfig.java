@@ -0,0 +1,13 @@
+package com.aprendizaje.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) de la aplicación
+ * Por ejemplo, el heartbeat de las conexiones SSE
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,147 @@
+package com.aprendizaje.backend.config;
+
+import com.aprendizaje.backend.service.SincronizacionService;
+import com.aprendizaje.backend.shards.EnrutadorShardsDataSource;
+import com.aprendizaje.backend.shards.EnrutamientoShardsAspect;
+import com.aprendizaje.backend.shards.MapaBuckets;
+import com.aprendizaje.backend.shards.RebalanceadorShards;
+import com.aprendizaje.backend.shards.ShardsTareas;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de shards de tareas
+ * Solo se activa con app.tareas.shards.habilitado=true; si no, las tareas viven en la base principal
+ *
+ * El shard 0 es la base principal (spring.datasource.*), donde también quedan los productos
+ * y el mapa de buckets; los demás shards se configuran en app.tareas.shards.urls.
+ * No se puede combinar con las réplicas de lectura, que también reemplazan el DataSource principal.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.tareas.shards.habilitado", havingValue = "true")
+public class ShardsConfig {
+
+    @Value("${app.tareas.shards.urls}")
+    private List<String> urls;
+
+    @Value("${app.tareas.shards.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${app.tareas.shards.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${app.tareas.shards.hilos-consulta:8}")
+    private int hilosConsulta;
+
+    @Value("${app.tareas.shards.espera-bloqueo-ms:5000}")
+    private long esperaBloqueoMs;
+
+    @Value("${app.tareas.shards.tamano-lote-rebalanceo:1000}")
+    private int tamanoLoteRebalanceo;
+
+    @Value("${app.tareas.shards.recarga-mapa-ms:10000}")
+    private long recargaMapaMs;
+
+    @Value("${app.datasource.replicas.habilitado:false}")
+    private boolean replicasHabilitadas;
+
+    /**
+     * Pool del shard 0: spring.datasource.* y, como en la configuración de Spring Boot,
+     * spring.datasource.hikari.* (tamaño del pool, timeouts, reWriteBatchedInserts...)
+     * @param properties - propiedades spring.datasource del shard 0
+     * @return pool del shard 0
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource principalDataSource(DataSourceProperties properties) {
+        if (replicasHabilitadas) {
+            throw new IllegalStateException("Los shards de tareas no se pueden combinar con las réplicas de lectura");
+        }
+        HikariDataSource principal = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        principal.setPoolName("shard-0");
+        return principal;
+    }
+
+    /**
+     * Enrutador entre los pools de cada shard
+     * Los demás shards usan la misma configuración spring.datasource.hikari.* que el shard 0
+     * @param principal - pool del shard 0
+     * @param environment - para leer spring.datasource.hikari.*
+     * @return enrutador de shards
+     */
+    @Bean
+    public EnrutadorShardsDataSource enrutadorShardsDataSource(HikariDataSource principal, Environment environment) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(principal);
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = Binder.get(environment)
+                    .bind("spring.datasource.hikari", Bindable.ofInstance(new HikariDataSource()))
+                    .orElseGet(HikariDataSource::new);
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setJdbcUrl(urls.get(i).trim());
+            shard.setUsername(username);
+            shard.setPassword(password);
+            shards.add(shard);
+        }
+        return new EnrutadorShardsDataSource(shards);
+    }
+
+    /**
+     * DataSource principal de la aplicación
+     * El proxy "lazy" pide la conexión real en la primera sentencia, cuando el enrutamiento
+     * ya eligió el shard
+     * @param enrutador - enrutador de shards
+     * @return DataSource que usan JPA y JdbcTemplate
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(EnrutadorShardsDataSource enrutador) {
+        return new LazyConnectionDataSourceProxy(enrutador);
+    }
+
+    /**
+     * Dueño de cada bucket; lo carga ShardsTareas al arrancar
+     */
+    @Bean
+    public MapaBuckets mapaBuckets() {
+        return new MapaBuckets(urls.size() + 1);
+    }
+
+    /**
+     * JdbcTemplate y TransactionTemplate llegan diferidos: el aspecto de enrutamiento pide este bean
+     * antes de que exista la fábrica de JPA
+     */
+    @Bean
+    public ShardsTareas shardsTareas(EnrutadorShardsDataSource enrutador, MapaBuckets mapaBuckets,
+                                     @Lazy JdbcTemplate jdbcTemplate, @Lazy TransactionTemplate transactionTemplate) {
+        return new ShardsTareas(enrutador, mapaBuckets, jdbcTemplate, transactionTemplate, hilosConsulta, esperaBloqueoMs);
+    }
+
+    @Bean
+    public EnrutamientoShardsAspect enrutamientoShardsAspect(ShardsTareas shardsTareas,
+                                                             SincronizacionService sincronizacionService) {
+        return new EnrutamientoShardsAspect(shardsTareas, sincronizacionService);
+    }
+
+    @Bean
+    public RebalanceadorShards rebalanceadorShards(ShardsTareas shardsTareas) {
+        return new RebalanceadorShards(shardsTareas, tamanoLoteRebalanceo, esperaBloqueoMs, recargaMapaMs);
+    }
+}
@@ -0,0 +1,72 @@
+package com.aprendizaje.backend.config;
+
+import com.aprendizaje.backend.trazas.AlmacenTrazas;
+import com.aprendizaje.backend.trazas.TrazasFilter;
+import com.aprendizaje.backend.trazas.TrazasInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuración del trazado de peticiones (spans de controlador, servicio y repositorio)
+ * Se desactiva con app.trazas.habilitado=false
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.trazas.habilitado", havingValue = "true", matchIfMissing = true)
+public class TrazasConfig implements WebMvcConfigurer {
+
+    @Value("${app.trazas.capacidad:500}")
+    private int capacidad;
+
+    @Value("${app.trazas.umbral-lenta-ms:500}")
+    private long umbralLentaMs;
+
+    @Value("${app.trazas.muestreo-normal:0.0}")
+    private double muestreoNormal;
+
+    @Value("${app.trazas.maximo-spans:200}")
+    private int maximoSpans;
+
+    /**
+     * Archivo NDJSON donde también se escriben las trazas guardadas (vacío = no se exporta)
+     */
+    @Value("${app.trazas.archivo:}")
+    private String archivo;
+
+    /**
+     * Trazas guardadas en memoria
+     * @return almacén acotado con muestreo por cola
+     */
+    @Bean(destroyMethod = "cerrar")
+    public AlmacenTrazas almacenTrazas() {
+        return new AlmacenTrazas(capacidad, umbralLentaMs, muestreoNormal,
+                archivo.isBlank() ? null : Paths.get(archivo));
+    }
+
+    /**
+     * Registra el filtro antes que los demás, para que la traza incluya también
+     * la espera en el control de admisión
+     * @param almacenTrazas - almacén donde se entregan las trazas
+     * @return registro del filtro
+     */
+    @Bean
+    public FilterRegistrationBean<TrazasFilter> trazasFilter(AlmacenTrazas almacenTrazas) {
+        FilterRegistrationBean<TrazasFilter> registro =
+                new FilterRegistrationBean<>(new TrazasFilter(almacenTrazas, maximoSpans));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TrazasInterceptor()).addPathPatterns("/api/**");
+    }
+}
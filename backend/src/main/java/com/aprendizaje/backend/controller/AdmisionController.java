@@ -0,0 +1,40 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.admision.ControlAdmision;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controlador REST con las métricas del control de admisión
+ */
+@RestController
+@RequestMapping("/api/admin/admision")
+@ConditionalOnProperty(name = "app.admision.habilitado", havingValue = "true", matchIfMissing = true)
+public class AdmisionController {
+
+    /**
+     * Control de admisión con los límites y colas actuales
+     */
+    @Autowired
+    private ControlAdmision controlAdmision;
+
+    /**
+     * GET /api/admin/admision - Límite, en curso, cola y rechazos de cada clase de endpoint
+     * @return métricas actuales del control de admisión
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("limiteTotal", controlAdmision.getLimiteTotal());
+        metricas.put("totalEnCurso", controlAdmision.getTotalEnCurso());
+        metricas.put("clases", controlAdmision.metricas());
+        return ResponseEntity.ok(metricas);
+    }
+}
@@ -0,0 +1,101 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.alertas.AlertaStock;
+import com.aprendizaje.backend.alertas.AlertasStockService;
+import com.aprendizaje.backend.alertas.UmbralStock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para los umbrales y las alertas de stock bajo
+ * Reemplaza consultar periódicamente /api/productos/stock/{minimo} y comparar los resultados
+ */
+@RestController
+@RequestMapping("/api/productos/alertas-stock")
+public class AlertasStockController {
+
+    @Autowired
+    private AlertasStockService alertasStockService;
+
+    /**
+     * GET /api/productos/alertas-stock?desde=0&limite=100 - Alertas posteriores a un cursor
+     * @param desde - secuencia de la última alerta ya leída
+     * @param limite - máximo de alertas
+     * @return alertas BAJO y RECUPERADO en orden de secuencia
+     */
+    @GetMapping
+    public ResponseEntity<List<AlertaStock>> obtenerAlertas(@RequestParam(defaultValue = "0") long desde,
+                                                            @RequestParam(defaultValue = "100") int limite) {
+        if (limite <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(alertasStockService.historial(desde, limite));
+    }
+
+    /**
+     * GET /api/productos/alertas-stock/activas - Productos que están por debajo de su umbral
+     * @return alerta BAJO vigente de cada producto
+     */
+    @GetMapping("/activas")
+    public ResponseEntity<List<AlertaStock>> obtenerActivas() {
+        return ResponseEntity.ok(alertasStockService.activas());
+    }
+
+    /**
+     * GET /api/productos/alertas-stock/estado - Estado del envío de alertas a los destinos
+     * @return umbrales, productos en alerta, pendientes de envío y último error
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> obtenerEstado() {
+        return ResponseEntity.ok(alertasStockService.estado());
+    }
+
+    /**
+     * GET /api/productos/alertas-stock/umbrales - Umbrales definidos
+     * @return umbrales de productos y de categorías
+     */
+    @GetMapping("/umbrales")
+    public ResponseEntity<List<UmbralStock>> obtenerUmbrales() {
+        return ResponseEntity.ok(alertasStockService.umbrales());
+    }
+
+    /**
+     * PUT /api/productos/alertas-stock/umbrales/{ambito}/{clave} - Crea o reemplaza un umbral
+     * @param ambito - "producto" o "categoria"
+     * @param clave - ID del producto o nombre de la categoría
+     * @param umbral - mínimo y, opcionalmente, recuperación
+     * @return el umbral guardado, 404 si el producto no existe o 400 si no es válido
+     */
+    @PutMapping("/umbrales/{ambito}/{clave}")
+    public ResponseEntity<UmbralStock> guardarUmbral(@PathVariable String ambito, @PathVariable String clave,
+                                                     @RequestBody UmbralStock umbral) {
+        try {
+            return alertasStockService.guardarUmbral(ambito, clave, umbral)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * DELETE /api/productos/alertas-stock/umbrales/{ambito}/{clave} - Elimina un umbral
+     * @param ambito - "producto" o "categoria"
+     * @param clave - ID del producto o nombre de la categoría
+     * @return 204 si se eliminó, 404 si no existía o 400 si el ámbito no es válido
+     */
+    @DeleteMapping("/umbrales/{ambito}/{clave}")
+    public ResponseEntity<Void> eliminarUmbral(@PathVariable String ambito, @PathVariable String clave) {
+        try {
+            return alertasStockService.eliminarUmbral(ambito, clave)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
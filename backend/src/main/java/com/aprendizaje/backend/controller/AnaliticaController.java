@@ -0,0 +1,98 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.analitica.CatalogoColumnar;
+import com.aprendizaje.backend.analitica.CatalogoColumnarService;
+import com.aprendizaje.backend.dto.Histograma;
+import com.aprendizaje.backend.dto.ResumenCatalogo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Controlador REST para las consultas de análisis del catálogo de productos
+ * Todas se responden desde el snapshot columnar en memoria, sin tocar PostgreSQL
+ * Mientras el snapshot se carga responden 503 Service Unavailable
+ */
+@RestController
+@RequestMapping("/api/analitica/productos")
+public class AnaliticaController {
+
+    /**
+     * Servicio con el snapshot columnar del catálogo
+     */
+    @Autowired
+    private CatalogoColumnarService catalogoColumnarService;
+
+    /**
+     * GET /api/analitica/productos/resumen?categoria=X - Cantidad, precios y stock total
+     * @param categoria - categoría opcional
+     * @return resumen de precios y stock
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<ResumenCatalogo> obtenerResumen(@RequestParam(required = false) String categoria) {
+        return responder(() -> catalogoColumnarService.resumen(categoria));
+    }
+
+    /**
+     * GET /api/analitica/productos/resumen-por-categoria - Resumen de cada categoría
+     * @return resumen por nombre de categoría
+     */
+    @GetMapping("/resumen-por-categoria")
+    public ResponseEntity<Map<String, ResumenCatalogo>> obtenerResumenPorCategoria() {
+        return responder(catalogoColumnarService::resumenPorCategoria);
+    }
+
+    /**
+     * GET /api/analitica/productos/histograma?min=0&max=100&intervalos=10&categoria=X
+     * @return cantidad de productos en cada intervalo de precio
+     */
+    @GetMapping("/histograma")
+    public ResponseEntity<Histograma> obtenerHistograma(@RequestParam double min,
+                                                        @RequestParam double max,
+                                                        @RequestParam(defaultValue = "10") int intervalos,
+                                                        @RequestParam(required = false) String categoria) {
+        return responder(() -> catalogoColumnarService.histograma(categoria, min, max, intervalos));
+    }
+
+    /**
+     * GET /api/analitica/productos/percentiles?p=50,90,99&categoria=X
+     * @return precio de cada percentil pedido
+     */
+    @GetMapping("/percentiles")
+    public ResponseEntity<Map<Double, Double>> obtenerPercentiles(@RequestParam(defaultValue = "50,90,99") List<Double> p,
+                                                                  @RequestParam(required = false) String categoria) {
+        double[] percentiles = p.stream().mapToDouble(Double::doubleValue).toArray();
+        return responder(() -> catalogoColumnarService.percentiles(categoria, percentiles));
+    }
+
+    /**
+     * GET /api/analitica/productos/rango-precio?min=10&max=20&limite=100&categoria=X
+     * @return total de productos en el rango y los primeros IDs ordenados por precio
+     */
+    @GetMapping("/rango-precio")
+    public ResponseEntity<CatalogoColumnar.RangoPrecio> obtenerRangoPrecio(@RequestParam double min,
+                                                                          @RequestParam double max,
+                                                                          @RequestParam(defaultValue = "100") int limite,
+                                                                          @RequestParam(required = false) String categoria) {
+        return responder(() -> catalogoColumnarService.rangoPrecio(min, max, categoria, Math.max(0, limite)));
+    }
+
+    /**
+     * Ejecuta la consulta y traduce los errores a códigos HTTP
+     * 400 si los parámetros no son válidos, 503 si el snapshot no está listo
+     */
+    private <T> ResponseEntity<T> responder(Supplier<T> consulta) {
+        try {
+            return ResponseEntity.ok(consulta.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.service.NotificacionCambiosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador REST que expone los cambios de Tareas y Productos como Server-Sent Events
+ * El frontend se suscribe con EventSource y recibe los eventos creado, actualizado y eliminado
+ * en lugar de volver a pedir la lista completa
+ */
+@RestController
+public class EventosController {
+
+    /**
+     * Inyección del servicio de notificaciones
+     */
+    @Autowired
+    private NotificacionCambiosService notificacionCambiosService;
+
+    /**
+     * GET /api/tareas/eventos - Suscribe al cliente a los cambios de tareas
+     * @param ultimoEventId - cabecera Last-Event-ID que envía EventSource al reconectarse
+     * @return conexión SSE abierta
+     */
+    @GetMapping(path = "/api/tareas/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirTareas(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventId) {
+        return notificacionCambiosService.suscribir(CambioEntidadEvent.ENTIDAD_TAREA, ultimoEventId);
+    }
+
+    /**
+     * GET /api/productos/eventos - Suscribe al cliente a los cambios de productos
+     * @param ultimoEventId - cabecera Last-Event-ID que envía EventSource al reconectarse
+     * @return conexión SSE abierta
+     */
+    @GetMapping(path = "/api/productos/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirProductos(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventId) {
+        return notificacionCambiosService.suscribir(CambioEntidadEvent.ENTIDAD_PRODUCTO, ultimoEventId);
+    }
+}
@@ -0,0 +1,122 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.dto.InfoExportacion;
+import com.aprendizaje.backend.dto.PeticionExportacion;
+import com.aprendizaje.backend.exportacion.ExportacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controlador REST de las exportaciones en segundo plano
+ *
+ * Flujo: POST para enviar, GET /{id} para ver el progreso y GET /{id}/archivo para descargar.
+ * La descarga acepta la cabecera Range (206 Partial Content), así una descarga cortada
+ * se reanuda desde el último byte recibido. El archivo de un trabajo no cambia, por eso
+ * su ETag es el ID del trabajo.
+ */
+@RestController
+@RequestMapping("/api/exportaciones")
+public class ExportacionController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    /**
+     * Servicio que ejecuta las exportaciones
+     */
+    @Autowired
+    private ExportacionService exportacionService;
+
+    /**
+     * POST /api/exportaciones - Envía una exportación
+     * @param peticion - entidad ("tarea" o "producto"), formato (CSV o NDJSON) y filtros
+     * @return 202 Accepted con el estado del trabajo; 400 si la petición no es válida;
+     *         429 si ya hay demasiadas exportaciones pendientes
+     */
+    @PostMapping
+    public ResponseEntity<InfoExportacion> enviarExportacion(@RequestBody PeticionExportacion peticion) {
+        try {
+            InfoExportacion trabajo = exportacionService.enviar(peticion);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/exportaciones/" + trabajo.getId()))
+                    .body(trabajo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/exportaciones - Lista los trabajos de este nodo
+     * @return trabajos, del más reciente al más antiguo
+     */
+    @GetMapping
+    public ResponseEntity<List<InfoExportacion>> listarExportaciones() {
+        return ResponseEntity.ok(exportacionService.listar());
+    }
+
+    /**
+     * GET /api/exportaciones/{id} - Estado y progreso de un trabajo
+     * @param id - ID del trabajo
+     * @return estado del trabajo o 404 si no existe
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<InfoExportacion> obtenerExportacion(@PathVariable String id) {
+        return exportacionService.consultar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/exportaciones/{id}/archivo - Descarga el archivo comprimido con gzip
+     * @param id - ID del trabajo
+     * @return archivo completo, o la parte pedida con Range; 404 si no existe;
+     *         409 Conflict si todavía no terminó
+     */
+    @GetMapping("/{id}/archivo")
+    public ResponseEntity<Resource> descargarExportacion(@PathVariable String id) {
+        Optional<Path> archivo;
+        try {
+            archivo = exportacionService.archivo(id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        if (archivo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .eTag(id)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(archivo.get().getFileName().toString()).build().toString())
+                .body(new FileSystemResource(archivo.get()));
+    }
+
+    /**
+     * DELETE /api/exportaciones/{id} - Cancela el trabajo (si sigue en curso) y borra su archivo
+     * @param id - ID del trabajo
+     * @return 204 No Content o 404 si no existe
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarExportacion(@PathVariable String id) {
+        if (exportacionService.eliminar(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.outbox.RelayOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para consultar el outbox de cambios y el avance de sus consumidores
+ */
+@RestController
+@RequestMapping("/api/admin/outbox")
+public class OutboxController {
+
+    /**
+     * Relay que conoce los destinos y sus offsets
+     */
+    @Autowired
+    private RelayOutbox relayOutbox;
+
+    /**
+     * GET /api/admin/outbox - Estado del outbox
+     * @return por cada origen: último id, y offset, registros pendientes y último error de cada consumidor
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> obtenerEstado() {
+        return ResponseEntity.ok(relayOutbox.estado());
+    }
+}
@@ -0,0 +1,104 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.dto.InfoGrabacion;
+import com.aprendizaje.backend.dto.PeticionGrabacion;
+import com.aprendizaje.backend.perfilado.PerfiladoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controlador REST para perfilar la aplicación con Java Flight Recorder
+ * Las grabaciones descargadas se abren con JDK Mission Control o "jfr print"
+ */
+@RestController
+@RequestMapping("/api/admin/perfilado/grabaciones")
+public class PerfiladoController {
+
+    /**
+     * Servicio que administra las grabaciones
+     */
+    @Autowired
+    private PerfiladoService perfiladoService;
+
+    /**
+     * GET /api/admin/perfilado/grabaciones - Lista las grabaciones y su estado
+     * @return grabaciones en curso y detenidas
+     */
+    @GetMapping
+    public ResponseEntity<List<InfoGrabacion>> listarGrabaciones() {
+        return ResponseEntity.ok(perfiladoService.listar());
+    }
+
+    /**
+     * POST /api/admin/perfilado/grabaciones - Inicia una grabación
+     * @param peticion - configuración opcional (default/profile, duración, tamaño, umbral, ajustes)
+     * @return grabación iniciada; 409 Conflict si ya hay demasiadas en curso
+     */
+    @PostMapping
+    public ResponseEntity<InfoGrabacion> iniciarGrabacion(@RequestBody(required = false) PeticionGrabacion peticion) {
+        try {
+            InfoGrabacion grabacion = perfiladoService.iniciar(peticion != null ? peticion : new PeticionGrabacion());
+            return ResponseEntity.status(HttpStatus.CREATED).body(grabacion);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * POST /api/admin/perfilado/grabaciones/{id}/detener - Detiene una grabación
+     * @param id - ID de la grabación
+     * @return grabación detenida o 404 si no existe
+     */
+    @PostMapping("/{id}/detener")
+    public ResponseEntity<InfoGrabacion> detenerGrabacion(@PathVariable long id) {
+        return perfiladoService.detener(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/admin/perfilado/grabaciones/{id}/archivo - Descarga la grabación como .jfr
+     * Si sigue en curso se descarga lo grabado hasta ahora
+     * @param id - ID de la grabación
+     * @return archivo .jfr o 404 si no existe
+     */
+    @GetMapping("/{id}/archivo")
+    public ResponseEntity<Resource> descargarGrabacion(@PathVariable long id) throws IOException {
+        Optional<Path> archivo = perfiladoService.exportar(id);
+        if (archivo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(archivo.get().getFileName().toString()).build().toString())
+                .body(new FileSystemResource(archivo.get()));
+    }
+
+    /**
+     * DELETE /api/admin/perfilado/grabaciones/{id} - Cierra la grabación y borra sus datos
+     * @param id - ID de la grabación
+     * @return 204 No Content o 404 si no existe
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarGrabacion(@PathVariable long id) {
+        if (perfiladoService.eliminar(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
@@ -1,6 +1,14 @@
 package com.aprendizaje.backend.controller;
 
+import com.aprendizaje.backend.autocompletado.AutocompletadoService;
+import com.aprendizaje.backend.dto.AjusteMasivo;
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.InfoCategoria;
+import com.aprendizaje.backend.dto.ResultadoAjuste;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.dto.SugerenciaProducto;
 import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.service.AjusteProductosService;
 import com.aprendizaje.backend.service.ProductoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -8,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,6 +34,18 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
     
+    /**
+     * Servicio de ajustes masivos de precio y stock
+     */
+    @Autowired
+    private AjusteProductosService ajusteProductosService;
+    
+    /**
+     * Servicio de autocompletado de nombres (en memoria)
+     */
+    @Autowired
+    private AutocompletadoService autocompletadoService;
+    
     /**
      * GET /api/productos - Obtiene todos los productos
      * @return lista de todos los productos en formato JSON
@@ -53,6 +74,30 @@ public class ProductoController {
                        .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * GET /api/productos?ids=1,2,3 - Obtiene varios productos por ID en una sola petición
+     * @param ids - identificadores separados por coma
+     * @return los productos encontrados en el orden pedido y los IDs que no existen
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ResultadoMultiple<Producto>> obtenerProductosPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(productoService.obtenerProductosPorIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * POST /api/productos/por-ids - Igual que GET ?ids=, pero con los IDs en el body (para listas grandes)
+     * @param ids - lista de identificadores en formato JSON
+     * @return los productos encontrados en el orden pedido y los IDs que no existen
+     */
+    @PostMapping("/por-ids")
+    public ResponseEntity<ResultadoMultiple<Producto>> obtenerProductosPorIdsPost(@RequestBody List<Long> ids) {
+        return obtenerProductosPorIds(ids);
+    }
+    
     /**
      * POST /api/productos - Crea un nuevo producto
      * @param producto - datos del producto a crear (viene en el body del request)
@@ -106,6 +151,73 @@ public class ProductoController {
         }
     }
     
+    /**
+     * DELETE /api/productos?ids=1,2,3 - Elimina varios productos en una sola petición
+     * @param ids - identificadores separados por coma
+     * @return IDs eliminados (en "encontrados") y los que no existían (en "faltantes")
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<ResultadoMultiple<Long>> eliminarProductosPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(productoService.eliminarProductosPorIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * POST /api/productos/eliminar-por-ids - Igual que DELETE ?ids=, pero con los IDs en el body
+     * @param ids - lista de identificadores en formato JSON
+     * @return IDs eliminados y los que no existían
+     */
+    @PostMapping("/eliminar-por-ids")
+    public ResponseEntity<ResultadoMultiple<Long>> eliminarProductosPorIdsPost(@RequestBody List<Long> ids) {
+        return eliminarProductosPorIds(ids);
+    }
+    
+    /**
+     * DELETE /api/productos/sin-stock?categoria=X - Elimina los productos sin stock de una categoría
+     * @param categoria - categoría de los productos
+     * @return cantidad de productos eliminados
+     */
+    @DeleteMapping("/sin-stock")
+    public ResponseEntity<Map<String, Integer>> eliminarProductosSinStock(@RequestParam String categoria) {
+        int eliminados = productoService.eliminarProductosSinStock(categoria);
+        return ResponseEntity.ok(Map.of("eliminados", eliminados));
+    }
+    
+    /**
+     * POST /api/productos/ajuste-masivo - Ajusta precio y/o stock de muchos productos a la vez
+     * Con "simulacion": true solo devuelve cuántos productos se afectarían
+     * @param ajuste - categoría o IDs, y porcentaje/monto de precio y/o diferencia de stock
+     * @return productos afectados, o 400 si la petición no es válida
+     */
+    @PostMapping("/ajuste-masivo")
+    public ResponseEntity<ResultadoAjuste> ajustarProductos(@RequestBody AjusteMasivo ajuste) {
+        try {
+            return ResponseEntity.ok(ajusteProductosService.ajustar(ajuste));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * GET /api/productos/autocompletar?prefijo=lec&limite=10 - Sugerencias de nombres mientras se escribe
+     * No distingue mayúsculas ni acentos y busca desde el inicio de cada palabra del nombre
+     * @param prefijo - texto escrito hasta ahora
+     * @param limite - máximo de sugerencias
+     * @return sugerencias de mayor a menor popularidad, o 503 mientras se carga el índice
+     */
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<SugerenciaProducto>> autocompletar(@RequestParam String prefijo,
+                                                                  @RequestParam(defaultValue = "10") int limite) {
+        try {
+            return ResponseEntity.ok(autocompletadoService.sugerir(prefijo, limite));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     /**
      * GET /api/productos/buscar?nombre=texto - Busca productos por nombre
      * @param nombre - texto a buscar en el nombre del producto
@@ -130,6 +242,15 @@ public class ProductoController {
         return ResponseEntity.ok(productos);
     }
     
+    /**
+     * GET /api/productos/categorias - Lista las categorías existentes con su cantidad de productos
+     * @return categorías ordenadas por nombre
+     */
+    @GetMapping("/categorias")
+    public ResponseEntity<List<InfoCategoria>> obtenerCategorias() {
+        return ResponseEntity.ok(productoService.listarCategorias());
+    }
+    
     /**
      * GET /api/productos/stock/{minimo} - Obtiene productos con stock mínimo
      * @param minimo - cantidad mínima de stock
@@ -141,4 +262,21 @@ public class ProductoController {
         List<Producto> productos = productoService.obtenerProductosConStock(minimo);
         return ResponseEntity.ok(productos);
     }
-}
+    
+    /**
+     * GET /api/productos/cambios?desde=token - Sincronización incremental
+     * Devuelve solo los productos creados/modificados y los IDs eliminados desde la marca de agua del cliente
+     * @param desde - token recibido en la respuesta anterior (vacío para la primera sincronización)
+     * @param limite - máximo de elementos a devolver
+     * @return cambios con el nuevo token, o 400 si el token no es válido
+     */
+    @GetMapping("/cambios")
+    public ResponseEntity<CambiosDesde<Producto>> obtenerCambios(@RequestParam(required = false) String desde,
+                                                              @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(productoService.obtenerCambiosDesde(desde, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
\ No newline at end of file
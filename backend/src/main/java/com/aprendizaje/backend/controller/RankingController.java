@@ -0,0 +1,44 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.ranking.CriterioRanking;
+import com.aprendizaje.backend.ranking.RankingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST para los rankings de productos, servidos desde memoria
+ */
+@RestController
+@RequestMapping("/api/productos/ranking")
+public class RankingController {
+
+    @Autowired
+    private RankingService rankingService;
+
+    /**
+     * GET /api/productos/ranking/{criterio}?categoria=Lácteos&limite=20 - Primeros productos según un criterio
+     * @param criterio - mas-baratos, mas-caros, menos-stock o mas-nuevos
+     * @param categoria - categoría (opcional; sin ella, todo el catálogo)
+     * @param limite - cantidad de productos
+     * @return productos en orden, o 400 si el criterio o el límite no son válidos
+     */
+    @GetMapping("/{criterio}")
+    public ResponseEntity<List<Producto>> obtenerRanking(@PathVariable String criterio,
+                                                         @RequestParam(required = false) String categoria,
+                                                         @RequestParam(defaultValue = "20") int limite) {
+        try {
+            String filtro = categoria != null && !categoria.isBlank() ? categoria : null;
+            return ResponseEntity.ok(rankingService.ranking(CriterioRanking.desdeRuta(criterio), filtro, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
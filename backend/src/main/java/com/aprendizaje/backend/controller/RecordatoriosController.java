@@ -0,0 +1,30 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.recordatorios.ProgramadorRecordatorios;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Controlador REST para consultar el programador de recordatorios de tareas
+ */
+@RestController
+@RequestMapping("/api/admin/recordatorios")
+public class RecordatoriosController {
+
+    @Autowired
+    private ProgramadorRecordatorios programadorRecordatorios;
+
+    /**
+     * GET /api/admin/recordatorios - Estado del programador
+     * @return recordatorios programados, ventana cargada, marca, enviados, lotes pendientes y último error
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerEstado() {
+        return ResponseEntity.ok(programadorRecordatorios.estado());
+    }
+}
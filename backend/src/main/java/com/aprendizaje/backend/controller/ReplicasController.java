@@ -0,0 +1,50 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.datasource.EnrutadorLecturasDataSource;
+import com.aprendizaje.backend.datasource.ReplicaLectura;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para consultar el estado de las réplicas de lectura
+ * Solo existe cuando las réplicas están habilitadas
+ */
+@RestController
+@RequestMapping("/api/admin/replicas")
+@ConditionalOnProperty(name = "app.datasource.replicas.habilitado", havingValue = "true")
+public class ReplicasController {
+
+    /**
+     * Enrutador que conoce las réplicas y su retraso
+     */
+    @Autowired
+    private EnrutadorLecturasDataSource enrutadorLecturasDataSource;
+
+    /**
+     * GET /api/admin/replicas - Estado de cada réplica
+     * @return nombre, disponibilidad, retraso (lag) y conexiones activas de cada réplica
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> obtenerEstado() {
+        List<Map<String, Object>> estado = new ArrayList<>();
+        for (ReplicaLectura replica : enrutadorLecturasDataSource.getReplicas()) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("nombre", replica.getNombre());
+            datos.put("disponible", replica.isDisponible());
+            datos.put("lagMs", replica.getLagMs());
+            datos.put("aceptaLecturas", replica.aceptaLecturas(enrutadorLecturasDataSource.getLagMaximoMs()));
+            datos.put("conexionesActivas", replica.conexionesActivas());
+            estado.add(datos);
+        }
+        return ResponseEntity.ok(estado);
+    }
+}
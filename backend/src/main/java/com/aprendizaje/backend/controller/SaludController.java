@@ -0,0 +1,60 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.calentamiento.CalentamientoService;
+import com.aprendizaje.backend.dto.InfoCalentamiento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Controlador REST con las sondas de salud para el balanceador o el orquestador
+ * Usa los estados de disponibilidad de Spring Boot (no hace falta Actuator)
+ */
+@RestController
+@RequestMapping("/api/salud")
+public class SaludController {
+
+    /**
+     * Estados de disponibilidad que publica Spring Boot
+     */
+    @Autowired
+    private ApplicationAvailability disponibilidad;
+
+    /**
+     * Servicio de calentamiento, para informar la fase en curso
+     */
+    @Autowired
+    private CalentamientoService calentamientoService;
+
+    /**
+     * GET /api/salud/vivo - Sonda de vida: el proceso responde y no quedó en un estado roto
+     * @return 200 OK si está vivo, 503 si no
+     */
+    @GetMapping("/vivo")
+    public ResponseEntity<Map<String, String>> vivo() {
+        LivenessState estado = disponibilidad.getLivenessState();
+        HttpStatus status = estado == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("estado", estado.name()));
+    }
+
+    /**
+     * GET /api/salud/listo - Sonda de disponibilidad: la instancia terminó de calentarse
+     * y acepta tráfico (vuelve a 503 durante el apagado)
+     * @return 200 OK si está lista, 503 mientras se calienta
+     */
+    @GetMapping("/listo")
+    public ResponseEntity<InfoCalentamiento> listo() {
+        boolean listo = disponibilidad.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC
+                && calentamientoService.estaTerminado();
+        return ResponseEntity.status(listo ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(calentamientoService.info(listo));
+    }
+}
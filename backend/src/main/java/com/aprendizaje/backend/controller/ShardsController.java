@@ -0,0 +1,91 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.shards.RebalanceadorShards;
+import com.aprendizaje.backend.shards.ShardsTareas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para consultar y rebalancear los shards de tareas
+ * Solo existe cuando los shards están habilitados
+ */
+@RestController
+@RequestMapping("/api/admin/shards")
+@ConditionalOnProperty(name = "app.tareas.shards.habilitado", havingValue = "true")
+public class ShardsController {
+
+    /**
+     * Operaciones sobre los shards y su mapa de buckets
+     */
+    @Autowired
+    private ShardsTareas shardsTareas;
+
+    /**
+     * Movimiento de buckets entre shards
+     */
+    @Autowired
+    private RebalanceadorShards rebalanceadorShards;
+
+    /**
+     * GET /api/admin/shards - Buckets de cada shard y progreso del rebalanceo
+     * @return cantidad de buckets por shard y estado del último rebalanceo
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerEstado() {
+        List<Map<String, Object>> shards = new ArrayList<>();
+        int[] buckets = shardsTareas.getMapa().bucketsPorShard();
+        for (int shard = 0; shard < buckets.length; shard++) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("shard", shard);
+            datos.put("buckets", buckets[shard]);
+            shards.add(datos);
+        }
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("shards", shards);
+        estado.put("rebalanceo", rebalanceadorShards.getEstado().aMapa());
+        return ResponseEntity.ok(estado);
+    }
+
+    /**
+     * POST /api/admin/shards/rebalanceo - Mueve buckets entre shards en segundo plano
+     * Cuerpo: {"buckets": [1, 2, 3], "destino": 1} o {"nivelar": true} para repartirlos en partes iguales
+     * @return 202 con la cantidad de buckets a mover, 400 si la petición es inválida
+     * o 409 si ya hay un rebalanceo en curso
+     */
+    @PostMapping("/rebalanceo")
+    public ResponseEntity<Map<String, Object>> rebalancear(@RequestBody Map<String, Object> peticion) {
+        int cantidad;
+        try {
+            if (Boolean.TRUE.equals(peticion.get("nivelar"))) {
+                cantidad = rebalanceadorShards.nivelar();
+            } else if (peticion.get("buckets") instanceof List<?> lista && peticion.get("destino") instanceof Integer destino) {
+                List<Integer> buckets = new ArrayList<>();
+                for (Object bucket : lista) {
+                    buckets.add(bucket instanceof Integer numero ? numero : null);
+                }
+                cantidad = rebalanceadorShards.iniciar(buckets, destino);
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("bucketsAMover", cantidad);
+        return ResponseEntity.accepted().body(respuesta);
+    }
+}
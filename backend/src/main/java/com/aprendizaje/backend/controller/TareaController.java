@@ -1,6 +1,13 @@
 package com.aprendizaje.backend.controller;
 
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.PaginaResultados;
+import com.aprendizaje.backend.dto.PeticionLote;
+import com.aprendizaje.backend.dto.ResultadoBusqueda;
+import com.aprendizaje.backend.dto.ResultadoLote;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
 import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.service.LoteRechazadoException;
 import com.aprendizaje.backend.service.TareaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -8,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -27,16 +35,31 @@ public class TareaController {
     
     /**
      * GET /api/tareas - Obtiene todas las tareas
+     * GET /api/tareas?incluirArchivadas=true - Incluye también las completadas archivadas
+     * @param incluirArchivadas - si se deben leer también las tareas archivadas
      * @return lista de todas las tareas en formato JSON
      */
     @GetMapping
-    public ResponseEntity<List<Tarea>> obtenerTodasLasTareas() {
+    public ResponseEntity<List<Tarea>> obtenerTodasLasTareas(
+            @RequestParam(defaultValue = "false") boolean incluirArchivadas) {
         // Llama al servicio para obtener todas las tareas
-        List<Tarea> tareas = tareaService.obtenerTodasLasTareas();
+        List<Tarea> tareas = incluirArchivadas
+                ? tareaService.obtenerTodasLasTareasIncluyendoArchivadas()
+                : tareaService.obtenerTodasLasTareas();
         // Retorna la lista con código HTTP 200 OK
         return ResponseEntity.ok(tareas);
     }
     
+    /**
+     * GET /api/tareas/contar?completada=true - Cuenta las tareas activas
+     * @param completada - filtra por estado (opcional)
+     * @return cantidad de tareas
+     */
+    @GetMapping("/contar")
+    public ResponseEntity<Long> contarTareas(@RequestParam(required = false) Boolean completada) {
+        return ResponseEntity.ok(tareaService.contarTareas(completada));
+    }
+    
     /**
      * GET /api/tareas/{id} - Obtiene una tarea por su ID
      * @param id - identificador de la tarea
@@ -53,6 +76,30 @@ public class TareaController {
                     .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * GET /api/tareas?ids=1,2,3 - Obtiene varias tareas por ID en una sola petición
+     * @param ids - identificadores separados por coma
+     * @return las tareas encontradas en el orden pedido y los IDs que no existen
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ResultadoMultiple<Tarea>> obtenerTareasPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(tareaService.obtenerTareasPorIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * POST /api/tareas/por-ids - Igual que GET ?ids=, pero con los IDs en el body (para listas grandes)
+     * @param ids - lista de identificadores en formato JSON
+     * @return las tareas encontradas en el orden pedido y los IDs que no existen
+     */
+    @PostMapping("/por-ids")
+    public ResponseEntity<ResultadoMultiple<Tarea>> obtenerTareasPorIdsPost(@RequestBody List<Long> ids) {
+        return obtenerTareasPorIds(ids);
+    }
+    
     /**
      * POST /api/tareas - Crea una nueva tarea
      * @param tarea - datos de la tarea a crear (viene en el body del request)
@@ -66,6 +113,23 @@ public class TareaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevaTarea);
     }
     
+    /**
+     * POST /api/tareas/lote - Aplica varias operaciones (crear, actualizar, completar,
+     * descompletar, eliminar) en una sola transacción
+     * @param peticion - operaciones en orden y modo TODO_O_NADA (por defecto) o MEJOR_ESFUERZO
+     * @return resultado de cada operación; 409 Conflict si el lote TODO_O_NADA se revirtió
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLote> ejecutarLote(@RequestBody PeticionLote peticion) {
+        try {
+            return ResponseEntity.ok(tareaService.ejecutarLote(peticion));
+        } catch (LoteRechazadoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getResultado());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * PUT /api/tareas/{id} - Actualiza una tarea existente
      * @param id - identificador de la tarea a actualizar
@@ -106,22 +170,56 @@ public class TareaController {
         }
     }
     
+    /**
+     * DELETE /api/tareas?ids=1,2,3 - Elimina varias tareas en una sola petición
+     * @param ids - identificadores separados por coma
+     * @return IDs eliminados (en "encontrados") y los que no existían (en "faltantes")
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<ResultadoMultiple<Long>> eliminarTareasPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(tareaService.eliminarTareasPorIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * POST /api/tareas/eliminar-por-ids - Igual que DELETE ?ids=, pero con los IDs en el body
+     * @param ids - lista de identificadores en formato JSON
+     * @return IDs eliminados y los que no existían
+     */
+    @PostMapping("/eliminar-por-ids")
+    public ResponseEntity<ResultadoMultiple<Long>> eliminarTareasPorIdsPost(@RequestBody List<Long> ids) {
+        return eliminarTareasPorIds(ids);
+    }
+    
+    /**
+     * DELETE /api/tareas/completadas - Elimina todas las tareas completadas
+     * @return cantidad de tareas eliminadas
+     */
+    @DeleteMapping("/completadas")
+    public ResponseEntity<Map<String, Integer>> eliminarTareasCompletadas() {
+        int eliminadas = tareaService.eliminarTareasCompletadas();
+        return ResponseEntity.ok(Map.of("eliminadas", eliminadas));
+    }
+    
     /**
      * PUT /api/tareas/{id}/completar - Marca una tarea como completada
      * @param id - identificador de la tarea
-     * @return la tarea actualizada, o 404 si no existe
+     * @return la tarea actualizada, 202 si el cambio quedó en el buffer de escritura diferida, o 404 si no existe
      */
     @PutMapping("/{id}/completar")
     public ResponseEntity<Tarea> completarTarea(@PathVariable Long id) {
-        // Obtener la tarea
-        Optional<Tarea> tareaExistente = tareaService.obtenerTareaPorId(id);
+        // Write-behind: se confirma sin leer; la tarea guardada llega después por SSE
+        if (tareaService.cambiarEstadoDiferido(id, true)) {
+            return ResponseEntity.accepted().build();
+        }
+        
+        // Marcar como completada (una sola lectura en el servicio)
+        Tarea tareaActualizada = tareaService.cambiarEstadoTarea(id, true);
         
-        if (tareaExistente.isPresent()) {
-            Tarea tarea = tareaExistente.get();
-            // Marcar como completada
-            tarea.setCompletada(true);
-            // Guardar
-            Tarea tareaActualizada = tareaService.actualizarTarea(id, tarea);
+        if (tareaActualizada != null) {
             return ResponseEntity.ok(tareaActualizada);
         } else {
             return ResponseEntity.notFound().build();
@@ -131,22 +229,61 @@ public class TareaController {
     /**
      * PUT /api/tareas/{id}/descompletar - Marca una tarea como no completada
      * @param id - identificador de la tarea
-     * @return la tarea actualizada, o 404 si no existe
+     * @return la tarea actualizada, 202 si el cambio quedó en el buffer de escritura diferida, o 404 si no existe
      */
     @PutMapping("/{id}/descompletar")
     public ResponseEntity<Tarea> descompletarTarea(@PathVariable Long id) {
-        // Obtener la tarea
-        Optional<Tarea> tareaExistente = tareaService.obtenerTareaPorId(id);
+        // Write-behind: se confirma sin leer; la tarea guardada llega después por SSE
+        if (tareaService.cambiarEstadoDiferido(id, false)) {
+            return ResponseEntity.accepted().build();
+        }
         
-        if (tareaExistente.isPresent()) {
-            Tarea tarea = tareaExistente.get();
-            // Marcar como no completada
-            tarea.setCompletada(false);
-            // Guardar
-            Tarea tareaActualizada = tareaService.actualizarTarea(id, tarea);
+        // Marcar como no completada (una sola lectura en el servicio)
+        Tarea tareaActualizada = tareaService.cambiarEstadoTarea(id, false);
+        
+        if (tareaActualizada != null) {
             return ResponseEntity.ok(tareaActualizada);
         } else {
             return ResponseEntity.notFound().build();
         }
     }
-}
+    
+    /**
+     * GET /api/tareas/buscar?q=texto&completada=false&pagina=0&tamano=20 - Búsqueda de texto completo
+     * Busca en título y descripción (en español), ordena por relevancia y resalta las coincidencias
+     * @param q - texto a buscar
+     * @param completada - filtro opcional por estado
+     * @param pagina - número de página, desde 0
+     * @param tamano - resultados por página
+     * @return página de resultados, o 400 si falta el texto o la página no es válida
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<PaginaResultados<ResultadoBusqueda>> buscarTareas(
+            @RequestParam String q,
+            @RequestParam(required = false) Boolean completada,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano) {
+        try {
+            return ResponseEntity.ok(tareaService.buscarTareas(q, completada, pagina, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * GET /api/tareas/cambios?desde=token - Sincronización incremental
+     * Devuelve solo las tareas creadas/modificadas y los IDs eliminados desde la marca de agua del cliente
+     * @param desde - token recibido en la respuesta anterior (vacío para la primera sincronización)
+     * @param limite - máximo de elementos a devolver
+     * @return cambios con el nuevo token, o 400 si el token no es válido
+     */
+    @GetMapping("/cambios")
+    public ResponseEntity<CambiosDesde<Tarea>> obtenerCambios(@RequestParam(required = false) String desde,
+                                                              @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(tareaService.obtenerCambiosDesde(desde, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
\ No newline at end of file
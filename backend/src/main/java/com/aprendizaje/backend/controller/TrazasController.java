@@ -0,0 +1,63 @@
+package com.aprendizaje.backend.controller;
+
+import com.aprendizaje.backend.trazas.AlmacenTrazas;
+import com.aprendizaje.backend.trazas.Traza;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para consultar las trazas guardadas (lentas, con error o muestreadas)
+ */
+@RestController
+@RequestMapping("/api/admin/trazas")
+@ConditionalOnProperty(name = "app.trazas.habilitado", havingValue = "true", matchIfMissing = true)
+public class TrazasController {
+
+    /**
+     * Almacén de trazas en memoria
+     */
+    @Autowired
+    private AlmacenTrazas almacenTrazas;
+
+    /**
+     * GET /api/admin/trazas?limite=50&soloErrores=false - Trazas más recientes
+     * @param limite - máximo de trazas
+     * @param soloErrores - si es true solo las que fallaron
+     * @return trazas de la más reciente a la más antigua
+     */
+    @GetMapping
+    public ResponseEntity<List<Traza>> obtenerTrazas(@RequestParam(defaultValue = "50") int limite,
+                                                     @RequestParam(defaultValue = "false") boolean soloErrores) {
+        return ResponseEntity.ok(almacenTrazas.recientes(Math.max(0, limite), soloErrores));
+    }
+
+    /**
+     * GET /api/admin/trazas/{traceId} - Una traza por el valor de la cabecera X-Trace-Id
+     * @param traceId - ID de la traza
+     * @return la traza o 404 si no se guardó
+     */
+    @GetMapping("/{traceId}")
+    public ResponseEntity<Traza> obtenerTraza(@PathVariable String traceId) {
+        Traza traza = almacenTrazas.buscar(traceId);
+        return traza != null ? ResponseEntity.ok(traza) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * GET /api/admin/trazas/estadisticas - Trazas vistas, guardadas y líneas de exportación perdidas
+     * @return contadores del almacén
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<Map<String, Long>> obtenerEstadisticas() {
+        Map<String, Long> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("vistas", almacenTrazas.getVistas());
+        estadisticas.put("guardadas", almacenTrazas.getGuardadas());
+        estadisticas.put("exportacionesPerdidas", almacenTrazas.getExportacionesPerdidas());
+        return ResponseEntity.ok(estadisticas);
+    }
+}
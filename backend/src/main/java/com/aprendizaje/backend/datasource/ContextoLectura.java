@@ -0,0 +1,35 @@
+package com.aprendizaje.backend.datasource;
+
+/**
+ * Indica, para el hilo actual, si las lecturas deben ir al primario
+ * Se activa cuando el cliente escribió hace poco (read-your-writes)
+ */
+public final class ContextoLectura {
+
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIO = new ThreadLocal<>();
+
+    private ContextoLectura() {
+    }
+
+    /**
+     * Obliga a que las lecturas del hilo actual vayan al primario
+     */
+    public static void forzarPrimario() {
+        FORZAR_PRIMARIO.set(Boolean.TRUE);
+    }
+
+    /**
+     * Indica si las lecturas del hilo actual deben ir al primario
+     * @return true si el cliente escribió hace poco
+     */
+    public static boolean debeUsarPrimario() {
+        return Boolean.TRUE.equals(FORZAR_PRIMARIO.get());
+    }
+
+    /**
+     * Limpia el estado al terminar la petición
+     */
+    public static void limpiar() {
+        FORZAR_PRIMARIO.remove();
+    }
+}
@@ -0,0 +1,158 @@
+package com.aprendizaje.backend.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas
+ * y todo lo demás al primario
+ *
+ * Debe envolverse en un LazyConnectionDataSourceProxy: así la conexión real se pide
+ * cuando la transacción ya está marcada como readOnly y no al comenzarla.
+ */
+public class EnrutadorLecturasDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrutadorLecturasDataSource.class);
+
+    /**
+     * Consulta que mide el retraso de una réplica en milisegundos
+     * Si ya aplicó todo lo recibido se considera sin retraso
+     */
+    private static final String CONSULTA_LAG =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    /**
+     * Estrategias para elegir la réplica
+     */
+    public enum Estrategia {
+        ROUND_ROBIN,
+        MENOS_CARGADA
+    }
+
+    private final DataSource primario;
+    private final List<ReplicaLectura> replicas;
+    private final Estrategia estrategia;
+    private final long lagMaximoMs;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    public EnrutadorLecturasDataSource(DataSource primario, List<ReplicaLectura> replicas,
+                                       Estrategia estrategia, long lagMaximoMs) {
+        this.primario = primario;
+        this.replicas = replicas;
+        this.estrategia = estrategia;
+        this.lagMaximoMs = lagMaximoMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return destino().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return destino().getConnection(username, password);
+    }
+
+    /**
+     * Decide a dónde va la conexión que se está pidiendo
+     * @return una réplica si la transacción es de solo lectura y hay alguna sana; si no, el primario
+     */
+    DataSource destino() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ContextoLectura.debeUsarPrimario()) {
+            return primario;
+        }
+        ReplicaLectura replica = seleccionarReplica();
+        return replica != null ? replica.getDataSource() : primario;
+    }
+
+    /**
+     * Elige una réplica según la estrategia configurada, ignorando las caídas o muy atrasadas
+     * @return réplica elegida o null si ninguna acepta lecturas
+     */
+    ReplicaLectura seleccionarReplica() {
+        if (estrategia == Estrategia.MENOS_CARGADA) {
+            ReplicaLectura mejor = null;
+            for (ReplicaLectura replica : replicas) {
+                if (replica.aceptaLecturas(lagMaximoMs)
+                        && (mejor == null || replica.conexionesActivas() < mejor.conexionesActivas())) {
+                    mejor = replica;
+                }
+            }
+            return mejor;
+        }
+
+        // Round-robin: empieza en el siguiente turno y salta las que no aceptan lecturas
+        int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaLectura replica = replicas.get((inicio + i) % replicas.size());
+            if (replica.aceptaLecturas(lagMaximoMs)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mide el retraso de cada réplica y marca como no disponibles las que no responden
+     * Las réplicas muy atrasadas o caídas dejan de recibir lecturas hasta recuperarse
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.intervalo-monitor-ms:5000}")
+    public void medirLag() {
+        for (ReplicaLectura replica : replicas) {
+            try (Connection conexion = replica.getDataSource().getConnection();
+                 Statement sentencia = conexion.createStatement();
+                 ResultSet resultado = sentencia.executeQuery(CONSULTA_LAG)) {
+                resultado.next();
+                replica.setLagMs(resultado.getLong(1));
+                replica.setDisponible(true);
+            } catch (SQLException e) {
+                if (replica.isDisponible()) {
+                    log.warn("Réplica {} no disponible: {}", replica.getNombre(), e.getMessage());
+                }
+                replica.setDisponible(false);
+            }
+        }
+    }
+
+    /**
+     * Réplicas configuradas
+     * @return lista de réplicas
+     */
+    public List<ReplicaLectura> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Retraso máximo aceptado para enviar lecturas a una réplica
+     * @return milisegundos
+     */
+    public long getLagMaximoMs() {
+        return lagMaximoMs;
+    }
+
+    /**
+     * Cierra los pools del primario y de las réplicas al apagar la aplicación
+     */
+    @Override
+    public void close() {
+        if (primario instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+        for (ReplicaLectura replica : replicas) {
+            replica.getDataSource().close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.aprendizaje.backend.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interceptor que implementa "read-your-writes" con réplicas
+ *
+ * Cuando un cliente escribe (POST, PUT, PATCH o DELETE), durante la ventana configurada
+ * todas sus lecturas van al primario, para que no lea datos viejos de una réplica atrasada.
+ * POST /por-ids es una lectura (multi-get) y no cuenta como escritura.
+ * El cliente se identifica con la cabecera X-Cliente-Id o, si no la envía, con su IP.
+ */
+public class LecturaPropiaInterceptor implements HandlerInterceptor {
+
+    /**
+     * Cabecera opcional con el identificador del cliente
+     */
+    public static final String CABECERA_CLIENTE = "X-Cliente-Id";
+
+    private static final Set<String> METODOS_LECTURA = Set.of("GET", "HEAD", "OPTIONS");
+
+    /**
+     * Última escritura de cada cliente (milisegundos)
+     */
+    private final Map<String, Long> ultimasEscrituras = new ConcurrentHashMap<>();
+
+    private final long ventanaMs;
+
+    public LecturaPropiaInterceptor(long ventanaMs) {
+        this.ventanaMs = ventanaMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long ultimaEscritura = ultimasEscrituras.get(cliente(request));
+        if (ultimaEscritura != null && System.currentTimeMillis() - ultimaEscritura < ventanaMs) {
+            ContextoLectura.forzarPrimario();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ContextoLectura.limpiar();
+        if (esEscritura(request) && ex == null && response.getStatus() < 400) {
+            ultimasEscrituras.put(cliente(request), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Olvida los clientes cuya ventana ya terminó
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.intervalo-monitor-ms:5000}")
+    public void limpiarVencidos() {
+        long limite = System.currentTimeMillis() - ventanaMs;
+        ultimasEscrituras.values().removeIf(momento -> momento < limite);
+    }
+
+    /**
+     * Indica si la petición modifica datos; las lecturas por POST (multi-get) no cuentan
+     * @param request - petición HTTP
+     * @return true si es una escritura
+     */
+    static boolean esEscritura(HttpServletRequest request) {
+        if (METODOS_LECTURA.contains(request.getMethod())) {
+            return false;
+        }
+        return !("POST".equals(request.getMethod()) && request.getRequestURI().endsWith("/por-ids"));
+    }
+
+    /**
+     * Identificador del cliente: cabecera X-Cliente-Id o IP
+     */
+    private String cliente(HttpServletRequest request) {
+        String id = request.getHeader(CABECERA_CLIENTE);
+        return id != null && !id.isBlank() ? id : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,78 @@
+package com.aprendizaje.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Réplica de solo lectura de PostgreSQL con su pool de conexiones
+ * Guarda el último retraso (lag) medido y si está disponible
+ */
+public class ReplicaLectura {
+
+    /**
+     * Nombre de la réplica (también es el nombre del pool)
+     */
+    private final String nombre;
+
+    /**
+     * Pool de conexiones hacia la réplica
+     */
+    private final HikariDataSource dataSource;
+
+    /**
+     * Último retraso medido en milisegundos (-1 si aún no se midió)
+     */
+    private volatile long lagMs = -1;
+
+    /**
+     * Indica si la última medición pudo conectarse a la réplica
+     */
+    private volatile boolean disponible = true;
+
+    public ReplicaLectura(String nombre, HikariDataSource dataSource) {
+        this.nombre = nombre;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Cantidad de conexiones en uso en este momento
+     * @return conexiones activas (0 si el pool aún no arrancó)
+     */
+    public int conexionesActivas() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    /**
+     * Indica si la réplica puede recibir lecturas
+     * @param lagMaximoMs - retraso máximo aceptado
+     * @return true si está disponible y su retraso es aceptable
+     */
+    public boolean aceptaLecturas(long lagMaximoMs) {
+        return disponible && lagMs <= lagMaximoMs;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    public void setLagMs(long lagMs) {
+        this.lagMs = lagMs;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public void setDisponible(boolean disponible) {
+        this.disponible = disponible;
+    }
+}
@@ -0,0 +1,105 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.List;
+
+/**
+ * Petición de ajuste masivo de precio y/o stock de productos
+ *
+ * Filtro: una categoría o una lista de IDs (uno de los dos)
+ * Ajustes: porcentaje o monto fijo sobre el precio, y/o una diferencia de stock
+ * Ejemplo: {"categoria": "Electrónica", "porcentajePrecio": 7}
+ */
+public class AjusteMasivo {
+
+    /**
+     * Categoría de los productos a ajustar
+     */
+    private String categoria;
+
+    /**
+     * IDs de los productos a ajustar
+     */
+    private List<Long> ids;
+
+    /**
+     * Porcentaje a sumar al precio (7 = +7%, -10 = -10%)
+     */
+    private Double porcentajePrecio;
+
+    /**
+     * Monto fijo a sumar al precio (puede ser negativo)
+     */
+    private Double montoPrecio;
+
+    /**
+     * Cantidad a sumar al stock (puede ser negativa; el stock nunca baja de 0)
+     */
+    private Integer deltaStock;
+
+    /**
+     * Si es true solo se cuenta cuántos productos se afectarían, sin modificar nada
+     */
+    private boolean simulacion;
+
+    /**
+     * Tiempo máximo que cada lote puede mantener filas bloqueadas (opcional)
+     * Se limita a app.productos.ajuste.presupuesto-bloqueo-maximo-ms
+     */
+    private Long presupuestoBloqueoMs;
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public Double getPorcentajePrecio() {
+        return porcentajePrecio;
+    }
+
+    public void setPorcentajePrecio(Double porcentajePrecio) {
+        this.porcentajePrecio = porcentajePrecio;
+    }
+
+    public Double getMontoPrecio() {
+        return montoPrecio;
+    }
+
+    public void setMontoPrecio(Double montoPrecio) {
+        this.montoPrecio = montoPrecio;
+    }
+
+    public Integer getDeltaStock() {
+        return deltaStock;
+    }
+
+    public void setDeltaStock(Integer deltaStock) {
+        this.deltaStock = deltaStock;
+    }
+
+    public boolean isSimulacion() {
+        return simulacion;
+    }
+
+    public void setSimulacion(boolean simulacion) {
+        this.simulacion = simulacion;
+    }
+
+    public Long getPresupuestoBloqueoMs() {
+        return presupuestoBloqueoMs;
+    }
+
+    public void setPresupuestoBloqueoMs(Long presupuestoBloqueoMs) {
+        this.presupuestoBloqueoMs = presupuestoBloqueoMs;
+    }
+}
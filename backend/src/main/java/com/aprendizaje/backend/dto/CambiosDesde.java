@@ -0,0 +1,54 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de la sincronización incremental
+ * Contiene las entidades creadas o modificadas y los IDs eliminados desde la marca de agua del cliente
+ * @param <T> tipo de entidad (Tarea o Producto)
+ */
+public class CambiosDesde<T> {
+
+    /**
+     * Entidades creadas o modificadas, ordenadas por versión
+     */
+    private final List<T> cambios;
+
+    /**
+     * IDs eliminados
+     */
+    private final List<Long> eliminados;
+
+    /**
+     * Marca de agua que el cliente debe enviar en la siguiente petición (?desde=)
+     */
+    private final String token;
+
+    /**
+     * Indica si quedan más cambios por descargar
+     */
+    private final boolean hayMas;
+
+    public CambiosDesde(List<T> cambios, List<Long> eliminados, String token, boolean hayMas) {
+        this.cambios = cambios;
+        this.eliminados = eliminados;
+        this.token = token;
+        this.hayMas = hayMas;
+    }
+
+    public List<T> getCambios() {
+        return cambios;
+    }
+
+    public List<Long> getEliminados() {
+        return eliminados;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+}
@@ -0,0 +1,36 @@
+package com.aprendizaje.backend.dto;
+
+/**
+ * Histograma de precios: cantidad de productos en cada intervalo [min + i*ancho, min + (i+1)*ancho)
+ * El último intervalo incluye el máximo
+ */
+public class Histograma {
+
+    private final double minimo;
+    private final double maximo;
+    private final double anchoIntervalo;
+    private final long[] conteos;
+
+    public Histograma(double minimo, double maximo, long[] conteos) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.anchoIntervalo = conteos.length == 0 ? 0 : (maximo - minimo) / conteos.length;
+        this.conteos = conteos;
+    }
+
+    public double getMinimo() {
+        return minimo;
+    }
+
+    public double getMaximo() {
+        return maximo;
+    }
+
+    public double getAnchoIntervalo() {
+        return anchoIntervalo;
+    }
+
+    public long[] getConteos() {
+        return conteos;
+    }
+}
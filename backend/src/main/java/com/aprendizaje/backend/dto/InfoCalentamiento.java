@@ -0,0 +1,52 @@
+package com.aprendizaje.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Estado del calentamiento de la instancia y de su disponibilidad
+ */
+public class InfoCalentamiento {
+
+    private final boolean listo;
+    private final String fase;
+    private final long rondas;
+    private final Instant inicio;
+    private final Instant fin;
+
+    public InfoCalentamiento(boolean listo, String fase, long rondas, Instant inicio, Instant fin) {
+        this.listo = listo;
+        this.fase = fase;
+        this.rondas = rondas;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    /**
+     * true si la instancia acepta tráfico
+     */
+    public boolean isListo() {
+        return listo;
+    }
+
+    /**
+     * PENDIENTE, CONEXIONES, CODIGO, CACHES o TERMINADO
+     */
+    public String getFase() {
+        return fase;
+    }
+
+    /**
+     * Rondas de llamadas representativas ejecutadas
+     */
+    public long getRondas() {
+        return rondas;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    public Instant getFin() {
+        return fin;
+    }
+}
@@ -0,0 +1,35 @@
+package com.aprendizaje.backend.dto;
+
+/**
+ * Categoría del catálogo de productos con su cantidad actual de productos
+ */
+public class InfoCategoria {
+
+    private final short id;
+    private final String nombre;
+    private final long cantidad;
+
+    public InfoCategoria(short id, String nombre, long cantidad) {
+        this.id = id;
+        this.nombre = nombre;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * Código de la categoría (clave del diccionario)
+     */
+    public short getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Productos de la categoría según el contador de la tabla categorias
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+}
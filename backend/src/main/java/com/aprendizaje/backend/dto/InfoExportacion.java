@@ -0,0 +1,103 @@
+package com.aprendizaje.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Estado y progreso de un trabajo de exportación
+ */
+public class InfoExportacion {
+
+    private final String id;
+    private final String entidad;
+    private final String formato;
+    private final String estado;
+    private final long filasEscritas;
+    private final long filasEstimadas;
+    private final long tamanoBytes;
+    private final String error;
+    private final Instant creada;
+    private final Instant inicio;
+    private final Instant fin;
+
+    public InfoExportacion(String id, String entidad, String formato, String estado, long filasEscritas,
+                           long filasEstimadas, long tamanoBytes, String error,
+                           Instant creada, Instant inicio, Instant fin) {
+        this.id = id;
+        this.entidad = entidad;
+        this.formato = formato;
+        this.estado = estado;
+        this.filasEscritas = filasEscritas;
+        this.filasEstimadas = filasEstimadas;
+        this.tamanoBytes = tamanoBytes;
+        this.error = error;
+        this.creada = creada;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public String getFormato() {
+        return formato;
+    }
+
+    /**
+     * EN_COLA, EN_CURSO, COMPLETADA, FALLIDA o CANCELADA
+     */
+    public String getEstado() {
+        return estado;
+    }
+
+    public long getFilasEscritas() {
+        return filasEscritas;
+    }
+
+    /**
+     * Filas que cumplían los filtros al iniciar (puede variar si hay cambios durante la exportación)
+     */
+    public long getFilasEstimadas() {
+        return filasEstimadas;
+    }
+
+    /**
+     * Porcentaje de avance entre 0 y 100
+     */
+    public double getProgreso() {
+        if ("COMPLETADA".equals(estado)) {
+            return 100;
+        }
+        if (filasEstimadas <= 0) {
+            return 0;
+        }
+        return Math.min(99.9, 100.0 * filasEscritas / filasEstimadas);
+    }
+
+    /**
+     * Tamaño del archivo comprimido escrito hasta ahora
+     */
+    public long getTamanoBytes() {
+        return tamanoBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getCreada() {
+        return creada;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    public Instant getFin() {
+        return fin;
+    }
+}
@@ -0,0 +1,59 @@
+package com.aprendizaje.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Estado de una grabación de Java Flight Recorder
+ */
+public class InfoGrabacion {
+
+    private final long id;
+    private final String nombre;
+    private final String estado;
+    private final Instant inicio;
+    private final Instant fin;
+    private final Long duracionSegundos;
+    private final long tamanoBytes;
+
+    public InfoGrabacion(long id, String nombre, String estado, Instant inicio, Instant fin,
+                         Long duracionSegundos, long tamanoBytes) {
+        this.id = id;
+        this.nombre = nombre;
+        this.estado = estado;
+        this.inicio = inicio;
+        this.fin = fin;
+        this.duracionSegundos = duracionSegundos;
+        this.tamanoBytes = tamanoBytes;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * NEW, DELAYED, RUNNING, STOPPED o CLOSED (estados de jdk.jfr.RecordingState)
+     */
+    public String getEstado() {
+        return estado;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    public Instant getFin() {
+        return fin;
+    }
+
+    public Long getDuracionSegundos() {
+        return duracionSegundos;
+    }
+
+    public long getTamanoBytes() {
+        return tamanoBytes;
+    }
+}
@@ -0,0 +1,56 @@
+package com.aprendizaje.backend.dto;
+
+import com.aprendizaje.backend.model.Tarea;
+
+/**
+ * Una operación dentro de un lote de POST /api/tareas/lote
+ * Ejemplos: {"tipo": "CREAR", "tarea": {...}}, {"tipo": "COMPLETAR", "id": 5}, {"tipo": "ELIMINAR", "id": 7}
+ */
+public class OperacionLote {
+
+    /**
+     * Tipos de operación admitidos
+     */
+    public enum Tipo {
+        CREAR, ACTUALIZAR, COMPLETAR, DESCOMPLETAR, ELIMINAR
+    }
+
+    /**
+     * Tipo de operación
+     */
+    private Tipo tipo;
+
+    /**
+     * ID de la tarea (todas las operaciones menos CREAR)
+     */
+    private Long id;
+
+    /**
+     * Datos de la tarea (CREAR y ACTUALIZAR)
+     */
+    private Tarea tarea;
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(Tipo tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Tarea getTarea() {
+        return tarea;
+    }
+
+    public void setTarea(Tarea tarea) {
+        this.tarea = tarea;
+    }
+}
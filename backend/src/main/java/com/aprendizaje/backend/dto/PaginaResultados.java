@@ -0,0 +1,39 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.List;
+
+/**
+ * Una página de resultados
+ * No incluye el total (contarlo obligaría a recorrer todas las coincidencias);
+ * hayMas indica si existe una página siguiente
+ */
+public class PaginaResultados<T> {
+
+    private final List<T> resultados;
+    private final int pagina;
+    private final int tamano;
+    private final boolean hayMas;
+
+    public PaginaResultados(List<T> resultados, int pagina, int tamano, boolean hayMas) {
+        this.resultados = resultados;
+        this.pagina = pagina;
+        this.tamano = tamano;
+        this.hayMas = hayMas;
+    }
+
+    public List<T> getResultados() {
+        return resultados;
+    }
+
+    public int getPagina() {
+        return pagina;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+}
@@ -0,0 +1,77 @@
+package com.aprendizaje.backend.dto;
+
+/**
+ * Petición para exportar tareas o productos en segundo plano
+ * Los filtros son opcionales; los que no aplican a la entidad se ignoran
+ * Ejemplo: {"entidad": "producto", "formato": "CSV", "categoria": "Lácteos", "stockMinimo": 1}
+ */
+public class PeticionExportacion {
+
+    /**
+     * "tarea" o "producto"
+     */
+    private String entidad;
+
+    /**
+     * CSV o NDJSON (un objeto JSON por línea)
+     */
+    private String formato = "CSV";
+
+    /**
+     * Solo tareas: filtra por estado
+     */
+    private Boolean completada;
+
+    /**
+     * Solo productos: filtra por categoría
+     */
+    private String categoria;
+
+    /**
+     * Solo productos: stock mínimo
+     */
+    private Integer stockMinimo;
+
+    public PeticionExportacion() {
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public void setEntidad(String entidad) {
+        this.entidad = entidad;
+    }
+
+    public String getFormato() {
+        return formato;
+    }
+
+    public void setFormato(String formato) {
+        this.formato = formato;
+    }
+
+    public Boolean getCompletada() {
+        return completada;
+    }
+
+    public void setCompletada(Boolean completada) {
+        this.completada = completada;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public Integer getStockMinimo() {
+        return stockMinimo;
+    }
+
+    public void setStockMinimo(Integer stockMinimo) {
+        this.stockMinimo = stockMinimo;
+    }
+}
@@ -0,0 +1,89 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.Map;
+
+/**
+ * Petición para iniciar una grabación de Java Flight Recorder
+ * Todos los campos son opcionales
+ * Ejemplo: {"configuracion": "profile", "duracionSegundos": 120, "umbralMs": 5}
+ */
+public class PeticionGrabacion {
+
+    /**
+     * Nombre de la grabación (se muestra en JDK Mission Control)
+     */
+    private String nombre;
+
+    /**
+     * Configuración base del JDK: "default" (menor costo) o "profile" (más detalle)
+     */
+    private String configuracion = "default";
+
+    /**
+     * Duración máxima; al cumplirse la grabación se detiene sola
+     */
+    private Long duracionSegundos;
+
+    /**
+     * Tamaño máximo de los datos guardados en disco (se descartan los más antiguos)
+     */
+    private Long tamanoMaximoMb;
+
+    /**
+     * Solo se registran las operaciones de servicio que duren al menos esto
+     */
+    private Long umbralMs;
+
+    /**
+     * Ajustes JFR adicionales, por ejemplo {"jdk.ObjectAllocationSample#throttle": "300/s"}
+     */
+    private Map<String, String> ajustes;
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getConfiguracion() {
+        return configuracion;
+    }
+
+    public void setConfiguracion(String configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    public Long getDuracionSegundos() {
+        return duracionSegundos;
+    }
+
+    public void setDuracionSegundos(Long duracionSegundos) {
+        this.duracionSegundos = duracionSegundos;
+    }
+
+    public Long getTamanoMaximoMb() {
+        return tamanoMaximoMb;
+    }
+
+    public void setTamanoMaximoMb(Long tamanoMaximoMb) {
+        this.tamanoMaximoMb = tamanoMaximoMb;
+    }
+
+    public Long getUmbralMs() {
+        return umbralMs;
+    }
+
+    public void setUmbralMs(Long umbralMs) {
+        this.umbralMs = umbralMs;
+    }
+
+    public Map<String, String> getAjustes() {
+        return ajustes;
+    }
+
+    public void setAjustes(Map<String, String> ajustes) {
+        this.ajustes = ajustes;
+    }
+}
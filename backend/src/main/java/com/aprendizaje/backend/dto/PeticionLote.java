@@ -0,0 +1,43 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/tareas/lote: operaciones en orden y modo de aplicación
+ */
+public class PeticionLote {
+
+    /**
+     * Qué hacer si alguna operación no se puede aplicar
+     */
+    public enum Modo {
+        /**
+         * Se revierte todo el lote (valor por defecto)
+         */
+        TODO_O_NADA,
+        /**
+         * Se aplican las operaciones válidas y se reportan las que fallaron
+         */
+        MEJOR_ESFUERZO
+    }
+
+    private Modo modo = Modo.TODO_O_NADA;
+
+    private List<OperacionLote> operaciones;
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public void setModo(Modo modo) {
+        this.modo = modo;
+    }
+
+    public List<OperacionLote> getOperaciones() {
+        return operaciones;
+    }
+
+    public void setOperaciones(List<OperacionLote> operaciones) {
+        this.operaciones = operaciones;
+    }
+}
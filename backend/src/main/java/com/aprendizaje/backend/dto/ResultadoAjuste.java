@@ -0,0 +1,60 @@
+package com.aprendizaje.backend.dto;
+
+/**
+ * Resultado de un ajuste masivo de productos
+ */
+public class ResultadoAjuste {
+
+    /**
+     * Productos modificados (o que se modificarían, en simulación)
+     */
+    private final long afectados;
+
+    /**
+     * Indica si fue una simulación
+     */
+    private final boolean simulacion;
+
+    /**
+     * Cantidad de sentencias UPDATE confirmadas
+     */
+    private final int lotes;
+
+    /**
+     * Lotes que se reintentaron con menos filas por no conseguir los bloqueos a tiempo
+     */
+    private final int reintentos;
+
+    /**
+     * false si el ajuste se detuvo antes de terminar (los lotes ya confirmados se mantienen)
+     */
+    private final boolean completado;
+
+    public ResultadoAjuste(long afectados, boolean simulacion, int lotes, int reintentos, boolean completado) {
+        this.afectados = afectados;
+        this.simulacion = simulacion;
+        this.lotes = lotes;
+        this.reintentos = reintentos;
+        this.completado = completado;
+    }
+
+    public long getAfectados() {
+        return afectados;
+    }
+
+    public boolean isSimulacion() {
+        return simulacion;
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public int getReintentos() {
+        return reintentos;
+    }
+
+    public boolean isCompletado() {
+        return completado;
+    }
+}
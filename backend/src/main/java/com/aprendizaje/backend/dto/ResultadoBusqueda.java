@@ -0,0 +1,43 @@
+package com.aprendizaje.backend.dto;
+
+import com.aprendizaje.backend.model.Tarea;
+
+/**
+ * Tarea encontrada por la búsqueda de texto, con su relevancia y los fragmentos resaltados
+ *
+ * Los fragmentos resaltados vienen con el HTML del texto original escapado y las palabras
+ * encontradas entre <mark> y </mark>, así que se pueden mostrar directamente como HTML
+ */
+public class ResultadoBusqueda {
+
+    private final Tarea tarea;
+    private final double relevancia;
+    private final String tituloResaltado;
+    private final String descripcionResaltada;
+
+    public ResultadoBusqueda(Tarea tarea, double relevancia, String tituloResaltado, String descripcionResaltada) {
+        this.tarea = tarea;
+        this.relevancia = relevancia;
+        this.tituloResaltado = tituloResaltado;
+        this.descripcionResaltada = descripcionResaltada;
+    }
+
+    public Tarea getTarea() {
+        return tarea;
+    }
+
+    /**
+     * Relevancia calculada por PostgreSQL (ts_rank_cd); el título pesa más que la descripción
+     */
+    public double getRelevancia() {
+        return relevancia;
+    }
+
+    public String getTituloResaltado() {
+        return tituloResaltado;
+    }
+
+    public String getDescripcionResaltada() {
+        return descripcionResaltada;
+    }
+}
@@ -0,0 +1,32 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de POST /api/tareas/lote
+ */
+public class ResultadoLote {
+
+    /**
+     * true si todas las operaciones se aplicaron
+     */
+    private final boolean exito;
+
+    /**
+     * Un resultado por operación, en el orden pedido
+     */
+    private final List<ResultadoOperacion> resultados;
+
+    public ResultadoLote(boolean exito, List<ResultadoOperacion> resultados) {
+        this.exito = exito;
+        this.resultados = resultados;
+    }
+
+    public boolean isExito() {
+        return exito;
+    }
+
+    public List<ResultadoOperacion> getResultados() {
+        return resultados;
+    }
+}
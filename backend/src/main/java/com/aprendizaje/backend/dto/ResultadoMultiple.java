@@ -0,0 +1,33 @@
+package com.aprendizaje.backend.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de una consulta de varios elementos por ID
+ * @param <T> tipo de entidad (Tarea o Producto)
+ */
+public class ResultadoMultiple<T> {
+
+    /**
+     * Elementos encontrados, en el mismo orden en que se pidieron
+     */
+    private final List<T> encontrados;
+
+    /**
+     * IDs pedidos que no existen
+     */
+    private final List<Long> faltantes;
+
+    public ResultadoMultiple(List<T> encontrados, List<Long> faltantes) {
+        this.encontrados = encontrados;
+        this.faltantes = faltantes;
+    }
+
+    public List<T> getEncontrados() {
+        return encontrados;
+    }
+
+    public List<Long> getFaltantes() {
+        return faltantes;
+    }
+}
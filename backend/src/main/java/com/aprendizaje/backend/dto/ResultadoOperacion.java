@@ -0,0 +1,78 @@
+package com.aprendizaje.backend.dto;
+
+import com.aprendizaje.backend.model.Tarea;
+
+/**
+ * Resultado de una operación de un lote, en la misma posición en que se pidió
+ */
+public class ResultadoOperacion {
+
+    /**
+     * Estado final de la operación
+     */
+    public enum Estado {
+        /**
+         * Se aplicó
+         */
+        OK,
+        /**
+         * La tarea no existe
+         */
+        NO_ENCONTRADA,
+        /**
+         * Faltan datos o no son válidos
+         */
+        INVALIDA,
+        /**
+         * Era válida, pero se revirtió porque otra operación del lote falló (modo TODO_O_NADA)
+         */
+        REVERTIDA
+    }
+
+    private final int indice;
+    private final OperacionLote.Tipo tipo;
+    private final Long id;
+    private final Estado estado;
+    private final Tarea tarea;
+    private final String mensaje;
+
+    public ResultadoOperacion(int indice, OperacionLote.Tipo tipo, Long id, Estado estado, Tarea tarea, String mensaje) {
+        this.indice = indice;
+        this.tipo = tipo;
+        this.id = id;
+        this.estado = estado;
+        this.tarea = tarea;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * Copia de este resultado con otro estado (por ejemplo, REVERTIDA)
+     */
+    public ResultadoOperacion conEstado(Estado nuevoEstado) {
+        return new ResultadoOperacion(indice, tipo, id, nuevoEstado, null, mensaje);
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public OperacionLote.Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public Tarea getTarea() {
+        return tarea;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+}
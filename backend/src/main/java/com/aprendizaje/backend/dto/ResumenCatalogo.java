@@ -0,0 +1,61 @@
+package com.aprendizaje.backend.dto;
+
+/**
+ * Resumen de precios y stock de un conjunto de productos
+ * Se calcula sobre el snapshot columnar, sin consultar la base de datos
+ */
+public class ResumenCatalogo {
+
+    private long cantidad;
+    private double sumaPrecios;
+    private double precioMinimo = Double.POSITIVE_INFINITY;
+    private double precioMaximo = Double.NEGATIVE_INFINITY;
+    private long stockTotal;
+
+    /**
+     * Agrega un producto al resumen
+     * @param precio - precio del producto
+     * @param stock - stock del producto
+     */
+    public void agregar(double precio, int stock) {
+        cantidad++;
+        sumaPrecios += precio;
+        precioMinimo = Math.min(precioMinimo, precio);
+        precioMaximo = Math.max(precioMaximo, precio);
+        stockTotal += stock;
+    }
+
+    /**
+     * Combina dos resúmenes parciales (cada hilo calcula uno)
+     * @param otro - resumen parcial
+     * @return este resumen con los datos del otro sumados
+     */
+    public ResumenCatalogo combinar(ResumenCatalogo otro) {
+        cantidad += otro.cantidad;
+        sumaPrecios += otro.sumaPrecios;
+        precioMinimo = Math.min(precioMinimo, otro.precioMinimo);
+        precioMaximo = Math.max(precioMaximo, otro.precioMaximo);
+        stockTotal += otro.stockTotal;
+        return this;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public double getPrecioPromedio() {
+        return cantidad == 0 ? 0 : sumaPrecios / cantidad;
+    }
+
+    public double getPrecioMinimo() {
+        return cantidad == 0 ? 0 : precioMinimo;
+    }
+
+    public double getPrecioMaximo() {
+        return cantidad == 0 ? 0 : precioMaximo;
+    }
+
+    public long getStockTotal() {
+        return stockTotal;
+    }
+}
@@ -0,0 +1,32 @@
+package com.aprendizaje.backend.dto;
+
+/**
+ * Sugerencia de autocompletado: producto y su puntaje de popularidad
+ */
+public class SugerenciaProducto {
+
+    private final Long id;
+    private final String nombre;
+    private final long puntaje;
+
+    public SugerenciaProducto(Long id, String nombre, long puntaje) {
+        this.id = id;
+        this.nombre = nombre;
+        this.puntaje = puntaje;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Stock más las vistas recientes ponderadas (mayor = se sugiere antes)
+     */
+    public long getPuntaje() {
+        return puntaje;
+    }
+}
@@ -0,0 +1,81 @@
+package com.aprendizaje.backend.event;
+
+/**
+ * Evento que publican los servicios cada vez que se crea, actualiza o elimina
+ * una Tarea o un Producto
+ * Otros componentes (por ejemplo el canal SSE) lo escuchan para reaccionar al cambio
+ */
+public class CambioEntidadEvent {
+
+    /**
+     * Nombre de la entidad para tareas
+     */
+    public static final String ENTIDAD_TAREA = "tarea";
+
+    /**
+     * Nombre de la entidad para productos
+     */
+    public static final String ENTIDAD_PRODUCTO = "producto";
+
+    /**
+     * Entidad afectada ("tarea" o "producto")
+     */
+    private final String entidad;
+
+    /**
+     * Tipo de cambio ocurrido
+     */
+    private final TipoCambio tipo;
+
+    /**
+     * ID de la entidad afectada
+     */
+    private final Long id;
+
+    /**
+     * Estado de la entidad después del cambio (null si se eliminó)
+     */
+    private final Object datos;
+
+    /**
+     * Constructor con todos los campos del evento
+     */
+    public CambioEntidadEvent(String entidad, TipoCambio tipo, Long id, Object datos) {
+        this.entidad = entidad;
+        this.tipo = tipo;
+        this.id = id;
+        this.datos = datos;
+    }
+
+    /**
+     * Obtiene el nombre de la entidad
+     * @return "tarea" o "producto"
+     */
+    public String getEntidad() {
+        return entidad;
+    }
+
+    /**
+     * Obtiene el tipo de cambio
+     * @return tipo de cambio
+     */
+    public TipoCambio getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene el ID de la entidad afectada
+     * @return id
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el estado de la entidad después del cambio
+     * @return entidad o null si se eliminó
+     */
+    public Object getDatos() {
+        return datos;
+    }
+}
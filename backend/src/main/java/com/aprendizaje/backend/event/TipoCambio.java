@@ -0,0 +1,11 @@
+package com.aprendizaje.backend.event;
+
+/**
+ * Tipos de cambio que puede sufrir una entidad
+ * Se usan para notificar a otros componentes lo que ocurrió
+ */
+public enum TipoCambio {
+    CREADO,
+    ACTUALIZADO,
+    ELIMINADO
+}
@@ -0,0 +1,39 @@
+package com.aprendizaje.backend.exportacion;
+
+/**
+ * Estados de un trabajo de exportación
+ */
+public enum EstadoExportacion {
+
+    /**
+     * Esperando un hilo libre del ejecutor de exportaciones
+     */
+    EN_COLA,
+
+    /**
+     * Leyendo filas y escribiendo el archivo
+     */
+    EN_CURSO,
+
+    /**
+     * Archivo listo para descargar
+     */
+    COMPLETADA,
+
+    /**
+     * Terminó con error; el archivo parcial se borra
+     */
+    FALLIDA,
+
+    /**
+     * Cancelada por el usuario
+     */
+    CANCELADA;
+
+    /**
+     * Indica si el trabajo ya no va a cambiar de estado
+     */
+    public boolean esFinal() {
+        return this == COMPLETADA || this == FALLIDA || this == CANCELADA;
+    }
+}
@@ -0,0 +1,277 @@
+package com.aprendizaje.backend.exportacion;
+
+import com.aprendizaje.backend.dto.InfoExportacion;
+import com.aprendizaje.backend.dto.PeticionExportacion;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.repository.ExportacionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Servicio de exportaciones en segundo plano de tareas y productos
+ *
+ * Una exportación grande no cabe en el timeout de una petición HTTP: el cliente la envía,
+ * consulta su progreso y descarga el archivo cuando está listo (con soporte de Range para reanudar).
+ *
+ * - Los trabajos corren en un ejecutor acotado (maximo-concurrentes hilos y una cola fija);
+ *   así nunca hay más de esa cantidad de conexiones del pool ocupadas por exportaciones
+ * - Las filas se leen por bloques usando el ID como cursor; entre bloques la conexión vuelve al pool
+ * - El archivo se escribe comprimido con gzip en un directorio temporal y se borra tras la retención
+ *
+ * Cada bloque es una consulta independiente: el archivo no es una foto exacta de un instante,
+ * una fila modificada durante la exportación sale con el valor que tenía al leer su bloque.
+ */
+@Service
+public class ExportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionService.class);
+
+    /**
+     * Repositorio que lee las filas por bloques
+     */
+    @Autowired
+    private ExportacionRepository exportacionRepository;
+
+    /**
+     * Filas por consulta
+     */
+    @Value("${app.exportacion.tamano-bloque:1000}")
+    private int tamanoBloque;
+
+    /**
+     * Pausa opcional entre bloques para ceder la base de datos al tráfico normal
+     */
+    @Value("${app.exportacion.pausa-entre-bloques-ms:0}")
+    private long pausaEntreBloquesMs;
+
+    /**
+     * Tiempo que se conserva un trabajo terminado (y su archivo) para consultarlo o descargarlo
+     */
+    @Value("${app.exportacion.retencion-ms:3600000}")
+    private long retencionMs;
+
+    /**
+     * Directorio donde se escriben los archivos
+     */
+    @Value("${app.exportacion.directorio:${java.io.tmpdir}}")
+    private String directorio;
+
+    /**
+     * Trabajos de este nodo: ID -> trabajo
+     */
+    private final Map<String, TrabajoExportacion> trabajos = new ConcurrentHashMap<>();
+
+    /**
+     * Hilos de exportación; si la cola está llena se rechazan nuevos trabajos
+     */
+    private final ThreadPoolExecutor ejecutor;
+
+    public ExportacionService(@Value("${app.exportacion.maximo-concurrentes:2}") int maximoConcurrentes,
+                              @Value("${app.exportacion.capacidad-cola:20}") int capacidadCola) {
+        AtomicInteger contador = new AtomicInteger();
+        int hilos = Math.max(1, maximoConcurrentes);
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacidadCola)), r -> {
+                    Thread hilo = new Thread(r, "exportacion-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Envía una nueva exportación a la cola
+     * @param peticion - entidad, formato y filtros
+     * @return estado inicial del trabajo (EN_COLA)
+     * @throws IllegalArgumentException si la entidad o el formato no son válidos
+     * @throws IllegalStateException si la cola de exportaciones está llena
+     */
+    public InfoExportacion enviar(PeticionExportacion peticion) {
+        if (!CambioEntidadEvent.ENTIDAD_TAREA.equals(peticion.getEntidad())
+                && !CambioEntidadEvent.ENTIDAD_PRODUCTO.equals(peticion.getEntidad())) {
+            throw new IllegalArgumentException("Entidad de exportación desconocida: " + peticion.getEntidad());
+        }
+        FormatoExportacion formato = FormatoExportacion.desde(peticion.getFormato());
+
+        TrabajoExportacion trabajo = new TrabajoExportacion(UUID.randomUUID().toString(), peticion, formato);
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            trabajo.futuro = ejecutor.submit(() -> ejecutar(trabajo));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id);
+            throw new IllegalStateException("Hay demasiadas exportaciones pendientes en este nodo");
+        }
+        return trabajo.info();
+    }
+
+    /**
+     * Estado de un trabajo
+     * @param id - ID del trabajo
+     * @return estado y progreso, o vacío si no existe
+     */
+    public Optional<InfoExportacion> consultar(String id) {
+        return Optional.ofNullable(trabajos.get(id)).map(TrabajoExportacion::info);
+    }
+
+    /**
+     * Todos los trabajos de este nodo, del más reciente al más antiguo
+     * @return estados de los trabajos
+     */
+    public List<InfoExportacion> listar() {
+        return trabajos.values().stream()
+                .sorted(Comparator.comparing((TrabajoExportacion t) -> t.creada).reversed())
+                .map(TrabajoExportacion::info)
+                .toList();
+    }
+
+    /**
+     * Archivo comprimido de un trabajo completado
+     * @param id - ID del trabajo
+     * @return ruta del archivo, o vacío si el trabajo no existe
+     * @throws IllegalStateException si el trabajo todavía no está completado
+     */
+    public Optional<Path> archivo(String id) {
+        TrabajoExportacion trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            return Optional.empty();
+        }
+        if (trabajo.estado() != EstadoExportacion.COMPLETADA) {
+            throw new IllegalStateException("La exportación " + id + " está " + trabajo.estado());
+        }
+        return Optional.of(trabajo.archivo());
+    }
+
+    /**
+     * Cancela el trabajo si sigue en curso y borra su archivo
+     * @param id - ID del trabajo
+     * @return true si existía
+     */
+    public boolean eliminar(String id) {
+        TrabajoExportacion trabajo = trabajos.remove(id);
+        if (trabajo == null) {
+            return false;
+        }
+        trabajo.cancelar();
+        borrar(trabajo.archivo());
+        return true;
+    }
+
+    /**
+     * Borra los trabajos terminados hace más que el tiempo de retención
+     */
+    @Scheduled(fixedDelayString = "${app.exportacion.intervalo-limpieza-ms:60000}")
+    public void limpiar() {
+        Instant limite = Instant.now().minusMillis(retencionMs);
+        for (TrabajoExportacion trabajo : trabajos.values()) {
+            Instant fin = trabajo.fin();
+            if (fin != null && fin.isBefore(limite)) {
+                eliminar(trabajo.id);
+            }
+        }
+    }
+
+    /**
+     * Al apagar se interrumpen las exportaciones y se borran los archivos
+     */
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdownNow();
+        for (String id : List.copyOf(trabajos.keySet())) {
+            eliminar(id);
+        }
+    }
+
+    /**
+     * Lee las filas por bloques y las escribe en un archivo .gz
+     * Se escribe primero en un archivo ".parcial" que se renombra al terminar
+     */
+    void ejecutar(TrabajoExportacion trabajo) {
+        if (!trabajo.iniciar()) {
+            return;
+        }
+        Path destino = Paths.get(directorio).resolve(trabajo.nombreArchivo());
+        Path parcial = destino.resolveSibling(trabajo.nombreArchivo() + ".parcial");
+        long inicio = System.currentTimeMillis();
+        try {
+            trabajo.filasEstimadas = exportacionRepository.contar(trabajo.peticion);
+            try (Writer escritor = new OutputStreamWriter(new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(parcial)), 65536), StandardCharsets.UTF_8)) {
+                escritor.write(trabajo.formato.cabecera(exportacionRepository.columnas(trabajo.peticion.getEntidad())));
+                long ultimoId = 0;
+                List<Map<String, Object>> bloque;
+                do {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    bloque = exportacionRepository.leerBloque(trabajo.peticion, ultimoId, tamanoBloque);
+                    for (Map<String, Object> fila : bloque) {
+                        escritor.write(trabajo.formato.fila(fila));
+                        ultimoId = ((Number) fila.get("id")).longValue();
+                    }
+                    trabajo.filasEscritas += bloque.size();
+                    trabajo.tamanoBytes = Files.size(parcial);
+                    if (pausaEntreBloquesMs > 0 && bloque.size() == tamanoBloque) {
+                        Thread.sleep(pausaEntreBloquesMs);
+                    }
+                } while (bloque.size() == tamanoBloque);
+            }
+            Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING);
+            trabajo.tamanoBytes = Files.size(destino);
+
+            if (trabajo.terminar(EstadoExportacion.COMPLETADA, destino, null)) {
+                log.info("Exportación {} completada: {} filas de {} en {} ms ({} bytes)", trabajo.id,
+                        trabajo.filasEscritas, trabajo.peticion.getEntidad(),
+                        System.currentTimeMillis() - inicio, trabajo.tamanoBytes);
+            } else {
+                // Se canceló justo al terminar
+                borrar(destino);
+            }
+        } catch (InterruptedException e) {
+            trabajo.terminar(EstadoExportacion.CANCELADA, null, null);
+            borrar(parcial);
+        } catch (IOException | RuntimeException e) {
+            borrar(parcial);
+            if (trabajo.terminar(EstadoExportacion.FALLIDA, null, e.getMessage())) {
+                log.error("Falló la exportación {} de {}", trabajo.id, trabajo.peticion.getEntidad(), e);
+            }
+        }
+    }
+
+    private void borrar(Path archivo) {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo de exportación {}", archivo, e);
+        }
+    }
+}
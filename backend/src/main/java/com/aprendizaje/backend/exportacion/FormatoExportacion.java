@@ -0,0 +1,109 @@
+package com.aprendizaje.backend.exportacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formatos de archivo de las exportaciones
+ * Cada fila llega como un mapa columna -> valor (textos, números, booleanos o null)
+ */
+public enum FormatoExportacion {
+
+    /**
+     * Valores separados por comas con una fila de encabezado (RFC 4180)
+     */
+    CSV("csv") {
+        @Override
+        String cabecera(List<String> columnas) {
+            return String.join(",", columnas) + "\n";
+        }
+
+        @Override
+        String fila(Map<String, Object> valores) {
+            StringBuilder linea = new StringBuilder();
+            for (Object valor : valores.values()) {
+                if (!linea.isEmpty()) {
+                    linea.append(',');
+                }
+                linea.append(escaparCsv(valor));
+            }
+            return linea.append('\n').toString();
+        }
+    },
+
+    /**
+     * Un objeto JSON por línea, sin encabezado
+     */
+    NDJSON("ndjson") {
+        @Override
+        String cabecera(List<String> columnas) {
+            return "";
+        }
+
+        @Override
+        String fila(Map<String, Object> valores) {
+            try {
+                return JSON.writeValueAsString(valores) + "\n";
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("No se pudo convertir la fila a JSON", e);
+            }
+        }
+    };
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String extension;
+
+    FormatoExportacion(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Extensión del archivo sin comprimir ("csv" o "ndjson")
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Texto que va al inicio del archivo
+     */
+    abstract String cabecera(List<String> columnas);
+
+    /**
+     * Texto de una fila, con su salto de línea
+     */
+    abstract String fila(Map<String, Object> valores);
+
+    /**
+     * Convierte el nombre recibido en la petición (sin distinguir mayúsculas)
+     * @throws IllegalArgumentException si el formato no existe
+     */
+    public static FormatoExportacion desde(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(nombre.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportación desconocido: " + nombre);
+        }
+    }
+
+    /**
+     * Entre comillas si tiene comas, comillas o saltos de línea; las comillas se duplican
+     */
+    static String escaparCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,99 @@
+package com.aprendizaje.backend.exportacion;
+
+import com.aprendizaje.backend.dto.InfoExportacion;
+import com.aprendizaje.backend.dto.PeticionExportacion;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * Un trabajo de exportación y su progreso
+ * Solo el hilo que lo ejecuta escribe el progreso; los cambios de estado están sincronizados
+ * para que una cancelación no se pise con el final del trabajo
+ */
+class TrabajoExportacion {
+
+    final String id;
+    final PeticionExportacion peticion;
+    final FormatoExportacion formato;
+    final Instant creada = Instant.now();
+
+    private EstadoExportacion estado = EstadoExportacion.EN_COLA;
+    private Instant inicio;
+    private Instant fin;
+    private Path archivo;
+    private String error;
+
+    volatile long filasEscritas;
+    volatile long filasEstimadas;
+    volatile long tamanoBytes;
+    volatile Future<?> futuro;
+
+    TrabajoExportacion(String id, PeticionExportacion peticion, FormatoExportacion formato) {
+        this.id = id;
+        this.peticion = peticion;
+        this.formato = formato;
+    }
+
+    /**
+     * Pasa de EN_COLA a EN_CURSO
+     * @return false si se canceló mientras esperaba
+     */
+    synchronized boolean iniciar() {
+        if (estado != EstadoExportacion.EN_COLA) {
+            return false;
+        }
+        estado = EstadoExportacion.EN_CURSO;
+        inicio = Instant.now();
+        return true;
+    }
+
+    /**
+     * Marca el trabajo como terminado, salvo que ya lo estuviera (por ejemplo, cancelado)
+     * @return true si se aplicó el estado
+     */
+    synchronized boolean terminar(EstadoExportacion nuevoEstado, Path archivo, String error) {
+        if (estado.esFinal()) {
+            return false;
+        }
+        this.estado = nuevoEstado;
+        this.archivo = archivo;
+        this.error = error;
+        this.fin = Instant.now();
+        return true;
+    }
+
+    /**
+     * Cancela el trabajo si todavía no terminó e interrumpe su hilo
+     */
+    void cancelar() {
+        if (terminar(EstadoExportacion.CANCELADA, null, null) && futuro != null) {
+            futuro.cancel(true);
+        }
+    }
+
+    synchronized EstadoExportacion estado() {
+        return estado;
+    }
+
+    synchronized Path archivo() {
+        return archivo;
+    }
+
+    synchronized Instant fin() {
+        return fin;
+    }
+
+    /**
+     * Nombre del archivo comprimido (sin directorio)
+     */
+    String nombreArchivo() {
+        return "exportacion-" + peticion.getEntidad() + "-" + id + "." + formato.getExtension() + ".gz";
+    }
+
+    synchronized InfoExportacion info() {
+        return new InfoExportacion(id, peticion.getEntidad(), formato.name(), estado.name(), filasEscritas,
+                filasEstimadas, tamanoBytes, error, creada, inicio, fin);
+    }
+}
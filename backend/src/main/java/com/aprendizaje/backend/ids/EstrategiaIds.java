@@ -0,0 +1,28 @@
+package com.aprendizaje.backend.ids;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Estrategia para asignar el ID de una entidad antes del INSERT
+ *
+ * Como el ID se conoce antes de escribir, Hibernate puede agrupar los INSERT en lotes JDBC
+ * (con IDENTITY cada INSERT tenía que ejecutarse solo para leer la clave generada).
+ *
+ * La implementación activa la crea IdsConfig según app.ids.estrategia y se la pasa a Hibernate
+ * en la propiedad PROPIEDAD_HIBERNATE
+ */
+public interface EstrategiaIds {
+
+    /**
+     * Propiedad de Hibernate con la instancia de la estrategia activa
+     */
+    String PROPIEDAD_HIBERNATE = "app.ids.estrategia-activa";
+
+    /**
+     * Obtiene un nuevo ID
+     * @param secuencia - secuencia de la entidad (solo la usan las estrategias basadas en secuencias)
+     * @param sesion - sesión de Hibernate que está guardando la entidad
+     * @return ID único
+     */
+    long siguiente(String secuencia, SharedSessionContractImplementor sesion);
+}
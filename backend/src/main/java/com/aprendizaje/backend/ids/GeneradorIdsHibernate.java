@@ -0,0 +1,44 @@
+package com.aprendizaje.backend.ids;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Generador de Hibernate para los campos marcados con @IdGenerado
+ * Solo adapta la interfaz de Hibernate; el ID lo decide la EstrategiaIds configurada
+ */
+public class GeneradorIdsHibernate implements BeforeExecutionGenerator {
+
+    /**
+     * Estrategia usada si la aplicación no configuró ninguna (por ejemplo, Hibernate sin Spring)
+     */
+    private static final int TAMANO_BLOQUE_POR_DEFECTO = 50;
+
+    private final String secuencia;
+    private final transient EstrategiaIds estrategia;
+
+    public GeneradorIdsHibernate(IdGenerado anotacion, Member miembro, CustomIdGeneratorCreationContext contexto) {
+        this.secuencia = anotacion.secuencia();
+        Object configurada = contexto.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(EstrategiaIds.PROPIEDAD_HIBERNATE);
+        this.estrategia = configurada instanceof EstrategiaIds e ? e : new SecuenciaAgrupada(TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor sesion, Object entidad, Object valorActual,
+                           EventType tipoEvento) {
+        return estrategia.siguiente(secuencia, sesion);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,23 @@
+package com.aprendizaje.backend.ids;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca el ID de una entidad para que lo asigne la EstrategiaIds configurada
+ * Reemplaza a @GeneratedValue(strategy = GenerationType.IDENTITY)
+ */
+@IdGeneratorType(GeneradorIdsHibernate.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdGenerado {
+
+    /**
+     * Secuencia de la entidad para la estrategia de secuencia agrupada (ver schema.sql)
+     */
+    String secuencia();
+}
@@ -0,0 +1,101 @@
+package com.aprendizaje.backend.ids;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Estrategia de IDs ordenados por tiempo y sin coordinación entre instancias (tipo Snowflake)
+ *
+ * Formato de 53 bits (siempre positivo y menor que 2^53):
+ * - 41 bits: milisegundos desde EPOCA (alcanza para ~69 años)
+ * - 5 bits: número de nodo (0 a 31), distinto en cada instancia
+ * - 7 bits: secuencia dentro del mismo milisegundo (128 IDs por ms y nodo)
+ *
+ * Los IDs crecen con el tiempo, así que los INSERT caen al final del índice B-tree de la clave
+ * primaria en lugar de repartirse por todas sus páginas.
+ *
+ * El estado (milisegundo y secuencia) vive en un solo AtomicLong que se avanza con CAS:
+ * no hay candados ni se crean objetos por ID. Si se agotan los 128 IDs de un milisegundo,
+ * o si el reloj del sistema retrocede, se sigue contando desde el último valor entregado,
+ * por lo que los IDs de un nodo nunca se repiten ni decrecen.
+ *
+ * Los IDs caben en 53 bits para que el frontend los lea como Number de JavaScript sin perder
+ * precisión (Number.MAX_SAFE_INTEGER = 2^53 - 1).
+ */
+public class IdsTemporales implements EstrategiaIds {
+
+    /**
+     * Época propia (2024-01-01T00:00:00Z) para que los 41 bits duren más
+     */
+    public static final long EPOCA = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int BITS_MILISEGUNDOS = 41;
+    static final int BITS_NODO = 5;
+    static final int BITS_SECUENCIA = 7;
+    public static final int NODO_MAXIMO = (1 << BITS_NODO) - 1;
+
+    private final long nodo;
+    private final LongSupplier reloj;
+
+    /**
+     * Último valor entregado sin el nodo: (milisegundos << BITS_SECUENCIA) | secuencia
+     */
+    private final AtomicLong ultimo = new AtomicLong();
+
+    public IdsTemporales(int nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    IdsTemporales(int nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo > NODO_MAXIMO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + NODO_MAXIMO);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+    }
+
+    @Override
+    public long siguiente(String secuencia, SharedSessionContractImplementor sesion) {
+        return siguiente();
+    }
+
+    /**
+     * Genera un nuevo ID
+     * @return ID mayor que todos los anteriores de este nodo
+     */
+    public long siguiente() {
+        long inicioMilisegundo = (reloj.getAsLong() - EPOCA) << BITS_SECUENCIA;
+        long anterior;
+        long actual;
+        do {
+            anterior = ultimo.get();
+            // Nuevo milisegundo: secuencia 0; mismo milisegundo (o reloj atrasado): el siguiente valor
+            actual = Math.max(inicioMilisegundo, anterior + 1);
+        } while (!ultimo.compareAndSet(anterior, actual));
+
+        long milisegundos = actual >>> BITS_SECUENCIA;
+        long secuenciaMs = actual & ((1L << BITS_SECUENCIA) - 1);
+        return (milisegundos << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuenciaMs;
+    }
+
+    /**
+     * Momento en que se generó un ID
+     * @param id - ID generado por esta estrategia
+     * @return instante de creación (precisión de milisegundos)
+     */
+    public static Instant instante(long id) {
+        return Instant.ofEpochMilli((id >>> (BITS_NODO + BITS_SECUENCIA)) + EPOCA);
+    }
+
+    /**
+     * Nodo que generó un ID
+     * @param id - ID generado por esta estrategia
+     * @return número de nodo
+     */
+    public static int nodo(long id) {
+        return (int) ((id >>> BITS_SECUENCIA) & NODO_MAXIMO);
+    }
+}
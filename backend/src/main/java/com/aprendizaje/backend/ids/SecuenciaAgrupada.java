@@ -0,0 +1,120 @@
+package com.aprendizaje.backend.ids;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.exception.spi.SQLExceptionConverter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Estrategia de secuencia agrupada (pooled-lo)
+ *
+ * Cada nextval() de la secuencia reserva un bloque de "tamanoBloque" IDs consecutivos
+ * que se entregan desde memoria, así que solo hay un viaje a la base de datos cada tamanoBloque inserts.
+ * La secuencia debe tener INCREMENT BY igual al tamaño del bloque (ver schema.sql): IdsConfig lo comprueba
+ * al arrancar con verificarIncrementos.
+ *
+ * Varias instancias de la aplicación pueden compartir la secuencia: cada una recibe bloques distintos.
+ * Los IDs no usados de un bloque se pierden al reiniciar (quedan huecos, nunca duplicados).
+ */
+public class SecuenciaAgrupada implements EstrategiaIds {
+
+    private final int tamanoBloque;
+
+    /**
+     * Bloque actual de cada secuencia
+     */
+    private final Map<String, Bloque> bloques = new ConcurrentHashMap<>();
+
+    public SecuenciaAgrupada(int tamanoBloque) {
+        if (tamanoBloque < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser al menos 1");
+        }
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    @Override
+    public long siguiente(String secuencia, SharedSessionContractImplementor sesion) {
+        return siguiente(secuencia, nombre -> leerSecuencia(nombre, sesion));
+    }
+
+    /**
+     * Entrega el siguiente ID del bloque; si se agotó, pide otro a la secuencia
+     * @param secuencia - nombre de la secuencia
+     * @param leerSecuencia - ejecuta nextval() y devuelve el inicio del nuevo bloque
+     */
+    long siguiente(String secuencia, ToLongFunction<String> leerSecuencia) {
+        Bloque bloque = bloques.computeIfAbsent(secuencia, s -> new Bloque());
+        synchronized (bloque) {
+            if (bloque.restantes == 0) {
+                bloque.siguiente = leerSecuencia.applyAsLong(secuencia);
+                bloque.restantes = tamanoBloque;
+            }
+            bloque.restantes--;
+            return bloque.siguiente++;
+        }
+    }
+
+    /**
+     * Comprueba que las secuencias reserven bloques del mismo tamaño que se entregan desde memoria
+     * Con un INCREMENT BY menor, dos instancias recibirían bloques solapados y repetirían IDs;
+     * con uno mayor se desperdician IDs en cada bloque
+     * @param tamanoBloque - app.ids.tamano-bloque
+     * @param incrementos - INCREMENT BY de cada secuencia, leído de pg_sequences
+     * @throws IllegalStateException si alguna secuencia no coincide
+     */
+    public static void verificarIncrementos(int tamanoBloque, Map<String, Long> incrementos) {
+        List<String> distintas = new ArrayList<>();
+        incrementos.forEach((secuencia, incremento) -> {
+            if (incremento != tamanoBloque) {
+                distintas.add(secuencia + " (INCREMENT BY " + incremento + ")");
+            }
+        });
+        if (!distintas.isEmpty()) {
+            throw new IllegalStateException("app.ids.tamano-bloque=" + tamanoBloque
+                    + " no coincide con las secuencias " + String.join(", ", distintas)
+                    + "; cambie la propiedad o ejecute ALTER SEQUENCE ... INCREMENT BY " + tamanoBloque);
+        }
+    }
+
+    /**
+     * Ejecuta nextval() con la conexión de la sesión, igual que los generadores de secuencia de Hibernate
+     * (una consulta nativa normal provocaría un flush automático en medio del guardado)
+     */
+    private static long leerSecuencia(String secuencia, SharedSessionContractImplementor sesion) {
+        String sql = "SELECT nextval('" + secuencia + "')";
+        JdbcCoordinator jdbc = sesion.getJdbcCoordinator();
+        PreparedStatement sentencia = jdbc.getStatementPreparer().prepareStatement(sql);
+        try {
+            ResultSet resultado = jdbc.getResultSetReturn().extract(sentencia, sql);
+            try {
+                resultado.next();
+                return resultado.getLong(1);
+            } finally {
+                jdbc.getLogicalConnection().getResourceRegistry().release(resultado, sentencia);
+            }
+        } catch (SQLException e) {
+            SQLExceptionConverter convertidor = sesion.getJdbcServices().getSqlExceptionHelper()
+                    .getSqlExceptionConverter();
+            throw convertidor.convert(e, "No se pudo obtener un bloque de IDs de " + secuencia, sql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(sentencia);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    /**
+     * Rango de IDs reservado: siguiente ID a entregar y cuántos quedan
+     */
+    private static class Bloque {
+        long siguiente;
+        int restantes;
+    }
+}
@@ -1,5 +1,8 @@
 package com.aprendizaje.backend.model;
 
+import com.aprendizaje.backend.categorias.CategoriaConverter;
+import com.aprendizaje.backend.ids.IdGenerado;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -8,16 +11,18 @@ import java.time.LocalDateTime;
  * @Entity indica que esta clase es una tabla en la base de datos
  */
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_version_cambio", columnList = "version_cambio"),
+        @Index(name = "idx_productos_xid_cambio", columnList = "xid_cambio, version_cambio")})
 public class Producto {
     
     /**
      * Identificador único del producto
      * @Id indica que es la clave primaria
-     * @GeneratedValue indica que se genera automáticamente
+     * @IdGenerado asigna el ID antes del INSERT (secuencia agrupada o ID temporal, ver IdsConfig)
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdGenerado(secuencia = "productos_id_seq_pool")
     private Long id;
     
     /**
@@ -47,8 +52,11 @@ public class Producto {
     
     /**
      * Categoría a la que pertenece el producto
+     * La tabla guarda solo el código de la categoría (categoria_id, SMALLINT);
+     * CategoriaConverter lo traduce al nombre con el diccionario en memoria
      */
-    @Column(length = 50)
+    @Convert(converter = CategoriaConverter.class)
+    @Column(name = "categoria_id")
     private String categoria;
     
     /**
@@ -57,6 +65,26 @@ public class Producto {
     @Column(nullable = false)
     private LocalDateTime fechaCreacion;
     
+    /**
+     * Fecha y hora de la última modificación
+     */
+    private LocalDateTime fechaModificacion;
+    
+    /**
+     * Versión del último cambio, tomada de la secuencia global cambios_seq
+     * Sirve como marca de agua para la sincronización incremental
+     */
+    @Column(name = "version_cambio")
+    private Long versionCambio;
+    
+    /**
+     * Transacción (xid de 64 bits) que escribió la fila por última vez
+     * La asigna el trigger marcar_xid_cambio (schema.sql); ordena la sincronización incremental junto con la versión
+     */
+    @JsonIgnore
+    @Column(name = "xid_cambio", insertable = false, updatable = false)
+    private Long xidCambio;
+    
     /**
      * Constructor vacío requerido por JPA
      */
@@ -190,4 +218,44 @@ public class Producto {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
-}
+    
+    /**
+     * Obtiene la fecha de la última modificación
+     * @return fecha y hora de modificación
+     */
+    public LocalDateTime getFechaModificacion() {
+        return fechaModificacion;
+    }
+    
+    /**
+     * Establece la fecha de la última modificación
+     * @param fechaModificacion - nueva fecha
+     */
+    public void setFechaModificacion(LocalDateTime fechaModificacion) {
+        this.fechaModificacion = fechaModificacion;
+    }
+    
+    /**
+     * Obtiene la versión del último cambio
+     * @return versión del cambio
+     */
+    public Long getVersionCambio() {
+        return versionCambio;
+    }
+    
+    /**
+     * Obtiene la transacción que escribió la fila por última vez
+     * @return xid de la transacción (null si la fila aún no se leyó de la base de datos)
+     */
+    public Long getXidCambio() {
+        return xidCambio;
+    }
+    
+    /**
+     * Establece la versión del último cambio
+     * @param versionCambio - nueva versión
+     */
+    public void setVersionCambio(Long versionCambio) {
+        this.versionCambio = versionCambio;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.aprendizaje.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Registro (tombstone) que deja cada eliminación de una Tarea o un Producto
+ * Permite que la sincronización incremental informe a los clientes qué IDs ya no existen
+ */
+@Entity
+@Table(name = "eliminaciones", indexes = {
+        @Index(name = "idx_eliminaciones_entidad_version", columnList = "entidad, version_cambio"),
+        @Index(name = "idx_eliminaciones_entidad_xid", columnList = "entidad, xid_cambio, version_cambio")})
+public class RegistroEliminacion {
+    
+    /**
+     * Identificador único del registro
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * Entidad eliminada ("tarea" o "producto")
+     */
+    @Column(nullable = false, length = 20)
+    private String entidad;
+    
+    /**
+     * ID de la entidad eliminada
+     */
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+    
+    /**
+     * Versión del cambio, tomada de la secuencia global cambios_seq
+     */
+    @Column(name = "version_cambio", nullable = false)
+    private Long versionCambio;
+    
+    /**
+     * Transacción (xid de 64 bits) que registró la eliminación
+     * La asigna el trigger marcar_xid_cambio (schema.sql); ordena la sincronización incremental junto con la versión
+     */
+    @Column(name = "xid_cambio", insertable = false, updatable = false)
+    private Long xidCambio;
+    
+    /**
+     * Fecha y hora de la eliminación
+     */
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+    
+    /**
+     * Constructor vacío requerido por JPA
+     */
+    public RegistroEliminacion() {
+    }
+    
+    /**
+     * Constructor con parámetros para registrar una eliminación
+     */
+    public RegistroEliminacion(String entidad, Long entidadId, Long versionCambio) {
+        this.entidad = entidad;
+        this.entidadId = entidadId;
+        this.versionCambio = versionCambio;
+        this.fecha = LocalDateTime.now();
+    }
+    
+    // ========== GETTERS Y SETTERS ==========
+    
+    /**
+     * Obtiene el ID del registro
+     */
+    public Long getId() {
+        return id;
+    }
+    
+    /**
+     * Establece el ID del registro
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    /**
+     * Obtiene la entidad eliminada
+     */
+    public String getEntidad() {
+        return entidad;
+    }
+    
+    /**
+     * Establece la entidad eliminada
+     */
+    public void setEntidad(String entidad) {
+        this.entidad = entidad;
+    }
+    
+    /**
+     * Obtiene el ID de la entidad eliminada
+     */
+    public Long getEntidadId() {
+        return entidadId;
+    }
+    
+    /**
+     * Establece el ID de la entidad eliminada
+     */
+    public void setEntidadId(Long entidadId) {
+        this.entidadId = entidadId;
+    }
+    
+    /**
+     * Obtiene la versión del cambio
+     */
+    public Long getVersionCambio() {
+        return versionCambio;
+    }
+    
+    /**
+     * Obtiene la transacción que registró la eliminación
+     * @return xid de la transacción (null si la fila aún no se leyó de la base de datos)
+     */
+    public Long getXidCambio() {
+        return xidCambio;
+    }
+    
+    /**
+     * Establece la versión del cambio
+     */
+    public void setVersionCambio(Long versionCambio) {
+        this.versionCambio = versionCambio;
+    }
+    
+    /**
+     * Obtiene la fecha de eliminación
+     */
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+    
+    /**
+     * Establece la fecha de eliminación
+     */
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+}
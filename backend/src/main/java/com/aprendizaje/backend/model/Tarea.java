@@ -1,5 +1,7 @@
 package com.aprendizaje.backend.model;
 
+import com.aprendizaje.backend.ids.IdGenerado;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -8,16 +10,18 @@ import java.time.LocalDateTime;
  * @Entity indica que esta clase es una tabla en la base de datos
  */
 @Entity
-@Table(name = "tareas")
+@Table(name = "tareas", indexes = {
+        @Index(name = "idx_tareas_version_cambio", columnList = "version_cambio"),
+        @Index(name = "idx_tareas_xid_cambio", columnList = "xid_cambio, version_cambio")})
 public class Tarea {
     
     /**
      * Identificador único de la tarea
      * @Id indica que es la clave primaria
-     * @GeneratedValue indica que se genera automáticamente
+     * @IdGenerado asigna el ID antes del INSERT (secuencia agrupada o ID temporal, ver IdsConfig)
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdGenerado(secuencia = "tareas_id_seq_pool")
     private Long id;
     
     /**
@@ -45,6 +49,45 @@ public class Tarea {
     @Column(nullable = false)
     private LocalDateTime fechaCreacion;
     
+    /**
+     * Fecha y hora de la última modificación
+     */
+    private LocalDateTime fechaModificacion;
+    
+    /**
+     * Fecha y hora límite para completar la tarea (opcional)
+     */
+    private LocalDateTime fechaVencimiento;
+    
+    /**
+     * Fecha y hora en que se envía el recordatorio de la tarea (opcional)
+     * Si no se indica y la tarea tiene vencimiento, se recuerda al vencer (ver TareaService)
+     * ProgramadorRecordatorios la lee por ventanas con el índice idx_tareas_recordatorio
+     */
+    private LocalDateTime fechaRecordatorio;
+    
+    /**
+     * Versión del último cambio, tomada de la secuencia global cambios_seq
+     * Sirve como marca de agua para la sincronización incremental
+     */
+    @Column(name = "version_cambio")
+    private Long versionCambio;
+    
+    /**
+     * Transacción (xid de 64 bits) que escribió la fila por última vez
+     * La asigna el trigger marcar_xid_cambio (schema.sql); ordena la sincronización incremental junto con la versión
+     */
+    @JsonIgnore
+    @Column(name = "xid_cambio", insertable = false, updatable = false)
+    private Long xidCambio;
+    
+    /**
+     * Indica si la tarea se leyó de la tabla de archivo (tareas completadas antiguas)
+     * No es una columna: se marca al leer de tareas_archivadas
+     */
+    @Transient
+    private boolean archivada;
+    
     /**
      * Constructor vacío requerido por JPA
      */
@@ -152,4 +195,92 @@ public class Tarea {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
-}
+    
+    /**
+     * Obtiene la fecha de la última modificación
+     * @return fecha y hora de modificación
+     */
+    public LocalDateTime getFechaModificacion() {
+        return fechaModificacion;
+    }
+    
+    /**
+     * Establece la fecha de la última modificación
+     * @param fechaModificacion - nueva fecha
+     */
+    public void setFechaModificacion(LocalDateTime fechaModificacion) {
+        this.fechaModificacion = fechaModificacion;
+    }
+    
+    /**
+     * Obtiene la versión del último cambio
+     * @return versión del cambio
+     */
+    public Long getVersionCambio() {
+        return versionCambio;
+    }
+    
+    /**
+     * Obtiene la transacción que escribió la fila por última vez
+     * @return xid de la transacción (null si la fila aún no se leyó de la base de datos)
+     */
+    public Long getXidCambio() {
+        return xidCambio;
+    }
+    
+    /**
+     * Establece la versión del último cambio
+     * @param versionCambio - nueva versión
+     */
+    public void setVersionCambio(Long versionCambio) {
+        this.versionCambio = versionCambio;
+    }
+    
+    /**
+     * Obtiene la fecha de vencimiento
+     * @return fecha límite, o null si no tiene
+     */
+    public LocalDateTime getFechaVencimiento() {
+        return fechaVencimiento;
+    }
+    
+    /**
+     * Establece la fecha de vencimiento
+     * @param fechaVencimiento - nueva fecha límite (null para quitarla)
+     */
+    public void setFechaVencimiento(LocalDateTime fechaVencimiento) {
+        this.fechaVencimiento = fechaVencimiento;
+    }
+    
+    /**
+     * Obtiene la fecha del recordatorio
+     * @return fecha del recordatorio, o null si no tiene
+     */
+    public LocalDateTime getFechaRecordatorio() {
+        return fechaRecordatorio;
+    }
+    
+    /**
+     * Establece la fecha del recordatorio
+     * @param fechaRecordatorio - nueva fecha (null para quitarlo)
+     */
+    public void setFechaRecordatorio(LocalDateTime fechaRecordatorio) {
+        this.fechaRecordatorio = fechaRecordatorio;
+    }
+    
+    /**
+     * Indica si la tarea está archivada
+     * @return true si se leyó del archivo
+     */
+    public boolean isArchivada() {
+        return archivada;
+    }
+    
+    /**
+     * Marca la tarea como archivada
+     * @param archivada - true si viene del archivo
+     */
+    public void setArchivada(boolean archivada) {
+        this.archivada = archivada;
+    }
+}
\ No newline at end of file
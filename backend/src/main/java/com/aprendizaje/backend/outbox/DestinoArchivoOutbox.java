@@ -0,0 +1,57 @@
+package com.aprendizaje.backend.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino que agrega los registros a archivos NDJSON locales, uno por día (outbox-AAAA-MM-DD.ndjson)
+ * Cada lote se escribe con una sola escritura y se fuerza a disco antes de avanzar el offset
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.archivo.habilitado", havingValue = "true")
+public class DestinoArchivoOutbox implements DestinoOutbox {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Directorio de los archivos
+     */
+    @Value("${app.outbox.archivo.directorio:${java.io.tmpdir}/aprendizaje-outbox}")
+    private String directorio;
+
+    @Override
+    public String getNombre() {
+        return "archivo";
+    }
+
+    @Override
+    public void enviar(List<RegistroOutbox> lote) throws IOException {
+        Path carpeta = Paths.get(directorio);
+        Files.createDirectories(carpeta);
+        // El lote va al archivo del día de su primer registro, así un lote nunca queda repartido
+        Path archivo = carpeta.resolve("outbox-" + lote.get(0).getFecha().toLocalDate() + ".ndjson");
+        byte[] lineas = RelayOutbox.aNdjson(objectMapper, lote).getBytes(StandardCharsets.UTF_8);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lineas);
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.aprendizaje.backend.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Destino que envía cada lote en un POST con cuerpo NDJSON (application/x-ndjson)
+ *
+ * Cualquier respuesta 2xx confirma el lote completo. Las cabeceras X-Outbox-Primer-Id y
+ * X-Outbox-Ultimo-Id permiten al receptor descartar lotes repetidos.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.http.habilitado", havingValue = "true")
+public class DestinoHttpOutbox implements DestinoOutbox {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * URL que recibe los lotes
+     */
+    @Value("${app.outbox.http.url}")
+    private String url;
+
+    /**
+     * Tiempo máximo de cada envío
+     */
+    @Value("${app.outbox.http.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public String getNombre() {
+        return "http";
+    }
+
+    @Override
+    public void enviar(List<RegistroOutbox> lote) throws IOException {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/x-ndjson")
+                .header("X-Outbox-Primer-Id", String.valueOf(lote.get(0).getId()))
+                .header("X-Outbox-Ultimo-Id", String.valueOf(lote.get(lote.size() - 1).getId()))
+                .POST(HttpRequest.BodyPublishers.ofString(RelayOutbox.aNdjson(objectMapper, lote)))
+                .build();
+        HttpResponse<Void> respuesta;
+        try {
+            respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Envío interrumpido", e);
+        }
+        if (respuesta.statusCode() / 100 != 2) {
+            throw new IOException("El destino " + url + " respondió " + respuesta.statusCode());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.aprendizaje.backend.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino al que el relay entrega los registros del outbox
+ *
+ * Cada destino es un consumidor con su propio offset: si falla, solo él se detiene y
+ * reintenta el mismo lote en la siguiente pasada. La entrega es "al menos una vez": tras un
+ * fallo a mitad de lote, o una caída antes de guardar el offset, el destino puede recibir
+ * registros repetidos y debe descartarlos por su id.
+ *
+ * Para agregar un destino basta con registrar un bean que implemente esta interfaz.
+ */
+public interface DestinoOutbox {
+
+    /**
+     * Nombre del consumidor; identifica su offset, así que no debe cambiar entre versiones
+     */
+    String getNombre();
+
+    /**
+     * Entrega un lote de registros ordenados por id
+     * @param lote - registros a entregar (nunca vacío)
+     * @throws IOException si el lote no se pudo entregar completo
+     */
+    void enviar(List<RegistroOutbox> lote) throws IOException;
+}
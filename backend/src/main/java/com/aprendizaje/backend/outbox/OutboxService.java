@@ -0,0 +1,121 @@
+package com.aprendizaje.backend.outbox;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Escribe en el outbox un registro por cada creación, modificación o eliminación de tareas y productos
+ *
+ * Escucha los mismos eventos que SSE, pero con @EventListener (no transaccional): corre dentro
+ * de la transacción que publica el evento, así el registro se confirma o se revierte junto con el cambio,
+ * y un error al guardarlo revierte también el cambio.
+ *
+ * Las eliminaciones masivas por lotes publican los eventos dentro de la transacción de cada lote.
+ *
+ * Los registros de una transacción se juntan y se insertan al final, justo antes del commit
+ * (después del flush de JPA): OutboxRepository.insertar toma el candado que ordena los ids, y así
+ * solo se retiene durante el INSERT y el commit, y siempre después de los candados de las filas.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Indica si se registran los cambios en el outbox
+     */
+    @Value("${app.outbox.habilitado:false}")
+    private boolean habilitado;
+
+    public boolean estaHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Guarda el registro del cambio en la transacción en curso (al confirmarla)
+     * Sin transacción se inserta de inmediato
+     * @param evento - cambio ocurrido
+     */
+    @EventListener
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        if (!habilitado) {
+            return;
+        }
+        String datos = null;
+        if (evento.getTipo() != TipoCambio.ELIMINADO && evento.getDatos() != null) {
+            try {
+                datos = objectMapper.writeValueAsString(evento.getDatos());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("No se pudo serializar el cambio de " + evento.getEntidad(), e);
+            }
+        }
+        Object[] registro = {evento.getEntidad(), evento.getTipo().name(), evento.getId(), datos};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outboxRepository.insertar(Collections.singletonList(registro));
+            return;
+        }
+        RegistrosPendientes pendientes = (RegistrosPendientes) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            pendientes = new RegistrosPendientes();
+            TransactionSynchronizationManager.bindResource(this, pendientes);
+            TransactionSynchronizationManager.registerSynchronization(pendientes);
+        }
+        pendientes.agregar(registro);
+    }
+
+    /**
+     * Registros de la transacción en curso; se insertan antes del commit
+     */
+    private class RegistrosPendientes implements TransactionSynchronization {
+
+        private final List<Object[]> registros = new ArrayList<>();
+
+        /**
+         * Ya se insertaron: un evento posterior (de otro beforeCommit) se inserta de inmediato
+         */
+        private boolean insertados;
+
+        void agregar(Object[] registro) {
+            if (insertados) {
+                outboxRepository.insertar(Collections.singletonList(registro));
+            } else {
+                registros.add(registro);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Primero el flush, para tomar los candados de las filas antes que el de los ids
+            entityManager.flush();
+            outboxRepository.insertar(registros);
+            insertados = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(OutboxService.this);
+        }
+    }
+}
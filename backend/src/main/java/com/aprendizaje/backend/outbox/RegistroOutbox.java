@@ -0,0 +1,67 @@
+package com.aprendizaje.backend.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro compacto de un cambio guardado en la tabla outbox
+ * Se envía a los destinos tal cual, una línea JSON por registro
+ */
+public class RegistroOutbox {
+
+    /**
+     * Posición en el outbox (creciente); los consumidores guardan el último que procesaron
+     */
+    private final long id;
+
+    private final String entidad;
+
+    private final String tipo;
+
+    private final long entidadId;
+
+    /**
+     * Estado de la entidad después del cambio, en JSON (null si se eliminó)
+     */
+    private final String datos;
+
+    private final LocalDateTime fecha;
+
+    public RegistroOutbox(long id, String entidad, String tipo, long entidadId, String datos, LocalDateTime fecha) {
+        this.id = id;
+        this.entidad = entidad;
+        this.tipo = tipo;
+        this.entidadId = entidadId;
+        this.datos = datos;
+        this.fecha = fecha;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public long getEntidadId() {
+        return entidadId;
+    }
+
+    /**
+     * Se escribe como JSON anidado, no como texto
+     */
+    @JsonRawValue
+    public String getDatos() {
+        return datos;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
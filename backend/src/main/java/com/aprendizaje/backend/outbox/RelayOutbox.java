@@ -0,0 +1,255 @@
+package com.aprendizaje.backend.outbox;
+
+import com.aprendizaje.backend.repository.OutboxRepository;
+import com.aprendizaje.backend.shards.ContextoShard;
+import com.aprendizaje.backend.shards.ShardsTareas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Relay que entrega los registros del outbox a cada destino, en orden y por lotes
+ *
+ * - Cada destino (DestinoOutbox) es un consumidor con su propio offset en outbox_offsets;
+ *   el offset avanza solo después de que el destino confirma el lote
+ * - Los ids se asignan en orden de commit (OutboxRepository.insertar): los registros visibles no tienen
+ *   huecos por delante, así que se entregan en cuanto se confirman sin saltarse uno de una transacción lenta
+ * - Los registros se podan eliminando particiones diarias completas, cuando ya las recibieron
+ *   todos los consumidores y pasaron los días de retención
+ *
+ * Con shards de tareas cada shard tiene su propio outbox (el registro va en la misma transacción
+ * que el cambio), y el relay recorre cada uno con sus propios offsets.
+ */
+@Service
+public class RelayOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(RelayOutbox.class);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    /**
+     * Destinos registrados (puede no haber ninguno)
+     */
+    @Autowired(required = false)
+    private List<DestinoOutbox> destinos = List.of();
+
+    @Autowired
+    private ObjectProvider<ShardsTareas> shardsTareas;
+
+    /**
+     * Máximo de registros por lote
+     */
+    @Value("${app.outbox.tamano-lote:500}")
+    private int tamanoLote;
+
+    /**
+     * Máximo de lotes por destino en cada pasada, para que un atraso grande no acapare el hilo
+     */
+    @Value("${app.outbox.lotes-por-pasada:20}")
+    private int lotesPorPasada;
+
+    /**
+     * Días que se conservan los registros (aunque ya se hayan entregado)
+     */
+    @Value("${app.outbox.retencion-dias:7}")
+    private int retencionDias;
+
+    /**
+     * Particiones diarias que se crean por adelantado
+     */
+    @Value("${app.outbox.dias-adelantados:3}")
+    private int diasAdelantados;
+
+    /**
+     * Último error de cada destino (se borra al entregar con éxito)
+     */
+    private final Map<String, String> errores = new ConcurrentHashMap<>();
+
+    /**
+     * Entrega los registros pendientes a todos los destinos
+     * @return cantidad de registros entregados (sumando destinos)
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:1000}")
+    public synchronized int entregar() {
+        if (!outboxService.estaHabilitado() || destinos.isEmpty()) {
+            return 0;
+        }
+        int total = 0;
+        for (int origen = 0; origen < cantidadOrigenes(); origen++) {
+            for (DestinoOutbox destino : destinos) {
+                total += enOrigen(origen, () -> entregar(destino));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Crea las particiones de los próximos días y elimina las ya entregadas y vencidas
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.mantenimiento-ms:3600000}")
+    public synchronized void mantener() {
+        if (!outboxService.estaHabilitado()) {
+            return;
+        }
+        for (int origen = 0; origen < cantidadOrigenes(); origen++) {
+            int numero = origen;
+            try {
+                enOrigen(origen, () -> {
+                    mantenerOrigen(numero);
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                log.warn("No se pudo mantener las particiones del outbox (origen {}): {}", origen, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Estado del outbox de cada origen: último id y offset y atraso de cada consumidor
+     * @return un mapa por origen
+     */
+    public List<Map<String, Object>> estado() {
+        List<Map<String, Object>> estado = new ArrayList<>();
+        for (int origen = 0; origen < cantidadOrigenes(); origen++) {
+            int numero = origen;
+            estado.add(enOrigen(origen, () -> {
+                long ultimoId = outboxRepository.ultimoId();
+                Map<String, Long> offsets = outboxRepository.offsets();
+                List<Map<String, Object>> consumidores = new ArrayList<>();
+                for (DestinoOutbox destino : destinos) {
+                    long offset = offsets.getOrDefault(destino.getNombre(), 0L);
+                    Map<String, Object> consumidor = new LinkedHashMap<>();
+                    consumidor.put("nombre", destino.getNombre());
+                    consumidor.put("offset", offset);
+                    consumidor.put("pendientes", Math.max(0, ultimoId - offset));
+                    consumidor.put("error", errores.get(destino.getNombre()));
+                    consumidores.add(consumidor);
+                }
+                Map<String, Object> datos = new LinkedHashMap<>();
+                datos.put("origen", numero);
+                datos.put("ultimoId", ultimoId);
+                datos.put("consumidores", consumidores);
+                return datos;
+            }));
+        }
+        return estado;
+    }
+
+    /**
+     * Convierte un lote en NDJSON: una línea JSON por registro
+     * @param mapper - ObjectMapper de la aplicación
+     * @param lote - registros
+     * @return texto con un salto de línea después de cada registro
+     * @throws IOException si un registro no se puede serializar
+     */
+    public static String aNdjson(ObjectMapper mapper, List<RegistroOutbox> lote) throws IOException {
+        StringBuilder texto = new StringBuilder(lote.size() * 256);
+        for (RegistroOutbox registro : lote) {
+            texto.append(mapper.writeValueAsString(registro)).append('\n');
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Entrega al destino los registros pendientes del origen actual
+     * Se detiene en el primer fallo; el mismo lote se reintenta en la siguiente pasada
+     */
+    private int entregar(DestinoOutbox destino) {
+        int entregados = 0;
+        try {
+            long offset = outboxRepository.offset(destino.getNombre());
+            for (int lote = 0; lote < lotesPorPasada; lote++) {
+                List<RegistroOutbox> registros = outboxRepository.leerDesde(offset, tamanoLote);
+                if (registros.isEmpty()) {
+                    break;
+                }
+                destino.enviar(registros);
+                offset = registros.get(registros.size() - 1).getId();
+                outboxRepository.guardarOffset(destino.getNombre(), offset);
+                entregados += registros.size();
+                if (registros.size() < tamanoLote) {
+                    break;
+                }
+            }
+            errores.remove(destino.getNombre());
+        } catch (IOException | RuntimeException e) {
+            if (errores.put(destino.getNombre(), e.getMessage() != null ? e.getMessage() : e.toString()) == null) {
+                log.warn("No se pudo entregar el outbox al destino {}; se reintentará", destino.getNombre(), e);
+            }
+        }
+        return entregados;
+    }
+
+    private void mantenerOrigen(int origen) {
+        LocalDate hoy = LocalDate.now();
+        for (int dia = -1; dia <= diasAdelantados; dia++) {
+            try {
+                outboxRepository.crearParticion(hoy.plusDays(dia));
+            } catch (DataAccessException e) {
+                // Los registros de ese día siguen yendo a la partición DEFAULT
+                log.warn("No se pudo crear la partición del outbox para {}", hoy.plusDays(dia), e);
+            }
+        }
+
+        // Una partición se elimina solo si todos los consumidores ya recibieron su último registro
+        long entregadoATodos = Long.MAX_VALUE;
+        for (DestinoOutbox destino : destinos) {
+            entregadoATodos = Math.min(entregadoATodos, outboxRepository.offset(destino.getNombre()));
+        }
+        LocalDate limite = hoy.minusDays(retencionDias);
+        for (LocalDate dia : outboxRepository.diasConParticion()) {
+            if (!dia.isBefore(limite)) {
+                break;
+            }
+            if (outboxRepository.maximoIdParticion(dia) > entregadoATodos) {
+                log.warn("La partición del outbox del {} (origen {}) tiene registros sin entregar", dia, origen);
+                break;
+            }
+            outboxRepository.eliminarParticion(dia);
+            log.info("Eliminada la partición del outbox del {} (origen {})", dia, origen);
+        }
+        outboxRepository.podarDefault(entregadoATodos, limite.atStartOfDay());
+    }
+
+    /**
+     * Con shards hay un outbox por shard; sin ellos, solo el de la base principal
+     */
+    private int cantidadOrigenes() {
+        ShardsTareas shards = shardsTareas.getIfAvailable();
+        return shards != null ? shards.cantidad() : 1;
+    }
+
+    /**
+     * Ejecuta la operación con las conexiones dirigidas al origen (solo cambia algo con shards)
+     */
+    private <T> T enOrigen(int origen, Supplier<T> operacion) {
+        if (shardsTareas.getIfAvailable() == null) {
+            return operacion.get();
+        }
+        Integer anterior = ContextoShard.usar(origen);
+        try {
+            return operacion.get();
+        } finally {
+            ContextoShard.usar(anterior);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.aprendizaje.backend.perfilado;
+
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.ResultadoLote;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.service.ProductoService;
+import jdk.jfr.EventType;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Emite un OperacionServicioEvent por cada método público de TareaService y ProductoService
+ *
+ * Si ninguna grabación JFR tiene activo el evento, solo se consulta un indicador y se
+ * continúa con la llamada: no se crea el evento ni se inspeccionan argumentos o resultados.
+ */
+@Aspect
+@Component
+public class EventosServiciosAspect {
+
+    /**
+     * Tipo del evento; isEnabled() refleja si alguna grabación lo tiene activo
+     */
+    private static final EventType TIPO = EventType.getEventType(OperacionServicioEvent.class);
+
+    @Around("execution(public * com.aprendizaje.backend.service.TareaService.*(..))"
+            + " || execution(public * com.aprendizaje.backend.service.ProductoService.*(..))")
+    public Object registrar(ProceedingJoinPoint llamada) throws Throwable {
+        if (!TIPO.isEnabled()) {
+            return llamada.proceed();
+        }
+
+        OperacionServicioEvent evento = new OperacionServicioEvent();
+        evento.begin();
+        try {
+            Object resultado = llamada.proceed();
+            evento.filas = contarFilas(resultado);
+            return resultado;
+        } catch (Throwable e) {
+            evento.error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.entidad = llamada.getSignature().getDeclaringType() == ProductoService.class
+                        ? CambioEntidadEvent.ENTIDAD_PRODUCTO : CambioEntidadEvent.ENTIDAD_TAREA;
+                evento.operacion = llamada.getSignature().getName();
+                evento.entidadId = primerId(llamada.getArgs());
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * ID de la entidad: el primer argumento de tipo Long (0 si no hay)
+     */
+    static long primerId(Object[] argumentos) {
+        for (Object argumento : argumentos) {
+            if (argumento instanceof Long id) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Filas devueltas o modificadas según el tipo de resultado de la operación
+     */
+    static int contarFilas(Object resultado) {
+        if (resultado == null) {
+            return 0;
+        }
+        if (resultado instanceof Collection<?> coleccion) {
+            return coleccion.size();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        if (resultado instanceof Number numero) {
+            return numero.intValue();
+        }
+        if (resultado instanceof Boolean afectada) {
+            return afectada ? 1 : 0;
+        }
+        if (resultado instanceof ResultadoMultiple<?> multiple) {
+            return multiple.getEncontrados().size();
+        }
+        if (resultado instanceof CambiosDesde<?> cambios) {
+            return cambios.getCambios().size() + cambios.getEliminados().size();
+        }
+        if (resultado instanceof ResultadoLote lote) {
+            return lote.getResultados().size();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,41 @@
+package com.aprendizaje.backend.perfilado;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder para cada operación de TareaService y ProductoService
+ *
+ * En una grabación aparece junto a los eventos de GC, JDBC, bloqueos, etc.,
+ * así que se puede ver qué operación de negocio estaba en curso cuando ocurrió cada uno.
+ * La duración la mide JFR entre begin() y commit().
+ */
+@Name("com.aprendizaje.OperacionServicio")
+@Label("Operación de servicio")
+@Description("Operación de negocio de TareaService o ProductoService")
+@Category({"Aprendizaje", "Servicios"})
+@StackTrace(false)
+public class OperacionServicioEvent extends Event {
+
+    @Label("Entidad")
+    String entidad;
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("ID de la entidad")
+    @Description("Primer argumento de tipo Long, o 0 si la operación no recibe un ID")
+    long entidadId;
+
+    @Label("Filas")
+    @Description("Filas devueltas o modificadas por la operación")
+    int filas;
+
+    @Label("Error")
+    @Description("Clase de la excepción, si la operación falló")
+    String error;
+}
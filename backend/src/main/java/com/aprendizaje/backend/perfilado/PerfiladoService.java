@@ -0,0 +1,207 @@
+package com.aprendizaje.backend.perfilado;
+
+import com.aprendizaje.backend.dto.InfoGrabacion;
+import com.aprendizaje.backend.dto.PeticionGrabacion;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que inicia, detiene y exporta grabaciones de Java Flight Recorder
+ * para poder perfilar la aplicación en producción sin acceso al servidor
+ *
+ * Cada grabación usa una configuración del JDK ("default" o "profile") más el evento
+ * OperacionServicioEvent, para ver las operaciones de negocio junto a GC, JDBC, bloqueos, etc.
+ * Siempre tienen una duración máxima, para que una grabación olvidada no siga consumiendo recursos.
+ */
+@Service
+public class PerfiladoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfiladoService.class);
+
+    /**
+     * Nombre del evento propio en los ajustes de JFR
+     */
+    private static final String EVENTO_SERVICIO = "com.aprendizaje.OperacionServicio";
+
+    /**
+     * Máximo de grabaciones en curso al mismo tiempo
+     */
+    @Value("${app.perfilado.maximo-grabaciones:2}")
+    private int maximoGrabaciones;
+
+    /**
+     * Duración máxima (y por defecto) de una grabación
+     */
+    @Value("${app.perfilado.duracion-maxima-segundos:600}")
+    private long duracionMaximaSegundos;
+
+    /**
+     * Directorio donde se escriben los archivos .jfr para descargarlos
+     */
+    @Value("${app.perfilado.directorio:${java.io.tmpdir}}")
+    private String directorio;
+
+    /**
+     * Grabaciones creadas por este servicio (en curso o detenidas, hasta que se eliminen)
+     */
+    private final Map<Long, Recording> grabaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Inicia una nueva grabación
+     * @param peticion - configuración, duración, tamaño máximo, umbral y ajustes extra
+     * @return estado de la grabación iniciada
+     * @throws IllegalArgumentException si la configuración no existe o un valor no es válido
+     * @throws IllegalStateException si ya hay demasiadas grabaciones en curso
+     */
+    public synchronized InfoGrabacion iniciar(PeticionGrabacion peticion) {
+        long enCurso = grabaciones.values().stream().filter(PerfiladoService::estaEnCurso).count();
+        if (enCurso >= maximoGrabaciones) {
+            throw new IllegalStateException("Ya hay " + enCurso + " grabaciones en curso");
+        }
+
+        Configuration configuracion;
+        try {
+            configuracion = Configuration.getConfiguration(
+                    peticion.getConfiguracion() != null ? peticion.getConfiguracion() : "default");
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Configuración JFR desconocida: " + peticion.getConfiguracion(), e);
+        }
+
+        long duracion = peticion.getDuracionSegundos() != null && peticion.getDuracionSegundos() > 0
+                ? Math.min(peticion.getDuracionSegundos(), duracionMaximaSegundos)
+                : duracionMaximaSegundos;
+        long umbralMs = peticion.getUmbralMs() != null ? Math.max(0, peticion.getUmbralMs()) : 0;
+
+        Recording grabacion = new Recording(configuracion);
+        try {
+            Map<String, String> ajustes = grabacion.getSettings();
+            ajustes.put(EVENTO_SERVICIO + "#enabled", "true");
+            ajustes.put(EVENTO_SERVICIO + "#threshold", umbralMs + " ms");
+            if (peticion.getAjustes() != null) {
+                ajustes.putAll(peticion.getAjustes());
+            }
+            grabacion.setSettings(ajustes);
+            grabacion.setName(peticion.getNombre() != null ? peticion.getNombre() : "perfilado-" + grabacion.getId());
+            grabacion.setToDisk(true);
+            grabacion.setDuration(Duration.ofSeconds(duracion));
+            if (peticion.getTamanoMaximoMb() != null && peticion.getTamanoMaximoMb() > 0) {
+                grabacion.setMaxSize(peticion.getTamanoMaximoMb() * 1024 * 1024);
+            }
+            grabacion.start();
+        } catch (RuntimeException e) {
+            grabacion.close();
+            throw e;
+        }
+
+        grabaciones.put(grabacion.getId(), grabacion);
+        log.info("Grabación JFR {} iniciada ({}, {} s)", grabacion.getId(), configuracion.getName(), duracion);
+        return info(grabacion);
+    }
+
+    /**
+     * Detiene una grabación en curso (los datos se conservan hasta eliminarla)
+     * @param id - ID de la grabación
+     * @return estado de la grabación, o vacío si no existe
+     */
+    public synchronized Optional<InfoGrabacion> detener(long id) {
+        Recording grabacion = grabaciones.get(id);
+        if (grabacion == null) {
+            return Optional.empty();
+        }
+        if (estaEnCurso(grabacion)) {
+            grabacion.stop();
+        }
+        return Optional.of(info(grabacion));
+    }
+
+    /**
+     * Escribe en un archivo .jfr los datos de una grabación (en curso o detenida)
+     * @param id - ID de la grabación
+     * @return ruta del archivo, o vacío si la grabación no existe
+     * @throws IOException si no se pudo escribir el archivo
+     */
+    public synchronized Optional<Path> exportar(long id) throws IOException {
+        Recording grabacion = grabaciones.get(id);
+        if (grabacion == null) {
+            return Optional.empty();
+        }
+        Path archivo = archivo(id);
+        Files.deleteIfExists(archivo);
+        grabacion.dump(archivo);
+        return Optional.of(archivo);
+    }
+
+    /**
+     * Cierra una grabación y borra sus datos
+     * @param id - ID de la grabación
+     * @return true si existía
+     */
+    public synchronized boolean eliminar(long id) {
+        Recording grabacion = grabaciones.remove(id);
+        if (grabacion == null) {
+            return false;
+        }
+        grabacion.close();
+        try {
+            Files.deleteIfExists(archivo(id));
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo de la grabación {}", id, e);
+        }
+        return true;
+    }
+
+    /**
+     * Lista las grabaciones creadas por este servicio
+     * @return estado de cada grabación
+     */
+    public List<InfoGrabacion> listar() {
+        List<InfoGrabacion> resultado = new ArrayList<>();
+        for (Recording grabacion : grabaciones.values()) {
+            resultado.add(info(grabacion));
+        }
+        return resultado;
+    }
+
+    /**
+     * Al apagar se cierran todas las grabaciones
+     */
+    @PreDestroy
+    public void cerrar() {
+        for (Long id : new ArrayList<>(grabaciones.keySet())) {
+            eliminar(id);
+        }
+    }
+
+    private Path archivo(long id) {
+        return Paths.get(directorio, "grabacion-" + id + ".jfr");
+    }
+
+    private static boolean estaEnCurso(Recording grabacion) {
+        return grabacion.getState() == RecordingState.RUNNING || grabacion.getState() == RecordingState.DELAYED;
+    }
+
+    private static InfoGrabacion info(Recording grabacion) {
+        Duration duracion = grabacion.getDuration();
+        return new InfoGrabacion(grabacion.getId(), grabacion.getName(), grabacion.getState().name(),
+                grabacion.getStartTime(), grabacion.getStopTime(),
+                duracion != null ? duracion.toSeconds() : null, grabacion.getSize());
+    }
+}
@@ -0,0 +1,71 @@
+package com.aprendizaje.backend.ranking;
+
+import com.aprendizaje.backend.model.Producto;
+
+import java.util.Comparator;
+
+/**
+ * Criterios de los rankings de productos
+ *
+ * Cada criterio define el orden en memoria y el mismo orden en SQL (incluido el desempate por ID),
+ * que coincide con un índice (categoria_id, columna, id) recorrido hacia adelante o hacia atrás.
+ */
+public enum CriterioRanking {
+
+    MAS_BARATOS("mas-baratos", "precio, id",
+            Comparator.comparing(Producto::getPrecio).thenComparing(Producto::getId)),
+    MAS_CAROS("mas-caros", "precio DESC, id DESC",
+            Comparator.comparing(Producto::getPrecio).thenComparing(Producto::getId).reversed()),
+    MENOS_STOCK("menos-stock", "stock, id",
+            Comparator.comparing(Producto::getStock).thenComparing(Producto::getId)),
+    MAS_NUEVOS("mas-nuevos", "fecha_creacion DESC, id DESC",
+            Comparator.comparing(Producto::getFechaCreacion).thenComparing(Producto::getId).reversed());
+
+    /**
+     * Nombre del criterio en la URL
+     */
+    private final String ruta;
+
+    /**
+     * Cláusula ORDER BY equivalente al comparador
+     */
+    private final String ordenSql;
+
+    private final Comparator<Producto> orden;
+
+    CriterioRanking(String ruta, String ordenSql, Comparator<Producto> orden) {
+        this.ruta = ruta;
+        this.ordenSql = ordenSql;
+        this.orden = orden;
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    public String getOrdenSql() {
+        return ordenSql;
+    }
+
+    /**
+     * Orden del ranking: primero el mejor
+     */
+    public Comparator<Producto> getOrden() {
+        return orden;
+    }
+
+    /**
+     * Busca el criterio por su nombre en la URL
+     * @param ruta - por ejemplo "mas-baratos"
+     * @return el criterio
+     * @throws IllegalArgumentException si no existe
+     */
+    public static CriterioRanking desdeRuta(String ruta) {
+        for (CriterioRanking criterio : values()) {
+            if (criterio.ruta.equals(ruta)) {
+                return criterio;
+            }
+        }
+        throw new IllegalArgumentException("Criterio de ranking desconocido: " + ruta);
+    }
+}
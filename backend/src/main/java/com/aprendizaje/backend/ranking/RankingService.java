@@ -0,0 +1,266 @@
+package com.aprendizaje.backend.ranking;
+
+import com.aprendizaje.backend.categorias.DiccionarioCategorias;
+import com.aprendizaje.backend.dto.InfoCategoria;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.RankingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rankings de productos (más baratos, más caros, menos stock, más nuevos) mantenidos en memoria
+ *
+ * - Cada categoría tiene una estructura acotada (TopAcotado) por criterio, con los mejores
+ *   "tamaño máximo + holgura" productos; se crea y se carga en la primera lectura de la categoría
+ * - Cada cambio confirmado de un producto (CambioEntidadEvent) se aplica a las estructuras de su categoría
+ * - Solo se vuelve a leer de la base cuando las bajas dejaron una estructura con menos productos
+ *   de los pedidos; la holgura hace que eso sea poco frecuente
+ * - El ranking de todo el catálogo mezcla los rankings de cada categoría (el mejor de todos está
+ *   entre los mejores de su categoría), así que no necesita estructuras ni índices propios
+ *
+ * Una lectura cuesta O(N) (O(N log C) con C categorías para el catálogo completo), sin importar
+ * cuántos productos haya.
+ */
+@Service
+public class RankingService {
+
+    /**
+     * Clave de los productos sin categoría (ConcurrentHashMap no acepta null)
+     */
+    private static final String SIN_CATEGORIA = "";
+
+    @Autowired
+    private RankingRepository rankingRepository;
+
+    @Autowired
+    private DiccionarioCategorias diccionarioCategorias;
+
+    /**
+     * Máximo de productos que se pueden pedir en un ranking
+     */
+    @Value("${app.ranking.tamano-maximo:50}")
+    private int tamanoMaximo;
+
+    /**
+     * Productos extra que se guardan para absorber bajas sin recargar
+     */
+    @Value("${app.ranking.holgura:20}")
+    private int holgura;
+
+    /**
+     * Categorías leídas alguna vez -> una estructura por criterio (índice = ordinal del criterio)
+     * Cada arreglo es también el candado de su categoría
+     */
+    private final Map<String, TopAcotado[]> porCategoria = new ConcurrentHashMap<>();
+
+    /**
+     * Categoría de los productos guardados en alguna estructura
+     * Sirve para quitarlos de su categoría anterior cuando cambian de categoría
+     */
+    private final Map<Long, String> categoriaDe = new ConcurrentHashMap<>();
+
+    /**
+     * Primeros productos según un criterio
+     * @param criterio - orden del ranking
+     * @param categoria - categoría, o null para todo el catálogo
+     * @param limite - cantidad de productos (entre 1 y el tamaño máximo)
+     * @return productos en orden (no deben modificarse)
+     * @throws IllegalArgumentException si el límite no es válido
+     */
+    public List<Producto> ranking(CriterioRanking criterio, String categoria, int limite) {
+        if (limite < 1 || limite > tamanoMaximo) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + tamanoMaximo);
+        }
+        if (categoria != null) {
+            // Sin crear estructuras para nombres que no existen
+            return diccionarioCategorias.existe(categoria) ? primeros(categoria, criterio, limite) : List.of();
+        }
+        List<List<Producto>> listas = new ArrayList<>();
+        listas.add(primeros(SIN_CATEGORIA, criterio, limite));
+        for (InfoCategoria info : diccionarioCategorias.listar()) {
+            listas.add(primeros(info.getNombre(), criterio, limite));
+        }
+        return mezclar(listas, criterio.getOrden(), limite);
+    }
+
+    /**
+     * Aplica a los rankings los cambios confirmados de productos
+     * @param evento - cambio publicado por ProductoService o AjusteProductosService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        if (!CambioEntidadEvent.ENTIDAD_PRODUCTO.equals(evento.getEntidad())) {
+            return;
+        }
+        if (evento.getTipo() == TipoCambio.ELIMINADO) {
+            String anterior = categoriaDe.get(evento.getId());
+            if (anterior != null) {
+                quitar(evento.getId(), anterior);
+            }
+        } else if (evento.getDatos() instanceof Producto producto) {
+            actualizar(copiar(producto));
+        }
+    }
+
+    /**
+     * Mezcla listas ya ordenadas y se queda con las primeras
+     * @param listas - listas ordenadas según orden
+     * @param orden - orden del ranking
+     * @param limite - máximo de productos
+     * @return los primeros productos de todas las listas
+     */
+    static List<Producto> mezclar(List<List<Producto>> listas, Comparator<Producto> orden, int limite) {
+        PriorityQueue<Cabeza> cabezas = new PriorityQueue<>((a, b) -> orden.compare(a.actual, b.actual));
+        for (List<Producto> lista : listas) {
+            Iterator<Producto> iterador = lista.iterator();
+            if (iterador.hasNext()) {
+                cabezas.add(new Cabeza(iterador.next(), iterador));
+            }
+        }
+        List<Producto> resultado = new ArrayList<>(limite);
+        while (resultado.size() < limite && !cabezas.isEmpty()) {
+            Cabeza cabeza = cabezas.poll();
+            resultado.add(cabeza.actual);
+            if (cabeza.resto.hasNext()) {
+                cabeza.actual = cabeza.resto.next();
+                cabezas.add(cabeza);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Primer elemento pendiente de una lista durante la mezcla
+     */
+    private static final class Cabeza {
+
+        Producto actual;
+        final Iterator<Producto> resto;
+
+        Cabeza(Producto actual, Iterator<Producto> resto) {
+            this.actual = actual;
+            this.resto = resto;
+        }
+    }
+
+    /**
+     * Primeros productos de una categoría; recarga la estructura si no alcanza
+     */
+    private List<Producto> primeros(String clave, CriterioRanking criterio, int limite) {
+        TopAcotado[] vistas = porCategoria.computeIfAbsent(clave, c -> nuevasVistas());
+        synchronized (vistas) {
+            TopAcotado top = vistas[criterio.ordinal()];
+            if (top.necesitaRecarga(limite)) {
+                List<Producto> mejores = rankingRepository.primeros(
+                        SIN_CATEGORIA.equals(clave) ? null : clave, criterio, top.getCapacidad());
+                top.recargar(mejores);
+                for (Producto producto : mejores) {
+                    categoriaDe.put(producto.getId(), clave);
+                }
+            }
+            return top.primeros(limite);
+        }
+    }
+
+    private void actualizar(Producto producto) {
+        Long id = producto.getId();
+        String clave = producto.getCategoria() != null ? producto.getCategoria() : SIN_CATEGORIA;
+        String anterior = categoriaDe.get(id);
+        if (anterior != null && !anterior.equals(clave)) {
+            quitar(id, anterior);
+        }
+        TopAcotado[] vistas = porCategoria.get(clave);
+        if (vistas == null) {
+            return;
+        }
+        synchronized (vistas) {
+            if (esAnterior(producto, vistas)) {
+                // Llegó después que un cambio más nuevo del mismo producto
+                return;
+            }
+            List<Long> expulsados = new ArrayList<>();
+            for (TopAcotado top : vistas) {
+                Long expulsado = top.actualizar(producto);
+                if (expulsado != null) {
+                    expulsados.add(expulsado);
+                }
+            }
+            expulsados.add(id);
+            for (Long candidato : expulsados) {
+                if (guardadoEn(candidato, vistas)) {
+                    categoriaDe.put(candidato, clave);
+                } else {
+                    categoriaDe.remove(candidato, clave);
+                }
+            }
+        }
+    }
+
+    private void quitar(long id, String clave) {
+        TopAcotado[] vistas = porCategoria.get(clave);
+        if (vistas != null) {
+            synchronized (vistas) {
+                for (TopAcotado top : vistas) {
+                    top.eliminar(id);
+                }
+            }
+        }
+        categoriaDe.remove(id, clave);
+    }
+
+    private TopAcotado[] nuevasVistas() {
+        CriterioRanking[] criterios = CriterioRanking.values();
+        TopAcotado[] vistas = new TopAcotado[criterios.length];
+        for (CriterioRanking criterio : criterios) {
+            vistas[criterio.ordinal()] = new TopAcotado(criterio.getOrden(), tamanoMaximo + holgura);
+        }
+        return vistas;
+    }
+
+    private static boolean guardadoEn(long id, TopAcotado[] vistas) {
+        for (TopAcotado top : vistas) {
+            if (top.buscar(id) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean esAnterior(Producto producto, TopAcotado[] vistas) {
+        if (producto.getVersionCambio() == null) {
+            return false;
+        }
+        for (TopAcotado top : vistas) {
+            Producto guardado = top.buscar(producto.getId());
+            if (guardado != null) {
+                return guardado.getVersionCambio() != null && guardado.getVersionCambio() > producto.getVersionCambio();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia del producto: las estructuras no deben compartir la instancia de la transacción
+     */
+    private static Producto copiar(Producto producto) {
+        Producto copia = new Producto(producto.getNombre(), producto.getDescripcion(), producto.getPrecio(),
+                producto.getStock(), producto.getCategoria());
+        copia.setId(producto.getId());
+        copia.setFechaCreacion(producto.getFechaCreacion());
+        copia.setFechaModificacion(producto.getFechaModificacion());
+        copia.setVersionCambio(producto.getVersionCambio());
+        return copia;
+    }
+}
@@ -0,0 +1,132 @@
+package com.aprendizaje.backend.ranking;
+
+import com.aprendizaje.backend.model.Producto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Los mejores productos de un ámbito según un orden, con capacidad acotada
+ *
+ * Guarda como máximo "capacidad" productos ordenados. Mientras "truncado" sea false contiene
+ * todos los productos del ámbito; cuando es true contiene exactamente los mejores, y un producto
+ * que queda peor que el último guardado no se puede conservar (podría haber mejores afuera).
+ * Así las bajas y los empeoramientos vacían la estructura poco a poco; cuando queda con menos
+ * de los que se piden hay que recargarla desde la base. Una estructura nueva está vacía y truncada,
+ * así que se carga en la primera lectura.
+ *
+ * No es thread-safe: quien la usa debe sincronizar el acceso.
+ */
+public class TopAcotado {
+
+    private final Comparator<Producto> orden;
+
+    private final int capacidad;
+
+    private final TreeSet<Producto> productos;
+
+    private final Map<Long, Producto> porId = new HashMap<>();
+
+    /**
+     * true si puede haber productos del ámbito que no están en la estructura
+     */
+    private boolean truncado = true;
+
+    /**
+     * @param orden - orden del ranking (primero el mejor); debe desempatar por ID
+     * @param capacidad - máximo de productos guardados
+     */
+    public TopAcotado(Comparator<Producto> orden, int capacidad) {
+        this.orden = orden;
+        this.capacidad = capacidad;
+        this.productos = new TreeSet<>(orden);
+    }
+
+    /**
+     * Aplica el nuevo estado de un producto del ámbito
+     * @param producto - estado después del cambio
+     * @return ID del producto que salió por exceder la capacidad, o null
+     */
+    public Long actualizar(Producto producto) {
+        eliminar(producto.getId());
+        if (truncado && (productos.isEmpty() || orden.compare(producto, productos.last()) > 0)) {
+            return null;
+        }
+        productos.add(producto);
+        porId.put(producto.getId(), producto);
+        if (productos.size() > capacidad) {
+            Producto peor = productos.pollLast();
+            porId.remove(peor.getId());
+            truncado = true;
+            return peor.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Quita un producto (borrado o que salió del ámbito)
+     * @return true si estaba guardado
+     */
+    public boolean eliminar(long id) {
+        Producto anterior = porId.remove(id);
+        if (anterior == null) {
+            return false;
+        }
+        productos.remove(anterior);
+        return true;
+    }
+
+    /**
+     * Estado guardado de un producto
+     * @return el producto, o null si no está guardado
+     */
+    public Producto buscar(long id) {
+        return porId.get(id);
+    }
+
+    /**
+     * Indica si faltan productos para responder un ranking de n elementos
+     */
+    public boolean necesitaRecarga(int n) {
+        return truncado && productos.size() < n;
+    }
+
+    /**
+     * Reemplaza el contenido por los mejores del ámbito leídos de la base
+     * @param mejores - productos en orden, como máximo capacidad
+     */
+    public void recargar(List<Producto> mejores) {
+        productos.clear();
+        porId.clear();
+        for (Producto producto : mejores) {
+            productos.add(producto);
+            porId.put(producto.getId(), producto);
+        }
+        truncado = mejores.size() >= capacidad;
+    }
+
+    /**
+     * Los primeros n productos, en orden
+     */
+    public List<Producto> primeros(int n) {
+        List<Producto> resultado = new ArrayList<>(Math.min(n, productos.size()));
+        Iterator<Producto> iterador = productos.iterator();
+        while (resultado.size() < n && iterador.hasNext()) {
+            resultado.add(iterador.next());
+        }
+        return resultado;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public int tamano() {
+        return productos.size();
+    }
+}
@@ -0,0 +1,33 @@
+package com.aprendizaje.backend.recordatorios;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Destino por defecto: escribe cada recordatorio en el log
+ * Se reemplaza por DestinoWebhookRecordatorios con app.recordatorios.webhook.habilitado=true
+ */
+@Component
+@ConditionalOnProperty(name = "app.recordatorios.webhook.habilitado", havingValue = "false", matchIfMissing = true)
+public class DestinoLogRecordatorios implements DestinoRecordatorios {
+
+    private static final Logger log = LoggerFactory.getLogger(DestinoLogRecordatorios.class);
+
+    @Override
+    public String getNombre() {
+        return "log";
+    }
+
+    @Override
+    public void enviar(List<Recordatorio> lote) {
+        log.info("Enviando {} recordatorios de tareas", lote.size());
+        for (Recordatorio recordatorio : lote) {
+            log.info("Recordatorio: tarea {} \"{}\" (vence {})", recordatorio.getTareaId(),
+                    recordatorio.getTitulo(), recordatorio.getFechaVencimiento());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.aprendizaje.backend.recordatorios;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino al que ProgramadorRecordatorios envía los recordatorios vencidos, por lotes
+ *
+ * Si un envío falla, el programador se detiene y reintenta el mismo lote en el siguiente tick.
+ * La entrega es "al menos una vez": tras una caída antes de guardar la marca, el destino
+ * puede recibir recordatorios repetidos y debe descartarlos por tareaId y fechaRecordatorio.
+ */
+public interface DestinoRecordatorios {
+
+    /**
+     * Nombre del destino (para el estado y los logs)
+     */
+    String getNombre();
+
+    /**
+     * Envía un lote de recordatorios
+     * @param lote - recordatorios a enviar (nunca vacío)
+     * @throws IOException si el lote no se pudo entregar completo
+     */
+    void enviar(List<Recordatorio> lote) throws IOException;
+}
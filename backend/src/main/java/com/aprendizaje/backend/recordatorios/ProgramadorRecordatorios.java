@@ -0,0 +1,360 @@
+package com.aprendizaje.backend.recordatorios;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.RecordatorioRepository;
+import com.aprendizaje.backend.shards.ContextoShard;
+import com.aprendizaje.backend.shards.ShardsTareas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Programador de recordatorios de tareas basado en una rueda de tiempo jerárquica
+ *
+ * - La rueda solo guarda los recordatorios de la próxima "ventana" (por defecto una hora);
+ *   en cada tick se carga de la base la porción nueva de la ventana, usando el índice parcial
+ *   idx_tareas_recordatorio, así la memoria no depende de cuántas tareas tengan fecha
+ * - Los cambios de tareas (eventos CambioEntidadEvent) programan, reprograman o cancelan
+ *   el recordatorio en la rueda si cae dentro de lo ya cargado
+ * - Antes de enviar un lote se vuelve a leer de la base: solo salen las tareas que siguen
+ *   pendientes y con el recordatorio vencido
+ * - La marca recordatorios_marca guarda hasta dónde se envió todo; al arrancar se retoma desde ahí
+ *   (como máximo "recuperación" hacia atrás), así una caída no pierde recordatorios. La entrega es
+ *   "al menos una vez": lo enviado entre la última marca y la caída se vuelve a enviar.
+ *
+ * El programador debe habilitarse en una sola instancia de la aplicación.
+ */
+@Service
+public class ProgramadorRecordatorios {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgramadorRecordatorios.class);
+
+    @Autowired
+    private RecordatorioRepository recordatorioRepository;
+
+    /**
+     * Destinos registrados
+     */
+    @Autowired(required = false)
+    private List<DestinoRecordatorios> destinos = List.of();
+
+    @Autowired
+    private ObjectProvider<ShardsTareas> shardsTareas;
+
+    @Value("${app.recordatorios.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Precisión de la rueda (y frecuencia del tick)
+     */
+    @Value("${app.recordatorios.tick-ms:1000}")
+    private long tickMs;
+
+    /**
+     * Ranuras por nivel de la rueda
+     */
+    @Value("${app.recordatorios.ranuras:64}")
+    private int ranuras;
+
+    /**
+     * Niveles de la rueda
+     */
+    @Value("${app.recordatorios.niveles:4}")
+    private int niveles;
+
+    /**
+     * Cuánto hacia el futuro se mantiene cargado en la rueda
+     */
+    @Value("${app.recordatorios.ventana-ms:3600000}")
+    private long ventanaMs;
+
+    /**
+     * Máximo de recordatorios por envío
+     */
+    @Value("${app.recordatorios.tamano-lote:500}")
+    private int tamanoLote;
+
+    /**
+     * Filas por página al cargar la ventana
+     */
+    @Value("${app.recordatorios.tamano-carga:5000}")
+    private int tamanoCarga;
+
+    /**
+     * Máximo que se recupera hacia atrás al arrancar (recordatorios más viejos ya no se envían)
+     */
+    @Value("${app.recordatorios.recuperacion-max-ms:86400000}")
+    private long recuperacionMaxMs;
+
+    /**
+     * Protege la rueda y cargadoHasta (el tick y los eventos corren en hilos distintos)
+     */
+    private final Object candado = new Object();
+
+    private RuedaTemporal rueda;
+
+    /**
+     * Instante hasta el que la ventana ya se cargó de la base (en milisegundos)
+     */
+    private long cargadoHasta;
+
+    /**
+     * Lotes vencidos que faltan enviar (se reintentan en el siguiente tick)
+     */
+    private final Deque<List<Long>> lotesPendientes = new ArrayDeque<>();
+
+    /**
+     * Corte de los lotes pendientes: la marca se guarda al terminar de enviarlos
+     */
+    private long marcaPendiente;
+
+    private final AtomicLong enviados = new AtomicLong();
+
+    private volatile String ultimoError;
+
+    /**
+     * Crea la rueda a partir de la última marca guardada
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!habilitado) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        LocalDateTime marca = recordatorioRepository.marca();
+        long inicio = Math.max(marca != null ? aMilis(marca) : ahora, ahora - recuperacionMaxMs);
+        RuedaTemporal nueva = new RuedaTemporal(tickMs, ranuras, niveles, inicio);
+        if (ventanaMs + recuperacionMaxMs >= nueva.getHorizonteMs()) {
+            throw new IllegalStateException("La ventana y la recuperación de recordatorios superan el horizonte "
+                    + "de la rueda (" + nueva.getHorizonteMs() + " ms); aumente ranuras o niveles");
+        }
+        synchronized (candado) {
+            rueda = nueva;
+            cargadoHasta = nueva.getActual();
+            marcaPendiente = nueva.getActual();
+        }
+        log.info("Programador de recordatorios iniciado desde {}", aFecha(nueva.getActual()));
+    }
+
+    /**
+     * Carga la ventana, avanza la rueda y envía los recordatorios vencidos
+     * @return cantidad de recordatorios enviados
+     */
+    @Scheduled(fixedDelayString = "${app.recordatorios.tick-ms:1000}")
+    public synchronized int avanzar() {
+        if (rueda == null || destinos.isEmpty()) {
+            return 0;
+        }
+        try {
+            int total = enviarPendientes();
+            if (!lotesPendientes.isEmpty()) {
+                return total;
+            }
+            long ahora = System.currentTimeMillis();
+            cargarHasta(ahora + ventanaMs);
+            List<Long> vencidos;
+            synchronized (candado) {
+                vencidos = rueda.avanzar(ahora);
+                marcaPendiente = rueda.getActual();
+            }
+            for (int i = 0; i < vencidos.size(); i += tamanoLote) {
+                lotesPendientes.add(new ArrayList<>(vencidos.subList(i, Math.min(i + tamanoLote, vencidos.size()))));
+            }
+            total += enviarPendientes();
+            if (lotesPendientes.isEmpty()) {
+                recordatorioRepository.guardarMarca(aFecha(marcaPendiente));
+            }
+            ultimoError = null;
+            return total;
+        } catch (IOException | RuntimeException e) {
+            if (ultimoError == null) {
+                log.warn("No se pudieron enviar los recordatorios; se reintentará", e);
+            }
+            ultimoError = e.getMessage() != null ? e.getMessage() : e.toString();
+            return 0;
+        }
+    }
+
+    /**
+     * Mantiene la rueda al día con los cambios confirmados de tareas
+     * @param evento - cambio publicado por TareaService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        if (!CambioEntidadEvent.ENTIDAD_TAREA.equals(evento.getEntidad()) || evento.getId() == null) {
+            return;
+        }
+        synchronized (candado) {
+            if (rueda == null) {
+                return;
+            }
+            if (evento.getTipo() == TipoCambio.ELIMINADO) {
+                rueda.cancelar(evento.getId());
+            } else if (evento.getDatos() instanceof Tarea tarea) {
+                LocalDateTime recordatorio = tarea.getFechaRecordatorio();
+                if (Boolean.TRUE.equals(tarea.getCompletada()) || recordatorio == null) {
+                    rueda.cancelar(evento.getId());
+                } else {
+                    long vencimiento = aMilis(recordatorio);
+                    // Lo que cae después de lo cargado lo traerá la carga de la ventana
+                    if (vencimiento >= cargadoHasta || !rueda.programar(evento.getId(), vencimiento)) {
+                        rueda.cancelar(evento.getId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Estado del programador
+     * @return mapa con programados, ventana cargada, marca, enviados, lotes pendientes y último error
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", habilitado);
+        synchronized (candado) {
+            estado.put("programados", rueda != null ? rueda.tamano() : 0);
+            estado.put("cargadoHasta", rueda != null ? aFecha(cargadoHasta) : null);
+        }
+        estado.put("marca", recordatorioRepository.marca());
+        estado.put("enviados", enviados.get());
+        estado.put("lotesPendientes", lotesPendientes.size());
+        estado.put("ultimoError", ultimoError);
+        estado.put("destinos", destinos.stream().map(DestinoRecordatorios::getNombre).toList());
+        return estado;
+    }
+
+    /**
+     * Envía los lotes pendientes en orden; se detiene en el primer fallo
+     * Cada lote se vuelve a leer de la base (por shard) y se envía a todos los destinos
+     */
+    private int enviarPendientes() throws IOException {
+        int total = 0;
+        LocalDateTime corte = aFecha(marcaPendiente);
+        while (!lotesPendientes.isEmpty()) {
+            List<Long> ids = lotesPendientes.peek();
+            List<Recordatorio> lote = new ArrayList<>();
+            ShardsTareas shards = shardsTareas.getIfAvailable();
+            if (shards == null) {
+                lote.addAll(recordatorioRepository.buscarPendientes(ids, corte));
+            } else {
+                for (Map.Entry<Integer, List<Long>> grupo : shards.agruparPorShard(ids).entrySet()) {
+                    lote.addAll(enOrigen(grupo.getKey(),
+                            () -> recordatorioRepository.buscarPendientes(grupo.getValue(), corte)));
+                }
+            }
+            if (!lote.isEmpty()) {
+                for (DestinoRecordatorios destino : destinos) {
+                    destino.enviar(lote);
+                }
+            }
+            lotesPendientes.poll();
+            enviados.addAndGet(lote.size());
+            total += lote.size();
+        }
+        return total;
+    }
+
+    /**
+     * Carga en la rueda los recordatorios de la base entre lo ya cargado y el instante dado
+     */
+    private void cargarHasta(long hastaMs) {
+        long desde;
+        synchronized (candado) {
+            desde = cargadoHasta;
+            if (hastaMs <= desde) {
+                return;
+            }
+            // Se adelanta antes de consultar: un cambio que llegue durante la carga ya entra por el evento
+            cargadoHasta = hastaMs;
+        }
+        try {
+            for (int origen = 0; origen < cantidadOrigenes(); origen++) {
+                enOrigen(origen, () -> {
+                    cargarOrigen(desde, hastaMs);
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            synchronized (candado) {
+                cargadoHasta = desde;
+            }
+            throw e;
+        }
+    }
+
+    private void cargarOrigen(long desdeMs, long hastaMs) {
+        LocalDateTime hasta = aFecha(hastaMs);
+        // Cursor inicial justo antes de desde (la columna guarda microsegundos)
+        LocalDateTime cursorFecha = aFecha(desdeMs).minusNanos(1000);
+        long cursorId = Long.MAX_VALUE;
+        List<Recordatorio> pagina;
+        do {
+            pagina = recordatorioRepository.leerVentana(hasta, cursorFecha, cursorId, tamanoCarga);
+            synchronized (candado) {
+                for (Recordatorio recordatorio : pagina) {
+                    rueda.programarSiAusente(recordatorio.getTareaId(), aMilis(recordatorio.getFechaRecordatorio()));
+                }
+            }
+            if (!pagina.isEmpty()) {
+                Recordatorio ultimo = pagina.get(pagina.size() - 1);
+                cursorFecha = ultimo.getFechaRecordatorio();
+                cursorId = ultimo.getTareaId();
+            }
+        } while (pagina.size() == tamanoCarga);
+    }
+
+    /**
+     * Con shards las tareas están repartidas; sin ellos, solo en la base principal
+     */
+    private int cantidadOrigenes() {
+        ShardsTareas shards = shardsTareas.getIfAvailable();
+        return shards != null ? shards.cantidad() : 1;
+    }
+
+    /**
+     * Ejecuta la operación con las conexiones dirigidas al origen (solo cambia algo con shards)
+     */
+    private <T> T enOrigen(int origen, Supplier<T> operacion) {
+        if (shardsTareas.getIfAvailable() == null) {
+            return operacion.get();
+        }
+        Integer anterior = ContextoShard.usar(origen);
+        try {
+            return operacion.get();
+        } finally {
+            ContextoShard.usar(anterior);
+        }
+    }
+
+    private static long aMilis(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime aFecha(long milis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(milis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,43 @@
+package com.aprendizaje.backend.recordatorios;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recordatorio de una tarea pendiente que se envía a los destinos
+ */
+public class Recordatorio {
+
+    private final long tareaId;
+
+    private final String titulo;
+
+    private final LocalDateTime fechaVencimiento;
+
+    private final LocalDateTime fechaRecordatorio;
+
+    public Recordatorio(long tareaId, String titulo, LocalDateTime fechaVencimiento, LocalDateTime fechaRecordatorio) {
+        this.tareaId = tareaId;
+        this.titulo = titulo;
+        this.fechaVencimiento = fechaVencimiento;
+        this.fechaRecordatorio = fechaRecordatorio;
+    }
+
+    public long getTareaId() {
+        return tareaId;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    /**
+     * Fecha límite de la tarea (puede ser null si solo tiene recordatorio)
+     */
+    public LocalDateTime getFechaVencimiento() {
+        return fechaVencimiento;
+    }
+
+    public LocalDateTime getFechaRecordatorio() {
+        return fechaRecordatorio;
+    }
+}
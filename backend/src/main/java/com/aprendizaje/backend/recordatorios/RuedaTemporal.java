@@ -0,0 +1,248 @@
+package com.aprendizaje.backend.recordatorios;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rueda de tiempo jerárquica (hierarchical timing wheel) para programar millones de vencimientos
+ *
+ * Cada nivel es un arreglo circular de "ranuras" ranuras. En el nivel 0 cada ranura dura un tick;
+ * en el nivel n, ranuras^n ticks. Un vencimiento se guarda en el nivel más bajo que lo alcanza,
+ * así que programar y cancelar cuestan O(1) sin importar cuántos haya. Al avanzar, cuando el tiempo
+ * llega al inicio de una ranura de un nivel superior, sus elementos bajan (cascada) a niveles
+ * más finos, hasta llegar al nivel 0 y dispararse.
+ *
+ * Las cancelaciones son perezosas: el mapa programados dice cuál es el vencimiento vigente de cada ID
+ * y las entradas que ya no coinciden se descartan al pasar por ellas.
+ *
+ * No es thread-safe: quien la usa debe sincronizar el acceso.
+ */
+public class RuedaTemporal {
+
+    /**
+     * Un vencimiento guardado en una ranura
+     */
+    private static final class Entrada {
+
+        final long id;
+        final long vencimiento;
+
+        Entrada(long id, long vencimiento) {
+            this.id = id;
+            this.vencimiento = vencimiento;
+        }
+    }
+
+    private final long tickMs;
+    private final int ranuras;
+
+    /**
+     * Duración de una ranura en cada nivel (tickMs * ranuras^nivel)
+     */
+    private final long[] duracion;
+
+    /**
+     * Ranuras de cada nivel; se crean al primer uso
+     */
+    private final List<Entrada>[][] niveles;
+
+    /**
+     * Vencimiento vigente de cada ID programado
+     */
+    private final Map<Long, Long> programados = new HashMap<>();
+
+    /**
+     * Programados con un vencimiento ya pasado: se disparan en el siguiente avance
+     */
+    private final List<Entrada> atrasados = new ArrayList<>();
+
+    /**
+     * Inicio de la próxima ranura del nivel 0 por procesar (múltiplo de tickMs)
+     */
+    private long actual;
+
+    /**
+     * @param tickMs - duración de una ranura del nivel 0 (precisión de la rueda)
+     * @param ranuras - ranuras por nivel
+     * @param cantidadNiveles - cantidad de niveles
+     * @param inicioMs - instante desde el que se empieza a avanzar
+     */
+    @SuppressWarnings("unchecked")
+    public RuedaTemporal(long tickMs, int ranuras, int cantidadNiveles, long inicioMs) {
+        if (tickMs <= 0 || ranuras < 2 || cantidadNiveles < 1) {
+            throw new IllegalArgumentException("Configuración inválida de la rueda de tiempo");
+        }
+        this.tickMs = tickMs;
+        this.ranuras = ranuras;
+        this.duracion = new long[cantidadNiveles];
+        long d = tickMs;
+        for (int n = 0; n < cantidadNiveles; n++) {
+            duracion[n] = d;
+            d = Math.multiplyExact(d, ranuras);
+        }
+        this.niveles = new List[cantidadNiveles][ranuras];
+        this.actual = Math.floorDiv(inicioMs, tickMs) * tickMs;
+    }
+
+    /**
+     * Distancia máxima hacia el futuro que puede programarse
+     * @return milisegundos que cubre el nivel más alto
+     */
+    public long getHorizonteMs() {
+        return duracion[duracion.length - 1] * ranuras;
+    }
+
+    /**
+     * Inicio de la próxima ranura por procesar: todo lo que vence antes ya se disparó
+     * @return instante en milisegundos
+     */
+    public long getActual() {
+        return actual;
+    }
+
+    /**
+     * Cantidad de IDs programados
+     */
+    public int tamano() {
+        return programados.size();
+    }
+
+    /**
+     * Indica si un ID está programado
+     */
+    public boolean contiene(long id) {
+        return programados.containsKey(id);
+    }
+
+    /**
+     * Programa (o reprograma) un ID
+     * @param id - identificador
+     * @param vencimientoMs - instante en que debe dispararse
+     * @return false si queda fuera del horizonte (y entonces no queda programado)
+     */
+    public boolean programar(long id, long vencimientoMs) {
+        Long anterior = programados.get(id);
+        if (anterior != null && anterior == vencimientoMs) {
+            return true;
+        }
+        if (!colocar(new Entrada(id, vencimientoMs))) {
+            programados.remove(id);
+            return false;
+        }
+        programados.put(id, vencimientoMs);
+        return true;
+    }
+
+    /**
+     * Programa un ID solo si no estaba programado
+     * @return true si se programó
+     */
+    public boolean programarSiAusente(long id, long vencimientoMs) {
+        return !programados.containsKey(id) && programar(id, vencimientoMs);
+    }
+
+    /**
+     * Cancela un ID programado
+     * @return true si estaba programado
+     */
+    public boolean cancelar(long id) {
+        return programados.remove(id) != null;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante dado y devuelve lo que venció
+     * Una ranura se procesa cuando terminó por completo, así que nada se dispara antes de tiempo
+     * @param ahoraMs - instante actual
+     * @return IDs vencidos, aproximadamente en orden de vencimiento (con precisión de un tick)
+     */
+    public List<Long> avanzar(long ahoraMs) {
+        List<Long> vencidos = new ArrayList<>();
+        for (Entrada entrada : atrasados) {
+            disparar(entrada, vencidos);
+        }
+        atrasados.clear();
+
+        while (actual + tickMs - 1 <= ahoraMs) {
+            if (programados.isEmpty()) {
+                // Nada pendiente: las ranuras solo tienen entradas canceladas y se salta directo a ahora
+                vaciar();
+                actual = Math.max(actual, Math.floorDiv(ahoraMs + 1, tickMs) * tickMs);
+                break;
+            }
+            // Cascada desde el nivel más alto: lo que empieza ahora baja a niveles más finos
+            for (int n = duracion.length - 1; n >= 1; n--) {
+                if (actual % duracion[n] == 0) {
+                    for (Entrada entrada : quitar(n, actual)) {
+                        if (vigente(entrada)) {
+                            colocar(entrada);
+                        }
+                    }
+                }
+            }
+            for (Entrada entrada : quitar(0, actual)) {
+                disparar(entrada, vencidos);
+            }
+            actual += tickMs;
+        }
+        return vencidos;
+    }
+
+    /**
+     * Guarda la entrada en el nivel más bajo que la alcanza
+     * @return false si está fuera del horizonte
+     */
+    private boolean colocar(Entrada entrada) {
+        if (entrada.vencimiento < actual) {
+            atrasados.add(entrada);
+            return true;
+        }
+        for (int n = 0; n < duracion.length; n++) {
+            long ranura = entrada.vencimiento / duracion[n];
+            if (ranura - actual / duracion[n] < ranuras) {
+                int indice = (int) (ranura % ranuras);
+                List<Entrada> lista = niveles[n][indice];
+                if (lista == null) {
+                    lista = new ArrayList<>();
+                    niveles[n][indice] = lista;
+                }
+                lista.add(entrada);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saca todas las entradas de la ranura del nivel que contiene el instante dado
+     */
+    private List<Entrada> quitar(int nivel, long instante) {
+        int indice = (int) ((instante / duracion[nivel]) % ranuras);
+        List<Entrada> lista = niveles[nivel][indice];
+        if (lista == null) {
+            return List.of();
+        }
+        niveles[nivel][indice] = null;
+        return lista;
+    }
+
+    private boolean vigente(Entrada entrada) {
+        Long vencimiento = programados.get(entrada.id);
+        return vencimiento != null && vencimiento == entrada.vencimiento;
+    }
+
+    private void disparar(Entrada entrada, List<Long> vencidos) {
+        if (vigente(entrada)) {
+            programados.remove(entrada.id);
+            vencidos.add(entrada.id);
+        }
+    }
+
+    private void vaciar() {
+        for (List<Entrada>[] nivel : niveles) {
+            Arrays.fill(nivel, null);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.dto.ResultadoBusqueda;
+import com.aprendizaje.backend.model.Tarea;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de la búsqueda de texto completo sobre tareas
+ *
+ * Usa la columna generada tareas.busqueda (tsvector en español, título con peso A y
+ * descripción con peso B) y su índice GIN, creados en schema.sql. Hibernate no conoce
+ * esa columna, por eso la consulta se hace con JdbcTemplate.
+ */
+@Repository
+public class BusquedaTareasRepository {
+
+    /**
+     * Opciones de ts_headline: todo el título resaltado, y hasta dos fragmentos de la descripción
+     */
+    private static final String OPCIONES_TITULO = "StartSel=<mark>, StopSel=</mark>, HighlightAll=true";
+    private static final String OPCIONES_DESCRIPCION =
+            "StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5, FragmentDelimiter=\" … \"";
+
+    /**
+     * Convierte una fila de la búsqueda en un ResultadoBusqueda
+     */
+    private static final RowMapper<ResultadoBusqueda> MAPEO_RESULTADO = (rs, fila) -> {
+        Tarea tarea = new Tarea();
+        tarea.setId(rs.getLong("id"));
+        tarea.setTitulo(rs.getString("titulo"));
+        tarea.setDescripcion(rs.getString("descripcion"));
+        tarea.setCompletada(rs.getBoolean("completada"));
+        tarea.setFechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime());
+        Timestamp modificacion = rs.getTimestamp("fecha_modificacion");
+        tarea.setFechaModificacion(modificacion != null ? modificacion.toLocalDateTime() : null);
+        long version = rs.getLong("version_cambio");
+        tarea.setVersionCambio(rs.wasNull() ? null : version);
+        Timestamp vencimiento = rs.getTimestamp("fecha_vencimiento");
+        tarea.setFechaVencimiento(vencimiento != null ? vencimiento.toLocalDateTime() : null);
+        Timestamp recordatorio = rs.getTimestamp("fecha_recordatorio");
+        tarea.setFechaRecordatorio(recordatorio != null ? recordatorio.toLocalDateTime() : null);
+        return new ResultadoBusqueda(tarea, rs.getDouble("relevancia"),
+                rs.getString("titulo_resaltado"), rs.getString("descripcion_resaltada"));
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Busca tareas por texto, de la más relevante a la menos relevante
+     *
+     * El texto usa la sintaxis de websearch_to_tsquery: palabras sueltas (todas deben aparecer),
+     * "frases entre comillas", "or" y -palabra para excluir. Las palabras se reducen a su raíz
+     * en español, así que "comprar" también encuentra "compras".
+     *
+     * El resaltado (ts_headline, costoso) solo se calcula para las filas de la página pedida.
+     *
+     * @param texto - texto a buscar
+     * @param completada - filtra por estado, o null para todas
+     * @param desde - cantidad de resultados a saltar
+     * @param cantidad - máximo de resultados
+     * @return resultados ordenados por relevancia (y por ID descendente en caso de empate)
+     */
+    public List<ResultadoBusqueda> buscar(String texto, Boolean completada, int desde, int cantidad) {
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(texto);
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT p.id, p.titulo, p.descripcion, p.completada, p.fecha_creacion,")
+                .append(" p.fecha_modificacion, p.version_cambio, p.fecha_vencimiento, p.fecha_recordatorio, p.relevancia,")
+                .append(" ts_headline('spanish', ").append(escaparHtml("p.titulo")).append(", p.consulta, '")
+                .append(OPCIONES_TITULO).append("') AS titulo_resaltado,")
+                .append(" ts_headline('spanish', ").append(escaparHtml("coalesce(p.descripcion, '')"))
+                .append(", p.consulta, '").append(OPCIONES_DESCRIPCION).append("') AS descripcion_resaltada")
+                .append(" FROM (")
+                .append("  SELECT t.*, q AS consulta, ts_rank_cd(t.busqueda, q) AS relevancia")
+                .append("  FROM tareas t, websearch_to_tsquery('spanish', ?) q")
+                .append("  WHERE t.busqueda @@ q");
+        if (completada != null) {
+            sql.append(" AND t.completada = ?");
+            parametros.add(completada);
+        }
+        sql.append("  ORDER BY relevancia DESC, t.id DESC LIMIT ? OFFSET ?")
+                .append(") p ORDER BY p.relevancia DESC, p.id DESC");
+        parametros.add(cantidad);
+        parametros.add(desde);
+        return jdbcTemplate.query(sql.toString(), MAPEO_RESULTADO, parametros.toArray());
+    }
+
+    /**
+     * Escapa &, < y > del texto original antes de resaltar, para que solo <mark> sea HTML
+     */
+    private static String escaparHtml(String columna) {
+        return "replace(replace(replace(" + columna + ", '&', '&amp;'), '<', '&lt;'), '>', '&gt;')";
+    }
+}
@@ -0,0 +1,154 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.dto.InfoCategoria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio del diccionario de categorías (tabla categorias)
+ *
+ * Cada categoría tiene un código SMALLINT; productos.categoria_id guarda solo ese código.
+ * La columna cantidad es el contador de productos de cada categoría: la mantienen
+ * ProductoService (altas y cambios de categoría) y los DELETE de ProductoRepository.
+ * La tabla se crea en schema.sql, no con Hibernate: por eso se usa JdbcTemplate.
+ */
+@Repository
+public class CategoriaRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lee el diccionario completo
+     * @return código -> nombre de todas las categorías
+     */
+    public Map<Short, String> todas() {
+        Map<Short, String> categorias = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, nombre FROM categorias",
+                rs -> { categorias.put(rs.getShort("id"), rs.getString("nombre")); });
+        return categorias;
+    }
+
+    /**
+     * Busca el código de una categoría
+     * @param nombre - nombre exacto de la categoría
+     * @return código, o null si no existe
+     */
+    public Short buscarId(String nombre) {
+        List<Short> ids = jdbcTemplate.queryForList("SELECT id FROM categorias WHERE nombre = ?", Short.class, nombre);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Busca el nombre de una categoría
+     * @param id - código de la categoría
+     * @return nombre, o null si no existe
+     */
+    public String buscarNombre(short id) {
+        List<String> nombres = jdbcTemplate.queryForList("SELECT nombre FROM categorias WHERE id = ?",
+                String.class, id);
+        return nombres.isEmpty() ? null : nombres.get(0);
+    }
+
+    /**
+     * Agrega una categoría si no existe y devuelve su código
+     * El NOT EXISTS evita gastar un valor de la identidad cuando la categoría ya está
+     * (ON CONFLICT solo cubre la carrera entre dos instancias)
+     * @param nombre - nombre de la categoría
+     * @return código de la categoría
+     */
+    public Short insertar(String nombre) {
+        jdbcTemplate.update("INSERT INTO categorias (nombre) SELECT ? "
+                + "WHERE NOT EXISTS (SELECT 1 FROM categorias WHERE nombre = ?) ON CONFLICT (nombre) DO NOTHING",
+                nombre, nombre);
+        return buscarId(nombre);
+    }
+
+    /**
+     * Suma (o resta) productos al contador de una categoría
+     * Usa la conexión de la transacción en curso: el contador se confirma junto con el producto
+     * @param id - código de la categoría
+     * @param delta - cantidad a sumar
+     */
+    public void sumar(short id, long delta) {
+        jdbcTemplate.update("UPDATE categorias SET cantidad = cantidad + ? WHERE id = ?", delta, id);
+    }
+
+    /**
+     * Lista las categorías que tienen productos
+     * @return categorías ordenadas por nombre con su contador
+     */
+    public List<InfoCategoria> listar() {
+        return jdbcTemplate.query("SELECT id, nombre, cantidad FROM categorias WHERE cantidad > 0 ORDER BY nombre",
+                (rs, fila) -> new InfoCategoria(rs.getShort("id"), rs.getString("nombre"), rs.getLong("cantidad")));
+    }
+
+    /**
+     * Indica si productos todavía tiene la columna de texto categoria (tablas anteriores al diccionario)
+     * @return true si hay filas que pueden necesitar migración
+     */
+    public boolean existeColumnaTexto() {
+        Long columnas = jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name = 'productos' AND column_name = 'categoria'",
+                Long.class);
+        return columnas != null && columnas > 0;
+    }
+
+    /**
+     * Agrega al diccionario las categorías del siguiente lote de productos sin migrar
+     * @param desde - último ID migrado
+     * @param tamano - tamaño del lote
+     */
+    public void internarLote(long desde, int tamano) {
+        jdbcTemplate.update("INSERT INTO categorias (nombre) SELECT DISTINCT l.categoria FROM ("
+                + "SELECT categoria FROM productos WHERE id > ? AND categoria_id IS NULL AND categoria IS NOT NULL "
+                + "ORDER BY id LIMIT ?) l "
+                + "WHERE NOT EXISTS (SELECT 1 FROM categorias c WHERE c.nombre = l.categoria) "
+                + "ON CONFLICT (nombre) DO NOTHING", desde, tamano);
+    }
+
+    /**
+     * Migra el siguiente lote de productos: guarda el código, vacía la columna de texto
+     * y suma el lote a los contadores, todo en una sola sentencia
+     * @param desde - último ID migrado
+     * @param tamano - tamaño del lote (debe ser el mismo de internarLote)
+     * @return mayor ID migrado, o null si no quedaban filas
+     */
+    public Long migrarLote(long desde, int tamano) {
+        return jdbcTemplate.queryForObject("WITH migrados AS ("
+                + "UPDATE productos p SET categoria_id = c.id, categoria = NULL FROM categorias c WHERE c.nombre = p.categoria AND p.id IN ("
+                + "SELECT id FROM productos WHERE id > ? AND categoria_id IS NULL AND categoria IS NOT NULL "
+                + "ORDER BY id LIMIT ?) RETURNING p.id, p.categoria_id), "
+                + "conteo AS (UPDATE categorias c SET cantidad = c.cantidad + m.n "
+                + "FROM (SELECT categoria_id, count(*) AS n FROM migrados GROUP BY categoria_id) m "
+                + "WHERE c.id = m.categoria_id) "
+                + "SELECT max(id) FROM migrados", Long.class, desde, tamano);
+    }
+
+    /**
+     * Indica si quedan productos con la categoría solo como texto
+     * @return true si alguna fila todavía no se migró
+     */
+    public boolean quedanSinMigrar() {
+        Boolean quedan = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM productos "
+                + "WHERE categoria_id IS NULL AND categoria IS NOT NULL)", Boolean.class);
+        return Boolean.TRUE.equals(quedan);
+    }
+
+    /**
+     * Elimina la columna de texto categoria (y con ella cualquier índice que la use)
+     * El ALTER necesita un bloqueo exclusivo breve de productos: si no lo consigue en 5 segundos
+     * falla en lugar de frenar el tráfico, y se vuelve a intentar en el siguiente arranque
+     */
+    @Transactional
+    public void eliminarColumnaTexto() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("ALTER TABLE productos DROP COLUMN IF EXISTS categoria");
+    }
+}
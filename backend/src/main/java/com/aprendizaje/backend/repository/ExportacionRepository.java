@@ -0,0 +1,129 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.dto.PeticionExportacion;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio de lectura para las exportaciones de tareas y productos
+ *
+ * Lee por bloques usando el ID como cursor (WHERE id > ? ORDER BY id LIMIT ?), así cada bloque
+ * es una consulta corta sobre la clave primaria y la conexión vuelve al pool entre bloques.
+ * Devuelve mapas columna -> valor en lugar de entidades para no pasar por el contexto de persistencia.
+ */
+@Repository
+public class ExportacionRepository {
+
+    /**
+     * Columnas exportadas de cada tabla, en el orden del archivo
+     */
+    private static final List<String> COLUMNAS_TAREA = List.of(
+            "id", "titulo", "descripcion", "completada", "fecha_creacion", "fecha_modificacion");
+    private static final List<String> COLUMNAS_PRODUCTO = List.of(
+            "id", "nombre", "descripcion", "precio", "stock", "categoria", "fecha_creacion", "fecha_modificacion");
+
+    /**
+     * La categoría se guarda como código (categoria_id); el archivo lleva su nombre
+     */
+    private static final String SELECCION_PRODUCTO = "id, nombre, descripcion, precio, stock, "
+            + "(SELECT c.nombre FROM categorias c WHERE c.id = categoria_id) AS categoria, "
+            + "fecha_creacion, fecha_modificacion";
+
+    /**
+     * Convierte la fila en un mapa ordenado; las fechas se escriben en formato ISO-8601
+     */
+    private static final RowMapper<Map<String, Object>> MAPEO_FILA = (rs, fila) -> {
+        ResultSetMetaData metadatos = rs.getMetaData();
+        Map<String, Object> valores = new LinkedHashMap<>();
+        for (int i = 1; i <= metadatos.getColumnCount(); i++) {
+            Object valor = rs.getObject(i);
+            if (valor instanceof Timestamp fecha) {
+                valor = fecha.toLocalDateTime().toString();
+            }
+            valores.put(metadatos.getColumnLabel(i), valor);
+        }
+        return valores;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Columnas que tendrá el archivo de una entidad
+     * @param entidad - "tarea" o "producto"
+     * @return nombres de columna en orden
+     */
+    public List<String> columnas(String entidad) {
+        return CambioEntidadEvent.ENTIDAD_TAREA.equals(entidad) ? COLUMNAS_TAREA : COLUMNAS_PRODUCTO;
+    }
+
+    /**
+     * Cuenta las filas que cumplen los filtros (para calcular el progreso)
+     * @param peticion - entidad y filtros
+     * @return cantidad de filas
+     */
+    public long contar(PeticionExportacion peticion) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = "SELECT count(*) FROM " + tabla(peticion.getEntidad())
+                + " WHERE id > 0" + filtros(peticion, parametros);
+        Long total = jdbcTemplate.queryForObject(sql, Long.class, parametros.toArray());
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Lee el siguiente bloque de filas después de un ID
+     * @param peticion - entidad y filtros
+     * @param desdeId - último ID del bloque anterior (0 al empezar)
+     * @param cantidad - máximo de filas del bloque
+     * @return filas ordenadas por ID
+     */
+    public List<Map<String, Object>> leerBloque(PeticionExportacion peticion, long desdeId, int cantidad) {
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(desdeId);
+        String seleccion = CambioEntidadEvent.ENTIDAD_TAREA.equals(peticion.getEntidad())
+                ? String.join(", ", COLUMNAS_TAREA) : SELECCION_PRODUCTO;
+        String sql = "SELECT " + seleccion
+                + " FROM " + tabla(peticion.getEntidad())
+                + " WHERE id > ?" + filtros(peticion, parametros)
+                + " ORDER BY id LIMIT ?";
+        parametros.add(cantidad);
+        return jdbcTemplate.query(sql, MAPEO_FILA, parametros.toArray());
+    }
+
+    private static String tabla(String entidad) {
+        return CambioEntidadEvent.ENTIDAD_TAREA.equals(entidad) ? "tareas" : "productos";
+    }
+
+    /**
+     * Condiciones adicionales según los filtros de la entidad
+     */
+    private static String filtros(PeticionExportacion peticion, List<Object> parametros) {
+        StringBuilder sql = new StringBuilder();
+        if (CambioEntidadEvent.ENTIDAD_TAREA.equals(peticion.getEntidad())) {
+            if (peticion.getCompletada() != null) {
+                sql.append(" AND completada = ?");
+                parametros.add(peticion.getCompletada());
+            }
+        } else {
+            if (peticion.getCategoria() != null && !peticion.getCategoria().isBlank()) {
+                sql.append(" AND categoria_id = (SELECT c.id FROM categorias c WHERE c.nombre = ?)");
+                parametros.add(peticion.getCategoria());
+            }
+            if (peticion.getStockMinimo() != null) {
+                sql.append(" AND stock >= ?");
+                parametros.add(peticion.getStockMinimo());
+            }
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,187 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.outbox.RegistroOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio del outbox de cambios (tablas outbox y outbox_offsets)
+ *
+ * La tabla outbox está particionada por día de fecha y se crea en schema.sql, no con Hibernate:
+ * por eso se usa JdbcTemplate. Las inserciones usan la conexión de la transacción en curso,
+ * así el registro se confirma o se revierte junto con el cambio.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("yyyy_MM_dd");
+
+    /**
+     * Prefijo de las particiones diarias (outbox_p2026_01_31)
+     */
+    public static final String PREFIJO_PARTICION = "outbox_p";
+
+    /**
+     * Clave del candado consultivo (pg_advisory_xact_lock) que ordena la asignación de ids
+     */
+    static final long CANDADO_IDS = 0x6F7574626F78L;
+
+    private static final RowMapper<RegistroOutbox> MAPEO_REGISTRO = (rs, fila) -> new RegistroOutbox(
+            rs.getLong("id"), rs.getString("entidad"), rs.getString("tipo"), rs.getLong("entidad_id"),
+            rs.getString("datos"), rs.getTimestamp("fecha").toLocalDateTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Agrega registros de cambio con una sola ida a la base de datos
+     *
+     * Antes de pedir cada id se toma el candado CANDADO_IDS hasta el final de la transacción: mientras
+     * una transacción tiene ids sin confirmar ninguna otra puede pedir más, así los ids se vuelven visibles
+     * en orden y el relay nunca encuentra uno mayor confirmado antes que uno menor todavía pendiente.
+     * Fuera de una transacción cada sentencia confirma sola y suelta el candado al terminar.
+     * La fecha es la del reloj (clock_timestamp) y no la del inicio de la transacción
+     * @param registros - filas {entidad, tipo, entidadId, datos en JSON o null}, en orden
+     */
+    public void insertar(List<Object[]> registros) {
+        jdbcTemplate.batchUpdate("INSERT INTO outbox (id, entidad, tipo, entidad_id, datos, fecha) "
+                + "SELECT nextval('outbox_seq'), ?, ?, ?, CAST(? AS jsonb), clock_timestamp() "
+                + "FROM (SELECT pg_advisory_xact_lock(" + CANDADO_IDS + ")) candado", registros);
+    }
+
+    /**
+     * Lee los registros posteriores a un offset, en orden
+     * Todos los visibles están confirmados y sin huecos por delante (ver insertar)
+     * @param desdeId - último id ya procesado
+     * @param cantidad - máximo de registros
+     * @return registros ordenados por id
+     */
+    public List<RegistroOutbox> leerDesde(long desdeId, int cantidad) {
+        return jdbcTemplate.query("SELECT id, entidad, tipo, entidad_id, datos, fecha FROM outbox "
+                + "WHERE id > ? ORDER BY id LIMIT ?", MAPEO_REGISTRO, desdeId, cantidad);
+    }
+
+    /**
+     * Último id entregado a un consumidor
+     * @param consumidor - nombre del destino
+     * @return último id procesado, 0 si nunca recibió nada
+     */
+    public long offset(String consumidor) {
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT ultimo_id FROM outbox_offsets WHERE consumidor = ?", Long.class, consumidor);
+        return offsets.isEmpty() ? 0 : offsets.get(0);
+    }
+
+    /**
+     * Registra un consumidor nuevo en la posición actual del outbox; no cambia uno existente
+     * Así un destino que se agrega no recibe el historial que quede sin podar
+     * @param consumidor - nombre del destino
+     * @param desdeId - posición inicial
+     */
+    public void registrarConsumidor(String consumidor, long desdeId) {
+        jdbcTemplate.update("INSERT INTO outbox_offsets (consumidor, ultimo_id, fecha_actualizacion) "
+                + "VALUES (?, ?, now()) ON CONFLICT (consumidor) DO NOTHING", consumidor, desdeId);
+    }
+
+    /**
+     * Avanza el offset de un consumidor (nunca lo retrocede)
+     * @param consumidor - nombre del destino
+     * @param ultimoId - último id entregado
+     */
+    public void guardarOffset(String consumidor, long ultimoId) {
+        jdbcTemplate.update("INSERT INTO outbox_offsets (consumidor, ultimo_id, fecha_actualizacion) "
+                + "VALUES (?, ?, now()) ON CONFLICT (consumidor) DO UPDATE SET "
+                + "ultimo_id = GREATEST(outbox_offsets.ultimo_id, EXCLUDED.ultimo_id), fecha_actualizacion = now()",
+                consumidor, ultimoId);
+    }
+
+    /**
+     * Offsets de todos los consumidores
+     * @return consumidor -> último id entregado
+     */
+    public Map<String, Long> offsets() {
+        Map<String, Long> offsets = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT consumidor, ultimo_id FROM outbox_offsets ORDER BY consumidor",
+                rs -> {
+                    offsets.put(rs.getString("consumidor"), rs.getLong("ultimo_id"));
+                });
+        return offsets;
+    }
+
+    /**
+     * Último id asignado del outbox
+     * @return último valor de outbox_seq (0 si no se usó)
+     */
+    public long ultimoId() {
+        Long ultimo = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM outbox_seq", Long.class);
+        return ultimo != null ? ultimo : 0;
+    }
+
+    /**
+     * Crea (si no existe) la partición de un día
+     * @param dia - día de la partición
+     */
+    public void crearParticion(LocalDate dia) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nombreParticion(dia) + " PARTITION OF outbox "
+                + "FOR VALUES FROM ('" + dia + "') TO ('" + dia.plusDays(1) + "')");
+    }
+
+    /**
+     * Días de las particiones diarias existentes (sin la DEFAULT)
+     * @return días ordenados
+     */
+    public List<LocalDate> diasConParticion() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = 'outbox' AND c.relname LIKE '" + PREFIJO_PARTICION + "%' "
+                        + "ORDER BY c.relname", String.class)
+                .stream()
+                .map(nombre -> LocalDate.parse(nombre.substring(PREFIJO_PARTICION.length()), FORMATO_PARTICION))
+                .toList();
+    }
+
+    /**
+     * Mayor id guardado en la partición de un día
+     * @param dia - día de la partición
+     * @return mayor id, o 0 si está vacía
+     */
+    public long maximoIdParticion(LocalDate dia) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM " + nombreParticion(dia), Long.class);
+        return maximo != null ? maximo : 0;
+    }
+
+    /**
+     * Elimina la partición de un día con todos sus registros (sin borrarlos uno por uno)
+     * @param dia - día de la partición
+     */
+    public void eliminarParticion(LocalDate dia) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + nombreParticion(dia));
+    }
+
+    /**
+     * Borra de la partición DEFAULT los registros ya entregados y anteriores a una fecha
+     * Solo recibe registros si faltó crear la partición de su día, así que suele estar vacía
+     * @param hastaId - mayor id entregado a todos los consumidores
+     * @param fechaLimite - solo registros anteriores a esta fecha
+     * @return cantidad de registros borrados
+     */
+    public int podarDefault(long hastaId, LocalDateTime fechaLimite) {
+        return jdbcTemplate.update("DELETE FROM outbox_default WHERE id <= ? AND fecha < ?",
+                hastaId, Timestamp.valueOf(fechaLimite));
+    }
+
+    private static String nombreParticion(LocalDate dia) {
+        return PREFIJO_PARTICION + dia.format(FORMATO_PARTICION);
+    }
+}
@@ -1,9 +1,17 @@
 package com.aprendizaje.backend.repository;
 
 import com.aprendizaje.backend.model.Producto;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para acceder a los datos de Producto en la base de datos
@@ -23,13 +31,38 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     // - Producto: la entidad que manejamos
     // - Long: el tipo de dato del ID
     
+    /**
+     * Código de la categoría :categoria en el diccionario (ninguna fila coincide si no existe)
+     */
+    String CODIGO_CATEGORIA = "(SELECT c.id FROM categorias c WHERE c.nombre = :categoria)";
+    
+    /**
+     * Resta del contador de cada categoría los productos borrados (CTE "borrados" con categoria_id)
+     */
+    String DESCONTAR_BORRADOS = "conteo AS (UPDATE categorias c SET cantidad = c.cantidad - b.n "
+            + "FROM (SELECT categoria_id, count(*) AS n FROM borrados WHERE categoria_id IS NOT NULL "
+            + "GROUP BY categoria_id) b WHERE c.id = b.categoria_id) ";
+    
+    /**
+     * Busca un producto por ID y bloquea su fila hasta el final de la transacción (SELECT ... FOR UPDATE)
+     * Así dos actualizaciones simultáneas no leen la misma categoría anterior
+     * @param id - identificador del producto
+     * @return Optional con el producto si existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Producto p WHERE p.id = :id")
+    Optional<Producto> findByIdParaActualizar(@Param("id") Long id);
+    
     /**
      * Busca productos por categoría
-     * Spring Data JPA genera automáticamente la implementación
+     * El nombre se traduce una sola vez a su código y las filas se filtran comparando enteros
+     * (índice idx_productos_categoria)
      * @param categoria - categoría a buscar
      * @return lista de productos de esa categoría
      */
-    List<Producto> findByCategoria(String categoria);
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM productos WHERE categoria_id = " + CODIGO_CATEGORIA, nativeQuery = true)
+    List<Producto> findByCategoria(@Param("categoria") String categoria);
     
     /**
      * Busca productos cuyo nombre contenga el texto dado (ignorando mayúsculas/minúsculas)
@@ -44,4 +77,135 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
      * @return lista de productos con suficiente stock
      */
     List<Producto> findByStockGreaterThanEqual(Integer stock);
-}
+    
+    /**
+     * Busca los productos modificados después de una marca "xid:versión" (sincronización incremental)
+     * Usa el índice sobre (xid_cambio, version_cambio)
+     * @param xid - xid de la marca del cliente
+     * @param version - versión de la marca del cliente
+     * @param horizonte - solo se incluyen filas escritas por transacciones con xid menor
+     * @param limit - máximo de productos
+     * @return productos ordenados por xid y versión
+     */
+    @Query("SELECT p FROM Producto p WHERE (p.xidCambio, p.versionCambio) > (:xid, :version) "
+            + "AND p.xidCambio < :horizonte ORDER BY p.xidCambio, p.versionCambio")
+    List<Producto> buscarCambiosDesde(@Param("xid") long xid, @Param("version") long version,
+            @Param("horizonte") long horizonte, Limit limit);
+    
+    /**
+     * Busca los productos modificados más recientemente (los que más probablemente se van a pedir)
+     * Usa el índice sobre version_cambio
+     * @param limit - máximo de productos
+     * @return productos de la versión más nueva a la más antigua
+     */
+    List<Producto> findByVersionCambioNotNullOrderByVersionCambioDesc(Limit limit);
+    
+    /**
+     * Lee productos por páginas usando el ID como cursor (keyset)
+     * Se usa para cargar el snapshot columnar sin OFFSET
+     * @param id - último ID leído
+     * @param limit - tamaño de la página
+     * @return productos con ID mayor, ordenados por ID
+     */
+    List<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    /**
+     * Elimina varios productos con una sola sentencia, deja su registro de eliminación
+     * y descuenta los contadores de categoría
+     * @param ids - identificadores a eliminar
+     * @return IDs que existían y se eliminaron
+     */
+    @Transactional
+    @Query(value = "WITH borrados AS (DELETE FROM productos WHERE id = ANY(CAST(:ids AS bigint[])) "
+            + "RETURNING id, categoria_id), "
+            + "registro AS (INSERT INTO eliminaciones (entidad, entidad_id, version_cambio, fecha) "
+            + "SELECT 'producto', id, nextval('cambios_seq'), LOCALTIMESTAMP FROM borrados), "
+            + DESCONTAR_BORRADOS
+            + "SELECT id FROM borrados", nativeQuery = true)
+    List<Long> eliminarPorIds(@Param("ids") Long[] ids);
+    
+    /**
+     * Elimina un lote de productos sin stock de una categoría, deja su registro de eliminación
+     * y descuenta el contador de la categoría
+     * Las filas bloqueadas por otra transacción se saltan
+     * @param categoria - categoría de los productos
+     * @param lote - máximo de productos a eliminar
+     * @return IDs eliminados
+     */
+    @Transactional
+    @Query(value = "WITH borrados AS (DELETE FROM productos WHERE id IN ("
+            + "SELECT id FROM productos WHERE categoria_id = " + CODIGO_CATEGORIA + " AND stock <= 0 "
+            + "ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED) RETURNING id, categoria_id), "
+            + "registro AS (INSERT INTO eliminaciones (entidad, entidad_id, version_cambio, fecha) "
+            + "SELECT 'producto', id, nextval('cambios_seq'), LOCALTIMESTAMP FROM borrados), "
+            + DESCONTAR_BORRADOS
+            + "SELECT id FROM borrados", nativeQuery = true)
+    List<Long> eliminarLoteSinStock(@Param("categoria") String categoria, @Param("lote") int lote);
+    
+    /**
+     * Cuenta los productos de una categoría (simulación de un ajuste masivo)
+     * @param categoria - categoría
+     * @return cantidad de productos
+     */
+    @Query(value = "SELECT count(*) FROM productos WHERE categoria_id = " + CODIGO_CATEGORIA, nativeQuery = true)
+    long countByCategoria(@Param("categoria") String categoria);
+    
+    /**
+     * Cuenta cuántos de los IDs dados existen (simulación de un ajuste masivo)
+     * @param ids - identificadores
+     * @return cantidad de productos existentes
+     */
+    long countByIdIn(List<Long> ids);
+    
+    /**
+     * Limita el tiempo que la transacción actual espera por un bloqueo de fila
+     * Solo afecta a la transacción en curso (equivale a SET LOCAL lock_timeout)
+     * @param valor - tiempo, por ejemplo "200ms"
+     * @return el valor aplicado
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :valor, true)", nativeQuery = true)
+    String fijarTiempoEsperaBloqueo(@Param("valor") String valor);
+    
+    /**
+     * Ajusta precio y stock del siguiente lote de productos de una categoría (recorrido por ID)
+     * El precio se redondea a 2 decimales y ni el precio ni el stock bajan de 0
+     * @param categoria - categoría de los productos
+     * @param desde - último ID del lote anterior
+     * @param tamano - máximo de productos del lote
+     * @param porcentaje - porcentaje a sumar al precio
+     * @param monto - monto a sumar al precio
+     * @param deltaStock - cantidad a sumar al stock
+     * @return productos ya modificados
+     */
+    @Query(value = "WITH lote AS (SELECT id FROM productos "
+            + "WHERE categoria_id = " + CODIGO_CATEGORIA + " AND id > :desde "
+            + "ORDER BY id LIMIT :tamano FOR UPDATE) "
+            + "UPDATE productos p SET "
+            + "precio = GREATEST(0, ROUND(CAST(p.precio * (1 + CAST(:porcentaje AS float8) / 100) "
+            + "+ CAST(:monto AS float8) AS numeric), 2)), "
+            + "stock = GREATEST(0, p.stock + :deltaStock), "
+            + "version_cambio = nextval('cambios_seq'), fecha_modificacion = LOCALTIMESTAMP "
+            + "FROM lote WHERE p.id = lote.id RETURNING p.*", nativeQuery = true)
+    List<Producto> ajustarLotePorCategoria(@Param("categoria") String categoria, @Param("desde") Long desde,
+                                           @Param("tamano") int tamano, @Param("porcentaje") double porcentaje,
+                                           @Param("monto") double monto, @Param("deltaStock") int deltaStock);
+    
+    /**
+     * Ajusta precio y stock de un lote de productos por ID
+     * @param ids - identificadores del lote
+     * @param porcentaje - porcentaje a sumar al precio
+     * @param monto - monto a sumar al precio
+     * @param deltaStock - cantidad a sumar al stock
+     * @return productos ya modificados
+     */
+    @Query(value = "WITH lote AS (SELECT id FROM productos WHERE id = ANY(CAST(:ids AS bigint[])) "
+            + "ORDER BY id FOR UPDATE) "
+            + "UPDATE productos p SET "
+            + "precio = GREATEST(0, ROUND(CAST(p.precio * (1 + CAST(:porcentaje AS float8) / 100) "
+            + "+ CAST(:monto AS float8) AS numeric), 2)), "
+            + "stock = GREATEST(0, p.stock + :deltaStock), "
+            + "version_cambio = nextval('cambios_seq'), fecha_modificacion = LOCALTIMESTAMP "
+            + "FROM lote WHERE p.id = lote.id RETURNING p.*", nativeQuery = true)
+    List<Producto> ajustarLotePorIds(@Param("ids") Long[] ids, @Param("porcentaje") double porcentaje,
+                                     @Param("monto") double monto, @Param("deltaStock") int deltaStock);
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.ranking.CriterioRanking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Consultas para recargar los rankings de productos de una categoría
+ *
+ * Cada consulta lee solo los primeros "cantidad" productos de la categoría en el orden del criterio,
+ * usando los índices idx_productos_categoria_precio, _stock y _fecha (categoria_id, columna, id).
+ * El orden viene de CriterioRanking (texto fijo), nunca de la petición.
+ */
+@Repository
+public class RankingRepository {
+
+    private static final String COLUMNAS = "SELECT id, nombre, descripcion, precio, stock, fecha_creacion, "
+            + "fecha_modificacion, version_cambio FROM productos ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Primeros productos de una categoría según un criterio
+     * @param categoria - nombre de la categoría, o null para los productos sin categoría
+     * @param criterio - orden del ranking
+     * @param cantidad - máximo de productos
+     * @return productos en el orden del criterio (con la categoría ya asignada)
+     */
+    public List<Producto> primeros(String categoria, CriterioRanking criterio, int cantidad) {
+        String orden = "ORDER BY " + criterio.getOrdenSql() + " LIMIT ?";
+        if (categoria == null) {
+            return jdbcTemplate.query(COLUMNAS + "WHERE categoria_id IS NULL " + orden,
+                    (rs, fila) -> mapear(rs, null), cantidad);
+        }
+        return jdbcTemplate.query(COLUMNAS + "WHERE categoria_id = "
+                        + "(SELECT c.id FROM categorias c WHERE c.nombre = ?) " + orden,
+                (rs, fila) -> mapear(rs, categoria), categoria, cantidad);
+    }
+
+    private static Producto mapear(ResultSet rs, String categoria) throws SQLException {
+        Producto producto = new Producto(rs.getString("nombre"), rs.getString("descripcion"),
+                rs.getDouble("precio"), rs.getInt("stock"), categoria);
+        producto.setId(rs.getLong("id"));
+        producto.setFechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime());
+        Timestamp modificacion = rs.getTimestamp("fecha_modificacion");
+        producto.setFechaModificacion(modificacion != null ? modificacion.toLocalDateTime() : null);
+        long version = rs.getLong("version_cambio");
+        producto.setVersionCambio(rs.wasNull() ? null : version);
+        return producto;
+    }
+}
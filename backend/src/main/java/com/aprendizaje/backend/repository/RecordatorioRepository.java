@@ -0,0 +1,103 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.recordatorios.Recordatorio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de lectura de recordatorios de tareas y de la marca de avance del programador
+ *
+ * Las consultas de tareas usan el índice parcial idx_tareas_recordatorio (fecha_recordatorio, id),
+ * que solo contiene tareas pendientes con recordatorio, y se ejecutan sobre la conexión actual
+ * (con shards, la del shard elegido en ContextoShard). La marca vive siempre en la base principal.
+ */
+@Repository
+public class RecordatorioRepository {
+
+    /**
+     * Clave de la marca de recordatorios de tareas
+     */
+    private static final String CLAVE_TAREAS = "tareas";
+
+    private static final RowMapper<Recordatorio> MAPEO_RECORDATORIO = (rs, fila) -> {
+        Timestamp vencimiento = rs.getTimestamp("fecha_vencimiento");
+        return new Recordatorio(rs.getLong("id"), rs.getString("titulo"),
+                vencimiento != null ? vencimiento.toLocalDateTime() : null,
+                rs.getTimestamp("fecha_recordatorio").toLocalDateTime());
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lee una página de recordatorios pendientes de una ventana de tiempo, en orden
+     * Se pagina con la clave (fecha_recordatorio, id) para no releer filas
+     * @param hasta - fin de la ventana (excluido)
+     * @param cursorFecha - fecha_recordatorio de la última fila leída (o el inicio de la ventana)
+     * @param cursorId - id de la última fila leída (0 al empezar)
+     * @param cantidad - máximo de filas
+     * @return recordatorios ordenados por fecha y id
+     */
+    public List<Recordatorio> leerVentana(LocalDateTime hasta, LocalDateTime cursorFecha, long cursorId, int cantidad) {
+        return jdbcTemplate.query("SELECT id, titulo, fecha_vencimiento, fecha_recordatorio FROM tareas "
+                + "WHERE completada = false AND fecha_recordatorio IS NOT NULL "
+                + "AND (fecha_recordatorio, id) > (?, ?) AND fecha_recordatorio < ? "
+                + "ORDER BY fecha_recordatorio, id LIMIT ?", MAPEO_RECORDATORIO,
+                Timestamp.valueOf(cursorFecha), cursorId, Timestamp.valueOf(hasta), cantidad);
+    }
+
+    /**
+     * Vuelve a leer un lote de tareas justo antes de enviar sus recordatorios
+     * Descarta las que se completaron, se borraron o se reprogramaron después del corte
+     * @param ids - IDs vencidos según la rueda
+     * @param hasta - instante de corte
+     * @return recordatorios que siguen vigentes
+     */
+    public List<Recordatorio> buscarPendientes(List<Long> ids, LocalDateTime hasta) {
+        return jdbcTemplate.query("SELECT id, titulo, fecha_vencimiento, fecha_recordatorio FROM tareas "
+                + "WHERE id = ANY(CAST(? AS bigint[])) AND completada = false AND fecha_recordatorio < ? "
+                + "ORDER BY fecha_recordatorio, id", MAPEO_RECORDATORIO,
+                aArregloSql(ids), Timestamp.valueOf(hasta));
+    }
+
+    /**
+     * Instante hasta el que ya se enviaron todos los recordatorios
+     * @return la marca, o null si el programador nunca terminó una pasada
+     */
+    public LocalDateTime marca() {
+        List<Timestamp> marcas = jdbcTemplate.queryForList(
+                "SELECT disparado_hasta FROM recordatorios_marca WHERE clave = ?", Timestamp.class, CLAVE_TAREAS);
+        return marcas.isEmpty() ? null : marcas.get(0).toLocalDateTime();
+    }
+
+    /**
+     * Avanza la marca (nunca la retrocede)
+     * @param disparadoHasta - instante hasta el que ya se enviaron los recordatorios
+     */
+    public void guardarMarca(LocalDateTime disparadoHasta) {
+        jdbcTemplate.update("INSERT INTO recordatorios_marca (clave, disparado_hasta) VALUES (?, ?) "
+                + "ON CONFLICT (clave) DO UPDATE SET "
+                + "disparado_hasta = GREATEST(recordatorios_marca.disparado_hasta, EXCLUDED.disparado_hasta)",
+                CLAVE_TAREAS, Timestamp.valueOf(disparadoHasta));
+    }
+
+    /**
+     * Literal de arreglo de PostgreSQL ({1,2,3}) para usar con CAST(? AS bigint[])
+     */
+    private static String aArregloSql(List<Long> ids) {
+        StringBuilder texto = new StringBuilder(ids.size() * 8).append('{');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                texto.append(',');
+            }
+            texto.append(ids.get(i));
+        }
+        return texto.append('}').toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.model.RegistroEliminacion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repositorio para los registros de eliminación (tombstones)
+ * También entrega las versiones de la secuencia global de cambios
+ */
+@Repository
+public interface RegistroEliminacionRepository extends JpaRepository<RegistroEliminacion, Long> {
+    
+    /**
+     * Obtiene la siguiente versión de la secuencia global cambios_seq
+     * nextval() no se permite en transacciones de solo lectura, por eso lleva @Transactional
+     * @return nueva versión
+     */
+    @Transactional
+    @Query(value = "SELECT nextval('cambios_seq')", nativeQuery = true)
+    Long siguienteVersion();
+    
+    /**
+     * Obtiene varias versiones de la secuencia global en una sola consulta
+     * @param cantidad - cantidad de versiones
+     * @return versiones en orden creciente
+     */
+    @Transactional
+    @Query(value = "SELECT nextval('cambios_seq') FROM generate_series(1, :cantidad)", nativeQuery = true)
+    List<Long> siguientesVersiones(@Param("cantidad") int cantidad);
+    
+    /**
+     * Obtiene el horizonte de transacciones: todas las de xid menor ya terminaron
+     * @return xid (64 bits) de la transacción más antigua que sigue en curso
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long horizonteTransacciones();
+    
+    /**
+     * Busca las eliminaciones de una entidad posteriores a una marca "xid:versión"
+     * Usa el índice sobre (entidad, xid_cambio, version_cambio)
+     * @param entidad - "tarea" o "producto"
+     * @param xid - xid de la marca del cliente
+     * @param version - versión de la marca del cliente
+     * @param horizonte - solo se incluyen eliminaciones de transacciones con xid menor
+     * @param limit - máximo de registros
+     * @return eliminaciones ordenadas por xid y versión
+     */
+    @Query("SELECT r FROM RegistroEliminacion r WHERE r.entidad = :entidad "
+            + "AND (r.xidCambio, r.versionCambio) > (:xid, :version) AND r.xidCambio < :horizonte "
+            + "ORDER BY r.xidCambio, r.versionCambio")
+    List<RegistroEliminacion> buscarDesde(@Param("entidad") String entidad, @Param("xid") long xid,
+                                          @Param("version") long version, @Param("horizonte") long horizonte,
+                                          Limit limit);
+}
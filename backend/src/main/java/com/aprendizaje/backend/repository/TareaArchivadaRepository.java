@@ -0,0 +1,106 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.model.Tarea;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Repositorio de la tabla de archivo de tareas (tareas_archivadas)
+ *
+ * La tabla está particionada por rango de fecha_creacion (una partición por mes) y se crea
+ * en schema.sql, no con Hibernate: por eso se usa JdbcTemplate en lugar de JpaRepository.
+ */
+@Repository
+public class TareaArchivadaRepository {
+
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /**
+     * Convierte una fila de tareas_archivadas en una Tarea marcada como archivada
+     */
+    private static final RowMapper<Tarea> MAPEO_TAREA = (rs, fila) -> {
+        Tarea tarea = new Tarea();
+        tarea.setId(rs.getLong("id"));
+        tarea.setTitulo(rs.getString("titulo"));
+        tarea.setDescripcion(rs.getString("descripcion"));
+        tarea.setCompletada(rs.getBoolean("completada"));
+        tarea.setFechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime());
+        Timestamp modificacion = rs.getTimestamp("fecha_modificacion");
+        tarea.setFechaModificacion(modificacion != null ? modificacion.toLocalDateTime() : null);
+        long version = rs.getLong("version_cambio");
+        tarea.setVersionCambio(rs.wasNull() ? null : version);
+        Timestamp vencimiento = rs.getTimestamp("fecha_vencimiento");
+        tarea.setFechaVencimiento(vencimiento != null ? vencimiento.toLocalDateTime() : null);
+        tarea.setArchivada(true);
+        return tarea;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Obtiene todas las tareas archivadas
+     * @return tareas archivadas ordenadas por ID
+     */
+    public List<Tarea> findAll() {
+        return jdbcTemplate.query("SELECT id, titulo, descripcion, completada, fecha_creacion, "
+                + "fecha_modificacion, version_cambio, fecha_vencimiento FROM tareas_archivadas ORDER BY id",
+                MAPEO_TAREA);
+    }
+
+    /**
+     * Meses (primer día) de creación de las tareas que se van a archivar
+     * Se usa para crear sus particiones antes de mover las filas
+     * @param limite - se archivan las tareas completadas sin cambios desde esta fecha
+     * @return primer día de cada mes con tareas por archivar
+     */
+    public List<LocalDate> mesesPorArchivar(LocalDateTime limite) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT CAST(date_trunc('month', fecha_creacion) AS date) "
+                + "FROM tareas WHERE completada = true AND fecha_modificacion < ?",
+                LocalDate.class, Timestamp.valueOf(limite));
+    }
+
+    /**
+     * Crea (si no existe) la partición mensual del archivo para el mes dado
+     * @param mes - primer día del mes
+     */
+    public void crearParticion(LocalDate mes) {
+        LocalDate inicio = mes.withDayOfMonth(1);
+        String nombre = "tareas_archivadas_p" + inicio.format(FORMATO_PARTICION);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nombre + " PARTITION OF tareas_archivadas "
+                + "FOR VALUES FROM ('" + inicio + "') TO ('" + inicio.plusMonths(1) + "')");
+    }
+
+    /**
+     * Mueve un lote de tareas completadas de la tabla principal al archivo en una sola sentencia
+     * Deja también su registro de eliminación: para la sincronización incremental la tarea sale
+     * de la tabla principal igual que si se hubiera eliminado
+     * Las filas bloqueadas por otra transacción se saltan y se archivan en la siguiente pasada
+     * @param limite - se archivan las tareas completadas sin cambios desde esta fecha
+     * @param tamanoLote - máximo de filas a mover
+     * @return IDs de las tareas archivadas
+     */
+    public List<Long> moverLote(LocalDateTime limite, int tamanoLote) {
+        return jdbcTemplate.queryForList("WITH movidas AS ("
+                + " DELETE FROM tareas WHERE id IN ("
+                + "  SELECT id FROM tareas WHERE completada = true AND fecha_modificacion < ?"
+                + "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)"
+                + " RETURNING id, titulo, descripcion, completada, fecha_creacion, fecha_modificacion, version_cambio,"
+                + " fecha_vencimiento),"
+                + " archivadas AS (INSERT INTO tareas_archivadas (id, titulo, descripcion, completada, fecha_creacion,"
+                + " fecha_modificacion, version_cambio, fecha_vencimiento, fecha_archivado)"
+                + " SELECT id, titulo, descripcion, completada, fecha_creacion, fecha_modificacion, version_cambio,"
+                + " fecha_vencimiento, now() FROM movidas),"
+                + " registro AS (INSERT INTO eliminaciones (entidad, entidad_id, version_cambio, fecha)"
+                + " SELECT 'tarea', id, nextval('cambios_seq'), LOCALTIMESTAMP FROM movidas)"
+                + " SELECT id FROM movidas", Long.class, Timestamp.valueOf(limite), tamanoLote);
+    }
+}
@@ -1,8 +1,15 @@
 package com.aprendizaje.backend.repository;
 
 import com.aprendizaje.backend.model.Tarea;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repositorio para acceder a los datos de Tarea en la base de datos
@@ -22,6 +29,80 @@ public interface TareaRepository extends JpaRepository<Tarea, Long> {
     // - Tarea: la entidad que manejamos
     // - Long: el tipo de dato del ID
     
-    // Aquí no necesitamos escribir código
     // Spring Data JPA genera automáticamente la implementación
-}
+    
+    /**
+     * Busca las tareas modificadas después de una marca "xid:versión" (sincronización incremental)
+     * Usa el índice sobre (xid_cambio, version_cambio)
+     * @param xid - xid de la marca del cliente
+     * @param version - versión de la marca del cliente
+     * @param horizonte - solo se incluyen filas escritas por transacciones con xid menor
+     * @param limit - máximo de tareas
+     * @return tareas ordenadas por xid y versión
+     */
+    @Query("SELECT t FROM Tarea t WHERE (t.xidCambio, t.versionCambio) > (:xid, :version) "
+            + "AND t.xidCambio < :horizonte ORDER BY t.xidCambio, t.versionCambio")
+    List<Tarea> buscarCambiosDesde(@Param("xid") long xid, @Param("version") long version,
+            @Param("horizonte") long horizonte, Limit limit);
+    
+    /**
+     * Busca las tareas modificadas más recientemente (las que más probablemente se van a pedir)
+     * Usa el índice sobre version_cambio
+     * @param limit - máximo de tareas
+     * @return tareas de la versión más nueva a la más antigua
+     */
+    List<Tarea> findByVersionCambioNotNullOrderByVersionCambioDesc(Limit limit);
+    
+    /**
+     * Cuenta las tareas según su estado
+     * @param completada - estado a contar
+     * @return cantidad de tareas con ese estado
+     */
+    long countByCompletada(Boolean completada);
+    
+    /**
+     * Actualiza el estado completada de muchas tareas con una sola sentencia UPDATE
+     * Los arreglos se recorren en paralelo: ids[i] toma el estado estados[i]
+     * Una fila modificada después del cambio (actualización completa confirmada mientras tanto) no se toca
+     * @param ids - identificadores de las tareas
+     * @param estados - nuevo estado de cada tarea
+     * @param fechas - momento de cada cambio; queda como fecha de modificación
+     * @return tareas actualizadas (las que no existen o cambiaron después no aparecen)
+     */
+    @Transactional
+    @Query(value = "UPDATE tareas t SET completada = v.completada, "
+            + "version_cambio = nextval('cambios_seq'), fecha_modificacion = v.fecha "
+            + "FROM unnest(CAST(:ids AS bigint[]), CAST(:estados AS boolean[]), CAST(:fechas AS timestamp[])) "
+            + "AS v(id, completada, fecha) "
+            + "WHERE t.id = v.id AND (t.fecha_modificacion IS NULL OR t.fecha_modificacion <= v.fecha) "
+            + "RETURNING t.*", nativeQuery = true)
+    List<Tarea> actualizarEstados(@Param("ids") Long[] ids, @Param("estados") Boolean[] estados,
+                          @Param("fechas") LocalDateTime[] fechas);
+    
+    /**
+     * Elimina varias tareas con una sola sentencia y deja su registro de eliminación
+     * @param ids - identificadores a eliminar
+     * @return IDs que existían y se eliminaron
+     */
+    @Transactional
+    @Query(value = "WITH borradas AS (DELETE FROM tareas WHERE id = ANY(CAST(:ids AS bigint[])) RETURNING id), "
+            + "registro AS (INSERT INTO eliminaciones (entidad, entidad_id, version_cambio, fecha) "
+            + "SELECT 'tarea', id, nextval('cambios_seq'), LOCALTIMESTAMP FROM borradas) "
+            + "SELECT id FROM borradas", nativeQuery = true)
+    List<Long> eliminarPorIds(@Param("ids") Long[] ids);
+    
+    /**
+     * Elimina un lote de tareas completadas y deja su registro de eliminación
+     * Las filas bloqueadas por otra transacción se saltan
+     * @param lote - máximo de tareas a eliminar
+     * @return IDs eliminados
+     */
+    @Transactional
+    @Query(value = "WITH borradas AS (DELETE FROM tareas WHERE id IN ("
+            + "SELECT id FROM tareas WHERE completada = true ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id), "
+            + "registro AS (INSERT INTO eliminaciones (entidad, entidad_id, version_cambio, fecha) "
+            + "SELECT 'tarea', id, nextval('cambios_seq'), LOCALTIMESTAMP FROM borradas) "
+            + "SELECT id FROM borradas", nativeQuery = true)
+    List<Long> eliminarLoteCompletadas(@Param("lote") int lote);
+}
\ No newline at end of file
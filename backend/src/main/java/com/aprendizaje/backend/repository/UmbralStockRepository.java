@@ -0,0 +1,109 @@
+package com.aprendizaje.backend.repository;
+
+import com.aprendizaje.backend.model.Producto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de los umbrales de stock bajo (tabla umbrales_stock)
+ *
+ * La tabla se crea en schema.sql, no con Hibernate: por eso se usa JdbcTemplate.
+ * Para los umbrales de categoría la clave es el código de la tabla categorias.
+ */
+@Repository
+public class UmbralStockRepository {
+
+    /**
+     * Fila de umbrales_stock tal como está en la tabla
+     */
+    public static class FilaUmbral {
+
+        private final String ambito;
+        private final long clave;
+        private final int minimo;
+        private final int recuperacion;
+
+        public FilaUmbral(String ambito, long clave, int minimo, int recuperacion) {
+            this.ambito = ambito;
+            this.clave = clave;
+            this.minimo = minimo;
+            this.recuperacion = recuperacion;
+        }
+
+        public String getAmbito() {
+            return ambito;
+        }
+
+        public long getClave() {
+            return clave;
+        }
+
+        public int getMinimo() {
+            return minimo;
+        }
+
+        public int getRecuperacion() {
+            return recuperacion;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lee todos los umbrales
+     * @return filas de umbrales_stock
+     */
+    public List<FilaUmbral> todos() {
+        return jdbcTemplate.query("SELECT ambito, clave, minimo, recuperacion FROM umbrales_stock",
+                (rs, fila) -> new FilaUmbral(rs.getString("ambito"), rs.getLong("clave"),
+                        rs.getInt("minimo"), rs.getInt("recuperacion")));
+    }
+
+    /**
+     * Crea o reemplaza un umbral
+     * @param ambito - "producto" o "categoria"
+     * @param clave - ID del producto o código de la categoría
+     * @param minimo - stock por debajo del cual se alerta
+     * @param recuperacion - stock desde el cual se considera recuperado
+     */
+    public void guardar(String ambito, long clave, int minimo, int recuperacion) {
+        jdbcTemplate.update("INSERT INTO umbrales_stock (ambito, clave, minimo, recuperacion) VALUES (?, ?, ?, ?) "
+                + "ON CONFLICT (ambito, clave) DO UPDATE SET minimo = EXCLUDED.minimo, "
+                + "recuperacion = EXCLUDED.recuperacion", ambito, clave, minimo, recuperacion);
+    }
+
+    /**
+     * Elimina un umbral
+     * @return true si existía
+     */
+    public boolean eliminar(String ambito, long clave) {
+        return jdbcTemplate.update("DELETE FROM umbrales_stock WHERE ambito = ? AND clave = ?", ambito, clave) > 0;
+    }
+
+    /**
+     * Lee una página de los productos de una categoría (ID, nombre, stock y versión), en orden de ID
+     * Usa el índice idx_productos_categoria (categoria_id, id)
+     * @param codigo - código de la categoría
+     * @param desdeId - último ID ya leído (0 al empezar)
+     * @param cantidad - máximo de filas
+     * @return productos con solo ID, nombre, stock y versión de cambio (sin la categoría)
+     */
+    public List<Producto> stockDeCategoria(short codigo, long desdeId, int cantidad) {
+        List<Producto> productos = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, nombre, stock, version_cambio FROM productos WHERE categoria_id = ? AND id > ? "
+                + "ORDER BY id LIMIT ?", rs -> {
+                    Producto producto = new Producto();
+                    producto.setId(rs.getLong("id"));
+                    producto.setNombre(rs.getString("nombre"));
+                    producto.setStock(rs.getInt("stock"));
+                    producto.setVersionCambio(rs.getObject("version_cambio", Long.class));
+                    productos.add(producto);
+                }, codigo, desdeId, cantidad);
+        return productos;
+    }
+}
@@ -0,0 +1,194 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.dto.AjusteMasivo;
+import com.aprendizaje.backend.dto.ResultadoAjuste;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Servicio de ajustes masivos de precio y stock ("subir 7% toda la categoría Electrónica")
+ *
+ * El ajuste se hace con sentencias UPDATE por lotes, cada una en su propia transacción:
+ * - Cada lote espera sus bloqueos como máximo "presupuesto" ms (lock_timeout)
+ * - Si un lote no consigue los bloqueos, se reintenta con la mitad de filas
+ * - Si un lote tarda más de la mitad del presupuesto, el siguiente es más chico; si es muy rápido, más grande
+ *
+ * Así ninguna fila queda bloqueada mucho tiempo aunque el ajuste afecte a miles de productos.
+ */
+@Service
+public class AjusteProductosService {
+
+    private static final Logger log = LoggerFactory.getLogger(AjusteProductosService.class);
+
+    /**
+     * Reintentos seguidos permitidos antes de abandonar el ajuste
+     */
+    private static final int MAXIMO_REINTENTOS = 5;
+
+    private static final int TAMANO_MINIMO = 10;
+    private static final int TAMANO_MAXIMO = 5_000;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Cada lote se ejecuta en su propia transacción
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.productos.ajuste.tamano-lote-inicial:500}")
+    private int tamanoLoteInicial;
+
+    @Value("${app.productos.ajuste.presupuesto-bloqueo-ms:200}")
+    private long presupuestoBloqueoMs;
+
+    /**
+     * Presupuesto máximo que puede pedir un cliente; evita que un ajuste retenga bloqueos por minutos
+     */
+    @Value("${app.productos.ajuste.presupuesto-bloqueo-maximo-ms:2000}")
+    private long presupuestoBloqueoMaximoMs;
+
+    /**
+     * Aplica (o simula) un ajuste masivo
+     * @param ajuste - filtro y cambios a aplicar
+     * @return cantidad de productos afectados y cómo se ejecutó
+     * @throws IllegalArgumentException si el filtro o los cambios no son válidos
+     */
+    public ResultadoAjuste ajustar(AjusteMasivo ajuste) {
+        validar(ajuste);
+        List<Long> ids = ajuste.getIds() != null ? idsOrdenados(ajuste.getIds()) : null;
+
+        if (ajuste.isSimulacion()) {
+            long afectados = ids != null ? productoRepository.countByIdIn(ids)
+                    : productoRepository.countByCategoria(ajuste.getCategoria());
+            return new ResultadoAjuste(afectados, true, 0, 0, true);
+        }
+
+        long presupuesto = ajuste.getPresupuestoBloqueoMs() != null && ajuste.getPresupuestoBloqueoMs() > 0
+                ? Math.min(ajuste.getPresupuestoBloqueoMs(), presupuestoBloqueoMaximoMs) : presupuestoBloqueoMs;
+        double porcentaje = valor(ajuste.getPorcentajePrecio());
+        double monto = valor(ajuste.getMontoPrecio());
+        int deltaStock = ajuste.getDeltaStock() != null ? ajuste.getDeltaStock() : 0;
+
+        int tamano = Math.max(TAMANO_MINIMO, Math.min(TAMANO_MAXIMO, tamanoLoteInicial));
+        long ultimoId = 0;
+        int posicion = 0;
+        long afectados = 0;
+        int lotes = 0;
+        int reintentos = 0;
+        int fallosSeguidos = 0;
+
+        while (ids == null || posicion < ids.size()) {
+            int tamanoLote = tamano;
+            long desde = ultimoId;
+            List<Long> loteIds = ids != null ? ids.subList(posicion, Math.min(posicion + tamanoLote, ids.size())) : null;
+            long inicio = System.nanoTime();
+
+            List<Producto> modificados;
+            try {
+                modificados = transactionTemplate.execute(estado -> {
+                    productoRepository.fijarTiempoEsperaBloqueo(presupuesto + "ms");
+                    List<Producto> lote = loteIds != null
+                            ? productoRepository.ajustarLotePorIds(loteIds.toArray(new Long[0]), porcentaje, monto, deltaStock)
+                            : productoRepository.ajustarLotePorCategoria(ajuste.getCategoria(), desde, tamanoLote,
+                                    porcentaje, monto, deltaStock);
+                    // Dentro de la transacción: el outbox se confirma con el lote, y los oyentes
+                    // transaccionales (SSE, índices en memoria) siguen recibiendo los eventos después del commit
+                    for (Producto producto : lote) {
+                        eventPublisher.publishEvent(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_PRODUCTO,
+                                TipoCambio.ACTUALIZADO, producto.getId(), producto));
+                    }
+                    return lote;
+                });
+            } catch (PessimisticLockingFailureException e) {
+                reintentos++;
+                if (++fallosSeguidos > MAXIMO_REINTENTOS) {
+                    log.warn("Ajuste masivo detenido tras {} lotes: no se consiguieron los bloqueos en {} ms",
+                            lotes, presupuesto);
+                    return new ResultadoAjuste(afectados, false, lotes, reintentos, false);
+                }
+                tamano = Math.max(TAMANO_MINIMO, tamano / 2);
+                continue;
+            }
+
+            fallosSeguidos = 0;
+            lotes++;
+            afectados += modificados.size();
+
+            // El tamaño del siguiente lote se ajusta a lo que tardó este
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            if (ms > presupuesto / 2) {
+                tamano = Math.max(TAMANO_MINIMO, tamano / 2);
+            } else if (ms < presupuesto / 8) {
+                tamano = Math.min(TAMANO_MAXIMO, tamano * 2);
+            }
+
+            if (loteIds != null) {
+                posicion += loteIds.size();
+            } else {
+                if (modificados.size() < tamanoLote) {
+                    break;
+                }
+                for (Producto producto : modificados) {
+                    ultimoId = Math.max(ultimoId, producto.getId());
+                }
+            }
+        }
+        return new ResultadoAjuste(afectados, false, lotes, reintentos, true);
+    }
+
+    /**
+     * Verifica que haya exactamente un filtro y al menos un cambio
+     */
+    private void validar(AjusteMasivo ajuste) {
+        boolean porCategoria = ajuste.getCategoria() != null && !ajuste.getCategoria().isBlank();
+        boolean porIds = ajuste.getIds() != null;
+        if (porCategoria == porIds) {
+            throw new IllegalArgumentException("Se debe indicar una categoría o una lista de IDs (solo uno)");
+        }
+        if (porIds && ajuste.getIds().size() > LecturaPorIds.MAXIMO_IDS) {
+            throw new IllegalArgumentException("Se pueden ajustar como máximo " + LecturaPorIds.MAXIMO_IDS + " IDs");
+        }
+        if (ajuste.getPorcentajePrecio() != null && ajuste.getMontoPrecio() != null) {
+            throw new IllegalArgumentException("El precio se ajusta por porcentaje o por monto, no ambos");
+        }
+        if (ajuste.getPorcentajePrecio() == null && ajuste.getMontoPrecio() == null && ajuste.getDeltaStock() == null) {
+            throw new IllegalArgumentException("No se indicó ningún ajuste");
+        }
+    }
+
+    /**
+     * IDs sin repetidos ni nulos, ordenados (los bloqueos se toman siempre en el mismo orden)
+     */
+    private static List<Long> idsOrdenados(List<Long> ids) {
+        TreeSet<Long> unicos = new TreeSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                unicos.add(id);
+            }
+        }
+        return new ArrayList<>(unicos);
+    }
+
+    private static double valor(Double numero) {
+        return numero != null ? numero : 0;
+    }
+}
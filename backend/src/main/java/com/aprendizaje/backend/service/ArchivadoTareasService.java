@@ -0,0 +1,136 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.repository.TareaArchivadaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Servicio que archiva periódicamente las tareas completadas antiguas
+ *
+ * Las tareas completadas que no cambian desde hace "antiguedad-dias" se mueven por lotes
+ * de la tabla tareas a tareas_archivadas (particionada por mes de creación).
+ * Así la tabla principal solo guarda el conjunto de trabajo y sus consultas no crecen con el historial.
+ *
+ * Cada lote es una sola sentencia (DELETE ... RETURNING + INSERT), por lo que una tarea
+ * nunca queda en las dos tablas ni en ninguna. La misma sentencia deja el registro de eliminación,
+ * y en la misma transacción se publica un ELIMINADO por tarea (SSE, outbox): los clientes
+ * sincronizados la quitan de la lista de tareas activas igual que si se hubiera eliminado.
+ */
+@Service
+public class ArchivadoTareasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivadoTareasService.class);
+
+    /**
+     * Repositorio de la tabla de archivo
+     */
+    @Autowired
+    private TareaArchivadaRepository tareaArchivadaRepository;
+
+    /**
+     * Buffer de estados pendientes: se vacía antes de archivar para no perder un cambio
+     */
+    @Autowired
+    private EstadoTareaBuffer estadoTareaBuffer;
+
+    /**
+     * Publicador de eventos: un ELIMINADO por cada tarea archivada
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Transacción de cada lote: el movimiento y sus eventos (outbox) se confirman juntos
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Indica si el archivado automático está activo
+     */
+    @Value("${app.tareas.archivo.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Días sin cambios que debe tener una tarea completada para archivarse
+     */
+    @Value("${app.tareas.archivo.antiguedad-dias:90}")
+    private int antiguedadDias;
+
+    /**
+     * Tareas movidas por cada sentencia
+     */
+    @Value("${app.tareas.archivo.tamano-lote:1000}")
+    private int tamanoLote;
+
+    /**
+     * Ejecución programada del archivado (por defecto cada noche)
+     */
+    @Scheduled(cron = "${app.tareas.archivo.cron:0 30 3 * * *}")
+    public void archivarProgramado() {
+        if (habilitado) {
+            archivar();
+        }
+    }
+
+    /**
+     * Mueve al archivo todas las tareas completadas más antiguas que el límite
+     * @return cantidad de tareas archivadas
+     */
+    public int archivar() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(antiguedadDias);
+
+        // Un cambio de estado pendiente podría reabrir una tarea que está por archivarse
+        if (estadoTareaBuffer.estaHabilitado()) {
+            estadoTareaBuffer.vaciar();
+        }
+
+        for (LocalDate mes : tareaArchivadaRepository.mesesPorArchivar(limite)) {
+            try {
+                tareaArchivadaRepository.crearParticion(mes);
+            } catch (DataAccessException e) {
+                // Las filas de ese mes irán a la partición DEFAULT
+                log.warn("No se pudo crear la partición de archivo para {}", mes, e);
+            }
+        }
+
+        int total = 0;
+        List<Long> movidas;
+        do {
+            movidas = transactionTemplate.execute(estado -> {
+                List<Long> lote = tareaArchivadaRepository.moverLote(limite, tamanoLote);
+                lote.forEach(this::alArchivar);
+                return lote;
+            });
+            total += movidas.size();
+        } while (movidas.size() == tamanoLote);
+
+        if (total > 0) {
+            log.info("Se archivaron {} tareas completadas anteriores a {}", total, limite);
+        }
+        return total;
+    }
+
+    /**
+     * Avisa que una tarea salió de la tabla principal
+     * @param id - ID de la tarea archivada
+     */
+    private void alArchivar(Long id) {
+        estadoTareaBuffer.descartar(id);
+        eventPublisher.publishEvent(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_TAREA,
+                TipoCambio.ELIMINADO, id, null));
+    }
+}
@@ -0,0 +1,79 @@
+package com.aprendizaje.backend.service;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa lecturas idénticas que llegan al mismo tiempo (single-flight)
+ *
+ * La primera petición de una clave ejecuta la consulta; las que llegan mientras tanto
+ * esperan y reciben el mismo resultado (o la misma excepción). Al terminar, la clave
+ * se olvida: no es una caché, la siguiente petición vuelve a consultar.
+ *
+ * El resultado se comparte entre hilos, así que quien lo reciba no debe modificarlo.
+ */
+final class CoalescedorLecturas {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> enVuelo = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la consulta o se une a la que ya está en curso para la misma clave
+     * @param clave - identifica la consulta (por ejemplo "id:5")
+     * @param timeoutMs - espera máxima de quien se une a una consulta en curso (0 = sin límite)
+     * @param consulta - consulta a la base de datos
+     * @return resultado de la consulta
+     * @throws QueryTimeoutException si la consulta en curso no termina a tiempo
+     */
+    @SuppressWarnings("unchecked")
+    <T> T ejecutar(Object clave, long timeoutMs, Supplier<T> consulta) {
+        CompletableFuture<Object> propio = new CompletableFuture<>();
+        CompletableFuture<Object> existente = enVuelo.putIfAbsent(clave, propio);
+
+        if (existente == null) {
+            // Esta petición es la que consulta
+            try {
+                T resultado = consulta.get();
+                propio.complete(resultado);
+                return resultado;
+            } catch (RuntimeException | Error e) {
+                propio.completeExceptionally(e);
+                throw e;
+            } finally {
+                enVuelo.remove(clave, propio);
+            }
+        }
+
+        try {
+            Object resultado = timeoutMs > 0 ? existente.get(timeoutMs, TimeUnit.MILLISECONDS) : existente.get();
+            return (T) resultado;
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("La consulta compartida " + clave + " no terminó en " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Se interrumpió la espera de la consulta compartida " + clave);
+        } catch (ExecutionException e) {
+            // La misma excepción que recibió la petición que consultó
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException excepcion) {
+                throw excepcion;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    /**
+     * Cantidad de consultas en curso (para pruebas y diagnóstico)
+     */
+    int contarEnVuelo() {
+        return enVuelo.size();
+    }
+}
@@ -0,0 +1,47 @@
+package com.aprendizaje.backend.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Lógica común para borrados masivos por condición (por ejemplo, todas las tareas completadas)
+ *
+ * Cada lote es una sola sentencia DELETE ... RETURNING id que se confirma por separado,
+ * así los bloqueos duran poco aunque se borren miles de filas. Los eventos de cada lote se publican
+ * dentro de su transacción: el outbox se confirma junto con el borrado.
+ */
+final class EliminacionPorLotes {
+
+    /**
+     * Filas borradas por cada sentencia
+     */
+    static final int TAMANO_LOTE = 1_000;
+
+    private EliminacionPorLotes() {
+    }
+
+    /**
+     * Ejecuta lotes hasta que uno borre menos filas que el tamaño del lote
+     * @param transactionTemplate - transacción de cada lote
+     * @param eliminarLote - sentencia que borra como máximo n filas y devuelve sus IDs
+     * @param alEliminar - se llama con cada ID borrado (por ejemplo, para publicar el evento)
+     * @return total de filas borradas
+     */
+    static int eliminar(TransactionTemplate transactionTemplate, IntFunction<List<Long>> eliminarLote,
+                        Consumer<Long> alEliminar) {
+        int total = 0;
+        List<Long> borrados;
+        do {
+            borrados = transactionTemplate.execute(estado -> {
+                List<Long> lote = eliminarLote.apply(TAMANO_LOTE);
+                lote.forEach(alEliminar);
+                return lote;
+            });
+            total += borrados.size();
+        } while (borrados.size() == TAMANO_LOTE);
+        return total;
+    }
+}
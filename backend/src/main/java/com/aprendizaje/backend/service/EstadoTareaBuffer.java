@@ -0,0 +1,238 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.TareaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffer de escritura diferida (write-behind) para el estado completada de las tareas
+ *
+ * Cuando está habilitado, cada cambio de estado se confirma de inmediato en memoria
+ * y se agrupa por ID: si el usuario marca y desmarca varias veces, solo se guarda el último valor.
+ * Cada "ventana" milisegundos los cambios pendientes se escriben con un único UPDATE.
+ *
+ * Cada cambio guarda el momento en que se registró y el UPDATE solo lo aplica si la fila no se
+ * modificó después (fecha_modificacion): una actualización completa o una eliminación que se
+ * confirma mientras el buffer se está vaciando no queda pisada por un estado anterior a ella.
+ *
+ * Las lecturas de TareaService pasan por aplicar() para ver sus propias escrituras.
+ *
+ * Registrar un cambio no lee ni abre transacción: la existencia de la tarea se comprueba al vaciar
+ * (el UPDATE ignora los IDs que no existen) y el evento ACTUALIZADO de cada tarea se publica entonces,
+ * con la fila guardada. Como el UPDATE agrupado se reparte por shard, los eventos se publican después
+ * de confirmarlo: el registro del outbox se escribe a continuación, no en la misma transacción.
+ */
+@Component
+public class EstadoTareaBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadoTareaBuffer.class);
+
+    /**
+     * Repositorio de tareas para el UPDATE agrupado
+     */
+    @Autowired
+    private TareaRepository tareaRepository;
+
+    /**
+     * Publicador de eventos: un ACTUALIZADO por cada tarea guardada
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Indica si el modo write-behind está activo
+     */
+    @Value("${app.tareas.write-behind.habilitado:false}")
+    private boolean habilitado;
+
+    /**
+     * Estados pendientes de guardar: ID de la tarea -> estado y momento del cambio
+     */
+    private final Map<Long, Pendiente> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Indica si el modo write-behind está activo
+     * @return true si los cambios de estado se guardan de forma diferida
+     */
+    public boolean estaHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Registra un cambio de estado; reemplaza cualquier valor pendiente de la misma tarea
+     * @param id - identificador de la tarea
+     * @param completada - nuevo estado
+     */
+    public void registrar(Long id, Boolean completada) {
+        pendientes.put(id, new Pendiente(completada, LocalDateTime.now()));
+    }
+
+    /**
+     * Descarta el estado pendiente de una tarea (por ejemplo, si se actualiza o elimina completa)
+     * @param id - identificador de la tarea
+     */
+    public void descartar(Long id) {
+        pendientes.remove(id);
+    }
+
+    /**
+     * Aplica sobre la tarea el estado pendiente, si lo hay
+     * @param tarea - tarea leída de la base de datos
+     */
+    public void aplicar(Tarea tarea) {
+        if (tarea == null || pendientes.isEmpty()) {
+            return;
+        }
+        Pendiente pendiente = pendientes.get(tarea.getId());
+        if (pendiente != null) {
+            tarea.setCompletada(pendiente.completada());
+        }
+    }
+
+    /**
+     * Devuelve la tarea con el estado pendiente sin modificar la recibida
+     * Para tareas compartidas entre hilos (por ejemplo, el resultado de una lectura agrupada)
+     * @param tarea - tarea leída de la base de datos (no se modifica)
+     * @return la misma tarea si no hay cambio pendiente, o una copia con el estado pendiente
+     */
+    public Tarea conEstadoPendiente(Tarea tarea) {
+        if (tarea == null || pendientes.isEmpty()) {
+            return tarea;
+        }
+        Pendiente pendiente = pendientes.get(tarea.getId());
+        if (pendiente == null || pendiente.completada().equals(tarea.getCompletada())) {
+            return tarea;
+        }
+        return copiarConEstado(tarea, pendiente.completada());
+    }
+
+    /**
+     * Copia de la tarea con otro estado completada
+     * @param tarea - tarea original
+     * @param completada - estado de la copia
+     * @return copia independiente de la original
+     */
+    static Tarea copiarConEstado(Tarea tarea, Boolean completada) {
+        Tarea copia = new Tarea(tarea.getTitulo(), tarea.getDescripcion(), completada);
+        copia.setId(tarea.getId());
+        copia.setFechaCreacion(tarea.getFechaCreacion());
+        copia.setFechaModificacion(tarea.getFechaModificacion());
+        copia.setVersionCambio(tarea.getVersionCambio());
+        copia.setFechaVencimiento(tarea.getFechaVencimiento());
+        copia.setFechaRecordatorio(tarea.getFechaRecordatorio());
+        copia.setArchivada(tarea.isArchivada());
+        return copia;
+    }
+
+    /**
+     * Aplica los estados pendientes sobre una lista de tareas
+     * @param tareas - tareas leídas de la base de datos
+     */
+    public void aplicar(List<Tarea> tareas) {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        for (Tarea tarea : tareas) {
+            aplicar(tarea);
+        }
+    }
+
+    /**
+     * Cantidad de cambios pendientes de guardar
+     * @return número de tareas con estado pendiente
+     */
+    public int contarPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Escribe en la base de datos todos los estados pendientes con un único UPDATE
+     * Si falla, los cambios se quedan en el buffer y se reintentan en la siguiente ventana
+     * @return cantidad de filas actualizadas
+     */
+    @Scheduled(fixedDelayString = "${app.tareas.write-behind.ventana-ms:200}")
+    public synchronized int vaciar() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        // Copia los pendientes actuales; los que lleguen mientras tanto esperan a la siguiente ventana
+        List<Long> ids = new ArrayList<>();
+        List<Pendiente> copiados = new ArrayList<>();
+        for (Map.Entry<Long, Pendiente> entrada : pendientes.entrySet()) {
+            ids.add(entrada.getKey());
+            copiados.add(entrada.getValue());
+        }
+
+        List<Tarea> guardadas;
+        try {
+            guardadas = tareaRepository.actualizarEstados(ids.toArray(new Long[0]),
+                    copiados.stream().map(Pendiente::completada).toArray(Boolean[]::new),
+                    copiados.stream().map(Pendiente::registrado).toArray(LocalDateTime[]::new));
+        } catch (RuntimeException e) {
+            log.error("No se pudieron guardar {} estados de tareas pendientes; se reintentará", ids.size(), e);
+            return 0;
+        }
+
+        // Solo se quitan los que no cambiaron mientras se guardaban
+        for (int i = 0; i < ids.size(); i++) {
+            pendientes.remove(ids.get(i), copiados.get(i));
+        }
+        for (Tarea tarea : guardadas) {
+            eventPublisher.publishEvent(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_TAREA,
+                    TipoCambio.ACTUALIZADO, tarea.getId(), tarea));
+        }
+        return guardadas.size();
+    }
+
+    /**
+     * Al apagar la aplicación se guardan los cambios pendientes antes de cerrar la conexión
+     */
+    @PreDestroy
+    public void cerrar() {
+        for (int intento = 1; intento <= 3 && !pendientes.isEmpty(); intento++) {
+            vaciar();
+        }
+        if (!pendientes.isEmpty()) {
+            log.error("Se perdieron {} estados de tareas al apagar: {}", pendientes.size(), pendientes);
+        }
+    }
+
+    /**
+     * Estado pendiente de una tarea y momento en que se registró
+     * Se compara por identidad: cada clic crea otro objeto, así vaciar() no quita uno que llegó
+     * mientras guardaba aunque tenga el mismo estado y la misma hora
+     */
+    private static final class Pendiente {
+        private final Boolean completada;
+        private final LocalDateTime registrado;
+
+        Pendiente(Boolean completada, LocalDateTime registrado) {
+            this.completada = completada;
+            this.registrado = registrado;
+        }
+
+        Boolean completada() {
+            return completada;
+        }
+
+        LocalDateTime registrado() {
+            return registrado;
+        }
+    }
+}
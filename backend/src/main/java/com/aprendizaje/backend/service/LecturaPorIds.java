@@ -0,0 +1,68 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Lógica común para buscar muchos elementos por ID con pocas consultas
+ * Los IDs se agrupan en lotes (una consulta IN por lote) y el resultado respeta el orden pedido
+ */
+final class LecturaPorIds {
+
+    /**
+     * Máximo de IDs que se aceptan en una sola petición
+     */
+    static final int MAXIMO_IDS = 10_000;
+
+    /**
+     * IDs por consulta; evita sentencias con demasiados parámetros
+     */
+    private static final int TAMANO_LOTE = 1_000;
+
+    private LecturaPorIds() {
+    }
+
+    /**
+     * Busca los elementos y los devuelve en el orden pedido, junto con los IDs que faltan
+     * @param ids - IDs pedidos (los repetidos se devuelven una sola vez)
+     * @param buscarLote - consulta que resuelve un lote de IDs (por ejemplo findAllById)
+     * @param obtenerId - cómo obtener el ID de cada elemento
+     * @return encontrados en orden y faltantes
+     */
+    static <T> ResultadoMultiple<T> buscar(List<Long> ids, Function<List<Long>, List<T>> buscarLote,
+                                           Function<T, Long> obtenerId) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        unicos.remove(null);
+        if (unicos.size() > MAXIMO_IDS) {
+            throw new IllegalArgumentException("Se pueden pedir como máximo " + MAXIMO_IDS + " IDs");
+        }
+
+        // Una consulta por lote
+        Map<Long, T> porId = new HashMap<>();
+        for (int inicio = 0; inicio < unicos.size(); inicio += TAMANO_LOTE) {
+            List<Long> lote = unicos.subList(inicio, Math.min(inicio + TAMANO_LOTE, unicos.size()));
+            for (T elemento : buscarLote.apply(lote)) {
+                porId.put(obtenerId.apply(elemento), elemento);
+            }
+        }
+
+        // Arma la respuesta en el orden pedido
+        List<T> encontrados = new ArrayList<>(porId.size());
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : unicos) {
+            T elemento = porId.get(id);
+            if (elemento != null) {
+                encontrados.add(elemento);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        return new ResultadoMultiple<>(encontrados, faltantes);
+    }
+}
@@ -0,0 +1,22 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.dto.ResultadoLote;
+
+/**
+ * Se lanza cuando un lote TODO_O_NADA tiene alguna operación inválida
+ * Al ser RuntimeException, @Transactional revierte todo el lote
+ * Lleva el resultado de cada operación para devolverlo al cliente
+ */
+public class LoteRechazadoException extends RuntimeException {
+
+    private final ResultadoLote resultado;
+
+    public LoteRechazadoException(ResultadoLote resultado) {
+        super("El lote tiene operaciones inválidas y se revirtió completo");
+        this.resultado = resultado;
+    }
+
+    public ResultadoLote getResultado() {
+        return resultado;
+    }
+}
@@ -0,0 +1,337 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio que envía por Server-Sent Events los cambios de Tareas y Productos
+ * a los clientes suscritos, para que no tengan que volver a pedir la lista completa
+ *
+ * - Cada suscriptor tiene una cola acotada; si se llena, se le desconecta (cliente lento)
+ * - Se guarda un historial circular pequeño para reanudar con Last-Event-ID
+ * - Se envía un heartbeat periódico para mantener viva la conexión
+ *
+ * Los suscriptores inactivos no ocupan hilos: solo su SseEmitter y su cola
+ */
+@Service
+public class NotificacionCambiosService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificacionCambiosService.class);
+
+    /**
+     * Marcador que se encola para enviar un heartbeat
+     */
+    private static final EventoCanal HEARTBEAT = new EventoCanal(0, null, null, null);
+
+    /**
+     * Capacidad de la cola de cada suscriptor
+     */
+    @Value("${app.sse.buffer-por-suscriptor:64}")
+    private int bufferPorSuscriptor;
+
+    /**
+     * Cantidad de eventos que se guardan para reanudar con Last-Event-ID
+     */
+    @Value("${app.sse.historial:1024}")
+    private int tamanoHistorial;
+
+    /**
+     * Tiempo máximo de una conexión SSE antes de que el cliente deba reconectarse
+     */
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    /**
+     * Canales por entidad ("tarea" y "producto")
+     */
+    private final Map<String, Canal> canales = new ConcurrentHashMap<>();
+
+    /**
+     * Hilos que escriben en las conexiones; nunca hay más de una tarea por suscriptor
+     */
+    private final ExecutorService envios;
+
+    public NotificacionCambiosService(@Value("${app.sse.hilos-envio:4}") int hilosEnvio) {
+        AtomicInteger contador = new AtomicInteger();
+        this.envios = Executors.newFixedThreadPool(hilosEnvio, r -> {
+            Thread hilo = new Thread(r, "sse-envio-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Registra un nuevo suscriptor para los cambios de una entidad
+     * @param entidad - "tarea" o "producto"
+     * @param ultimoEventId - valor de la cabecera Last-Event-ID (puede ser null)
+     * @return el SseEmitter que Spring mantiene abierto
+     */
+    public SseEmitter suscribir(String entidad, String ultimoEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Canal canal = canal(entidad);
+        Suscriptor suscriptor = new Suscriptor(emitter, bufferPorSuscriptor);
+
+        // Si la conexión termina por cualquier motivo, se quita el suscriptor
+        emitter.onCompletion(() -> canal.suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> canal.suscriptores.remove(suscriptor));
+        emitter.onError(e -> canal.suscriptores.remove(suscriptor));
+
+        canal.registrar(suscriptor, parsearId(ultimoEventId));
+        programarEnvio(canal, suscriptor);
+        return emitter;
+    }
+
+    /**
+     * Escucha los cambios publicados por los servicios
+     * Si hay una transacción activa, se envía solo después del commit
+     * @param evento - cambio ocurrido
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEntidad(CambioEntidadEvent evento) {
+        Canal canal = canal(evento.getEntidad());
+        for (Suscriptor lento : canal.publicar(evento)) {
+            desconectar(canal, lento);
+        }
+        for (Suscriptor suscriptor : canal.suscriptores) {
+            programarEnvio(canal, suscriptor);
+        }
+    }
+
+    /**
+     * Envía un heartbeat a todos los suscriptores para detectar conexiones muertas
+     */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:20000}")
+    public void enviarHeartbeat() {
+        for (Canal canal : canales.values()) {
+            for (Suscriptor suscriptor : canal.suscriptores) {
+                if (suscriptor.cola.offer(HEARTBEAT)) {
+                    programarEnvio(canal, suscriptor);
+                } else {
+                    desconectar(canal, suscriptor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cantidad de suscriptores conectados a una entidad
+     * @param entidad - "tarea" o "producto"
+     * @return número de suscriptores
+     */
+    public int contarSuscriptores(String entidad) {
+        return canal(entidad).suscriptores.size();
+    }
+
+    /**
+     * Cierra todas las conexiones al apagar la aplicación
+     */
+    @PreDestroy
+    public void cerrar() {
+        for (Canal canal : canales.values()) {
+            for (Suscriptor suscriptor : canal.suscriptores) {
+                suscriptor.emitter.complete();
+            }
+            canal.suscriptores.clear();
+        }
+        envios.shutdown();
+    }
+
+    /**
+     * Obtiene (o crea) el canal de una entidad
+     */
+    private Canal canal(String entidad) {
+        return canales.computeIfAbsent(entidad, e -> new Canal(tamanoHistorial));
+    }
+
+    /**
+     * Programa el vaciado de la cola del suscriptor si no hay otro en curso
+     */
+    private void programarEnvio(Canal canal, Suscriptor suscriptor) {
+        if (!suscriptor.cola.isEmpty() && suscriptor.enEnvio.compareAndSet(false, true)) {
+            envios.execute(() -> vaciarCola(canal, suscriptor));
+        }
+    }
+
+    /**
+     * Escribe en la conexión todos los eventos pendientes del suscriptor
+     */
+    private void vaciarCola(Canal canal, Suscriptor suscriptor) {
+        try {
+            EventoCanal evento;
+            while ((evento = suscriptor.cola.poll()) != null) {
+                if (evento == HEARTBEAT) {
+                    suscriptor.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    suscriptor.emitter.send(evento.aSse());
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // El cliente cerró la conexión
+            canal.suscriptores.remove(suscriptor);
+            suscriptor.cola.clear();
+        } finally {
+            suscriptor.enEnvio.set(false);
+        }
+        // Pudo llegar un evento justo después de vaciar la cola
+        programarEnvio(canal, suscriptor);
+    }
+
+    /**
+     * Desconecta a un suscriptor que no consume a tiempo sus eventos
+     */
+    private void desconectar(Canal canal, Suscriptor suscriptor) {
+        if (canal.suscriptores.remove(suscriptor)) {
+            log.warn("Suscriptor SSE desconectado por no consumir eventos a tiempo");
+            suscriptor.cola.clear();
+            suscriptor.emitter.complete();
+        }
+    }
+
+    /**
+     * Convierte la cabecera Last-Event-ID en número (-1 si no es válida)
+     */
+    private long parsearId(String ultimoEventId) {
+        if (ultimoEventId == null || ultimoEventId.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(ultimoEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Canal de una entidad: secuencia de eventos, historial circular y suscriptores
+     */
+    static class Canal {
+
+        final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+        private final EventoCanal[] historial;
+        private long secuencia;
+
+        Canal(int tamanoHistorial) {
+            this.historial = new EventoCanal[Math.max(1, tamanoHistorial)];
+        }
+
+        /**
+         * Asigna número de secuencia al evento, lo guarda en el historial
+         * y lo encola a cada suscriptor
+         * @return suscriptores cuya cola estaba llena
+         */
+        synchronized List<Suscriptor> publicar(CambioEntidadEvent cambio) {
+            secuencia++;
+            Object datos = cambio.getTipo() == TipoCambio.ELIMINADO ? null : cambio.getDatos();
+            EventoCanal evento = new EventoCanal(secuencia, cambio.getTipo(), cambio.getId(), datos);
+            historial[(int) (secuencia % historial.length)] = evento;
+
+            List<Suscriptor> lentos = new ArrayList<>();
+            for (Suscriptor suscriptor : suscriptores) {
+                if (!suscriptor.cola.offer(evento)) {
+                    lentos.add(suscriptor);
+                }
+            }
+            return lentos;
+        }
+
+        /**
+         * Agrega un suscriptor y le encola los eventos que se perdió desde ultimoId
+         * Se hace bajo el mismo candado que publicar() para no duplicar ni perder eventos
+         */
+        synchronized void registrar(Suscriptor suscriptor, long ultimoId) {
+            if (ultimoId >= 0) {
+                long primeroDisponible = Math.max(1, secuencia - historial.length + 1);
+                if (ultimoId + 1 < primeroDisponible || ultimoId > secuencia) {
+                    // El historial ya no tiene esos eventos: el cliente debe recargar todo
+                    suscriptor.cola.offer(EventoCanal.reinicio(secuencia));
+                } else {
+                    for (long s = ultimoId + 1; s <= secuencia; s++) {
+                        if (!suscriptor.cola.offer(historial[(int) (s % historial.length)])) {
+                            suscriptor.cola.clear();
+                            suscriptor.cola.offer(EventoCanal.reinicio(secuencia));
+                            break;
+                        }
+                    }
+                }
+            }
+            suscriptores.add(suscriptor);
+        }
+    }
+
+    /**
+     * Conexión de un cliente con su cola acotada de eventos pendientes
+     */
+    static class Suscriptor {
+
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<EventoCanal> cola;
+        final AtomicBoolean enEnvio = new AtomicBoolean(false);
+
+        Suscriptor(SseEmitter emitter, int capacidad) {
+            this.emitter = emitter;
+            this.cola = new ArrayBlockingQueue<>(Math.max(1, capacidad));
+        }
+    }
+
+    /**
+     * Evento ya numerado dentro de un canal
+     */
+    static class EventoCanal {
+
+        final long secuencia;
+        final TipoCambio tipo;
+        final Long id;
+        final Object datos;
+
+        EventoCanal(long secuencia, TipoCambio tipo, Long id, Object datos) {
+            this.secuencia = secuencia;
+            this.tipo = tipo;
+            this.id = id;
+            this.datos = datos;
+        }
+
+        /**
+         * Evento especial que indica al cliente que debe recargar la lista completa
+         */
+        static EventoCanal reinicio(long secuencia) {
+            return new EventoCanal(secuencia, null, null, null);
+        }
+
+        /**
+         * Convierte el evento al formato SSE (id, nombre y datos en JSON)
+         */
+        SseEmitter.SseEventBuilder aSse() {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().id(String.valueOf(secuencia));
+            if (tipo == null) {
+                return builder.name("reinicio").data("{}", MediaType.APPLICATION_JSON);
+            }
+            Map<String, Object> cuerpo = new LinkedHashMap<>();
+            cuerpo.put("tipo", tipo);
+            cuerpo.put("id", id);
+            cuerpo.put("datos", datos);
+            return builder.name(tipo.name().toLowerCase()).data(cuerpo, MediaType.APPLICATION_JSON);
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package com.aprendizaje.backend.service;
 
+import com.aprendizaje.backend.autocompletado.AutocompletadoService;
+import com.aprendizaje.backend.categorias.DiccionarioCategorias;
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.InfoCategoria;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
 import com.aprendizaje.backend.model.Producto;
 import com.aprendizaje.backend.repository.ProductoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +35,54 @@ public class ProductoService {
     @Autowired
     private ProductoRepository productoRepository;
     
+    /**
+     * Publicador de eventos de Spring
+     * Se usa para avisar de cada cambio (por ejemplo, a los clientes SSE)
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Servicio de sincronización incremental (versiones y eliminaciones)
+     */
+    @Autowired
+    private SincronizacionService sincronizacionService;
+    
+    /**
+     * Autocompletado de nombres; se le avisa de cada consulta por ID para ordenar por popularidad
+     */
+    @Autowired
+    private AutocompletadoService autocompletadoService;
+    
+    /**
+     * Diccionario de categorías (nombre <-> código) y sus contadores de productos
+     */
+    @Autowired
+    private DiccionarioCategorias diccionarioCategorias;
+    
+    /**
+     * Transacción de cada lote de las eliminaciones masivas, y de altas y cambios
+     * (que registran la categoría antes de abrirla)
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * Espera máxima de una petición que se une a una lectura idéntica en curso
+     */
+    @Value("${app.coalescencia.timeout-ms:2000}")
+    private long timeoutCoalescenciaMs;
+    
+    /**
+     * Lecturas por ID y por categoría en curso, compartidas entre peticiones idénticas
+     */
+    private final CoalescedorLecturas coalescedor = new CoalescedorLecturas();
+    
     /**
      * Obtiene todos los productos de la base de datos
      * @return lista de todos los productos
      */
+    @Transactional(readOnly = true)
     public List<Producto> obtenerTodosLosProductos() {
         // Llama al método findAll() del repositorio
         return productoRepository.findAll();
@@ -33,45 +90,85 @@ public class ProductoService {
     
     /**
      * Obtiene un producto por su ID
+     * Las peticiones simultáneas por el mismo ID comparten una sola consulta
+     * Sin @Transactional: quien espera la consulta compartida no debe retener una conexión
      * @param id - identificador del producto
      * @return Optional con el producto si existe, vacío si no existe
      */
     public Optional<Producto> obtenerProductoPorId(Long id) {
         // Llama al método findById() del repositorio
-        return productoRepository.findById(id);
+        Optional<Producto> producto = coalescedor.ejecutar("id:" + id, timeoutCoalescenciaMs,
+                () -> productoRepository.findById(id));
+        producto.ifPresent(p -> autocompletadoService.registrarVista(p.getId()));
+        return producto;
+    }
+    
+    /**
+     * Obtiene varios productos por ID con una consulta por cada lote de IDs
+     * @param ids - identificadores pedidos
+     * @return productos encontrados en el orden pedido y los IDs que no existen
+     */
+    @Transactional(readOnly = true)
+    public ResultadoMultiple<Producto> obtenerProductosPorIds(List<Long> ids) {
+        return LecturaPorIds.buscar(ids, productoRepository::findAllById, Producto::getId);
     }
     
     /**
      * Crea un nuevo producto en la base de datos
+     * Sin @Transactional: la categoría se registra antes de abrir la transacción del producto
      * @param producto - producto a crear
      * @return el producto creado con su ID generado
      */
     public Producto crearProducto(Producto producto) {
-        // Llama al método save() del repositorio
-        return productoRepository.save(producto);
+        registrarCategoria(producto.getCategoria());
+        return transactionTemplate.execute(estado -> {
+            // Asigna la versión del cambio para la sincronización incremental
+            marcarModificado(producto);
+            
+            // Llama al método save() del repositorio
+            Producto nuevoProducto = productoRepository.save(producto);
+            diccionarioCategorias.ajustarCantidad(null, nuevoProducto.getCategoria());
+            publicarCambio(TipoCambio.CREADO, nuevoProducto.getId(), nuevoProducto);
+            return nuevoProducto;
+        });
     }
     
     /**
      * Actualiza un producto existente
      * @param id - identificador del producto a actualizar
+     * Sin @Transactional: la categoría se registra antes de abrir la transacción del producto
      * @param productoActualizado - datos actualizados del producto
      * @return el producto actualizado, o null si no existe
      */
     public Producto actualizarProducto(Long id, Producto productoActualizado) {
-        // Verifica si el producto existe
-        Optional<Producto> productoExistente = productoRepository.findById(id);
+        registrarCategoria(productoActualizado.getCategoria());
+        return transactionTemplate.execute(estado -> actualizarProductoBloqueado(id, productoActualizado));
+    }
+    
+    /**
+     * Aplica la actualización dentro de la transacción abierta por actualizarProducto
+     */
+    private Producto actualizarProductoBloqueado(Long id, Producto productoActualizado) {
+        // Verifica si el producto existe; la fila queda bloqueada para que la categoría anterior
+        // (y el ajuste de los contadores) no se pise con otra actualización simultánea
+        Optional<Producto> productoExistente = productoRepository.findByIdParaActualizar(id);
         
         if (productoExistente.isPresent()) {
             // Si existe, actualiza los campos
             Producto producto = productoExistente.get();
+            String categoriaAnterior = producto.getCategoria();
             producto.setNombre(productoActualizado.getNombre());
             producto.setDescripcion(productoActualizado.getDescripcion());
             producto.setPrecio(productoActualizado.getPrecio());
             producto.setStock(productoActualizado.getStock());
             producto.setCategoria(productoActualizado.getCategoria());
+            marcarModificado(producto);
             
             // Guarda los cambios
-            return productoRepository.save(producto);
+            Producto guardado = productoRepository.save(producto);
+            diccionarioCategorias.ajustarCantidad(categoriaAnterior, guardado.getCategoria());
+            publicarCambio(TipoCambio.ACTUALIZADO, id, guardado);
+            return guardado;
         }
         
         // Si no existe, retorna null
@@ -83,25 +180,62 @@ public class ProductoService {
      * @param id - identificador del producto a eliminar
      * @return true si se eliminó, false si no existía
      */
+    @Transactional
     public boolean eliminarProducto(Long id) {
-        // Verifica si existe
-        if (productoRepository.existsById(id)) {
-            // Si existe, lo elimina
-            productoRepository.deleteById(id);
-            return true;
+        // Una sola sentencia: DELETE ... RETURNING y el registro para la sincronización incremental
+        if (productoRepository.eliminarPorIds(new Long[]{id}).isEmpty()) {
+            // Si no existía, retorna false
+            return false;
         }
-        // Si no existe, retorna false
-        return false;
+        publicarCambio(TipoCambio.ELIMINADO, id, null);
+        return true;
+    }
+    
+    /**
+     * Elimina varios productos por ID (una sentencia por cada lote de IDs)
+     * Sin @Transactional: cada lote se confirma por separado para no mantener bloqueos largos,
+     * junto con los eventos (y el outbox) de sus productos
+     * @param ids - identificadores a eliminar
+     * @return IDs eliminados en el orden pedido y los que no existían
+     */
+    public ResultadoMultiple<Long> eliminarProductosPorIds(List<Long> ids) {
+        return LecturaPorIds.buscar(ids, lote -> transactionTemplate.execute(estado -> {
+            List<Long> borrados = productoRepository.eliminarPorIds(lote.toArray(new Long[0]));
+            borrados.forEach(id -> publicarCambio(TipoCambio.ELIMINADO, id, null));
+            return borrados;
+        }), id -> id);
+    }
+    
+    /**
+     * Elimina, por lotes, los productos de una categoría que se quedaron sin stock
+     * @param categoria - categoría de los productos
+     * @return cantidad de productos eliminados
+     */
+    public int eliminarProductosSinStock(String categoria) {
+        return EliminacionPorLotes.eliminar(transactionTemplate,
+                lote -> productoRepository.eliminarLoteSinStock(categoria, lote),
+                id -> publicarCambio(TipoCambio.ELIMINADO, id, null));
     }
     
     /**
      * Busca productos por categoría
+     * Las peticiones simultáneas por la misma categoría comparten una sola consulta
      * @param categoria - categoría a buscar
-     * @return lista de productos de esa categoría
+     * @return lista de productos de esa categoría (no debe modificarse)
      */
     public List<Producto> buscarPorCategoria(String categoria) {
         // Usa el método personalizado del repositorio
-        return productoRepository.findByCategoria(categoria);
+        return coalescedor.ejecutar("categoria:" + categoria, timeoutCoalescenciaMs,
+                () -> productoRepository.findByCategoria(categoria));
+    }
+    
+    /**
+     * Lista las categorías que tienen productos, con su cantidad
+     * Lee los contadores de la tabla categorias (una fila por categoría), no cuenta productos
+     * @return categorías ordenadas por nombre
+     */
+    public List<InfoCategoria> listarCategorias() {
+        return diccionarioCategorias.listar();
     }
     
     /**
@@ -109,6 +243,7 @@ public class ProductoService {
      * @param nombre - texto a buscar en el nombre
      * @return lista de productos que coinciden
      */
+    @Transactional(readOnly = true)
     public List<Producto> buscarPorNombre(String nombre) {
         // Usa el método personalizado del repositorio
         return productoRepository.findByNombreContainingIgnoreCase(nombre);
@@ -119,8 +254,59 @@ public class ProductoService {
      * @param stockMinimo - cantidad mínima de stock requerida
      * @return lista de productos con stock suficiente
      */
+    @Transactional(readOnly = true)
     public List<Producto> obtenerProductosConStock(Integer stockMinimo) {
         // Usa el método personalizado del repositorio
         return productoRepository.findByStockGreaterThanEqual(stockMinimo);
     }
-}
+    
+    /**
+     * Obtiene los productos que cambiaron desde la marca de agua del cliente
+     * El costo depende de la cantidad de cambios y no del tamaño de la tabla
+     * @param token - marca de agua recibida en la respuesta anterior (vacío para empezar)
+     * @param limite - máximo de elementos a devolver
+     * @return cambios, IDs eliminados y el nuevo token
+     */
+    @Transactional(readOnly = true)
+    public CambiosDesde<Producto> obtenerCambiosDesde(String token, Integer limite) {
+        SincronizacionService.Marca desde = sincronizacionService.parsearToken(token);
+        int limiteEfectivo = sincronizacionService.limiteEfectivo(limite);
+        long horizonte = sincronizacionService.horizonte();
+        
+        // Se pide uno más que el límite para saber si quedan cambios pendientes
+        List<Producto> modificados = productoRepository.buscarCambiosDesde(
+                desde.getXid(), desde.getVersion(), horizonte, Limit.of(limiteEfectivo + 1));
+        
+        return sincronizacionService.combinar(CambioEntidadEvent.ENTIDAD_PRODUCTO, desde, limiteEfectivo,
+                modificados, horizonte, Producto::getXidCambio, Producto::getVersionCambio);
+    }
+    
+    /**
+     * Registra la categoría en el diccionario si es nueva
+     * Se hace fuera de la transacción del producto: la inserción usa su propia transacción (y conexión),
+     * y dentro del flush de Hibernate necesitaría una segunda conexión del pool mientras se retiene la primera
+     * @param categoria - categoría del producto (null si no tiene)
+     */
+    private void registrarCategoria(String categoria) {
+        diccionarioCategorias.codigo(categoria);
+    }
+    
+    /**
+     * Asigna una nueva versión y la fecha de modificación antes de guardar
+     * @param producto - producto que se va a guardar
+     */
+    private void marcarModificado(Producto producto) {
+        producto.setVersionCambio(sincronizacionService.siguienteVersion());
+        producto.setFechaModificacion(LocalDateTime.now());
+    }
+    
+    /**
+     * Publica un evento con el cambio ocurrido en un producto
+     * @param tipo - tipo de cambio
+     * @param id - identificador del producto
+     * @param producto - estado del producto después del cambio (null si se eliminó)
+     */
+    private void publicarCambio(TipoCambio tipo, Long id, Producto producto) {
+        eventPublisher.publishEvent(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_PRODUCTO, tipo, id, producto));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.model.RegistroEliminacion;
+import com.aprendizaje.backend.repository.RegistroEliminacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Servicio con la lógica común de la sincronización incremental (delta sync)
+ *
+ * Cada creación, modificación o eliminación recibe una versión de la secuencia global cambios_seq,
+ * y un trigger guarda en xid_cambio la transacción (xid de 64 bits) que escribió la fila.
+ * El cliente guarda la marca "xid:versión" del último cambio que vio (token) y pide solo lo posterior.
+ *
+ * Las versiones y los xid se asignan antes del commit, así que una transacción lenta podría confirmar
+ * un cambio menor a otro ya visible. Para no saltarse ese cambio, solo se entregan filas cuyo xid es
+ * menor al horizonte de transacciones (pg_snapshot_xmin): todas las anteriores ya terminaron y
+ * cualquier escritura que aún no se confirmó tiene un xid igual o mayor.
+ */
+@Service
+public class SincronizacionService {
+
+    /**
+     * Repositorio de eliminaciones (y de la secuencia de versiones)
+     */
+    @Autowired
+    private RegistroEliminacionRepository registroEliminacionRepository;
+
+    /**
+     * Máximo de cambios que se devuelven en una sola respuesta
+     */
+    @Value("${app.sync.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    /**
+     * Obtiene una nueva versión de la secuencia global de cambios
+     * @return versión para la fila que se está modificando
+     */
+    public Long siguienteVersion() {
+        return registroEliminacionRepository.siguienteVersion();
+    }
+
+    /**
+     * Obtiene varias versiones de la secuencia global con un solo viaje a la base de datos
+     * @param cantidad - cantidad de versiones
+     * @return versiones en orden creciente (vacío si cantidad es 0)
+     */
+    public List<Long> siguientesVersiones(int cantidad) {
+        if (cantidad <= 0) {
+            return List.of();
+        }
+        return registroEliminacionRepository.siguientesVersiones(cantidad);
+    }
+    
+    /**
+     * Deja un registro (tombstone) de una entidad eliminada
+     * @param entidad - "tarea" o "producto"
+     * @param id - ID de la entidad eliminada
+     */
+    public void registrarEliminacion(String entidad, Long id) {
+        registroEliminacionRepository.save(new RegistroEliminacion(entidad, id, siguienteVersion()));
+    }
+
+    /**
+     * Convierte el token recibido del cliente en una marca "xid:versión"
+     * Un token vacío o de versión sola (formato anterior) empieza desde cero
+     * @param token - valor del parámetro ?desde=
+     * @return marca desde la que se deben buscar cambios
+     */
+    public Marca parsearToken(String token) {
+        if (token == null || token.isBlank()) {
+            return Marca.INICIO;
+        }
+        String[] partes = token.trim().split(":", -1);
+        if (partes.length > 2) {
+            throw new IllegalArgumentException("Token de sincronización inválido: " + token);
+        }
+        try {
+            long xid = Math.max(0, Long.parseLong(partes[0]));
+            if (partes.length == 1) {
+                // Las versiones solas no dicen en qué transacción quedó el cliente
+                return Marca.INICIO;
+            }
+            return new Marca(xid, Math.max(0, Long.parseLong(partes[1])));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Token de sincronización inválido: " + token);
+        }
+    }
+
+    /**
+     * Ajusta el límite pedido por el cliente al rango permitido
+     * @param limite - cantidad pedida
+     * @return cantidad efectiva
+     */
+    public int limiteEfectivo(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return limiteMaximo;
+        }
+        return Math.min(limite, limiteMaximo);
+    }
+
+    /**
+     * Horizonte de transacciones: solo se entregan cambios con xid menor a él
+     * Se lee antes que los cambios, así todas las transacciones por debajo ya son visibles
+     * @return xid de la transacción más antigua que sigue en curso
+     */
+    public long horizonte() {
+        return registroEliminacionRepository.horizonteTransacciones();
+    }
+
+    /**
+     * Combina las filas modificadas con las eliminaciones y calcula el nuevo token
+     * @param entidad - "tarea" o "producto"
+     * @param desde - marca enviada por el cliente
+     * @param limite - máximo de elementos en la respuesta
+     * @param modificadas - filas posteriores a desde y anteriores al horizonte (se piden limite + 1)
+     * @param horizonte - el mismo horizonte usado para buscar las modificadas
+     * @param xid - cómo obtener el xid de cada fila
+     * @param version - cómo obtener la versión de cada fila
+     * @return respuesta con cambios, eliminados y el siguiente token
+     */
+    public <T> CambiosDesde<T> combinar(String entidad, Marca desde, int limite, List<T> modificadas,
+                                        long horizonte, Function<T, Long> xid, Function<T, Long> version) {
+        List<RegistroEliminacion> eliminaciones = registroEliminacionRepository.buscarDesde(
+                entidad, desde.getXid(), desde.getVersion(), horizonte, Limit.of(limite + 1));
+
+        // Mezcla ambas listas (ya ordenadas) por xid y versión hasta llenar el límite
+        List<T> cambios = new ArrayList<>();
+        List<Long> eliminados = new ArrayList<>();
+        Marca ultima = desde;
+        int i = 0;
+        int j = 0;
+        while (cambios.size() + eliminados.size() < limite
+                && (i < modificadas.size() || j < eliminaciones.size())) {
+            Marca modificada = i < modificadas.size()
+                    ? new Marca(xid.apply(modificadas.get(i)), version.apply(modificadas.get(i))) : null;
+            Marca eliminacion = j < eliminaciones.size()
+                    ? new Marca(eliminaciones.get(j).getXidCambio(), eliminaciones.get(j).getVersionCambio()) : null;
+            if (eliminacion == null || (modificada != null && modificada.compareTo(eliminacion) < 0)) {
+                cambios.add(modificadas.get(i++));
+                ultima = modificada;
+            } else {
+                eliminados.add(eliminaciones.get(j++).getEntidadId());
+                ultima = eliminacion;
+            }
+        }
+        boolean hayMas = i < modificadas.size() || j < eliminaciones.size();
+
+        // Sin nada pendiente por debajo del horizonte, la próxima consulta puede empezar en él
+        Marca siguiente = hayMas ? ultima : Marca.max(ultima, new Marca(horizonte, 0));
+        return new CambiosDesde<>(cambios, eliminados, siguiente.toString(), hayMas);
+    }
+
+    /**
+     * Posición en el orden de la sincronización: xid de la transacción y versión dentro de ella
+     */
+    public static final class Marca implements Comparable<Marca> {
+
+        /**
+         * Marca de un cliente que todavía no sincronizó nada
+         */
+        public static final Marca INICIO = new Marca(0, 0);
+
+        private final long xid;
+
+        private final long version;
+
+        public Marca(long xid, long version) {
+            this.xid = xid;
+            this.version = version;
+        }
+
+        public long getXid() {
+            return xid;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        static Marca max(Marca a, Marca b) {
+            return a.compareTo(b) >= 0 ? a : b;
+        }
+
+        @Override
+        public int compareTo(Marca otra) {
+            int porXid = Long.compare(xid, otra.xid);
+            return porXid != 0 ? porXid : Long.compare(version, otra.version);
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Marca marca && xid == marca.xid && version == marca.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(xid) * 31 + Long.hashCode(version);
+        }
+
+        /**
+         * Formato del token: "xid:versión"
+         */
+        @Override
+        public String toString() {
+            return xid + ":" + version;
+        }
+    }
+}
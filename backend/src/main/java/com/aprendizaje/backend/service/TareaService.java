@@ -1,12 +1,36 @@
 package com.aprendizaje.backend.service;
 
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.OperacionLote;
+import com.aprendizaje.backend.dto.PaginaResultados;
+import com.aprendizaje.backend.dto.PeticionLote;
+import com.aprendizaje.backend.dto.ResultadoBusqueda;
+import com.aprendizaje.backend.dto.ResultadoLote;
+import com.aprendizaje.backend.dto.ResultadoOperacion;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
 import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.BusquedaTareasRepository;
+import com.aprendizaje.backend.repository.TareaArchivadaRepository;
 import com.aprendizaje.backend.repository.TareaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio que contiene la lógica de negocio para las Tareas
@@ -22,23 +46,165 @@ public class TareaService {
     @Autowired
     private TareaRepository tareaRepository;
     
+    /**
+     * Publicador de eventos de Spring
+     * Se usa para avisar de cada cambio (por ejemplo, a los clientes SSE)
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Servicio de sincronización incremental (versiones y eliminaciones)
+     */
+    @Autowired
+    private SincronizacionService sincronizacionService;
+    
+    /**
+     * Buffer de escritura diferida para los cambios de estado
+     */
+    @Autowired
+    private EstadoTareaBuffer estadoTareaBuffer;
+    
+    /**
+     * Repositorio de las tareas completadas archivadas
+     */
+    @Autowired
+    private TareaArchivadaRepository tareaArchivadaRepository;
+    
+    /**
+     * Repositorio de la búsqueda de texto completo
+     */
+    @Autowired
+    private BusquedaTareasRepository busquedaTareasRepository;
+    
+    /**
+     * Transacción de cada lote de las eliminaciones masivas
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * Espera máxima de una petición que se une a una lectura idéntica en curso
+     */
+    @Value("${app.coalescencia.timeout-ms:2000}")
+    private long timeoutCoalescenciaMs;
+    
+    /**
+     * Lecturas por ID en curso, compartidas entre peticiones idénticas
+     */
+    private final CoalescedorLecturas coalescedor = new CoalescedorLecturas();
+    
+    /**
+     * Máximo de operaciones en un lote de POST /api/tareas/lote
+     */
+    @Value("${app.tareas.lote.maximo-operaciones:1000}")
+    private int maximoOperacionesLote;
+    
+    /**
+     * Máximo de resultados por página de la búsqueda
+     */
+    @Value("${app.tareas.busqueda.tamano-maximo:50}")
+    private int tamanoMaximoBusqueda;
+    
+    /**
+     * Máximo de resultados que se pueden recorrer paginando (OFFSET alto = consulta lenta)
+     */
+    @Value("${app.tareas.busqueda.maximo-resultados:1000}")
+    private int maximoResultadosBusqueda;
+    
     /**
      * Obtiene todas las tareas de la base de datos
      * @return lista de todas las tareas
      */
+    @Transactional(readOnly = true)
     public List<Tarea> obtenerTodasLasTareas() {
         // Llama al método findAll() del repositorio
-        return tareaRepository.findAll();
+        List<Tarea> tareas = tareaRepository.findAll();
+        // Aplica los cambios de estado que aún no se guardaron
+        estadoTareaBuffer.aplicar(tareas);
+        return tareas;
+    }
+    
+    /**
+     * Obtiene las tareas activas y también las archivadas
+     * @return tareas de la tabla principal seguidas de las archivadas
+     */
+    @Transactional(readOnly = true)
+    public List<Tarea> obtenerTodasLasTareasIncluyendoArchivadas() {
+        List<Tarea> tareas = new ArrayList<>(obtenerTodasLasTareas());
+        tareas.addAll(tareaArchivadaRepository.findAll());
+        return tareas;
+    }
+    
+    /**
+     * Cuenta las tareas activas (las archivadas no se cuentan)
+     * @param completada - filtra por estado, o null para todas
+     * @return cantidad de tareas
+     */
+    @Transactional(readOnly = true)
+    public long contarTareas(Boolean completada) {
+        return completada == null ? tareaRepository.count() : tareaRepository.countByCompletada(completada);
     }
     
     /**
      * Obtiene una tarea por su ID
+     * Las peticiones simultáneas por el mismo ID comparten una sola consulta
+     * Sin @Transactional: quien espera la consulta compartida no debe retener una conexión
      * @param id - identificador de la tarea
      * @return Optional con la tarea si existe, vacío si no existe
      */
     public Optional<Tarea> obtenerTareaPorId(Long id) {
         // Llama al método findById() del repositorio
-        return tareaRepository.findById(id);
+        Optional<Tarea> tarea = coalescedor.ejecutar("id:" + id, timeoutCoalescenciaMs,
+                () -> tareaRepository.findById(id));
+        // Aplica el cambio de estado que aún no se guardó sobre una copia: la tarea es compartida
+        return tarea.map(estadoTareaBuffer::conEstadoPendiente);
+    }
+    
+    /**
+     * Obtiene varias tareas por ID con una consulta por cada lote de IDs
+     * @param ids - identificadores pedidos
+     * @return tareas encontradas en el orden pedido y los IDs que no existen
+     */
+    @Transactional(readOnly = true)
+    public ResultadoMultiple<Tarea> obtenerTareasPorIds(List<Long> ids) {
+        ResultadoMultiple<Tarea> resultado = LecturaPorIds.buscar(ids, tareaRepository::findAllById, Tarea::getId);
+        // Aplica los cambios de estado que aún no se guardaron
+        estadoTareaBuffer.aplicar(resultado.getEncontrados());
+        return resultado;
+    }
+    
+    /**
+     * Busca tareas por texto en el título y la descripción, ordenadas por relevancia
+     * @param texto - palabras a buscar (admite "frases", or y -exclusiones)
+     * @param completada - filtra por estado, o null para todas
+     * @param pagina - número de página, desde 0
+     * @param tamano - resultados por página (se limita a app.tareas.busqueda.tamano-maximo)
+     * @return página de resultados con los fragmentos resaltados
+     * @throws IllegalArgumentException si el texto está vacío o la página es inválida o demasiado lejana
+     */
+    @Transactional(readOnly = true)
+    public PaginaResultados<ResultadoBusqueda> buscarTareas(String texto, Boolean completada, int pagina, int tamano) {
+        if (texto == null || texto.isBlank()) {
+            throw new IllegalArgumentException("El texto de búsqueda es obligatorio");
+        }
+        int tamanoEfectivo = Math.max(1, Math.min(tamano, tamanoMaximoBusqueda));
+        long desde = (long) pagina * tamanoEfectivo;
+        if (pagina < 0 || desde + tamanoEfectivo > maximoResultadosBusqueda) {
+            throw new IllegalArgumentException("Página fuera de rango: " + pagina);
+        }
+        
+        // Se pide un resultado más para saber si hay otra página sin contar todas las coincidencias
+        List<ResultadoBusqueda> resultados = new ArrayList<>(
+                busquedaTareasRepository.buscar(texto.trim(), completada, (int) desde, tamanoEfectivo + 1));
+        boolean hayMas = resultados.size() > tamanoEfectivo;
+        if (hayMas) {
+            resultados.remove(tamanoEfectivo);
+        }
+        for (ResultadoBusqueda resultado : resultados) {
+            estadoTareaBuffer.aplicar(resultado.getTarea());
+        }
+        return new PaginaResultados<>(resultados, pagina, tamanoEfectivo, hayMas);
     }
     
     /**
@@ -46,9 +212,16 @@ public class TareaService {
      * @param tarea - tarea a crear
      * @return la tarea creada con su ID generado
      */
+    @Transactional
     public Tarea crearTarea(Tarea tarea) {
+        // Asigna la versión del cambio para la sincronización incremental
+        marcarModificada(tarea);
+        asignarFechas(tarea, tarea);
+        
         // Llama al método save() del repositorio
-        return tareaRepository.save(tarea);
+        Tarea nuevaTarea = tareaRepository.save(tarea);
+        publicarCambio(TipoCambio.CREADO, nuevaTarea.getId(), nuevaTarea);
+        return nuevaTarea;
     }
     
     /**
@@ -57,6 +230,7 @@ public class TareaService {
      * @param tareaActualizada - datos actualizados de la tarea
      * @return la tarea actualizada, o null si no existe
      */
+    @Transactional
     public Tarea actualizarTarea(Long id, Tarea tareaActualizada) {
         // Verifica si la tarea existe
         Optional<Tarea> tareaExistente = tareaRepository.findById(id);
@@ -67,9 +241,15 @@ public class TareaService {
             tarea.setTitulo(tareaActualizada.getTitulo());
             tarea.setDescripcion(tareaActualizada.getDescripcion());
             tarea.setCompletada(tareaActualizada.getCompletada());
+            asignarFechas(tarea, tareaActualizada);
+            marcarModificada(tarea);
+            // La actualización completa reemplaza cualquier estado pendiente
+            estadoTareaBuffer.descartar(id);
             
             // Guarda los cambios
-            return tareaRepository.save(tarea);
+            Tarea guardada = tareaRepository.save(tarea);
+            publicarCambio(TipoCambio.ACTUALIZADO, id, guardada);
+            return guardada;
         }
         
         // Si no existe, retorna null
@@ -81,15 +261,43 @@ public class TareaService {
      * @param id - identificador de la tarea a eliminar
      * @return true si se eliminó, false si no existía
      */
+    @Transactional
     public boolean eliminarTarea(Long id) {
-        // Verifica si existe
-        if (tareaRepository.existsById(id)) {
-            // Si existe, la elimina
-            tareaRepository.deleteById(id);
-            return true;
+        // Una sola sentencia: DELETE ... RETURNING y el registro para la sincronización incremental
+        if (tareaRepository.eliminarPorIds(new Long[]{id}).isEmpty()) {
+            // Si no existía, retorna false
+            return false;
         }
-        // Si no existe, retorna false
-        return false;
+        alEliminar(id);
+        return true;
+    }
+    
+    /**
+     * Elimina varias tareas por ID (una sentencia por cada lote de IDs)
+     * Sin @Transactional: cada lote se confirma por separado para no mantener bloqueos largos,
+     * junto con los eventos (y el outbox) de sus tareas
+     * @param ids - identificadores a eliminar
+     * @return IDs eliminados en el orden pedido y los que no existían
+     */
+    public ResultadoMultiple<Long> eliminarTareasPorIds(List<Long> ids) {
+        return LecturaPorIds.buscar(ids, lote -> transactionTemplate.execute(estado -> {
+            List<Long> borrados = tareaRepository.eliminarPorIds(lote.toArray(new Long[0]));
+            borrados.forEach(this::alEliminar);
+            return borrados;
+        }), id -> id);
+    }
+    
+    /**
+     * Elimina todas las tareas completadas, por lotes
+     * @return cantidad de tareas eliminadas
+     */
+    public int eliminarTareasCompletadas() {
+        // Un estado pendiente podría haber reabierto alguna tarea completada
+        if (estadoTareaBuffer.estaHabilitado()) {
+            estadoTareaBuffer.vaciar();
+        }
+        return EliminacionPorLotes.eliminar(transactionTemplate, tareaRepository::eliminarLoteCompletadas,
+                this::alEliminar);
     }
     
     /**
@@ -98,6 +306,7 @@ public class TareaService {
      * @param completada - true para marcar como completada, false para no completada
      * @return la tarea actualizada, o null si no existe
      */
+    @Transactional
     public Tarea cambiarEstadoTarea(Long id, Boolean completada) {
         // Busca la tarea
         Optional<Tarea> tareaExistente = tareaRepository.findById(id);
@@ -106,12 +315,251 @@ public class TareaService {
             // Si existe, cambia el estado
             Tarea tarea = tareaExistente.get();
             tarea.setCompletada(completada);
+            marcarModificada(tarea);
             
             // Guarda los cambios
-            return tareaRepository.save(tarea);
+            Tarea guardada = tareaRepository.save(tarea);
+            publicarCambio(TipoCambio.ACTUALIZADO, id, guardada);
+            return guardada;
         }
         
         // Si no existe, retorna null
         return null;
     }
+    
+    /**
+     * Cambia el estado en modo write-behind: solo lo registra en memoria, sin leer ni abrir transacción
+     * Los clics repetidos sobre la misma tarea se agrupan en una sola escritura; al vaciar el buffer
+     * se descartan las tareas que no existen y se publica el ACTUALIZADO de las guardadas
+     * @param id - identificador de la tarea
+     * @param completada - nuevo estado
+     * @return true si se registró; false si el write-behind está desactivado (usar cambiarEstadoTarea)
+     */
+    public boolean cambiarEstadoDiferido(Long id, Boolean completada) {
+        if (!estadoTareaBuffer.estaHabilitado()) {
+            return false;
+        }
+        estadoTareaBuffer.registrar(id, completada);
+        return true;
+    }
+    
+    /**
+     * Aplica un lote de operaciones en una sola transacción
+     *
+     * Las operaciones se aplican en orden sobre las entidades en memoria y Hibernate las envía
+     * agrupadas por tipo de sentencia (JDBC batch) al hacer flush. Las tareas referenciadas se leen
+     * con una sola consulta, las versiones se piden juntas y las eliminaciones son una sola sentencia.
+     *
+     * @param peticion - operaciones y modo (TODO_O_NADA o MEJOR_ESFUERZO)
+     * @return resultado de cada operación, en el orden pedido
+     * @throws IllegalArgumentException si el lote está vacío o es demasiado grande
+     * @throws LoteRechazadoException si el modo es TODO_O_NADA y alguna operación falló (se revierte todo)
+     */
+    @Transactional
+    public ResultadoLote ejecutarLote(PeticionLote peticion) {
+        List<OperacionLote> operaciones = peticion.getOperaciones();
+        if (operaciones == null || operaciones.isEmpty() || operaciones.size() > maximoOperacionesLote) {
+            throw new IllegalArgumentException("El lote debe tener entre 1 y " + maximoOperacionesLote + " operaciones");
+        }
+        
+        // Una sola consulta para todas las tareas que se van a modificar
+        Set<Long> ids = new LinkedHashSet<>();
+        int modificaciones = 0;
+        for (OperacionLote operacion : operaciones) {
+            if (operacion != null && operacion.getTipo() != OperacionLote.Tipo.CREAR && operacion.getId() != null) {
+                ids.add(operacion.getId());
+            }
+            if (operacion != null && operacion.getTipo() != OperacionLote.Tipo.ELIMINAR) {
+                modificaciones++;
+            }
+        }
+        Map<Long, Tarea> tareas = new HashMap<>();
+        for (Tarea tarea : tareaRepository.findAllById(ids)) {
+            tareas.put(tarea.getId(), tarea);
+        }
+        // Una sola consulta para todas las versiones
+        Iterator<Long> versiones = sincronizacionService.siguientesVersiones(modificaciones).iterator();
+        
+        List<ResultadoOperacion> resultados = new ArrayList<>(operaciones.size());
+        List<Long> eliminadas = new ArrayList<>();
+        LocalDateTime ahora = LocalDateTime.now();
+        boolean hayFallos = false;
+        for (int i = 0; i < operaciones.size(); i++) {
+            ResultadoOperacion resultado = aplicarOperacion(i, operaciones.get(i), tareas, versiones, eliminadas, ahora);
+            hayFallos |= resultado.getEstado() != ResultadoOperacion.Estado.OK;
+            resultados.add(resultado);
+        }
+        
+        if (hayFallos && peticion.getModo() != PeticionLote.Modo.MEJOR_ESFUERZO) {
+            List<ResultadoOperacion> revertidos = new ArrayList<>(resultados.size());
+            for (ResultadoOperacion resultado : resultados) {
+                revertidos.add(resultado.getEstado() == ResultadoOperacion.Estado.OK
+                        ? resultado.conEstado(ResultadoOperacion.Estado.REVERTIDA) : resultado);
+            }
+            throw new LoteRechazadoException(new ResultadoLote(false, revertidos));
+        }
+        
+        // Envía los INSERT/UPDATE agrupados y luego todas las eliminaciones en una sola sentencia
+        tareaRepository.flush();
+        if (!eliminadas.isEmpty()) {
+            tareaRepository.eliminarPorIds(eliminadas.toArray(new Long[0]));
+        }
+        
+        for (ResultadoOperacion resultado : resultados) {
+            if (resultado.getEstado() != ResultadoOperacion.Estado.OK) {
+                continue;
+            }
+            if (resultado.getTipo() == OperacionLote.Tipo.ELIMINAR) {
+                alEliminar(resultado.getId());
+            } else {
+                estadoTareaBuffer.descartar(resultado.getId());
+                publicarCambio(resultado.getTipo() == OperacionLote.Tipo.CREAR ? TipoCambio.CREADO : TipoCambio.ACTUALIZADO,
+                        resultado.getId(), resultado.getTarea());
+            }
+        }
+        return new ResultadoLote(!hayFallos, resultados);
+    }
+    
+    /**
+     * Aplica una operación del lote sobre las entidades en memoria
+     * Las eliminaciones solo se anotan; se ejecutan todas juntas al final
+     */
+    private ResultadoOperacion aplicarOperacion(int indice, OperacionLote operacion, Map<Long, Tarea> tareas,
+                                                Iterator<Long> versiones, List<Long> eliminadas,
+                                                LocalDateTime ahora) {
+        if (operacion == null || operacion.getTipo() == null) {
+            return new ResultadoOperacion(indice, null, null, ResultadoOperacion.Estado.INVALIDA, null,
+                    "Falta el tipo de operación");
+        }
+        OperacionLote.Tipo tipo = operacion.getTipo();
+        Long id = operacion.getId();
+        
+        if (tipo == OperacionLote.Tipo.CREAR) {
+            String error = validarDatos(operacion.getTarea());
+            if (error != null) {
+                return new ResultadoOperacion(indice, tipo, null, ResultadoOperacion.Estado.INVALIDA, null, error);
+            }
+            Tarea datos = operacion.getTarea();
+            Tarea nueva = new Tarea(datos.getTitulo(), datos.getDescripcion(),
+                    datos.getCompletada() != null ? datos.getCompletada() : false);
+            asignarFechas(nueva, datos);
+            nueva.setVersionCambio(versiones.next());
+            nueva.setFechaModificacion(ahora);
+            Tarea guardada = tareaRepository.save(nueva);
+            return new ResultadoOperacion(indice, tipo, guardada.getId(), ResultadoOperacion.Estado.OK, guardada, null);
+        }
+        
+        if (id == null) {
+            return new ResultadoOperacion(indice, tipo, null, ResultadoOperacion.Estado.INVALIDA, null, "Falta el ID");
+        }
+        Tarea tarea = tareas.get(id);
+        if (tarea == null) {
+            return new ResultadoOperacion(indice, tipo, id, ResultadoOperacion.Estado.NO_ENCONTRADA, null, null);
+        }
+        
+        switch (tipo) {
+            case ACTUALIZAR -> {
+                String error = validarDatos(operacion.getTarea());
+                if (error != null) {
+                    return new ResultadoOperacion(indice, tipo, id, ResultadoOperacion.Estado.INVALIDA, null, error);
+                }
+                tarea.setTitulo(operacion.getTarea().getTitulo());
+                tarea.setDescripcion(operacion.getTarea().getDescripcion());
+                asignarFechas(tarea, operacion.getTarea());
+                if (operacion.getTarea().getCompletada() != null) {
+                    tarea.setCompletada(operacion.getTarea().getCompletada());
+                }
+            }
+            case COMPLETAR -> tarea.setCompletada(true);
+            case DESCOMPLETAR -> tarea.setCompletada(false);
+            case ELIMINAR -> {
+                // Las operaciones siguientes sobre esta tarea ya no la encuentran
+                tareas.remove(id);
+                eliminadas.add(id);
+                return new ResultadoOperacion(indice, tipo, id, ResultadoOperacion.Estado.OK, null, null);
+            }
+            default -> throw new IllegalStateException("Tipo de operación no soportado: " + tipo);
+        }
+        tarea.setVersionCambio(versiones.next());
+        tarea.setFechaModificacion(ahora);
+        return new ResultadoOperacion(indice, tipo, id, ResultadoOperacion.Estado.OK, tarea, null);
+    }
+    
+    /**
+     * Valida los datos de una tarea antes de guardarla (mismas restricciones que las columnas)
+     * @return mensaje de error, o null si son válidos
+     */
+    private static String validarDatos(Tarea datos) {
+        if (datos == null || datos.getTitulo() == null || datos.getTitulo().isBlank()) {
+            return "El título es obligatorio";
+        }
+        if (datos.getTitulo().length() > 100) {
+            return "El título no puede tener más de 100 caracteres";
+        }
+        if (datos.getDescripcion() != null && datos.getDescripcion().length() > 500) {
+            return "La descripción no puede tener más de 500 caracteres";
+        }
+        return null;
+    }
+    
+    /**
+     * Obtiene las tareas que cambiaron desde la marca de agua del cliente
+     * El costo depende de la cantidad de cambios y no del tamaño de la tabla
+     * @param token - marca de agua recibida en la respuesta anterior (vacío para empezar)
+     * @param limite - máximo de elementos a devolver
+     * @return cambios, IDs eliminados y el nuevo token
+     */
+    @Transactional(readOnly = true)
+    public CambiosDesde<Tarea> obtenerCambiosDesde(String token, Integer limite) {
+        SincronizacionService.Marca desde = sincronizacionService.parsearToken(token);
+        int limiteEfectivo = sincronizacionService.limiteEfectivo(limite);
+        long horizonte = sincronizacionService.horizonte();
+        
+        // Se pide uno más que el límite para saber si quedan cambios pendientes
+        List<Tarea> modificadas = tareaRepository.buscarCambiosDesde(
+                desde.getXid(), desde.getVersion(), horizonte, Limit.of(limiteEfectivo + 1));
+        
+        return sincronizacionService.combinar(CambioEntidadEvent.ENTIDAD_TAREA, desde, limiteEfectivo,
+                modificadas, horizonte, Tarea::getXidCambio, Tarea::getVersionCambio);
+    }
+    
+    /**
+     * Asigna una nueva versión y la fecha de modificación antes de guardar
+     * @param tarea - tarea que se va a guardar
+     */
+    private void marcarModificada(Tarea tarea) {
+        tarea.setVersionCambio(sincronizacionService.siguienteVersion());
+        tarea.setFechaModificacion(LocalDateTime.now());
+    }
+    
+    /**
+     * Copia el vencimiento y el recordatorio; sin recordatorio explícito se recuerda al vencer
+     * @param tarea - tarea que se va a guardar
+     * @param datos - datos recibidos (puede ser la misma tarea)
+     */
+    private void asignarFechas(Tarea tarea, Tarea datos) {
+        LocalDateTime recordatorio = datos.getFechaRecordatorio() != null
+                ? datos.getFechaRecordatorio() : datos.getFechaVencimiento();
+        tarea.setFechaVencimiento(datos.getFechaVencimiento());
+        tarea.setFechaRecordatorio(recordatorio);
+    }
+    
+    /**
+     * Limpia el estado pendiente de una tarea eliminada y avisa del cambio
+     * @param id - identificador de la tarea eliminada
+     */
+    private void alEliminar(Long id) {
+        estadoTareaBuffer.descartar(id);
+        publicarCambio(TipoCambio.ELIMINADO, id, null);
+    }
+    
+    /**
+     * Publica un evento con el cambio ocurrido en una tarea
+     * @param tipo - tipo de cambio
+     * @param id - identificador de la tarea
+     * @param tarea - estado de la tarea después del cambio (null si se eliminó)
+     */
+    private void publicarCambio(TipoCambio tipo, Long id, Tarea tarea) {
+        eventPublisher.publishEvent(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_TAREA, tipo, id, tarea));
+    }
 }
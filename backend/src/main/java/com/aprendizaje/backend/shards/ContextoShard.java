@@ -0,0 +1,102 @@
+package com.aprendizaje.backend.shards;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Shard de tareas al que van las conexiones del hilo actual, y los candados de bucket que tiene tomados
+ * Sin shard asignado las conexiones van al shard 0 (la base principal)
+ */
+public final class ContextoShard {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+    private static final ThreadLocal<List<Lock>> BLOQUEOS = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Clave del recurso de transacción con los buckets ya verificados en la base de datos
+     */
+    private static final Object VERIFICADOS = new Object();
+
+    private ContextoShard() {
+    }
+
+    /**
+     * Shard del hilo actual
+     * @return número de shard, o null si no se eligió ninguno
+     */
+    public static Integer actual() {
+        return SHARD.get();
+    }
+
+    /**
+     * Cambia el shard del hilo actual
+     * @param shard - nuevo shard (null para volver al shard 0 por defecto)
+     * @return el shard anterior, para restaurarlo al terminar
+     */
+    public static Integer usar(Integer shard) {
+        Integer anterior = SHARD.get();
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+        return anterior;
+    }
+
+    /**
+     * Guarda un candado de escritura tomado por este hilo para liberarlo al terminar la operación
+     * @param candado - candado ya tomado
+     */
+    public static void registrarBloqueo(Lock candado) {
+        BLOQUEOS.get().add(candado);
+    }
+
+    /**
+     * Cantidad de candados tomados por este hilo
+     * @return marca para liberarBloqueosDesde
+     */
+    public static int cantidadBloqueos() {
+        return BLOQUEOS.get().size();
+    }
+
+    /**
+     * Libera los candados tomados después de la marca, en orden inverso
+     * @param marca - valor de cantidadBloqueos() al empezar la operación
+     */
+    public static void liberarBloqueosDesde(int marca) {
+        List<Lock> bloqueos = BLOQUEOS.get();
+        while (bloqueos.size() > marca) {
+            bloqueos.remove(bloqueos.size() - 1).unlock();
+        }
+    }
+
+    /**
+     * Buckets cuya fila de buckets_locales ya se leyó con bloqueo en la transacción actual
+     * (ver ShardsTareas.verificarBuckets); el bloqueo dura hasta el commit, así que no hace falta repetirlo
+     * @return conjunto de la transacción, que se descarta al terminar (vacío y sin guardar si no hay transacción)
+     */
+    @SuppressWarnings("unchecked")
+    public static Set<Integer> bucketsVerificados() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        Set<Integer> verificados = (Set<Integer>) TransactionSynchronizationManager.getResource(VERIFICADOS);
+        if (verificados == null) {
+            verificados = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(VERIFICADOS, verificados);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VERIFICADOS);
+                }
+            });
+        }
+        return verificados;
+    }
+}
@@ -0,0 +1,65 @@
+package com.aprendizaje.backend.shards;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * DataSource que entrega conexiones del shard elegido en ContextoShard (shard 0 si no hay ninguno)
+ *
+ * Debe envolverse en un LazyConnectionDataSourceProxy: así la conexión real se pide en la primera
+ * sentencia, cuando el enrutamiento ya eligió el shard, y no al comenzar la transacción.
+ */
+public class EnrutadorShardsDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public EnrutadorShardsDataSource(List<DataSource> shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return destino().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return destino().getConnection(username, password);
+    }
+
+    /**
+     * Pool del shard del hilo actual
+     */
+    DataSource destino() {
+        Integer shard = ContextoShard.actual();
+        return shards.get(shard != null ? shard : 0);
+    }
+
+    /**
+     * Pool de un shard concreto (para el rebalanceo y la inicialización)
+     */
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int cantidad() {
+        return shards.size();
+    }
+
+    /**
+     * Cierra los pools de todos los shards al apagar la aplicación
+     */
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.aprendizaje.backend.shards;
+
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.OperacionLote;
+import com.aprendizaje.backend.dto.PeticionExportacion;
+import com.aprendizaje.backend.dto.PeticionLote;
+import com.aprendizaje.backend.dto.ResultadoBusqueda;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.service.SincronizacionService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aspecto que dirige cada operación de tareas a su shard
+ *
+ * - Por ID (leer, actualizar, eliminar, cambiar estado, lote): al shard dueño del bucket
+ * - Crear: a un shard elegido en turno
+ * - Listados, conteos, búsqueda, sincronización y exportación: a todos en paralelo, y se combinan
+ * - Eliminación masiva y archivado: a todos, cada uno con su candado de mantenimiento
+ *
+ * Se ejecuta fuera de @Transactional (solo las trazas lo envuelven), así la transacción empieza
+ * con el shard ya elegido. Si el hilo ya tiene shard (llamadas anidadas) no vuelve a enrutar.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class EnrutamientoShardsAspect {
+
+    private static final String TAREA_SERVICE = "execution(* com.aprendizaje.backend.service.TareaService.";
+
+    private static final Comparator<Tarea> POR_ID = Comparator.comparing(Tarea::getId);
+
+    /**
+     * Orden de la búsqueda: relevancia descendente y, en empate, ID descendente
+     */
+    private static final Comparator<ResultadoBusqueda> POR_RELEVANCIA = Comparator
+            .comparingDouble(ResultadoBusqueda::getRelevancia).reversed()
+            .thenComparing(r -> r.getTarea().getId(), Comparator.reverseOrder());
+
+    private final ShardsTareas shards;
+    private final SincronizacionService sincronizacionService;
+
+    public EnrutamientoShardsAspect(ShardsTareas shards, SincronizacionService sincronizacionService) {
+        this.shards = shards;
+        this.sincronizacionService = sincronizacionService;
+    }
+
+    @Around(TAREA_SERVICE + "obtenerTareaPorId(..)) && args(id)")
+    public Object porId(ProceedingJoinPoint llamada, Long id) throws Throwable {
+        if (ContextoShard.actual() != null || id == null) {
+            return llamada.proceed();
+        }
+        return shards.enShard(shards.shardDe(id), () -> llamada.proceed(llamada.getArgs()));
+    }
+
+    @Around("(" + TAREA_SERVICE + "actualizarTarea(..)) || " + TAREA_SERVICE + "eliminarTarea(..)) || "
+            + TAREA_SERVICE + "cambiarEstadoTarea(..))) && args(id, ..)")
+    public Object escrituraPorId(ProceedingJoinPoint llamada, Long id) throws Throwable {
+        if (ContextoShard.actual() != null || id == null) {
+            return llamada.proceed();
+        }
+        return shards.escribir(List.of(id), () -> llamada.proceed(llamada.getArgs()));
+    }
+
+    @Around(TAREA_SERVICE + "crearTarea(..))")
+    public Object crear(ProceedingJoinPoint llamada) throws Throwable {
+        if (ContextoShard.actual() != null) {
+            return llamada.proceed();
+        }
+        return shards.escribir(List.of(), () -> llamada.proceed(llamada.getArgs()));
+    }
+
+    /**
+     * Un lote es una sola transacción: todas sus tareas existentes deben estar en el mismo shard
+     * y las que crea van a ese shard
+     */
+    @Around(TAREA_SERVICE + "ejecutarLote(..)) && args(peticion)")
+    public Object lote(ProceedingJoinPoint llamada, PeticionLote peticion) throws Throwable {
+        if (ContextoShard.actual() != null || peticion == null || peticion.getOperaciones() == null) {
+            return llamada.proceed();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (OperacionLote operacion : peticion.getOperaciones()) {
+            if (operacion != null && operacion.getTipo() != OperacionLote.Tipo.CREAR && operacion.getId() != null) {
+                ids.add(operacion.getId());
+            }
+        }
+        return shards.escribir(ids, () -> llamada.proceed(llamada.getArgs()));
+    }
+
+    @Around(TAREA_SERVICE + "obtenerTodasLasTareas*(..))")
+    public Object todas(ProceedingJoinPoint llamada) throws Throwable {
+        if (ContextoShard.actual() != null) {
+            return llamada.proceed();
+        }
+        List<Tarea> tareas = new ArrayList<>();
+        for (Object parte : shards.enTodos(shard -> llamada.proceed(llamada.getArgs()))) {
+            tareas.addAll(lista(parte));
+        }
+        tareas.sort(POR_ID);
+        return tareas;
+    }
+
+    @Around(TAREA_SERVICE + "contarTareas(..))")
+    public Object contar(ProceedingJoinPoint llamada) throws Throwable {
+        if (ContextoShard.actual() != null) {
+            return llamada.proceed();
+        }
+        long total = 0;
+        for (Object parte : shards.enTodos(shard -> llamada.proceed(llamada.getArgs()))) {
+            total += (Long) parte;
+        }
+        return total;
+    }
+
+    @Around("(" + TAREA_SERVICE + "obtenerTareasPorIds(..)) || " + TAREA_SERVICE + "eliminarTareasPorIds(..)))"
+            + " && args(ids)")
+    public Object porIds(ProceedingJoinPoint llamada, List<Long> ids) throws Throwable {
+        if (ContextoShard.actual() != null || ids == null || ids.isEmpty()) {
+            return llamada.proceed();
+        }
+        boolean escritura = llamada.getSignature().getName().startsWith("eliminar");
+        List<ResultadoMultiple<Object>> partes = new ArrayList<>();
+        for (Object parte : shards.porGrupos(shards.agruparPorShard(ids), (shard, grupo) -> escritura
+                ? shards.escribir(grupo, () -> llamada.proceed(new Object[]{grupo}))
+                : llamada.proceed(new Object[]{grupo}))) {
+            partes.add(resultadoMultiple(parte));
+        }
+        return ShardsTareas.combinar(ids, partes,
+                elemento -> elemento instanceof Tarea tarea ? tarea.getId() : (Long) elemento);
+    }
+
+    @Around(TAREA_SERVICE + "eliminarTareasCompletadas(..)) || "
+            + "execution(* com.aprendizaje.backend.service.ArchivadoTareasService.archivar(..))")
+    public Object mantenimiento(ProceedingJoinPoint llamada) throws Throwable {
+        if (ContextoShard.actual() != null) {
+            return llamada.proceed();
+        }
+        int total = 0;
+        for (Object parte : shards.enTodos(shard ->
+                shards.mantenimiento(shard, () -> llamada.proceed(llamada.getArgs())))) {
+            total += (Integer) parte;
+        }
+        return total;
+    }
+
+    /**
+     * Cada shard tiene sus propias transacciones y versiones, así que el token es compuesto:
+     * "m0.m1.m2" (una marca "xid:versión" por shard). Un token simple se aplica a todos los shards.
+     */
+    @Around(TAREA_SERVICE + "obtenerCambiosDesde(..)) && args(token, limite)")
+    public Object cambios(ProceedingJoinPoint llamada, String token, Integer limite) throws Throwable {
+        if (ContextoShard.actual() != null) {
+            return llamada.proceed();
+        }
+        String[] tokens = separarToken(token);
+        int limiteShard = Math.max(1, -Math.floorDiv(-sincronizacionService.limiteEfectivo(limite), shards.cantidad()));
+        List<Object> partes = shards.enTodos(shard ->
+                llamada.proceed(new Object[]{tokens[shard], limiteShard}));
+
+        List<Tarea> cambios = new ArrayList<>();
+        List<Long> eliminados = new ArrayList<>();
+        List<String> siguiente = new ArrayList<>();
+        boolean hayMas = false;
+        for (Object parte : partes) {
+            CambiosDesde<?> cambiosShard = (CambiosDesde<?>) parte;
+            cambios.addAll(lista(cambiosShard.getCambios()));
+            eliminados.addAll(cambiosShard.getEliminados());
+            siguiente.add(cambiosShard.getToken());
+            hayMas |= cambiosShard.isHayMas();
+        }
+        return new CambiosDesde<>(cambios, eliminados, String.join(".", siguiente), hayMas);
+    }
+
+    /**
+     * Cada shard devuelve sus primeros desde + cantidad resultados y se mezclan por relevancia
+     */
+    @Around("execution(* com.aprendizaje.backend.repository.BusquedaTareasRepository.buscar(..))"
+            + " && args(texto, completada, desde, cantidad)")
+    public Object buscar(ProceedingJoinPoint llamada, String texto, Boolean completada, int desde, int cantidad)
+            throws Throwable {
+        if (ContextoShard.actual() != null) {
+            return llamada.proceed();
+        }
+        List<List<ResultadoBusqueda>> partes = new ArrayList<>();
+        for (Object parte : shards.enTodos(shard ->
+                llamada.proceed(new Object[]{texto, completada, 0, desde + cantidad}))) {
+            partes.add(lista(parte));
+        }
+        return ShardsTareas.mezclar(partes, POR_RELEVANCIA, desde, cantidad);
+    }
+
+    /**
+     * El UPDATE agrupado del write-behind se reparte por shard aunque se llame desde otro shard
+     * (por ejemplo, al vaciar el buffer antes de eliminar las completadas)
+     */
+    @Around("execution(* com.aprendizaje.backend.repository.TareaRepository.actualizarEstados(..))"
+            + " && args(ids, estados, fechas)")
+    public Object actualizarEstados(ProceedingJoinPoint llamada, Long[] ids, Boolean[] estados,
+                                    LocalDateTime[] fechas) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return llamada.proceed();
+        }
+        Map<Integer, List<Long>> grupos = shards.agruparPorShard(List.of(ids));
+        Map<Long, Integer> posicion = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            posicion.put(ids[i], i);
+        }
+        List<Object> actualizadas = new ArrayList<>();
+        for (List<Long> grupo : grupos.values()) {
+            Boolean[] estadosGrupo = grupo.stream().map(id -> estados[posicion.get(id)]).toArray(Boolean[]::new);
+            LocalDateTime[] fechasGrupo = grupo.stream().map(id -> fechas[posicion.get(id)])
+                    .toArray(LocalDateTime[]::new);
+            actualizadas.addAll(lista(shards.escribir(grupo, () ->
+                    llamada.proceed(new Object[]{grupo.toArray(new Long[0]), estadosGrupo, fechasGrupo}))));
+        }
+        return actualizadas;
+    }
+
+    @Around("execution(* com.aprendizaje.backend.repository.ExportacionRepository.contar(..)) && args(peticion)")
+    public Object contarExportacion(ProceedingJoinPoint llamada, PeticionExportacion peticion) throws Throwable {
+        if (ContextoShard.actual() != null || !esDeTareas(peticion)) {
+            return llamada.proceed();
+        }
+        long total = 0;
+        for (Object parte : shards.enTodos(shard -> llamada.proceed(llamada.getArgs()))) {
+            total += (Long) parte;
+        }
+        return total;
+    }
+
+    @Around("execution(* com.aprendizaje.backend.repository.ExportacionRepository.leerBloque(..))"
+            + " && args(peticion, desdeId, cantidad)")
+    public Object leerBloqueExportacion(ProceedingJoinPoint llamada, PeticionExportacion peticion, long desdeId,
+                                        int cantidad) throws Throwable {
+        if (ContextoShard.actual() != null || !esDeTareas(peticion)) {
+            return llamada.proceed();
+        }
+        List<List<Map<String, Object>>> partes = new ArrayList<>();
+        for (Object parte : shards.enTodos(shard -> llamada.proceed(llamada.getArgs()))) {
+            partes.add(lista(parte));
+        }
+        return ShardsTareas.mezclar(partes, Comparator.comparingLong(fila -> ((Number) fila.get("id")).longValue()),
+                0, cantidad);
+    }
+
+    /**
+     * Separa el token compuesto de la sincronización en una marca por shard
+     * @throws IllegalArgumentException si no tiene una marca por shard
+     */
+    private String[] separarToken(String token) {
+        String[] tokens = new String[shards.cantidad()];
+        String[] partes = token == null || token.isBlank() ? new String[]{""} : token.trim().split("\\.", -1);
+        if (partes.length == 1) {
+            Arrays.fill(tokens, partes[0]);
+        } else if (partes.length == tokens.length) {
+            System.arraycopy(partes, 0, tokens, 0, tokens.length);
+        } else {
+            throw new IllegalArgumentException("Token de sincronización inválido: " + token);
+        }
+        return tokens;
+    }
+
+    private static boolean esDeTareas(PeticionExportacion peticion) {
+        return peticion != null && CambioEntidadEvent.ENTIDAD_TAREA.equals(peticion.getEntidad());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> lista(Object valor) {
+        return (List<T>) valor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResultadoMultiple<Object> resultadoMultiple(Object valor) {
+        return (ResultadoMultiple<Object>) valor;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aprendizaje.backend.shards;
+
+import com.aprendizaje.backend.ids.EstrategiaIds;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.exception.spi.SQLExceptionConverter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Estrategia de IDs para tareas con shards: solo entrega IDs cuyo bucket pertenece al shard
+ * donde se está insertando (el de ContextoShard)
+ *
+ * Pide IDs a la estrategia configurada (SECUENCIA o TEMPORAL) y descarta los que caen en buckets
+ * de otro shard o en un bucket que se está moviendo; en promedio hacen falta tantos intentos como
+ * shards. Los IDs siguen siendo únicos entre shards: con TEMPORAL por el nodo, y con SECUENCIA
+ * porque la secuencia de cada shard empieza en un rango distinto (ver ShardsTareas).
+ *
+ * Toma el candado de escritura del bucket del ID entregado; lo libera el enrutamiento al terminar
+ * la operación, así el rebalanceo no puede cortar ese bucket con el INSERT todavía sin confirmar.
+ * Con varias instancias, además lee la fila del bucket en buckets_locales con bloqueo compartido
+ * (una vez por bucket y transacción) y descarta el ID si otra instancia ya cedió el bucket a otro shard.
+ */
+public class IdsPorShard implements EstrategiaIds {
+
+    /**
+     * Secuencia de las tareas (la única entidad con shards)
+     */
+    static final String SECUENCIA_TAREAS = "tareas_id_seq_pool";
+
+    private static final int MAXIMO_INTENTOS = 64 * MapaBuckets.BUCKETS;
+
+    private final EstrategiaIds base;
+    private final MapaBuckets mapa;
+
+    public IdsPorShard(EstrategiaIds base, MapaBuckets mapa) {
+        this.base = base;
+        this.mapa = mapa;
+    }
+
+    @Override
+    public long siguiente(String secuencia, SharedSessionContractImplementor sesion) {
+        Integer shard = ContextoShard.actual();
+        if (shard == null || !SECUENCIA_TAREAS.equals(secuencia)) {
+            return base.siguiente(secuencia, sesion);
+        }
+        for (int intento = 0; intento < MAXIMO_INTENTOS; intento++) {
+            long id = base.siguiente(secuencia, sesion);
+            int bucket = MapaBuckets.bucketDe(id);
+            if (mapa.shardDeBucket(bucket) != shard) {
+                continue;
+            }
+            Lock candado = mapa.candadoEscritura(bucket);
+            if (!candado.tryLock()) {
+                // El bucket está en el corte de un movimiento
+                continue;
+            }
+            if (mapa.shardDeBucket(bucket) != shard) {
+                candado.unlock();
+                continue;
+            }
+            if (!verificar(bucket, sesion)) {
+                // Otra instancia ya movió el bucket; este mapa se actualiza en la próxima recarga
+                candado.unlock();
+                continue;
+            }
+            ContextoShard.registrarBloqueo(candado);
+            return id;
+        }
+        throw new IllegalStateException("No se pudo generar un ID para el shard " + shard);
+    }
+
+    /**
+     * Bloquea la fila del bucket en buckets_locales hasta el commit, con la conexión de la sesión
+     * (una consulta nativa normal provocaría un flush automático en medio del guardado)
+     * @return false si el bucket ya se cedió a otro shard
+     */
+    private static boolean verificar(int bucket, SharedSessionContractImplementor sesion) {
+        Set<Integer> verificados = ContextoShard.bucketsVerificados();
+        if (verificados.contains(bucket)) {
+            return true;
+        }
+        String sql = ShardsTareas.ESTADO_BUCKET;
+        JdbcCoordinator jdbc = sesion.getJdbcCoordinator();
+        PreparedStatement sentencia = jdbc.getStatementPreparer().prepareStatement(sql);
+        try {
+            sentencia.setInt(1, bucket);
+            ResultSet resultado = jdbc.getResultSetReturn().extract(sentencia, sql);
+            try {
+                if (resultado.next() && resultado.getBoolean(1)) {
+                    return false;
+                }
+            } finally {
+                jdbc.getLogicalConnection().getResourceRegistry().release(resultado, sentencia);
+            }
+        } catch (SQLException e) {
+            SQLExceptionConverter convertidor = sesion.getJdbcServices().getSqlExceptionHelper()
+                    .getSqlExceptionConverter();
+            throw convertidor.convert(e, "No se pudo leer el estado del bucket " + bucket, sql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(sentencia);
+            jdbc.afterStatementExecution();
+        }
+        verificados.add(bucket);
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package com.aprendizaje.backend.shards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reparto de las tareas entre shards
+ *
+ * Cada ID cae en uno de 1024 buckets según una mezcla de sus bits, y cada bucket pertenece a un shard.
+ * Rebalancear es mover buckets completos: las filas de un bucket siempre están juntas.
+ * La misma función se puede calcular en SQL (EXPRESION_SQL) para leer o borrar un bucket entero.
+ *
+ * También guarda los candados que coordinan las escrituras con el rebalanceo:
+ * - por bucket: las escrituras toman el de lectura (compartido); el corte de un movimiento, el de escritura
+ * - por shard: las operaciones masivas (borrar completadas, archivar) toman el de lectura;
+ *   el rebalanceo toma el de escritura mientras mueve un bucket desde ese shard
+ */
+public class MapaBuckets {
+
+    /**
+     * Cantidad de buckets (potencia de 2)
+     */
+    public static final int BUCKETS = 1024;
+
+    /**
+     * bucketDe(id) escrito en SQL (# es XOR en PostgreSQL); debe coincidir con el índice de schema-shard.sql
+     */
+    public static final String EXPRESION_SQL = "((id # (id >> 12) # (id >> 22) # (id >> 32)) & 1023)";
+
+    /**
+     * Shard de cada bucket; se reemplaza el arreglo completo en cada cambio
+     */
+    private volatile int[] asignacion;
+
+    private final int cantidadShards;
+    private final ReentrantReadWriteLock[] candadosBucket = new ReentrantReadWriteLock[BUCKETS];
+    private final ReentrantReadWriteLock[] candadosShard;
+
+    public MapaBuckets(int cantidadShards) {
+        this.cantidadShards = cantidadShards;
+        this.asignacion = new int[BUCKETS];
+        this.candadosShard = new ReentrantReadWriteLock[cantidadShards];
+        for (int i = 0; i < BUCKETS; i++) {
+            candadosBucket[i] = new ReentrantReadWriteLock();
+        }
+        for (int i = 0; i < cantidadShards; i++) {
+            candadosShard[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Bucket de un ID
+     * Los bits 12 a 21 y 22 en adelante cambian aunque los IDs sean consecutivos o temporales
+     * (IdsTemporales deja la secuencia en los 7 bits bajos, el nodo en los 5 siguientes y el milisegundo desde el bit 12)
+     * @param id - ID de la tarea
+     * @return bucket entre 0 y 1023
+     */
+    public static int bucketDe(long id) {
+        return (int) ((id ^ (id >> 12) ^ (id >> 22) ^ (id >> 32)) & (BUCKETS - 1));
+    }
+
+    /**
+     * Shard donde vive un ID
+     */
+    public int shardDe(long id) {
+        return asignacion[bucketDe(id)];
+    }
+
+    /**
+     * Shard dueño de un bucket
+     */
+    public int shardDeBucket(int bucket) {
+        return asignacion[bucket];
+    }
+
+    public int getCantidadShards() {
+        return cantidadShards;
+    }
+
+    /**
+     * Reemplaza toda la asignación (al cargarla de la tabla tareas_buckets)
+     * @param nueva - shard de cada bucket
+     * @throws IllegalStateException si asigna buckets a un shard que no está configurado
+     */
+    public void cargar(int[] nueva) {
+        if (nueva.length != BUCKETS) {
+            throw new IllegalArgumentException("Se esperaban " + BUCKETS + " buckets y llegaron " + nueva.length);
+        }
+        for (int shard : nueva) {
+            if (shard < 0 || shard >= cantidadShards) {
+                throw new IllegalStateException("El mapa asigna buckets al shard " + shard
+                        + ", pero solo hay " + cantidadShards + " shards configurados");
+            }
+        }
+        asignacion = nueva.clone();
+    }
+
+    /**
+     * Cambia el dueño de un bucket
+     */
+    public synchronized void asignar(int bucket, int shard) {
+        int[] nueva = asignacion.clone();
+        nueva[bucket] = shard;
+        asignacion = nueva;
+    }
+
+    /**
+     * Copia de la asignación actual
+     */
+    public int[] copia() {
+        return asignacion.clone();
+    }
+
+    /**
+     * Buckets de un shard
+     */
+    public List<Integer> bucketsDe(int shard) {
+        int[] actual = asignacion;
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (actual[bucket] == shard) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Cantidad de buckets de cada shard
+     */
+    public int[] bucketsPorShard() {
+        int[] cantidades = new int[cantidadShards];
+        for (int shard : asignacion) {
+            cantidades[shard]++;
+        }
+        return cantidades;
+    }
+
+    /**
+     * Candado compartido que toma cada escritura sobre el bucket
+     */
+    public Lock candadoEscritura(int bucket) {
+        return candadosBucket[bucket].readLock();
+    }
+
+    /**
+     * Candado exclusivo que toma el rebalanceo durante el corte de un bucket
+     */
+    public Lock candadoMovimiento(int bucket) {
+        return candadosBucket[bucket].writeLock();
+    }
+
+    /**
+     * Indica si el bucket está en el corte de un movimiento
+     */
+    public boolean estaMoviendose(int bucket) {
+        return candadosBucket[bucket].isWriteLocked();
+    }
+
+    /**
+     * Candado compartido de las operaciones masivas sobre un shard
+     */
+    public Lock candadoMantenimiento(int shard) {
+        return candadosShard[shard].readLock();
+    }
+
+    /**
+     * Candado exclusivo que toma el rebalanceo mientras saca filas de un shard
+     */
+    public Lock candadoRebalanceo(int shard) {
+        return candadosShard[shard].writeLock();
+    }
+
+    @Override
+    public String toString() {
+        return "MapaBuckets" + Arrays.toString(bucketsPorShard());
+    }
+}
@@ -0,0 +1,143 @@
+package com.aprendizaje.backend.shards;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sentencias que usa RebalanceadorShards sobre los shards
+ * Separadas del algoritmo para poder probarlo sin base de datos
+ */
+class OperacionesRebalanceo {
+
+    static final String COLUMNAS = "id, titulo, descripcion, completada, fecha_creacion, "
+            + "fecha_modificacion, fecha_vencimiento, fecha_recordatorio, version_cambio";
+
+    /**
+     * En el destino cada fila recibe una versión nueva de su secuencia (y el disparador le pone la transacción
+     * del destino), para que los clientes que sincronizan con el token del destino vean las tareas que llegan
+     */
+    private static final String UPSERT = "INSERT INTO tareas (" + COLUMNAS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, nextval('cambios_seq')) "
+            + "ON CONFLICT (id) DO UPDATE SET titulo = EXCLUDED.titulo, descripcion = EXCLUDED.descripcion, "
+            + "completada = EXCLUDED.completada, fecha_creacion = EXCLUDED.fecha_creacion, "
+            + "fecha_modificacion = EXCLUDED.fecha_modificacion, fecha_vencimiento = EXCLUDED.fecha_vencimiento, "
+            + "fecha_recordatorio = EXCLUDED.fecha_recordatorio, version_cambio = EXCLUDED.version_cambio";
+
+    private final ShardsTareas shards;
+
+    OperacionesRebalanceo(ShardsTareas shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Transacción más antigua todavía abierta en el shard: toda escritura de una transacción
+     * anterior ya terminó, y las posteriores tendrán un xid_cambio igual o mayor
+     */
+    long horizonte(int shard) {
+        Long horizonte = shards.jdbc(shard).queryForObject(
+                "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", Long.class);
+        return horizonte != null ? horizonte : 0;
+    }
+
+    /**
+     * Lee un tramo de filas del bucket, por ID
+     * @param desdeId - se leen los IDs mayores
+     * @param desdeXid - solo las escritas por esta transacción o posteriores (todas si es -1)
+     * @return filas en el orden de los parámetros de UPSERT
+     */
+    List<Object[]> leer(int shard, int bucket, long desdeId, long desdeXid, int cantidad) {
+        List<Object[]> filas = new ArrayList<>();
+        shards.jdbc(shard).query("SELECT " + COLUMNAS + " FROM tareas WHERE " + MapaBuckets.EXPRESION_SQL
+                + " = ? AND id > ?" + (desdeXid >= 0 ? " AND xid_cambio >= " + desdeXid : "")
+                + " ORDER BY id LIMIT ?", rs -> {
+            filas.add(new Object[]{rs.getLong("id"), rs.getString("titulo"), rs.getString("descripcion"),
+                    rs.getBoolean("completada"), rs.getTimestamp("fecha_creacion"),
+                    rs.getTimestamp("fecha_modificacion"), rs.getTimestamp("fecha_vencimiento"),
+                    rs.getTimestamp("fecha_recordatorio")});
+        }, bucket, desdeId, cantidad);
+        return filas;
+    }
+
+    void escribir(int shard, List<Object[]> filas) {
+        shards.jdbc(shard).batchUpdate(UPSERT, filas);
+    }
+
+    /**
+     * IDs de las tareas del bucket eliminadas por esta transacción o posteriores
+     */
+    List<Long> eliminadasDesde(int shard, int bucket, long xid) {
+        return shards.jdbc(shard).queryForList("SELECT entidad_id FROM eliminaciones "
+                + "WHERE entidad = 'tarea' AND xid_cambio >= ? AND "
+                + MapaBuckets.EXPRESION_SQL.replace("id", "entidad_id") + " = ?", Long.class, xid, bucket);
+    }
+
+    void eliminar(int shard, List<Long> ids) {
+        shards.jdbc(shard).update("DELETE FROM tareas WHERE id = ANY(?)", (Object) ids.toArray(new Long[0]));
+    }
+
+    /**
+     * Marca el bucket como propio en el shard (por si antes se había cedido desde ahí)
+     */
+    void reclamar(int shard, int bucket) {
+        shards.jdbc(shard).update("UPDATE buckets_locales SET cedido = false WHERE bucket = ?", bucket);
+    }
+
+    /**
+     * Cede el bucket en una transacción del shard: espera a las escrituras en curso, lo marca como cedido
+     * y ejecuta el corte antes del commit, así que ninguna escritura sobre el bucket queda fuera del corte
+     * FOR UPDATE es necesario: el UPDATE solo (FOR NO KEY UPDATE) no espera a los FOR KEY SHARE
+     * @param esperaMs - espera máxima por las escrituras en curso (lock_timeout)
+     * @param corte - se ejecuta con las escrituras del bucket detenidas en todas las instancias
+     */
+    void ceder(int shard, int bucket, long esperaMs, Runnable corte) {
+        shards.transaccion(shard).executeWithoutResult(estado -> {
+            JdbcTemplate jdbc = shards.jdbc(shard);
+            jdbc.execute("SET LOCAL lock_timeout = " + Math.max(1, esperaMs));
+            jdbc.queryForObject("SELECT cedido FROM buckets_locales WHERE bucket = ? FOR UPDATE", Boolean.class, bucket);
+            jdbc.update("UPDATE buckets_locales SET cedido = true WHERE bucket = ?", bucket);
+            corte.run();
+        });
+    }
+
+    /**
+     * Cambia el dueño del bucket en tareas_buckets con una versión nueva del mapa
+     * @return versión del mapa con el cambio
+     */
+    long cambiarDueno(int bucket, int shard) {
+        Long version = shards.jdbc(0).queryForObject("UPDATE tareas_buckets SET shard = ?, "
+                + "version = nextval('tareas_buckets_version_seq') WHERE bucket = ? RETURNING version",
+                Long.class, shard, bucket);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Instancias activas que todavía no cargaron la versión indicada del mapa
+     * @param vigenciaMs - las que no anotaron nada en este tiempo se consideran detenidas
+     */
+    int instanciasAtrasadas(long version, long vigenciaMs) {
+        Integer atrasadas = shards.jdbc(0).queryForObject("SELECT COUNT(*) FROM tareas_buckets_instancias "
+                + "WHERE version < ? AND fecha > LOCALTIMESTAMP - make_interval(secs => ?)",
+                Integer.class, version, vigenciaMs / 1000.0);
+        return atrasadas != null ? atrasadas : 0;
+    }
+
+    /**
+     * Borra un lote de filas del bucket, sin registrar eliminaciones (no fueron borradas,
+     * solo cambiaron de shard)
+     * @return cantidad de filas borradas
+     */
+    int purgar(int shard, int bucket, int lote) {
+        return shards.jdbc(shard).update("DELETE FROM tareas WHERE id IN (SELECT id FROM tareas WHERE "
+                + MapaBuckets.EXPRESION_SQL + " = ? LIMIT ?)", bucket, lote);
+    }
+
+    /**
+     * Ejecuta la operación con el candado consultivo exclusivo del shard (ver ShardsTareas.conCandado)
+     */
+    <T> T conCandado(int shard, long clave, long esperaMs, String ocupado,
+                     ShardsTareas.Operacion<T> operacion) throws Throwable {
+        return shards.conCandado(shard, clave, true, esperaMs, ocupado, operacion);
+    }
+}
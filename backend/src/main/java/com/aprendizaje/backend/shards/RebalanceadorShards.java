@@ -0,0 +1,329 @@
+package com.aprendizaje.backend.shards;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Mueve buckets de tareas entre shards sin detener las escrituras
+ *
+ * Por cada bucket:
+ * 1. Copia sus filas al destino por tramos de ID (keyset), mientras se sigue escribiendo en el origen
+ * 2. Repite la copia solo con lo escrito desde el horizonte de transacciones leído antes de la pasada
+ *    anterior (xid_cambio), hasta que queda poco por copiar
+ * 3. Corte: en una transacción del origen bloquea la fila del bucket en buckets_locales, lo que espera
+ *    a las escrituras en curso de todas las instancias, y lo marca como cedido; antes del commit copia
+ *    lo último y aplica en el destino las eliminaciones ocurridas durante la copia. Después cambia el
+ *    dueño en tareas_buckets con una versión nueva del mapa
+ * 4. Espera a que todas las instancias carguen esa versión y borra las filas del bucket en el origen,
+ *    por lotes y sin registrar eliminaciones (no fueron borradas, solo cambiaron de shard)
+ *
+ * Entre el corte y la recarga del mapa de otra instancia, sus escrituras en el origen se rechazan
+ * (bucket cedido) y se reintentan en el nuevo dueño. Las operaciones masivas del origen esperan al
+ * candado consultivo del shard, y un candado en el shard 0 impide dos rebalanceos a la vez.
+ */
+public class RebalanceadorShards implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RebalanceadorShards.class);
+
+    /**
+     * Pasadas de puesta al día antes del corte
+     */
+    private static final int MAXIMO_PASADAS = 5;
+
+    /**
+     * Candado consultivo del shard 0 que toma quien rebalancea
+     */
+    static final long CANDADO_REBALANCEO = 0x72656261L;
+
+    /**
+     * Espera máxima por las operaciones masivas en curso del origen
+     */
+    private static final long ESPERA_MANTENIMIENTO_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ShardsTareas shards;
+    private final OperacionesRebalanceo operaciones;
+    private final int tamanoLote;
+    private final long esperaCorteMs;
+    private final long recargaMapaMs;
+    private final ExecutorService hilo;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private volatile Estado estado = new Estado();
+
+    /**
+     * @param recargaMapaMs - cada cuánto recargan el mapa las instancias (app.tareas.shards.recarga-mapa-ms);
+     *                      se espera hasta tres veces esto a que confirmen la versión nueva
+     */
+    public RebalanceadorShards(ShardsTareas shards, int tamanoLote, long esperaCorteMs, long recargaMapaMs) {
+        this(shards, new OperacionesRebalanceo(shards), tamanoLote, esperaCorteMs, recargaMapaMs);
+    }
+
+    RebalanceadorShards(ShardsTareas shards, OperacionesRebalanceo operaciones, int tamanoLote,
+                        long esperaCorteMs, long recargaMapaMs) {
+        this.shards = shards;
+        this.operaciones = operaciones;
+        this.tamanoLote = tamanoLote;
+        this.esperaCorteMs = esperaCorteMs;
+        this.recargaMapaMs = recargaMapaMs;
+        this.hilo = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "shards-rebalanceo");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Progreso del rebalanceo actual (o del último)
+     */
+    public static class Estado {
+        public volatile boolean enCurso;
+        public volatile Integer bucketActual;
+        public volatile int movidos;
+        public volatile int totales;
+        public volatile long filasCopiadas;
+        public volatile String error;
+        public volatile LocalDateTime inicio;
+        public volatile LocalDateTime fin;
+
+        public Map<String, Object> aMapa() {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            mapa.put("enCurso", enCurso);
+            mapa.put("bucketActual", bucketActual);
+            mapa.put("bucketsMovidos", movidos);
+            mapa.put("bucketsTotales", totales);
+            mapa.put("filasCopiadas", filasCopiadas);
+            mapa.put("error", error);
+            mapa.put("inicio", inicio);
+            mapa.put("fin", fin);
+            return mapa;
+        }
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Empieza a mover buckets a un shard, en segundo plano
+     * @param buckets - buckets a mover (los que ya están en el destino se ignoran)
+     * @param destino - shard destino
+     * @return cantidad de buckets que se moverán
+     * @throws IllegalArgumentException si el destino o algún bucket no existen
+     * @throws IllegalStateException si ya hay un rebalanceo en curso
+     */
+    public int iniciar(List<Integer> buckets, int destino) {
+        if (destino < 0 || destino >= shards.cantidad()) {
+            throw new IllegalArgumentException("El shard " + destino + " no existe");
+        }
+        Map<Integer, Integer> movimientos = new LinkedHashMap<>();
+        for (Integer bucket : buckets) {
+            if (bucket == null || bucket < 0 || bucket >= MapaBuckets.BUCKETS) {
+                throw new IllegalArgumentException("Bucket inválido: " + bucket);
+            }
+            if (shards.getMapa().shardDeBucket(bucket) != destino) {
+                movimientos.put(bucket, destino);
+            }
+        }
+        return lanzar(movimientos);
+    }
+
+    /**
+     * Reparte los buckets en partes iguales entre los shards, moviendo lo mínimo
+     * @return cantidad de buckets que se moverán
+     * @throws IllegalStateException si ya hay un rebalanceo en curso
+     */
+    public int nivelar() {
+        return lanzar(planNivelado(shards.getMapa().copia(), shards.cantidad()));
+    }
+
+    /**
+     * Plan de movimientos para que cada shard quede con BUCKETS / n buckets (± 1)
+     * Los shards con exceso ceden sus últimos buckets a los que tienen menos
+     * @return bucket -> shard destino
+     */
+    static Map<Integer, Integer> planNivelado(int[] asignacion, int cantidadShards) {
+        int[] cantidades = new int[cantidadShards];
+        for (int shard : asignacion) {
+            cantidades[shard]++;
+        }
+        int base = asignacion.length / cantidadShards;
+        int conExtra = asignacion.length % cantidadShards;
+        int[] objetivo = new int[cantidadShards];
+        for (int shard = 0; shard < cantidadShards; shard++) {
+            objetivo[shard] = base + (shard < conExtra ? 1 : 0);
+        }
+
+        Map<Integer, Integer> movimientos = new LinkedHashMap<>();
+        int receptor = 0;
+        for (int bucket = asignacion.length - 1; bucket >= 0; bucket--) {
+            int origen = asignacion[bucket];
+            if (cantidades[origen] <= objetivo[origen]) {
+                continue;
+            }
+            while (receptor < cantidadShards && cantidades[receptor] >= objetivo[receptor]) {
+                receptor++;
+            }
+            if (receptor == cantidadShards) {
+                break;
+            }
+            movimientos.put(bucket, receptor);
+            cantidades[origen]--;
+            cantidades[receptor]++;
+        }
+        return movimientos;
+    }
+
+    private int lanzar(Map<Integer, Integer> movimientos) {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay un rebalanceo en curso");
+        }
+        Estado nuevo = new Estado();
+        nuevo.enCurso = true;
+        nuevo.totales = movimientos.size();
+        nuevo.inicio = LocalDateTime.now();
+        estado = nuevo;
+        try {
+            hilo.execute(() -> ejecutar(movimientos, nuevo));
+        } catch (RuntimeException e) {
+            nuevo.enCurso = false;
+            enCurso.set(false);
+            throw e;
+        }
+        return movimientos.size();
+    }
+
+    private void ejecutar(Map<Integer, Integer> movimientos, Estado progreso) {
+        try {
+            operaciones.conCandado(0, CANDADO_REBALANCEO, 0, "Otra instancia está rebalanceando", () -> {
+                // El mapa pudo cambiar en otra instancia antes de tomar el candado
+                shards.recargarMapa();
+                for (Map.Entry<Integer, Integer> movimiento : movimientos.entrySet()) {
+                    int bucket = movimiento.getKey();
+                    progreso.bucketActual = bucket;
+                    int origen = shards.getMapa().shardDeBucket(bucket);
+                    if (origen != movimiento.getValue()) {
+                        moverBucket(bucket, origen, movimiento.getValue(), progreso);
+                    }
+                    progreso.movidos++;
+                }
+                return null;
+            });
+            log.info("Rebalanceo terminado: {} buckets movidos; {}", progreso.movidos, shards.getMapa());
+        } catch (Throwable e) {
+            progreso.error = e.getMessage();
+            log.error("Rebalanceo detenido en el bucket {}", progreso.bucketActual, e);
+        } finally {
+            progreso.bucketActual = null;
+            progreso.fin = LocalDateTime.now();
+            progreso.enCurso = false;
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Mueve un bucket de origen a destino (ver los pasos en la descripción de la clase)
+     */
+    void moverBucket(int bucket, int origen, int destino, Estado progreso) throws Throwable {
+        // Las operaciones masivas del origen (archivar, borrar completadas) esperan hasta el final
+        Lock rebalanceo = shards.getMapa().candadoRebalanceo(origen);
+        rebalanceo.lockInterruptibly();
+        try {
+            operaciones.conCandado(origen, ShardsTareas.CANDADO_MANTENIMIENTO, ESPERA_MANTENIMIENTO_MS,
+                    "El shard " + origen + " tiene operaciones masivas en curso", () -> {
+                        mover(bucket, origen, destino, progreso);
+                        return null;
+                    });
+        } finally {
+            rebalanceo.unlock();
+        }
+    }
+
+    private void mover(int bucket, int origen, int destino, Estado progreso) throws InterruptedException {
+        operaciones.reclamar(destino, bucket);
+        long horizonteInicial = operaciones.horizonte(origen);
+        long desdeXid = -1;
+        int copiadas = Integer.MAX_VALUE;
+        for (int pasada = 0; pasada < MAXIMO_PASADAS && copiadas > tamanoLote; pasada++) {
+            long marca = pasada == 0 ? horizonteInicial : operaciones.horizonte(origen);
+            copiadas = copiar(origen, destino, bucket, desdeXid, progreso);
+            desdeXid = marca;
+        }
+        long ultimoXid = desdeXid;
+
+        // Las escrituras de esta instancia esperan al corte en vez de reintentar
+        Lock movimiento = shards.getMapa().candadoMovimiento(bucket);
+        if (!movimiento.tryLock(esperaCorteMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("No se pudo detener las escrituras del bucket " + bucket);
+        }
+        long version;
+        try {
+            operaciones.ceder(origen, bucket, esperaCorteMs, () -> {
+                copiar(origen, destino, bucket, ultimoXid, progreso);
+                // Lo que se copió y después se eliminó en el origen
+                List<Long> eliminadas = operaciones.eliminadasDesde(origen, bucket, horizonteInicial);
+                if (!eliminadas.isEmpty()) {
+                    operaciones.eliminar(destino, eliminadas);
+                }
+            });
+            version = operaciones.cambiarDueno(bucket, destino);
+            shards.getMapa().asignar(bucket, destino);
+        } finally {
+            movimiento.unlock();
+        }
+        shards.recargarMapa();
+
+        // Las instancias con el mapa viejo todavía leen el bucket en el origen
+        long vigencia = 3 * recargaMapaMs;
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(vigencia);
+        while (operaciones.instanciasAtrasadas(version, vigencia) > 0) {
+            if (System.nanoTime() >= limite) {
+                log.warn("Hay instancias sin la versión {} del mapa; se purga el bucket {} igual", version, bucket);
+                break;
+            }
+            Thread.sleep(Math.min(recargaMapaMs, 1000));
+        }
+
+        int borradas;
+        do {
+            borradas = operaciones.purgar(origen, bucket, tamanoLote);
+        } while (borradas == tamanoLote);
+    }
+
+    /**
+     * Copia las filas del bucket escritas desde la transacción indicada (todas si es -1)
+     * Cada pasada lee el horizonte antes de copiar: lo escrito por transacciones anteriores ya terminó
+     * y la pasada lo ve, así que la siguiente solo necesita lo escrito desde ese horizonte
+     * @return cantidad de filas copiadas
+     */
+    private int copiar(int origen, int destino, int bucket, long desdeXid, Estado progreso) {
+        int total = 0;
+        long desdeId = Long.MIN_VALUE;
+        while (true) {
+            List<Object[]> filas = operaciones.leer(origen, bucket, desdeId, desdeXid, tamanoLote);
+            if (filas.isEmpty()) {
+                return total;
+            }
+            operaciones.escribir(destino, filas);
+            total += filas.size();
+            progreso.filasCopiadas += filas.size();
+            desdeId = (Long) filas.get(filas.size() - 1)[0];
+            if (filas.size() < tamanoLote) {
+                return total;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        hilo.shutdownNow();
+    }
+}
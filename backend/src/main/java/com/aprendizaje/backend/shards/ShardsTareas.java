@@ -0,0 +1,650 @@
+package com.aprendizaje.backend.shards;
+
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+/**
+ * Operaciones comunes sobre los shards de tareas: ejecutar en un shard, repartir una consulta
+ * entre todos (scatter-gather) y combinar los resultados
+ *
+ * Al arrancar prepara cada shard (schema-shard.sql), separa los rangos de sus secuencias
+ * y carga el mapa de buckets de la tabla tareas_buckets del shard 0.
+ *
+ * Los candados de MapaBuckets solo coordinan los hilos de esta instancia. Para las demás, cada escritura
+ * lee en su transacción la fila de sus buckets en buckets_locales con bloqueo compartido: el corte de un
+ * movimiento la bloquea en exclusiva y la marca como cedida, y una escritura con el mapa viejo se rechaza
+ * (se recarga el mapa y se reintenta una vez). Las operaciones masivas y el rebalanceo se coordinan con
+ * un candado consultivo por shard. Cada instancia anota en tareas_buckets_instancias la versión del mapa
+ * que cargó, para que el rebalanceo sepa cuándo todas ven al nuevo dueño.
+ */
+public class ShardsTareas implements SmartInitializingSingleton, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardsTareas.class);
+
+    /**
+     * La secuencia de IDs del shard s empieza en s << 48, así los bloques de cada shard no se cruzan
+     */
+    static final int BITS_RANGO_IDS = 48;
+
+    /**
+     * Lee la fila de un bucket con bloqueo compartido hasta el commit (FOR KEY SHARE no escribe la tupla
+     * de nuevo mientras nadie la modifique); la usan las escrituras y IdsPorShard
+     */
+    static final String ESTADO_BUCKET = "SELECT cedido FROM buckets_locales WHERE bucket = ? FOR KEY SHARE";
+
+    private static final String ESTADO_BUCKETS = "SELECT bucket, cedido FROM buckets_locales "
+            + "WHERE bucket = ANY(?) FOR KEY SHARE";
+
+    /**
+     * Clave del candado consultivo que comparten las operaciones masivas de un shard y que el rebalanceo
+     * toma en exclusiva mientras saca filas de él
+     */
+    public static final long CANDADO_MANTENIMIENTO = 0x7368617264L;
+
+    /**
+     * Pausa entre intentos de tomar un candado consultivo ocupado
+     */
+    private static final long ESPERA_REINTENTO_MS = 50;
+
+    /**
+     * Una operación que se ejecuta con el shard ya elegido
+     */
+    @FunctionalInterface
+    public interface Operacion<T> {
+        T ejecutar() throws Throwable;
+    }
+
+    /**
+     * Una consulta que se repite en cada shard
+     */
+    @FunctionalInterface
+    public interface ConsultaShard<T> {
+        T ejecutar(int shard) throws Throwable;
+    }
+
+    private final EnrutadorShardsDataSource enrutador;
+    private final MapaBuckets mapa;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate[] transaccionesShard;
+    private final long esperaBloqueoMs;
+    private final ExecutorService consultas;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    /**
+     * Identifica a esta instancia en tareas_buckets_instancias
+     */
+    private final String instancia = UUID.randomUUID().toString();
+
+    /**
+     * @param jdbcTemplate - sobre el DataSource principal (enrutado), para leer buckets_locales en la
+     *                     transacción de cada escritura
+     * @param transactionTemplate - transacción de cada escritura
+     */
+    public ShardsTareas(EnrutadorShardsDataSource enrutador, MapaBuckets mapa, JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate, int hilosConsulta, long esperaBloqueoMs) {
+        this.enrutador = enrutador;
+        this.mapa = mapa;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.esperaBloqueoMs = esperaBloqueoMs;
+        this.transaccionesShard = new TransactionTemplate[enrutador.cantidad()];
+        for (int shard = 0; shard < transaccionesShard.length; shard++) {
+            transaccionesShard[shard] = new TransactionTemplate(new DataSourceTransactionManager(enrutador.shard(shard)));
+        }
+        AtomicInteger contador = new AtomicInteger();
+        this.consultas = Executors.newFixedThreadPool(Math.max(1, hilosConsulta), r -> {
+            Thread hilo = new Thread(r, "shards-consulta-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Prepara los shards después de que Hibernate y schema.sql inicializaron el shard 0
+     * y antes de que el servidor reciba peticiones
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (int shard = 0; shard < enrutador.cantidad(); shard++) {
+            new ResourceDatabasePopulator(new ClassPathResource("schema-shard.sql")).execute(enrutador.shard(shard));
+        }
+        separarSecuencias();
+        MapaLeido leido = leerMapa();
+        if (leido == null) {
+            crearMapa();
+            leido = leerMapa();
+        }
+        mapa.cargar(leido.asignacion);
+        jdbc(0).update("DELETE FROM tareas_buckets_instancias WHERE fecha < LOCALTIMESTAMP - INTERVAL '1 day'");
+        registrarVersion(leido.version);
+        log.info("Tareas repartidas en {} shards; buckets por shard: {}", enrutador.cantidad(), mapa);
+    }
+
+    /**
+     * Vuelve a leer el mapa de buckets, por si otra instancia movió alguno, y anota la versión cargada
+     */
+    @Scheduled(fixedDelayString = "${app.tareas.shards.recarga-mapa-ms:10000}",
+            initialDelayString = "${app.tareas.shards.recarga-mapa-ms:10000}")
+    public synchronized void recargarMapa() {
+        try {
+            MapaLeido leido = leerMapa();
+            if (leido != null) {
+                mapa.cargar(leido.asignacion);
+                registrarVersion(leido.version);
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudo recargar el mapa de buckets: {}", e.getMessage());
+        }
+    }
+
+    public MapaBuckets getMapa() {
+        return mapa;
+    }
+
+    public int cantidad() {
+        return enrutador.cantidad();
+    }
+
+    /**
+     * JdbcTemplate sobre un shard concreto, sin pasar por el enrutamiento
+     */
+    public JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(enrutador.shard(shard));
+    }
+
+    /**
+     * Transacción sobre un shard concreto, para las sentencias de jdbc(shard)
+     */
+    public TransactionTemplate transaccion(int shard) {
+        return transaccionesShard[shard];
+    }
+
+    /**
+     * Shard donde vive un ID
+     */
+    public int shardDe(long id) {
+        return mapa.shardDe(id);
+    }
+
+    /**
+     * Shard para una tarea nueva: recorre los buckets en turno, así cada shard recibe
+     * inserts en proporción a los buckets que tiene
+     */
+    public int shardParaNueva() {
+        return mapa.shardDeBucket(Math.floorMod(turno.getAndIncrement(), MapaBuckets.BUCKETS));
+    }
+
+    /**
+     * Agrupa IDs por shard, conservando el orden dentro de cada grupo
+     */
+    public Map<Integer, List<Long>> agruparPorShard(Collection<Long> ids) {
+        Map<Integer, List<Long>> grupos = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id != null) {
+                grupos.computeIfAbsent(shardDe(id), s -> new ArrayList<>()).add(id);
+            }
+        }
+        return grupos;
+    }
+
+    /**
+     * Ejecuta la operación con las conexiones del hilo dirigidas a un shard
+     * Los candados de bucket tomados durante la operación se liberan al terminar
+     * @throws IllegalStateException si ya hay una transacción abierta en otro shard
+     */
+    public <T> T enShard(int shard, Operacion<T> operacion) throws Throwable {
+        Integer actual = ContextoShard.actual();
+        if (TransactionSynchronizationManager.isActualTransactionActive() && (actual != null ? actual : 0) != shard) {
+            throw new IllegalStateException("No se puede cambiar de shard dentro de una transacción");
+        }
+        int marca = ContextoShard.cantidadBloqueos();
+        Integer anterior = ContextoShard.usar(shard);
+        try {
+            return operacion.ejecutar();
+        } finally {
+            ContextoShard.usar(anterior);
+            ContextoShard.liberarBloqueosDesde(marca);
+        }
+    }
+
+    /**
+     * Ejecuta una escritura sobre tareas existentes (o nuevas, si no hay IDs)
+     * Toma antes los candados de sus buckets, para que el rebalanceo no los corte a mitad de la escritura,
+     * y abre la transacción leyendo sus filas de buckets_locales (ver la descripción de la clase)
+     * @param ids - tareas que se modifican; todas deben estar en el mismo shard
+     * @throws IllegalArgumentException si las tareas están en shards distintos
+     * @throws IllegalStateException si algún bucket sigue en movimiento después de la espera
+     */
+    public <T> T escribir(Collection<Long> ids, Operacion<T> operacion) throws Throwable {
+        Long limite = null;
+        while (true) {
+            try {
+                return escribirUnaVez(ids, operacion);
+            } catch (BucketCedido e) {
+                // Otra instancia movió el bucket: se reintenta cuando tareas_buckets muestre el nuevo dueño
+                // (dentro de una transacción ajena no se puede, ya quedó marcada para deshacer)
+                if (limite == null) {
+                    limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaBloqueoMs);
+                }
+                if (TransactionSynchronizationManager.isActualTransactionActive() || System.nanoTime() >= limite) {
+                    throw e;
+                }
+                Thread.sleep(ESPERA_REINTENTO_MS);
+                recargarMapa();
+            }
+        }
+    }
+
+    private <T> T escribirUnaVez(Collection<Long> ids, Operacion<T> operacion) throws Throwable {
+        int marca = ContextoShard.cantidadBloqueos();
+        try {
+            TreeSet<Integer> buckets = new TreeSet<>();
+            for (Long id : ids) {
+                if (id != null) {
+                    buckets.add(MapaBuckets.bucketDe(id));
+                }
+            }
+            for (int bucket : buckets) {
+                bloquearEscritura(bucket);
+            }
+            // Con los candados tomados el mapa de estos buckets ya no cambia
+            Integer shard = null;
+            for (int bucket : buckets) {
+                int dueno = mapa.shardDeBucket(bucket);
+                if (shard != null && shard != dueno) {
+                    throw new IllegalArgumentException("Las tareas de una misma operación deben estar en un solo shard");
+                }
+                shard = dueno;
+            }
+            return enShard(shard != null ? shard : shardParaNueva(), () -> enTransaccion(buckets, operacion));
+        } finally {
+            ContextoShard.liberarBloqueosDesde(marca);
+        }
+    }
+
+    /**
+     * Ejecuta la operación en una transacción que primero bloquea (compartido) las filas de sus buckets
+     */
+    private <T> T enTransaccion(Set<Integer> buckets, Operacion<T> operacion) throws Throwable {
+        Throwable[] error = new Throwable[1];
+        T resultado = transactionTemplate.execute(estado -> {
+            verificarBuckets(buckets);
+            try {
+                return operacion.ejecutar();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                error[0] = t;
+                estado.setRollbackOnly();
+                return null;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return resultado;
+    }
+
+    /**
+     * Lee con bloqueo compartido las filas de los buckets en buckets_locales del shard actual
+     * El bloqueo dura hasta el commit: el corte de un movimiento espera a esta transacción
+     * @throws IllegalStateException (BucketCedido) si algún bucket ya se cedió a otro shard
+     */
+    private void verificarBuckets(Set<Integer> buckets) {
+        Set<Integer> verificados = ContextoShard.bucketsVerificados();
+        List<Integer> pendientes = new ArrayList<>();
+        for (int bucket : buckets) {
+            if (!verificados.contains(bucket)) {
+                pendientes.add(bucket);
+            }
+        }
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        List<Integer> cedidos = new ArrayList<>();
+        jdbcTemplate.query(ESTADO_BUCKETS, rs -> {
+            if (rs.getBoolean("cedido")) {
+                cedidos.add(rs.getInt("bucket"));
+            }
+        }, (Object) pendientes.toArray(new Integer[0]));
+        if (!cedidos.isEmpty()) {
+            throw new BucketCedido(cedidos.get(0));
+        }
+        verificados.addAll(pendientes);
+    }
+
+    /**
+     * Ejecuta una operación masiva en un shard (borrar completadas, archivar)
+     * Espera si el rebalanceo (de esta o de otra instancia) está sacando filas de ese shard
+     */
+    public <T> T mantenimiento(int shard, Operacion<T> operacion) throws Throwable {
+        Lock candado = mapa.candadoMantenimiento(shard);
+        if (!candado.tryLock(esperaBloqueoMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("El shard " + shard + " se está rebalanceando");
+        }
+        try {
+            return conCandado(shard, CANDADO_MANTENIMIENTO, false, esperaBloqueoMs,
+                    "El shard " + shard + " se está rebalanceando", () -> enShard(shard, operacion));
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la operación con un candado consultivo de sesión del shard, común a todas las instancias
+     * La conexión que retiene el candado queda apartada hasta terminar; la operación usa otras
+     * @param clave - clave del candado (pg_advisory_lock)
+     * @param exclusivo - true para el exclusivo, false para el compartido
+     * @param esperaMs - espera máxima si está ocupado
+     * @param ocupado - mensaje del error si no se pudo tomar a tiempo
+     * @throws IllegalStateException si no se pudo tomar el candado a tiempo
+     */
+    public <T> T conCandado(int shard, long clave, boolean exclusivo, long esperaMs, String ocupado,
+                            Operacion<T> operacion) throws Throwable {
+        String tomar = exclusivo ? "SELECT pg_try_advisory_lock(?)" : "SELECT pg_try_advisory_lock_shared(?)";
+        String soltar = exclusivo ? "SELECT pg_advisory_unlock(?)" : "SELECT pg_advisory_unlock_shared(?)";
+        Throwable[] error = new Throwable[1];
+        T resultado = jdbc(shard).execute((ConnectionCallback<T>) conexion -> {
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+            while (!consultarCandado(conexion, tomar, clave)) {
+                if (System.nanoTime() >= limite) {
+                    throw new IllegalStateException(ocupado);
+                }
+                try {
+                    Thread.sleep(ESPERA_REINTENTO_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(ocupado, e);
+                }
+            }
+            try {
+                return operacion.ejecutar();
+            } catch (Throwable t) {
+                error[0] = t;
+                return null;
+            } finally {
+                consultarCandado(conexion, soltar, clave);
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return resultado;
+    }
+
+    private static boolean consultarCandado(Connection conexion, String sql, long clave) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.setLong(1, clave);
+            try (ResultSet resultado = sentencia.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la consulta en todos los shards en paralelo
+     * @return un resultado por shard, en orden de shard
+     */
+    public <T> List<T> enTodos(ConsultaShard<T> consulta) throws Throwable {
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < enrutador.cantidad(); shard++) {
+            shards.add(shard);
+        }
+        return enCada(shards, shard -> enShard(shard, () -> consulta.ejecutar(shard)));
+    }
+
+    /**
+     * Ejecuta la operación sobre cada grupo de IDs en su shard, en paralelo
+     * @return un resultado por grupo
+     */
+    public <T> List<T> porGrupos(Map<Integer, List<Long>> grupos, GrupoShard<T> operacion) throws Throwable {
+        return enCada(new ArrayList<>(grupos.keySet()),
+                shard -> enShard(shard, () -> operacion.ejecutar(shard, grupos.get(shard))));
+    }
+
+    /**
+     * Una operación sobre los IDs de un shard
+     */
+    @FunctionalInterface
+    public interface GrupoShard<T> {
+        T ejecutar(int shard, List<Long> ids) throws Throwable;
+    }
+
+    /**
+     * Reparte las tareas en el pool de consultas y espera todos los resultados
+     * El primer error se relanza tal cual y cancela el resto
+     */
+    private <T> List<T> enCada(List<Integer> shards, ConsultaShard<T> consulta) throws Throwable {
+        if (shards.size() == 1) {
+            return List.of(consulta.ejecutar(shards.get(0)));
+        }
+        List<Future<T>> futuros = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            futuros.add(consultas.submit(() -> {
+                try {
+                    return consulta.ejecutar(shard);
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            }));
+        }
+        List<T> resultados = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+        } catch (ExecutionException e) {
+            futuros.forEach(f -> f.cancel(true));
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            futuros.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a los shards interrumpida", e);
+        }
+        return resultados;
+    }
+
+    /**
+     * Mezcla listas ya ordenadas (una por shard) y devuelve una página del resultado global
+     * Cada shard debe haber devuelto al menos desde + cantidad elementos (o todos los que tenga)
+     * @param listas - resultados de cada shard, ordenados según orden
+     * @param orden - criterio de orden común
+     * @param desde - elementos del resultado global a saltar
+     * @param cantidad - máximo de elementos a devolver
+     * @return página ordenada
+     */
+    public static <T> List<T> mezclar(List<List<T>> listas, Comparator<? super T> orden, long desde, int cantidad) {
+        // Cada entrada de la cola es {lista, posición}
+        PriorityQueue<int[]> cola = new PriorityQueue<>(Math.max(1, listas.size()),
+                (a, b) -> orden.compare(listas.get(a[0]).get(a[1]), listas.get(b[0]).get(b[1])));
+        for (int i = 0; i < listas.size(); i++) {
+            if (!listas.get(i).isEmpty()) {
+                cola.add(new int[]{i, 0});
+            }
+        }
+        List<T> pagina = new ArrayList<>(Math.min(cantidad, 1024));
+        long saltados = 0;
+        while (!cola.isEmpty() && pagina.size() < cantidad) {
+            int[] cursor = cola.poll();
+            List<T> lista = listas.get(cursor[0]);
+            if (saltados < desde) {
+                saltados++;
+            } else {
+                pagina.add(lista.get(cursor[1]));
+            }
+            if (cursor[1] + 1 < lista.size()) {
+                cola.add(new int[]{cursor[0], cursor[1] + 1});
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Une los resultados por shard de una lectura o eliminación por IDs, en el orden pedido
+     * @param pedidos - IDs pedidos originalmente
+     * @param partes - resultado de cada shard
+     * @param obtenerId - cómo obtener el ID de cada elemento
+     */
+    public static <T> ResultadoMultiple<T> combinar(List<Long> pedidos, List<ResultadoMultiple<T>> partes,
+                                                    Function<T, Long> obtenerId) {
+        Map<Long, T> porId = new HashMap<>();
+        for (ResultadoMultiple<T> parte : partes) {
+            for (T elemento : parte.getEncontrados()) {
+                porId.put(obtenerId.apply(elemento), elemento);
+            }
+        }
+        List<T> encontrados = new ArrayList<>(porId.size());
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(pedidos)) {
+            if (id == null) {
+                continue;
+            }
+            T elemento = porId.get(id);
+            if (elemento != null) {
+                encontrados.add(elemento);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        return new ResultadoMultiple<>(encontrados, faltantes);
+    }
+
+    @Override
+    public void close() {
+        consultas.shutdownNow();
+    }
+
+    /**
+     * Toma el candado de escritura de un bucket para la operación en curso
+     */
+    private void bloquearEscritura(int bucket) throws InterruptedException {
+        Lock candado = mapa.candadoEscritura(bucket);
+        if (!candado.tryLock(esperaBloqueoMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("El bucket " + bucket + " se está moviendo de shard; reintente");
+        }
+        ContextoShard.registrarBloqueo(candado);
+    }
+
+    /**
+     * Separa los rangos de las secuencias de cada shard
+     * - tareas_id_seq_pool del shard s empieza en s << 48 (IDs únicos entre shards con SECUENCIA)
+     *   y usa el INCREMENT BY del shard 0, que IdsConfig compara con app.ids.tamano-bloque
+     * - cambios_seq de los demás shards empieza por encima de la del shard 0, así un token de
+     *   sincronización anterior a los shards sigue siendo válido en todos
+     */
+    private void separarSecuencias() {
+        Long version = jdbc(0).queryForObject("SELECT last_value FROM cambios_seq", Long.class);
+        Long incremento = jdbc(0).queryForObject("SELECT increment_by FROM pg_sequences "
+                + "WHERE schemaname = current_schema() AND sequencename = 'tareas_id_seq_pool'", Long.class);
+        for (int shard = 1; shard < enrutador.cantidad(); shard++) {
+            JdbcTemplate jdbc = jdbc(shard);
+            jdbc.queryForList("SELECT setval('cambios_seq', ?) WHERE ? > (SELECT last_value FROM cambios_seq)",
+                    version, version);
+            long inicioIds = (long) shard << BITS_RANGO_IDS;
+            jdbc.queryForList("SELECT setval('tareas_id_seq_pool', ?) "
+                    + "WHERE ? > (SELECT last_value FROM tareas_id_seq_pool)", inicioIds, inicioIds);
+            jdbc.execute("ALTER SEQUENCE tareas_id_seq_pool INCREMENT BY " + incremento);
+        }
+    }
+
+    /**
+     * Lee el mapa de buckets del shard 0
+     * @return shard de cada bucket y versión del mapa, o null si la tabla todavía no está completa
+     */
+    private MapaLeido leerMapa() {
+        MapaLeido leido = new MapaLeido();
+        AtomicInteger filas = new AtomicInteger();
+        jdbc(0).query("SELECT bucket, shard, version FROM tareas_buckets", rs -> {
+            leido.asignacion[rs.getInt("bucket")] = rs.getInt("shard");
+            leido.version = Math.max(leido.version, rs.getLong("version"));
+            filas.incrementAndGet();
+        });
+        return filas.get() == MapaBuckets.BUCKETS ? leido : null;
+    }
+
+    /**
+     * Anota en el shard 0 la versión del mapa que tiene cargada esta instancia
+     * La fecha sirve para no esperar a instancias que ya no están (ver RebalanceadorShards)
+     */
+    private void registrarVersion(long version) {
+        jdbc(0).update("INSERT INTO tareas_buckets_instancias (instancia, version, fecha) "
+                + "VALUES (?, ?, LOCALTIMESTAMP) ON CONFLICT (instancia) "
+                + "DO UPDATE SET version = EXCLUDED.version, fecha = EXCLUDED.fecha", instancia, version);
+    }
+
+    /**
+     * Crea el mapa inicial
+     * Si el shard 0 ya tiene tareas, todos los buckets quedan en él (las tareas existentes siguen
+     * accesibles) y se reparten después con el rebalanceo; si no, se reparten en turno desde el inicio
+     */
+    private void crearMapa() {
+        JdbcTemplate shardCero = jdbc(0);
+        boolean hayTareas = Boolean.TRUE.equals(
+                shardCero.queryForObject("SELECT EXISTS (SELECT 1 FROM tareas)", Boolean.class));
+        List<Object[]> filas = new ArrayList<>(MapaBuckets.BUCKETS);
+        for (int bucket = 0; bucket < MapaBuckets.BUCKETS; bucket++) {
+            filas.add(new Object[]{bucket, hayTareas ? 0 : bucket % enrutador.cantidad()});
+        }
+        shardCero.batchUpdate("INSERT INTO tareas_buckets (bucket, shard) VALUES (?, ?) ON CONFLICT (bucket) DO NOTHING",
+                filas);
+        if (hayTareas && enrutador.cantidad() > 1) {
+            log.warn("Las tareas existentes quedan en el shard 0; use POST /api/admin/shards/rebalanceo para repartirlas");
+        }
+    }
+
+    /**
+     * Mapa leído de tareas_buckets: shard de cada bucket y la mayor versión (la del último cambio de dueño)
+     */
+    private static final class MapaLeido {
+        final int[] asignacion = new int[MapaBuckets.BUCKETS];
+        long version;
+    }
+
+    /**
+     * El bucket ya es de otro shard según buckets_locales, pero el mapa de esta instancia no lo sabía
+     */
+    private static final class BucketCedido extends IllegalStateException {
+        BucketCedido(int bucket) {
+            super("El bucket " + bucket + " se movió de shard; reintente");
+        }
+    }
+}
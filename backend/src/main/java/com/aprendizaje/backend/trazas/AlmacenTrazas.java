@@ -0,0 +1,188 @@
+package com.aprendizaje.backend.trazas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacén acotado de trazas en memoria con muestreo por cola (tail-based)
+ *
+ * La decisión de guardar una traza se toma al terminar la petición, cuando ya se sabe
+ * cuánto tardó y si falló: se guardan todas las lentas y las que fallaron, y del resto
+ * solo una fracción (muestreoNormal). Al llenarse se descartan las más antiguas.
+ *
+ * Si se configura un archivo, cada traza guardada también se agrega como una línea JSON (NDJSON).
+ * La escritura la hace un hilo propio desde una cola acotada: si el disco no da abasto,
+ * se pierden líneas del archivo pero las peticiones nunca esperan.
+ */
+public class AlmacenTrazas {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenTrazas.class);
+
+    private final int capacidad;
+    private final long umbralLentaMicros;
+    private final double muestreoNormal;
+    private final ArrayDeque<Traza> trazas;
+
+    private final AtomicLong vistas = new AtomicLong();
+    private final AtomicLong guardadas = new AtomicLong();
+    private final AtomicLong exportacionesPerdidas = new AtomicLong();
+
+    private final ArrayBlockingQueue<Traza> porExportar;
+    private final Thread exportador;
+
+    /**
+     * @param capacidad - máximo de trazas en memoria
+     * @param umbralLentaMs - desde esta duración una traza siempre se guarda
+     * @param muestreoNormal - fracción (0 a 1) de trazas rápidas y sin error que se guardan
+     * @param archivo - archivo NDJSON de exportación, o null para no exportar
+     */
+    public AlmacenTrazas(int capacidad, long umbralLentaMs, double muestreoNormal, Path archivo) {
+        this.capacidad = Math.max(1, capacidad);
+        this.umbralLentaMicros = umbralLentaMs * 1_000;
+        this.muestreoNormal = muestreoNormal;
+        this.trazas = new ArrayDeque<>(this.capacidad);
+        if (archivo != null) {
+            this.porExportar = new ArrayBlockingQueue<>(this.capacidad);
+            this.exportador = new Thread(() -> exportar(archivo), "trazas-exportador");
+            this.exportador.setDaemon(true);
+            this.exportador.start();
+        } else {
+            this.porExportar = null;
+            this.exportador = null;
+        }
+    }
+
+    /**
+     * Decide si se guarda una traza terminada
+     * @param traza - traza de una petición
+     * @return true si se guardó
+     */
+    public boolean registrar(Traza traza) {
+        vistas.incrementAndGet();
+        boolean guardar = traza.isError() || traza.getDuracionMicros() >= umbralLentaMicros
+                || (muestreoNormal > 0 && ThreadLocalRandom.current().nextDouble() < muestreoNormal);
+        if (!guardar) {
+            return false;
+        }
+        guardadas.incrementAndGet();
+        synchronized (trazas) {
+            if (trazas.size() == capacidad) {
+                trazas.pollFirst();
+            }
+            trazas.addLast(traza);
+        }
+        if (porExportar != null && !porExportar.offer(traza)) {
+            exportacionesPerdidas.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Trazas guardadas, de la más reciente a la más antigua
+     * @param limite - máximo de trazas
+     * @param soloErrores - si es true solo se devuelven las que fallaron
+     */
+    public List<Traza> recientes(int limite, boolean soloErrores) {
+        List<Traza> resultado = new ArrayList<>();
+        synchronized (trazas) {
+            Iterator<Traza> iterador = trazas.descendingIterator();
+            while (iterador.hasNext() && resultado.size() < limite) {
+                Traza traza = iterador.next();
+                if (!soloErrores || traza.isError()) {
+                    resultado.add(traza);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca una traza guardada por su ID
+     * @param traceId - valor de la cabecera X-Trace-Id de la respuesta
+     * @return la traza, o null si no se guardó o ya se descartó
+     */
+    public Traza buscar(String traceId) {
+        synchronized (trazas) {
+            for (Traza traza : trazas) {
+                if (traza.getTraceId().equals(traceId)) {
+                    return traza;
+                }
+            }
+        }
+        return null;
+    }
+
+    public long getVistas() {
+        return vistas.get();
+    }
+
+    public long getGuardadas() {
+        return guardadas.get();
+    }
+
+    public long getExportacionesPerdidas() {
+        return exportacionesPerdidas.get();
+    }
+
+    /**
+     * Detiene el hilo de exportación después de escribir las trazas pendientes
+     */
+    public void cerrar() {
+        if (exportador != null) {
+            exportador.interrupt();
+        }
+    }
+
+    /**
+     * Bucle del hilo exportador: agrega cada traza al archivo como una línea JSON
+     */
+    private void exportar(Path archivo) {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            try {
+                while (true) {
+                    Traza traza = porExportar.poll(1, TimeUnit.SECONDS);
+                    if (traza == null) {
+                        escritor.flush();
+                    } else {
+                        escribir(mapper, escritor, traza);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Al cerrar se escriben las que quedaron en la cola; la interrupción ya se limpió,
+                // así que el canal del archivo no se cierra mientras tanto
+                Traza traza;
+                while ((traza = porExportar.poll()) != null) {
+                    escribir(mapper, escritor, traza);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Se detuvo la exportación de trazas a {}", archivo, e);
+        }
+    }
+
+    private static void escribir(ObjectMapper mapper, BufferedWriter escritor, Traza traza) throws IOException {
+        escritor.write(mapper.writeValueAsString(traza));
+        escritor.newLine();
+    }
+}
@@ -0,0 +1,113 @@
+package com.aprendizaje.backend.trazas;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traza en curso del hilo actual
+ *
+ * La abre TrazasFilter al recibir la petición y la cierra al terminar; mientras tanto
+ * TrazasAspect, TrazasInterceptor y la sincronización de transacciones agregan spans.
+ * Fuera de una petición (tareas programadas, otros hilos) no hay traza y no se registra nada.
+ */
+public final class ContextoTraza {
+
+    private static final ThreadLocal<ContextoTraza> ACTUAL = new ThreadLocal<>();
+
+    private final String traceId;
+    private final Instant inicio = Instant.now();
+    private final long inicioNanos = System.nanoTime();
+    private final int maximoSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private int padreActual = -1;
+    private int descartados;
+    private boolean hayError;
+
+    /**
+     * Fin del último span de controlador, para medir la escritura de la respuesta
+     */
+    long finControladorMicros = -1;
+
+    private ContextoTraza(String traceId, int maximoSpans) {
+        this.traceId = traceId;
+        this.maximoSpans = maximoSpans;
+    }
+
+    /**
+     * Inicia una traza en el hilo actual
+     * @param traceId - identificador de la traza
+     * @param maximoSpans - máximo de spans que se guardan (los demás solo se cuentan)
+     */
+    static ContextoTraza iniciar(String traceId, int maximoSpans) {
+        ContextoTraza contexto = new ContextoTraza(traceId, maximoSpans);
+        ACTUAL.set(contexto);
+        return contexto;
+    }
+
+    /**
+     * Traza del hilo actual
+     * @return la traza en curso, o null si el hilo no está atendiendo una petición
+     */
+    public static ContextoTraza actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Quita la traza del hilo actual
+     */
+    static void limpiar() {
+        ACTUAL.remove();
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Abre un span hijo del span abierto actualmente
+     * @return posición del span, o -1 si se superó el máximo (cerrar(-1, ...) no hace nada)
+     */
+    int abrir(String nombre, String capa) {
+        return abrir(nombre, capa, ahoraMicros());
+    }
+
+    int abrir(String nombre, String capa, long inicioMicros) {
+        if (spans.size() >= maximoSpans) {
+            descartados++;
+            return -1;
+        }
+        spans.add(new Span(nombre, capa, padreActual, inicioMicros));
+        padreActual = spans.size() - 1;
+        return padreActual;
+    }
+
+    /**
+     * Cierra un span abierto con abrir() y vuelve a su padre
+     * @param posicion - valor devuelto por abrir()
+     * @param error - clase de la excepción, o null si terminó bien
+     */
+    void cerrar(int posicion, String error) {
+        if (error != null) {
+            hayError = true;
+        }
+        if (posicion < 0) {
+            return;
+        }
+        Span span = spans.get(posicion);
+        span.terminar(ahoraMicros(), error);
+        padreActual = span.getPadre();
+    }
+
+    long ahoraMicros() {
+        return (System.nanoTime() - inicioNanos) / 1_000;
+    }
+
+    /**
+     * Convierte la traza en curso en una Traza terminada
+     */
+    Traza terminar(String metodo, String ruta, int estado) {
+        return new Traza(traceId, metodo, ruta, estado, inicio, ahoraMicros(), hayError || estado >= 500,
+                List.copyOf(spans), descartados);
+    }
+}
@@ -0,0 +1,64 @@
+package com.aprendizaje.backend.trazas;
+
+/**
+ * Tramo de una traza: una llamada a un controlador, servicio o repositorio,
+ * el commit de una transacción o la escritura de la respuesta
+ * Los tiempos son relativos al inicio de la traza, en microsegundos
+ */
+public class Span {
+
+    private final String nombre;
+    private final String capa;
+    private final int padre;
+    private final long inicioMicros;
+    private long duracionMicros;
+    private String error;
+
+    Span(String nombre, String capa, int padre, long inicioMicros) {
+        this.nombre = nombre;
+        this.capa = capa;
+        this.padre = padre;
+        this.inicioMicros = inicioMicros;
+    }
+
+    /**
+     * Por ejemplo "TareaService.cambiarEstadoTarea" o "commit"
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * http, controlador, servicio, repositorio, transaccion o respuesta
+     */
+    public String getCapa() {
+        return capa;
+    }
+
+    /**
+     * Posición del span padre en la lista de la traza (-1 para la raíz)
+     */
+    public int getPadre() {
+        return padre;
+    }
+
+    public long getInicioMicros() {
+        return inicioMicros;
+    }
+
+    public long getDuracionMicros() {
+        return duracionMicros;
+    }
+
+    /**
+     * Clase de la excepción, si el tramo terminó con error
+     */
+    public String getError() {
+        return error;
+    }
+
+    void terminar(long finMicros, String error) {
+        this.duracionMicros = finMicros - inicioMicros;
+        this.error = error;
+    }
+}
@@ -0,0 +1,81 @@
+package com.aprendizaje.backend.trazas;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Traza completa de una petición HTTP, tal como se guarda en AlmacenTrazas
+ */
+public class Traza {
+
+    private final String traceId;
+    private final String metodo;
+    private final String ruta;
+    private final int estado;
+    private final Instant inicio;
+    private final long duracionMicros;
+    private final boolean error;
+    private final List<Span> spans;
+    private final int spansDescartados;
+
+    Traza(String traceId, String metodo, String ruta, int estado, Instant inicio, long duracionMicros,
+          boolean error, List<Span> spans, int spansDescartados) {
+        this.traceId = traceId;
+        this.metodo = metodo;
+        this.ruta = ruta;
+        this.estado = estado;
+        this.inicio = inicio;
+        this.duracionMicros = duracionMicros;
+        this.error = error;
+        this.spans = spans;
+        this.spansDescartados = spansDescartados;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getMetodo() {
+        return metodo;
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    /**
+     * Código HTTP de la respuesta
+     */
+    public int getEstado() {
+        return estado;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    public long getDuracionMicros() {
+        return duracionMicros;
+    }
+
+    /**
+     * true si la respuesta fue 5xx o algún span terminó con excepción
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Spans en orden de inicio; el primero es la petición HTTP completa
+     */
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    /**
+     * Spans que no se guardaron por superar el máximo por traza
+     */
+    public int getSpansDescartados() {
+        return spansDescartados;
+    }
+}
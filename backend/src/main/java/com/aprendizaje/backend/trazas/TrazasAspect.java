@@ -0,0 +1,138 @@
+package com.aprendizaje.backend.trazas;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aspecto que agrega un span por cada llamada a un controlador, servicio o repositorio
+ *
+ * Tiene la máxima precedencia para envolver a @Transactional: así el span de un servicio
+ * transaccional incluye su commit, que además se registra como span propio ("commit",
+ * que incluye el flush de Hibernate) mediante una sincronización de la transacción.
+ *
+ * Sin una traza en el hilo (tareas programadas, hilos propios) solo consulta un ThreadLocal.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TrazasAspect {
+
+    private static final String PAQUETE = "com.aprendizaje.backend.";
+
+    @Around("within(com.aprendizaje.backend.controller..*)")
+    public Object controlador(ProceedingJoinPoint llamada) throws Throwable {
+        ContextoTraza contexto = ContextoTraza.actual();
+        if (contexto == null) {
+            return llamada.proceed();
+        }
+        try {
+            return medir(contexto, llamada, "controlador");
+        } finally {
+            contexto.finControladorMicros = contexto.ahoraMicros();
+        }
+    }
+
+    @Around("within(com.aprendizaje.backend.service..*)")
+    public Object servicio(ProceedingJoinPoint llamada) throws Throwable {
+        ContextoTraza contexto = ContextoTraza.actual();
+        return contexto == null ? llamada.proceed() : medir(contexto, llamada, "servicio");
+    }
+
+    @Around("bean(*Repository)")
+    public Object repositorio(ProceedingJoinPoint llamada) throws Throwable {
+        ContextoTraza contexto = ContextoTraza.actual();
+        return contexto == null ? llamada.proceed() : medir(contexto, llamada, "repositorio");
+    }
+
+    private Object medir(ContextoTraza contexto, ProceedingJoinPoint llamada, String capa) throws Throwable {
+        registrarCommit(contexto);
+        int span = contexto.abrir(tipo(llamada).getSimpleName() + "." + llamada.getSignature().getName(), capa);
+        String error = null;
+        try {
+            Object resultado = llamada.proceed();
+            registrarCommit(contexto);
+            return resultado;
+        } catch (Throwable e) {
+            error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            contexto.cerrar(span, error);
+        }
+    }
+
+    /**
+     * Tipo que se muestra en el span; para métodos heredados de Spring Data (findById, save...)
+     * se usa la interfaz del repositorio de la aplicación en lugar de CrudRepository
+     */
+    private static Class<?> tipo(ProceedingJoinPoint llamada) {
+        Class<?> tipo = llamada.getSignature().getDeclaringType();
+        if (!tipo.getName().startsWith(PAQUETE) && llamada.getThis() != null) {
+            for (Class<?> interfaz : llamada.getThis().getClass().getInterfaces()) {
+                if (interfaz.getName().startsWith(PAQUETE)) {
+                    return interfaz;
+                }
+            }
+        }
+        return tipo;
+    }
+
+    /**
+     * Si hay una transacción activa, agrega (una vez) la sincronización que mide su commit
+     * Las sincronizaciones se suspenden con la transacción, así que REQUIRES_NEW registra la suya
+     */
+    private void registrarCommit(ContextoTraza contexto) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof SpanCommit) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new SpanCommit(contexto));
+    }
+
+    /**
+     * Mide desde antes del commit hasta que termina (flush de Hibernate + COMMIT)
+     * Se cierra en afterCommit, antes de que corran los @TransactionalEventListener
+     */
+    private static class SpanCommit implements TransactionSynchronization {
+
+        private final ContextoTraza contexto;
+        private int span = -1;
+        private boolean abierto;
+
+        SpanCommit(ContextoTraza contexto) {
+            this.contexto = contexto;
+        }
+
+        @Override
+        public void beforeCommit(boolean soloLectura) {
+            span = contexto.abrir("commit", "transaccion");
+            abierto = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            cerrar(null);
+        }
+
+        @Override
+        public void afterCompletion(int estado) {
+            cerrar(estado == STATUS_ROLLED_BACK ? "Rollback" : null);
+        }
+
+        private void cerrar(String error) {
+            if (abierto) {
+                abierto = false;
+                contexto.cerrar(span, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.aprendizaje.backend.trazas;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro que abre una traza por cada petición de /api y la entrega a AlmacenTrazas al terminar
+ *
+ * El ID de la traza se toma de la cabecera X-Trace-Id de la petición (si viene y es válido)
+ * o se genera uno nuevo, y siempre se devuelve en la cabecera X-Trace-Id de la respuesta.
+ * También se pone en el MDC de SLF4J como "traceId" para relacionar los logs con la traza.
+ */
+public class TrazasFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-Trace-Id";
+
+    private static final Pattern TRACE_ID_VALIDO = Pattern.compile("^[0-9a-f]{16,32}$");
+
+    private final AlmacenTrazas almacen;
+    private final int maximoSpans;
+
+    public TrazasFilter(AlmacenTrazas almacen, int maximoSpans) {
+        this.almacen = almacen;
+        this.maximoSpans = maximoSpans;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Las suscripciones SSE quedan abiertas: no tiene sentido medirlas
+        return request.getRequestURI().endsWith("/eventos");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String traceId = traceId(request.getHeader(CABECERA));
+        response.setHeader(CABECERA, traceId);
+        MDC.put("traceId", traceId);
+
+        ContextoTraza contexto = ContextoTraza.iniciar(traceId, maximoSpans);
+        int raiz = contexto.abrir(request.getMethod() + " " + request.getRequestURI(), "http");
+        String error = null;
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            contexto.cerrar(raiz, error);
+            int estado = error != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            ContextoTraza.limpiar();
+            MDC.remove("traceId");
+            almacen.registrar(contexto.terminar(request.getMethod(), request.getRequestURI(), estado));
+        }
+    }
+
+    /**
+     * Usa el ID recibido si es válido; si no, genera uno de 16 caracteres hexadecimales
+     */
+    static String traceId(String recibido) {
+        if (recibido != null) {
+            String normalizado = recibido.trim().toLowerCase();
+            if (TRACE_ID_VALIDO.matcher(normalizado).matches()) {
+                return normalizado;
+            }
+        }
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,24 @@
+package com.aprendizaje.backend.trazas;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Interceptor que registra como span "respuesta" el tiempo entre que el controlador devuelve
+ * su resultado y que Spring termina de escribirlo (serialización JSON con Jackson)
+ */
+public class TrazasInterceptor implements HandlerInterceptor {
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        ContextoTraza contexto = ContextoTraza.actual();
+        if (contexto == null || contexto.finControladorMicros < 0) {
+            return;
+        }
+        int span = contexto.abrir("escritura de la respuesta", "respuesta", contexto.finControladorMicros);
+        contexto.cerrar(span, null);
+    }
+}
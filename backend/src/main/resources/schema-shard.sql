@@ -0,0 +1,115 @@
+-- Script que ShardsTareas ejecuta en cada shard de tareas al arrancar (app.tareas.shards.habilitado=true)
+-- En el shard 0 las tablas ya existen (Hibernate y schema.sql); en los demás crea las mismas estructuras
+-- Todas las sentencias deben poder ejecutarse varias veces sin error
+
+CREATE TABLE IF NOT EXISTS tareas (
+    id BIGINT PRIMARY KEY,
+    titulo VARCHAR(100) NOT NULL,
+    descripcion VARCHAR(500),
+    completada BOOLEAN NOT NULL,
+    fecha_creacion TIMESTAMP(6) NOT NULL,
+    fecha_modificacion TIMESTAMP(6),
+    version_cambio BIGINT
+);
+CREATE INDEX IF NOT EXISTS idx_tareas_version_cambio ON tareas (version_cambio);
+
+-- Secuencia de versiones y registro de eliminaciones propios de cada shard
+CREATE SEQUENCE IF NOT EXISTS cambios_seq;
+CREATE TABLE IF NOT EXISTS eliminaciones (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entidad VARCHAR(20) NOT NULL,
+    entidad_id BIGINT NOT NULL,
+    version_cambio BIGINT NOT NULL,
+    fecha TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_eliminaciones_entidad_version ON eliminaciones (entidad, version_cambio);
+
+-- Transacción que escribió cada fila, para la sincronización incremental (igual que en schema.sql)
+ALTER TABLE tareas ADD COLUMN IF NOT EXISTS xid_cambio BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE eliminaciones ADD COLUMN IF NOT EXISTS xid_cambio BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_tareas_xid_cambio ON tareas (xid_cambio, version_cambio);
+CREATE INDEX IF NOT EXISTS idx_eliminaciones_entidad_xid ON eliminaciones (entidad, xid_cambio, version_cambio);
+CREATE OR REPLACE FUNCTION marcar_xid_cambio() RETURNS trigger LANGUAGE plpgsql AS
+    'BEGIN NEW.xid_cambio := CAST(CAST(pg_current_xact_id() AS text) AS bigint); RETURN NEW; END';
+CREATE OR REPLACE TRIGGER tareas_xid_cambio BEFORE INSERT OR UPDATE ON tareas
+    FOR EACH ROW EXECUTE FUNCTION marcar_xid_cambio();
+CREATE OR REPLACE TRIGGER eliminaciones_xid_cambio BEFORE INSERT ON eliminaciones
+    FOR EACH ROW EXECUTE FUNCTION marcar_xid_cambio();
+
+-- Archivo de tareas completadas (cada shard archiva sus propias tareas)
+CREATE TABLE IF NOT EXISTS tareas_archivadas (
+    id BIGINT NOT NULL,
+    titulo VARCHAR(100) NOT NULL,
+    descripcion VARCHAR(500),
+    completada BOOLEAN NOT NULL,
+    fecha_creacion TIMESTAMP(6) NOT NULL,
+    fecha_modificacion TIMESTAMP(6),
+    version_cambio BIGINT,
+    fecha_archivado TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, fecha_creacion)
+) PARTITION BY RANGE (fecha_creacion);
+CREATE TABLE IF NOT EXISTS tareas_archivadas_default PARTITION OF tareas_archivadas DEFAULT;
+CREATE INDEX IF NOT EXISTS idx_tareas_archivables ON tareas (fecha_modificacion) WHERE completada = true;
+
+-- Secuencia agrupada de IDs; ShardsTareas la adelanta al rango del shard (shard << 48)
+-- y le copia el INCREMENT BY del shard 0
+CREATE SEQUENCE IF NOT EXISTS tareas_id_seq_pool INCREMENT BY 50;
+
+-- Búsqueda de texto completo (igual que en schema.sql)
+ALTER TABLE tareas ADD COLUMN IF NOT EXISTS busqueda tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('spanish', coalesce(titulo, '')), 'A')
+    || setweight(to_tsvector('spanish', coalesce(descripcion, '')), 'B')) STORED;
+CREATE INDEX IF NOT EXISTS idx_tareas_busqueda ON tareas USING GIN (busqueda);
+
+-- Bucket de cada fila (misma fórmula que MapaBuckets.bucketDe), para que el rebalanceo
+-- copie y borre un bucket sin recorrer la tabla
+CREATE INDEX IF NOT EXISTS idx_tareas_bucket ON tareas (((id # (id >> 12) # (id >> 22) # (id >> 32)) & 1023), id);
+
+-- Mapa bucket -> shard; solo se usa la copia del shard 0
+CREATE TABLE IF NOT EXISTS tareas_buckets (
+    bucket INT PRIMARY KEY,
+    shard INT NOT NULL
+);
+-- Versión de cada asignación: el rebalanceo le da la siguiente de la secuencia al cambiar el dueño
+CREATE SEQUENCE IF NOT EXISTS tareas_buckets_version_seq;
+ALTER TABLE tareas_buckets ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+-- Versión del mapa que cargó cada instancia; el rebalanceo espera a todas antes de purgar el origen
+CREATE TABLE IF NOT EXISTS tareas_buckets_instancias (
+    instancia VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    fecha TIMESTAMP(6) NOT NULL
+);
+
+-- Estado de cada bucket en este shard: cedido = ya se movió a otro shard
+-- Las escrituras leen su fila con FOR KEY SHARE y el corte del rebalanceo la bloquea con FOR UPDATE
+CREATE TABLE IF NOT EXISTS buckets_locales (
+    bucket INT PRIMARY KEY,
+    cedido BOOLEAN NOT NULL DEFAULT false
+);
+INSERT INTO buckets_locales (bucket) SELECT generate_series(0, 1023) ON CONFLICT (bucket) DO NOTHING;
+
+-- Outbox de cambios del shard (igual que en schema.sql): el registro va en la misma transacción que la tarea
+CREATE SEQUENCE IF NOT EXISTS outbox_seq;
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGINT NOT NULL,
+    entidad VARCHAR(20) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    entidad_id BIGINT NOT NULL,
+    datos JSONB,
+    fecha TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, fecha)
+) PARTITION BY RANGE (fecha);
+CREATE TABLE IF NOT EXISTS outbox_default PARTITION OF outbox DEFAULT;
+CREATE INDEX IF NOT EXISTS idx_outbox_id ON outbox (id);
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    consumidor VARCHAR(50) PRIMARY KEY,
+    ultimo_id BIGINT NOT NULL,
+    fecha_actualizacion TIMESTAMP(6) NOT NULL
+);
+
+-- Vencimiento y recordatorio de las tareas (en el shard 0 las columnas las agrega Hibernate)
+ALTER TABLE tareas ADD COLUMN IF NOT EXISTS fecha_vencimiento TIMESTAMP(6);
+ALTER TABLE tareas ADD COLUMN IF NOT EXISTS fecha_recordatorio TIMESTAMP(6);
+ALTER TABLE tareas_archivadas ADD COLUMN IF NOT EXISTS fecha_vencimiento TIMESTAMP(6);
+CREATE INDEX IF NOT EXISTS idx_tareas_recordatorio ON tareas (fecha_recordatorio, id)
+    WHERE completada = false AND fecha_recordatorio IS NOT NULL;
@@ -0,0 +1,126 @@
+-- Script que Spring ejecuta al arrancar, después de que Hibernate actualiza las tablas
+-- Todas las sentencias deben poder ejecutarse varias veces sin error
+
+-- Secuencia global que ordena todos los cambios (marca de agua de la sincronización incremental)
+CREATE SEQUENCE IF NOT EXISTS cambios_seq;
+
+-- Asigna versión a las filas creadas antes de la sincronización incremental
+UPDATE tareas SET version_cambio = nextval('cambios_seq'), fecha_modificacion = fecha_creacion WHERE version_cambio IS NULL;
+UPDATE productos SET version_cambio = nextval('cambios_seq'), fecha_modificacion = fecha_creacion WHERE version_cambio IS NULL;
+
+-- Transacción (xid de 64 bits) que escribió cada fila: la sincronización incremental solo entrega
+-- filas de transacciones ya terminadas (xid menor a pg_snapshot_xmin, ver SincronizacionService)
+-- Las columnas las agrega Hibernate; las filas anteriores quedan en 0 (ya confirmadas)
+UPDATE tareas SET xid_cambio = 0 WHERE xid_cambio IS NULL;
+UPDATE productos SET xid_cambio = 0 WHERE xid_cambio IS NULL;
+UPDATE eliminaciones SET xid_cambio = 0 WHERE xid_cambio IS NULL;
+
+-- El trigger cubre también las sentencias nativas (write-behind, lotes, archivado, rebalanceo)
+-- El cuerpo va entre comillas simples: el separador ";" de los scripts no corta dentro de ellas
+CREATE OR REPLACE FUNCTION marcar_xid_cambio() RETURNS trigger LANGUAGE plpgsql AS
+    'BEGIN NEW.xid_cambio := CAST(CAST(pg_current_xact_id() AS text) AS bigint); RETURN NEW; END';
+CREATE OR REPLACE TRIGGER tareas_xid_cambio BEFORE INSERT OR UPDATE ON tareas
+    FOR EACH ROW EXECUTE FUNCTION marcar_xid_cambio();
+CREATE OR REPLACE TRIGGER productos_xid_cambio BEFORE INSERT OR UPDATE ON productos
+    FOR EACH ROW EXECUTE FUNCTION marcar_xid_cambio();
+CREATE OR REPLACE TRIGGER eliminaciones_xid_cambio BEFORE INSERT ON eliminaciones
+    FOR EACH ROW EXECUTE FUNCTION marcar_xid_cambio();
+
+-- Archivo de tareas completadas antiguas, particionado por mes de creación
+-- Las particiones mensuales las crea ArchivadoTareasService; la DEFAULT recibe lo que no tenga partición
+CREATE TABLE IF NOT EXISTS tareas_archivadas (
+    id BIGINT NOT NULL,
+    titulo VARCHAR(100) NOT NULL,
+    descripcion VARCHAR(500),
+    completada BOOLEAN NOT NULL,
+    fecha_creacion TIMESTAMP(6) NOT NULL,
+    fecha_modificacion TIMESTAMP(6),
+    version_cambio BIGINT,
+    fecha_archivado TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, fecha_creacion)
+) PARTITION BY RANGE (fecha_creacion);
+CREATE TABLE IF NOT EXISTS tareas_archivadas_default PARTITION OF tareas_archivadas DEFAULT;
+
+-- Índice parcial para que el archivador encuentre las tareas completadas sin recorrer las pendientes
+CREATE INDEX IF NOT EXISTS idx_tareas_archivables ON tareas (fecha_modificacion) WHERE completada = true;
+
+-- Secuencias agrupadas de IDs (IdsConfig con app.ids.estrategia=SECUENCIA)
+-- INCREMENT BY debe ser igual a app.ids.tamano-bloque: cada nextval() reserva un bloque de IDs
+-- (IdsConfig detiene el arranque si no coincide; para cambiarlo en una base existente use ALTER SEQUENCE)
+CREATE SEQUENCE IF NOT EXISTS tareas_id_seq_pool INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS productos_id_seq_pool INCREMENT BY 50;
+
+-- Migración desde IDENTITY: adelanta las secuencias por encima del mayor ID existente
+-- Solo avanza (nunca retrocede), así que es seguro con otras instancias ya entregando bloques
+SELECT setval('tareas_id_seq_pool', m.maximo)
+FROM (SELECT GREATEST((SELECT MAX(id) FROM tareas), (SELECT MAX(id) FROM tareas_archivadas)) AS maximo) m
+WHERE m.maximo >= (SELECT last_value FROM tareas_id_seq_pool);
+SELECT setval('productos_id_seq_pool', m.maximo)
+FROM (SELECT MAX(id) AS maximo FROM productos) m
+WHERE m.maximo >= (SELECT last_value FROM productos_id_seq_pool);
+
+-- Búsqueda de texto completo en español sobre título (peso A) y descripción (peso B)
+-- La columna la mantiene PostgreSQL; Hibernate no la conoce (ver BusquedaTareasRepository)
+ALTER TABLE tareas ADD COLUMN IF NOT EXISTS busqueda tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('spanish', coalesce(titulo, '')), 'A')
+    || setweight(to_tsvector('spanish', coalesce(descripcion, '')), 'B')) STORED;
+CREATE INDEX IF NOT EXISTS idx_tareas_busqueda ON tareas USING GIN (busqueda);
+
+-- Outbox de cambios para sistemas externos (OutboxService y RelayOutbox), particionado por día
+-- RelayOutbox crea las particiones diarias y elimina las ya entregadas; la DEFAULT recibe lo que no tenga partición
+CREATE SEQUENCE IF NOT EXISTS outbox_seq;
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGINT NOT NULL,
+    entidad VARCHAR(20) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    entidad_id BIGINT NOT NULL,
+    datos JSONB,
+    fecha TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, fecha)
+) PARTITION BY RANGE (fecha);
+CREATE TABLE IF NOT EXISTS outbox_default PARTITION OF outbox DEFAULT;
+CREATE INDEX IF NOT EXISTS idx_outbox_id ON outbox (id);
+
+-- Último id entregado a cada destino del outbox
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    consumidor VARCHAR(50) PRIMARY KEY,
+    ultimo_id BIGINT NOT NULL,
+    fecha_actualizacion TIMESTAMP(6) NOT NULL
+);
+
+-- Diccionario de categorías de productos: cada nombre tiene un código SMALLINT (ver DiccionarioCategorias)
+-- productos.categoria_id guarda el código; cantidad es el contador de productos de la categoría
+CREATE TABLE IF NOT EXISTS categorias (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL UNIQUE,
+    cantidad BIGINT NOT NULL DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS idx_productos_categoria ON productos (categoria_id, id);
+
+-- Recordatorios de tareas (ProgramadorRecordatorios): el programador lee por ventanas de tiempo
+-- solo las tareas pendientes con recordatorio, en orden de fecha
+ALTER TABLE tareas_archivadas ADD COLUMN IF NOT EXISTS fecha_vencimiento TIMESTAMP(6);
+CREATE INDEX IF NOT EXISTS idx_tareas_recordatorio ON tareas (fecha_recordatorio, id)
+    WHERE completada = false AND fecha_recordatorio IS NOT NULL;
+
+-- Hasta qué momento ya se enviaron todos los recordatorios; al reiniciar se continúa desde ahí
+CREATE TABLE IF NOT EXISTS recordatorios_marca (
+    clave VARCHAR(50) PRIMARY KEY,
+    disparado_hasta TIMESTAMP(6) NOT NULL
+);
+
+-- Umbrales de stock bajo (AlertasStockService): por producto (clave = id del producto)
+-- o por categoría (clave = código de categorias); el de producto tiene prioridad
+CREATE TABLE IF NOT EXISTS umbrales_stock (
+    ambito VARCHAR(10) NOT NULL,
+    clave BIGINT NOT NULL,
+    minimo INTEGER NOT NULL,
+    recuperacion INTEGER NOT NULL,
+    PRIMARY KEY (ambito, clave)
+);
+
+-- Rankings de productos por categoría (RankingService): cada recarga lee solo los primeros
+-- productos de una categoría en el orden del criterio (hacia adelante o hacia atrás)
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_precio ON productos (categoria_id, precio, id);
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_stock ON productos (categoria_id, stock, id);
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_fecha ON productos (categoria_id, fecha_creacion, id);
@@ -0,0 +1,183 @@
+package com.aprendizaje.backend.admision;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ControlAdmision, LimiteAdaptativo y la clasificación del filtro
+ */
+class ControlAdmisionTest {
+
+    /**
+     * Test: Con el límite y la cola llenos, la siguiente petición se rechaza sin esperar
+     */
+    @Test
+    void testAdquirir_RechazaConColaLlena() throws Exception {
+        // Arrange
+        ControlAdmision control = new ControlAdmision(1, 0, 1000);
+        ControlAdmision.Permiso primero = control.adquirir(ClaseEndpoint.ESCRITURA);
+
+        // Act
+        long inicio = System.nanoTime();
+        ControlAdmision.Permiso segundo = control.adquirir(ClaseEndpoint.ESCRITURA);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Assert
+        assertNotNull(primero);
+        assertNull(segundo);
+        assertTrue(ms < 500);
+        assertTrue(control.segundosParaReintentar(ClaseEndpoint.ESCRITURA) >= 1);
+    }
+
+    /**
+     * Test: Si la espera vence sin lugar, la petición se rechaza y sale de la cola
+     */
+    @Test
+    void testAdquirir_VenceLaEspera() throws Exception {
+        // Arrange
+        ControlAdmision control = new ControlAdmision(1, 5, 50);
+        control.adquirir(ClaseEndpoint.LECTURA_BARATA);
+
+        // Act
+        ControlAdmision.Permiso permiso = control.adquirir(ClaseEndpoint.LECTURA_BARATA);
+
+        // Assert
+        assertNull(permiso);
+        assertEquals(0, control.metricas().get(0).get("enCola"));
+        assertEquals(1L, control.metricas().get(0).get("rechazadas"));
+    }
+
+    /**
+     * Test: Al liberar un lugar se atiende primero la lectura barata aunque llegó después
+     */
+    @Test
+    void testLiberar_PrioridadLecturaBarata() throws Exception {
+        // Arrange
+        ControlAdmision control = new ControlAdmision(2, 5, 5000);
+        ControlAdmision.Permiso ocupado = control.adquirir(ClaseEndpoint.ESCRITURA);
+        control.adquirir(ClaseEndpoint.ESCRITURA);
+        CompletableFuture<ControlAdmision.Permiso> escritura = CompletableFuture.supplyAsync(() -> adquirir(control, ClaseEndpoint.ESCRITURA));
+        esperarCola(control, ClaseEndpoint.ESCRITURA);
+        CompletableFuture<ControlAdmision.Permiso> barata = CompletableFuture.supplyAsync(() -> adquirir(control, ClaseEndpoint.LECTURA_BARATA));
+        esperarCola(control, ClaseEndpoint.LECTURA_BARATA);
+
+        // Act
+        control.liberar(ocupado, true);
+
+        // Assert
+        assertNotNull(barata.get(2, TimeUnit.SECONDS));
+        assertFalse(escritura.isDone());
+    }
+
+    /**
+     * Test: Una lectura costosa se descarta mientras haya lecturas baratas esperando
+     */
+    @Test
+    void testAdquirir_DescartaCostosaConBaratasEnCola() throws Exception {
+        // Arrange
+        ControlAdmision control = new ControlAdmision(1, 5, 5000);
+        control.adquirir(ClaseEndpoint.LECTURA_BARATA);
+        CompletableFuture.supplyAsync(() -> adquirir(control, ClaseEndpoint.LECTURA_BARATA));
+        esperarCola(control, ClaseEndpoint.LECTURA_BARATA);
+
+        // Act
+        ControlAdmision.Permiso costosa = control.adquirir(ClaseEndpoint.LECTURA_COSTOSA);
+
+        // Assert
+        assertNull(costosa);
+    }
+
+    /**
+     * Test: Si el hilo se interrumpe justo cuando recibe el permiso, el permiso se devuelve
+     * Se repite para que la interrupción coincida varias veces con la concesión
+     */
+    @Test
+    void testAdquirir_InterrumpidoAlConcederNoPierdeElPermiso() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            // Arrange
+            ControlAdmision control = new ControlAdmision(1, 5, 5000);
+            ControlAdmision.Permiso ocupado = control.adquirir(ClaseEndpoint.ESCRITURA);
+            Thread esperando = new Thread(() -> {
+                try {
+                    ControlAdmision.Permiso permiso = control.adquirir(ClaseEndpoint.ESCRITURA);
+                    if (permiso != null) {
+                        control.liberar(permiso, true);
+                    }
+                } catch (InterruptedException e) {
+                    // Esperado cuando la interrupción gana
+                }
+            });
+            esperando.start();
+            esperarCola(control, ClaseEndpoint.ESCRITURA);
+
+            // Act: la concesión y la interrupción llegan casi a la vez
+            control.liberar(ocupado, true);
+            esperando.interrupt();
+            esperando.join(2000);
+
+            // Assert
+            assertFalse(esperando.isAlive());
+            assertEquals(0, control.getTotalEnCurso());
+            assertNotNull(control.adquirir(ClaseEndpoint.ESCRITURA));
+        }
+    }
+
+    /**
+     * Test: El límite baja cuando la latencia crece mucho sobre la mínima y sube cuando se recupera
+     */
+    @Test
+    void testLimiteAdaptativo_SigueLaLatencia() {
+        // Arrange
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 1, 40);
+        limite.registrar(1_000_000, 20, true);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limite.registrar(10_000_000, 20, true);
+        }
+        int congestionado = limite.getLimite();
+        for (int i = 0; i < 200; i++) {
+            limite.registrar(1_000_000, congestionado, true);
+        }
+
+        // Assert
+        assertTrue(congestionado < 20);
+        assertTrue(limite.getLimite() > congestionado);
+    }
+
+    /**
+     * Test: La clasificación separa GET por ID, escrituras y listados
+     */
+    @Test
+    void testClasificar() {
+        assertEquals(ClaseEndpoint.LECTURA_BARATA, ControlAdmisionFilter.clasificar(new MockHttpServletRequest("GET", "/api/tareas/5")));
+        assertEquals(ClaseEndpoint.LECTURA_BARATA, ControlAdmisionFilter.clasificar(new MockHttpServletRequest("POST", "/api/productos/por-ids")));
+        assertEquals(ClaseEndpoint.LECTURA_COSTOSA, ControlAdmisionFilter.clasificar(new MockHttpServletRequest("GET", "/api/productos")));
+        assertEquals(ClaseEndpoint.ESCRITURA, ControlAdmisionFilter.clasificar(new MockHttpServletRequest("PUT", "/api/tareas/5/completar")));
+    }
+
+    private static ControlAdmision.Permiso adquirir(ControlAdmision control, ClaseEndpoint clase) {
+        try {
+            return control.adquirir(clase);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void esperarCola(ControlAdmision control, ClaseEndpoint clase) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            for (var datos : control.metricas()) {
+                if (datos.get("clase") == clase && (int) datos.get("enCola") > 0) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail("La petición no llegó a la cola");
+    }
+}
@@ -0,0 +1,241 @@
+package com.aprendizaje.backend.alertas;
+
+import com.aprendizaje.backend.categorias.DiccionarioCategorias;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import com.aprendizaje.backend.repository.UmbralStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AlertasStockService
+ * Verifican los cruces con histéresis, la prioridad de los umbrales y el reintento de envíos
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertasStockServiceTest {
+
+    @Mock
+    private UmbralStockRepository umbralStockRepository;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private DiccionarioCategorias diccionarioCategorias;
+
+    @Mock
+    private DestinoAlertasStock destino;
+
+    @InjectMocks
+    private AlertasStockService alertasStockService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(alertasStockService, "habilitado", true);
+        ReflectionTestUtils.setField(alertasStockService, "histeresis", 5);
+        ReflectionTestUtils.setField(alertasStockService, "tamanoHistorial", 100);
+        ReflectionTestUtils.setField(alertasStockService, "pendientesMax", 100);
+        ReflectionTestUtils.setField(alertasStockService, "tamanoLote", 500);
+        ReflectionTestUtils.setField(alertasStockService, "destinos", List.of(destino));
+        alertasStockService.iniciar();
+    }
+
+    private static Producto producto(long id, String categoria, int stock) {
+        Producto producto = new Producto("Producto " + id, null, 1.0, stock, categoria);
+        producto.setId(id);
+        return producto;
+    }
+
+    private void cambiar(Producto producto) {
+        alertasStockService.alCambiarEntidad(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_PRODUCTO,
+                TipoCambio.ACTUALIZADO, producto.getId(), producto));
+    }
+
+    /**
+     * Test: Solo se alerta al cruzar el mínimo hacia abajo y al llegar a la recuperación, no entre ambos
+     */
+    @Test
+    void testHisteresis_SoloAlertaEnLosCruces() {
+        // Arrange: umbral de categoría mínimo 10, recuperación 15 (histéresis por defecto)
+        when(diccionarioCategorias.codigo("Lácteos")).thenReturn((short) 2);
+        when(umbralStockRepository.stockDeCategoria((short) 2, 0, 500)).thenReturn(List.of());
+        alertasStockService.guardarUmbral(UmbralStock.AMBITO_CATEGORIA, "Lácteos", new UmbralStock(null, null, 10, null));
+
+        // Act
+        cambiar(producto(1, "Lácteos", 12));
+        cambiar(producto(1, "Lácteos", 9));
+        cambiar(producto(1, "Lácteos", 8));
+        cambiar(producto(1, "Lácteos", 11));
+        cambiar(producto(1, "Lácteos", 9));
+        cambiar(producto(1, "Lácteos", 15));
+
+        // Assert
+        List<AlertaStock> alertas = alertasStockService.historial(0, 10);
+        assertEquals(2, alertas.size());
+        assertEquals(AlertaStock.Tipo.BAJO, alertas.get(0).getTipo());
+        assertEquals(9, alertas.get(0).getStock());
+        assertEquals(AlertaStock.Tipo.RECUPERADO, alertas.get(1).getTipo());
+        assertEquals(15, alertas.get(1).getStock());
+        assertTrue(alertasStockService.activas().isEmpty());
+        verify(umbralStockRepository).guardar(UmbralStock.AMBITO_CATEGORIA, 2, 10, 15);
+    }
+
+    /**
+     * Test: Un evento con una versión anterior a la ya evaluada no genera alertas
+     */
+    @Test
+    void testEventosDesordenados_IgnoraVersionAnterior() {
+        // Arrange: umbral de categoría mínimo 10, recuperación 15
+        when(diccionarioCategorias.codigo("Lácteos")).thenReturn((short) 2);
+        when(umbralStockRepository.stockDeCategoria((short) 2, 0, 500)).thenReturn(List.of());
+        alertasStockService.guardarUmbral(UmbralStock.AMBITO_CATEGORIA, "Lácteos", new UmbralStock(null, null, 10, null));
+        Producto anterior = producto(1, "Lácteos", 20);
+        anterior.setVersionCambio(1L);
+        Producto nuevo = producto(1, "Lácteos", 5);
+        nuevo.setVersionCambio(2L);
+
+        // Act: el commit de la versión 2 se notifica antes que el de la versión 1
+        cambiar(nuevo);
+        cambiar(anterior);
+
+        // Assert: sigue en alerta y no hubo un RECUPERADO falso
+        List<AlertaStock> alertas = alertasStockService.historial(0, 10);
+        assertEquals(1, alertas.size());
+        assertEquals(AlertaStock.Tipo.BAJO, alertas.get(0).getTipo());
+        assertEquals(5, alertas.get(0).getStock());
+        assertEquals(1, alertasStockService.activas().size());
+    }
+
+    /**
+     * Test: Un evento atrasado que llega después de la eliminación no reabre la alerta
+     */
+    @Test
+    void testEliminado_EventoAtrasadoNoReabreAlerta() {
+        // Arrange
+        when(diccionarioCategorias.codigo("Lácteos")).thenReturn((short) 2);
+        when(umbralStockRepository.stockDeCategoria((short) 2, 0, 500)).thenReturn(List.of());
+        alertasStockService.guardarUmbral(UmbralStock.AMBITO_CATEGORIA, "Lácteos", new UmbralStock(null, null, 10, null));
+        Producto vigilado = producto(1, "Lácteos", 20);
+        vigilado.setVersionCambio(1L);
+        Producto atrasado = producto(1, "Lácteos", 3);
+        atrasado.setVersionCambio(2L);
+        cambiar(vigilado);
+
+        // Act: la eliminación se notifica antes que la actualización anterior
+        alertasStockService.alCambiarEntidad(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_PRODUCTO,
+                TipoCambio.ELIMINADO, 1L, null));
+        cambiar(atrasado);
+
+        // Assert
+        assertTrue(alertasStockService.historial(0, 10).isEmpty());
+        assertTrue(alertasStockService.activas().isEmpty());
+    }
+
+    /**
+     * Test: Solo se guardan versiones de los productos que tienen umbral
+     */
+    @Test
+    void testVersiones_SoloProductosConUmbral() {
+        // Arrange
+        Producto sinUmbral = producto(4, "Frutas", 1);
+        sinUmbral.setVersionCambio(7L);
+
+        // Act
+        cambiar(sinUmbral);
+
+        // Assert
+        Map<?, ?> versiones = (Map<?, ?>) ReflectionTestUtils.getField(alertasStockService, "versiones");
+        assertTrue(versiones.isEmpty());
+    }
+
+    /**
+     * Test: El umbral del producto tiene prioridad sobre el de su categoría; otros productos no se vigilan
+     */
+    @Test
+    void testUmbralProducto_TienePrioridad() {
+        // Arrange
+        when(diccionarioCategorias.codigo("Bebidas")).thenReturn((short) 3);
+        when(umbralStockRepository.stockDeCategoria((short) 3, 0, 500)).thenReturn(List.of());
+        when(productoRepository.existsById(7L)).thenReturn(true);
+        when(productoRepository.findById(7L)).thenReturn(Optional.of(producto(7, "Bebidas", 50)));
+        alertasStockService.guardarUmbral(UmbralStock.AMBITO_CATEGORIA, "Bebidas", new UmbralStock(null, null, 10, 20));
+        alertasStockService.guardarUmbral(UmbralStock.AMBITO_PRODUCTO, "7", new UmbralStock(null, null, 3, 6));
+
+        // Act
+        cambiar(producto(7, "Bebidas", 5));
+        cambiar(producto(8, "Bebidas", 5));
+        cambiar(producto(9, "Frutas", 0));
+
+        // Assert
+        List<AlertaStock> activas = alertasStockService.activas();
+        assertEquals(1, activas.size());
+        assertEquals(8L, activas.get(0).getProductoId());
+        assertEquals(10, activas.get(0).getMinimo());
+    }
+
+    /**
+     * Test: Al cargar se marcan los productos que ya están por debajo sin generar alertas,
+     * y eliminar un producto lo saca de las alertas activas
+     */
+    @Test
+    void testCargar_ReconstruyeSinAlertar() {
+        // Arrange
+        when(umbralStockRepository.todos()).thenReturn(List.of(
+                new UmbralStockRepository.FilaUmbral(UmbralStock.AMBITO_CATEGORIA, 4, 10, 15)));
+        when(diccionarioCategorias.nombre((short) 4)).thenReturn("Frutas");
+        when(diccionarioCategorias.codigo("Frutas")).thenReturn((short) 4);
+        Producto bajo = producto(1, null, 2);
+        Producto normal = producto(2, null, 30);
+        when(umbralStockRepository.stockDeCategoria((short) 4, 0, 500)).thenReturn(List.of(bajo, normal));
+
+        // Act
+        alertasStockService.cargar();
+        int activasAlCargar = alertasStockService.activas().size();
+        alertasStockService.alCambiarEntidad(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_PRODUCTO,
+                TipoCambio.ELIMINADO, 1L, null));
+
+        // Assert
+        assertEquals(1, activasAlCargar);
+        assertTrue(alertasStockService.activas().isEmpty());
+        assertTrue(alertasStockService.historial(0, 10).isEmpty());
+    }
+
+    /**
+     * Test: Un lote que falla se reintenta completo en la siguiente pasada
+     */
+    @Test
+    void testEntregar_ReintentaLoteFallido() throws IOException {
+        // Arrange
+        when(productoRepository.existsById(1L)).thenReturn(true);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto(1, null, 0)));
+        alertasStockService.guardarUmbral(UmbralStock.AMBITO_PRODUCTO, "1", new UmbralStock(null, null, 5, 10));
+        doThrow(new IOException("sin conexión")).doNothing().when(destino).enviar(anyList());
+
+        // Act
+        int primera = alertasStockService.entregar();
+        int segunda = alertasStockService.entregar();
+
+        // Assert
+        assertEquals(0, primera);
+        assertEquals(1, segunda);
+        verify(destino, times(2)).enviar(argThat(lote -> lote.size() == 1
+                && lote.get(0).getTipo() == AlertaStock.Tipo.BAJO));
+        assertNull(alertasStockService.estado().get("ultimoError"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.aprendizaje.backend.analitica;
+
+import com.aprendizaje.backend.dto.Histograma;
+import com.aprendizaje.backend.dto.ResumenCatalogo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CatalogoColumnar
+ * Verifican los recorridos paralelos y el índice ordenado por precio
+ */
+class CatalogoColumnarTest {
+
+    private ForkJoinPool pool;
+    private CatalogoColumnar catalogo;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        catalogo = new CatalogoColumnar(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test: El resumen suma en paralelo todos los productos (más que el umbral de división)
+     */
+    @Test
+    void testResumen_RecorridoParalelo() {
+        // Arrange
+        for (long id = 1; id <= 50_000; id++) {
+            catalogo.guardar(id, id, id % 100, 1, id % 2 == 0 ? "Pares" : "Impares");
+        }
+
+        // Act
+        ResumenCatalogo total = catalogo.resumen(null);
+        ResumenCatalogo pares = catalogo.resumen("Pares");
+
+        // Assert
+        assertEquals(50_000, total.getCantidad());
+        assertEquals(50_000, total.getStockTotal());
+        assertEquals(0.0, total.getPrecioMinimo());
+        assertEquals(99.0, total.getPrecioMaximo());
+        assertEquals(25_000, pares.getCantidad());
+        assertEquals(0, catalogo.resumen("Inexistente").getCantidad());
+    }
+
+    /**
+     * Test: Una versión más vieja no pisa a una más nueva
+     */
+    @Test
+    void testGuardar_IgnoraVersionVieja() {
+        // Arrange
+        catalogo.guardar(1L, 5L, 10.0, 3, "A");
+
+        // Act
+        boolean aplicado = catalogo.guardar(1L, 4L, 99.0, 3, "A");
+
+        // Assert
+        assertFalse(aplicado);
+        assertEquals(10.0, catalogo.resumen(null).getPrecioMaximo());
+    }
+
+    /**
+     * Test: El rango de precio usa el índice y se mantiene al actualizar y eliminar
+     */
+    @Test
+    void testRangoPrecio_IndiceActualizado() {
+        // Arrange
+        catalogo.guardar(1L, 1L, 5.0, 1, "A");
+        catalogo.guardar(2L, 2L, 15.0, 1, "A");
+        catalogo.guardar(3L, 3L, 25.0, 1, "B");
+        catalogo.guardar(4L, 4L, 12.0, 1, "B");
+        catalogo.guardar(1L, 5L, 11.0, 1, "A");
+        catalogo.eliminar(2L);
+
+        // Act
+        CatalogoColumnar.RangoPrecio rango = catalogo.rangoPrecio(10.0, 20.0, null, 10);
+        CatalogoColumnar.RangoPrecio rangoB = catalogo.rangoPrecio(10.0, 30.0, "B", 1);
+
+        // Assert
+        assertEquals(2, rango.getTotal());
+        assertEquals(List.of(1L, 4L), rango.getIds());
+        assertEquals(2, rangoB.getTotal());
+        assertEquals(List.of(4L), rangoB.getIds());
+    }
+
+    /**
+     * Test: Percentiles por rango más cercano, con y sin filtro de categoría
+     */
+    @Test
+    void testPercentiles() {
+        // Arrange
+        for (long id = 1; id <= 100; id++) {
+            catalogo.guardar(id, id, id, 1, id <= 10 ? "Baratos" : "Caros");
+        }
+
+        // Act
+        Map<Double, Double> todos = catalogo.percentiles(null, new double[]{50, 90, 100});
+        Map<Double, Double> baratos = catalogo.percentiles("Baratos", new double[]{50});
+
+        // Assert
+        assertEquals(50.0, todos.get(50.0));
+        assertEquals(90.0, todos.get(90.0));
+        assertEquals(100.0, todos.get(100.0));
+        assertEquals(5.0, baratos.get(50.0));
+    }
+
+    /**
+     * Test: El histograma cuenta por intervalo e incluye el máximo en el último
+     */
+    @Test
+    void testHistograma() {
+        // Arrange
+        catalogo.guardar(1L, 1L, 0.0, 1, null);
+        catalogo.guardar(2L, 2L, 4.9, 1, null);
+        catalogo.guardar(3L, 3L, 5.0, 1, null);
+        catalogo.guardar(4L, 4L, 10.0, 1, null);
+        catalogo.guardar(5L, 5L, 11.0, 1, null);
+
+        // Act
+        Histograma histograma = catalogo.histograma(null, 0, 10, 2);
+
+        // Assert
+        assertArrayEquals(new long[]{2, 2}, histograma.getConteos());
+        assertThrows(IllegalArgumentException.class, () -> catalogo.histograma(null, 10, 0, 2));
+    }
+
+    /**
+     * Test: El resumen por categoría reporta los productos sin categoría con un nombre fijo
+     */
+    @Test
+    void testResumenPorCategoria() {
+        // Arrange
+        catalogo.guardar(1L, 1L, 10.0, 2, "A");
+        catalogo.guardar(2L, 2L, 20.0, 3, "A");
+        catalogo.guardar(3L, 3L, 30.0, 4, null);
+
+        // Act
+        Map<String, ResumenCatalogo> resumen = catalogo.resumenPorCategoria();
+
+        // Assert
+        assertEquals(2, resumen.size());
+        assertEquals(15.0, resumen.get("A").getPrecioPromedio());
+        assertEquals(4, resumen.get(CatalogoColumnar.NOMBRE_SIN_CATEGORIA).getStockTotal());
+    }
+}
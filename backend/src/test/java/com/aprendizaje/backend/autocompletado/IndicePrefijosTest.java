@@ -0,0 +1,93 @@
+package com.aprendizaje.backend.autocompletado;
+
+import com.aprendizaje.backend.dto.SugerenciaProducto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para IndicePrefijos
+ * Verifican la normalización, el orden por puntaje y las actualizaciones incrementales
+ */
+class IndicePrefijosTest {
+
+    private List<Long> ids(List<SugerenciaProducto> sugerencias) {
+        return sugerencias.stream().map(SugerenciaProducto::getId).toList();
+    }
+
+    /**
+     * Test: Se ignoran mayúsculas y acentos, y se busca desde el inicio de cada palabra
+     */
+    @Test
+    void testSugerir_SinAcentosYPorPalabra() {
+        // Arrange
+        IndicePrefijos indice = new IndicePrefijos(5, 0);
+        indice.guardar(1L, "Café Orgánico", 1, 10);
+        indice.guardar(2L, "Leche de almendras", 1, 20);
+
+        // Act & Assert
+        assertEquals(List.of(1L), ids(indice.sugerir("CAFE", 5)));
+        assertEquals(List.of(1L), ids(indice.sugerir("organ", 5)));
+        assertEquals(List.of(2L), ids(indice.sugerir("de alm", 5)));
+        assertEquals("Café Orgánico", indice.sugerir("caf", 5).get(0).getNombre());
+        assertTrue(indice.sugerir("xyz", 5).isEmpty());
+        assertEquals("cafe organico", IndicePrefijos.normalizar("  Café--Orgánico! "));
+    }
+
+    /**
+     * Test: Se devuelven los k de mayor puntaje, sin repetir un producto que aparece por dos palabras
+     */
+    @Test
+    void testSugerir_TopKPorPuntaje() {
+        // Arrange
+        IndicePrefijos indice = new IndicePrefijos(2, 0);
+        indice.guardar(1L, "Papa papas", 1, 50);
+        indice.guardar(2L, "Pan", 1, 5);
+        indice.guardar(3L, "Papaya", 1, 30);
+
+        // Act
+        List<SugerenciaProducto> sugerencias = indice.sugerir("pa", 10);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), ids(sugerencias));
+        assertEquals(50, sugerencias.get(0).getPuntaje());
+    }
+
+    /**
+     * Test: Cambiar stock, nombre o vistas, o eliminar, actualiza las sugerencias
+     */
+    @Test
+    void testGuardar_ActualizacionesIncrementales() {
+        // Arrange
+        IndicePrefijos indice = new IndicePrefijos(3, 10);
+        indice.guardar(1L, "Manzana roja", 1, 5);
+        indice.guardar(2L, "Mango", 1, 8);
+
+        // Act & Assert: más stock
+        indice.guardar(1L, "Manzana roja", 2, 20);
+        assertEquals(List.of(1L, 2L), ids(indice.sugerir("man", 3)));
+
+        // Una versión antigua no pisa a la nueva
+        indice.guardar(1L, "Manzana roja", 1, 0);
+        assertEquals(20, indice.sugerir("manz", 3).get(0).getPuntaje());
+
+        // Las vistas suben el puntaje
+        indice.sumarVistas(Map.of(2L, 3));
+        assertEquals(List.of(2L, 1L), ids(indice.sugerir("man", 3)));
+        indice.reducirVistas();
+        assertEquals(8 + 10, indice.sugerir("mang", 3).get(0).getPuntaje());
+
+        // Cambio de nombre: deja de aparecer con el anterior
+        indice.guardar(1L, "Pera", 3, 20);
+        assertEquals(List.of(2L), ids(indice.sugerir("man", 3)));
+        assertTrue(indice.sugerir("roja", 3).isEmpty());
+
+        // Eliminación
+        indice.eliminar(2L);
+        assertTrue(indice.sugerir("m", 3).isEmpty());
+        assertEquals(1, indice.tamano());
+    }
+}
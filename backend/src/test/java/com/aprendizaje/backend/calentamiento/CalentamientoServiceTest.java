@@ -0,0 +1,138 @@
+package com.aprendizaje.backend.calentamiento;
+
+import com.aprendizaje.backend.analitica.CatalogoColumnarService;
+import com.aprendizaje.backend.autocompletado.AutocompletadoService;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import com.aprendizaje.backend.repository.TareaRepository;
+import com.aprendizaje.backend.service.ProductoService;
+import com.aprendizaje.backend.service.TareaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para CalentamientoService
+ * Verifican las fases y que la instancia siempre termina marcada como lista
+ */
+@ExtendWith(MockitoExtension.class)
+class CalentamientoServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private ProductoService productoService;
+
+    @Mock
+    private TareaService tareaService;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private TareaRepository tareaRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private CatalogoColumnarService catalogoColumnarService;
+
+    @Mock
+    private AutocompletadoService autocompletadoService;
+
+    @InjectMocks
+    private CalentamientoService calentamientoService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(calentamientoService, "habilitado", true);
+        ReflectionTestUtils.setField(calentamientoService, "presupuestoMs", 5000L);
+        ReflectionTestUtils.setField(calentamientoService, "conexiones", 3);
+        ReflectionTestUtils.setField(calentamientoService, "entidadesCalientes", 10);
+        ReflectionTestUtils.setField(calentamientoService, "rondasMinimas", 5);
+        ReflectionTestUtils.setField(calentamientoService, "silencioJitMs", 0L);
+    }
+
+    private Producto producto(long id, String categoria) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setNombre("Producto " + id);
+        producto.setCategoria(categoria);
+        return producto;
+    }
+
+    /**
+     * Test: Abre las conexiones a la vez, repite las lecturas de las entidades recientes y termina
+     */
+    @Test
+    void testCalentar_EjecutaTodasLasFases() throws SQLException {
+        // Arrange
+        Connection conexion = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(conexion);
+        when(conexion.createStatement()).thenReturn(mock(Statement.class));
+        when(productoRepository.findByVersionCambioNotNullOrderByVersionCambioDesc(any()))
+                .thenReturn(List.of(producto(1L, "Lácteos"), producto(2L, "Lácteos")));
+        Tarea tarea = new Tarea();
+        tarea.setId(7L);
+        when(tareaRepository.findByVersionCambioNotNullOrderByVersionCambioDesc(any())).thenReturn(List.of(tarea));
+        when(productoService.obtenerProductosPorIds(List.of(1L, 2L)))
+                .thenReturn(new ResultadoMultiple<>(List.of(), List.of()));
+        when(tareaService.obtenerTareasPorIds(List.of(7L))).thenReturn(new ResultadoMultiple<>(List.of(), List.of()));
+        when(tareaService.obtenerTareaPorId(7L)).thenReturn(Optional.of(tarea));
+        when(productoService.buscarPorCategoria("Lácteos")).thenReturn(List.of());
+        when(catalogoColumnarService.estaHabilitado()).thenReturn(true);
+        when(catalogoColumnarService.estaListo()).thenReturn(false, true);
+
+        // Act
+        calentamientoService.alIniciar();
+
+        // Assert
+        assertTrue(calentamientoService.estaTerminado());
+        verify(dataSource, times(3)).getConnection();
+        verify(conexion, times(3)).close();
+        long rondas = calentamientoService.info(true).getRondas();
+        assertTrue(rondas >= 5);
+        verify(productoService, times((int) rondas)).obtenerProductosPorIds(List.of(1L, 2L));
+        verify(productoService, never()).obtenerProductoPorId(any());
+        verify(catalogoColumnarService, times(2)).estaListo();
+    }
+
+    /**
+     * Test: Si la base de datos no responde, la instancia se marca lista igualmente
+     */
+    @Test
+    void testCalentar_ErrorNoBloqueaLaDisponibilidad() throws SQLException {
+        // Arrange
+        when(dataSource.getConnection()).thenThrow(new SQLException("sin conexión"));
+
+        // Act
+        calentamientoService.alIniciar();
+
+        // Assert
+        assertTrue(calentamientoService.estaTerminado());
+        assertEquals("TERMINADO", calentamientoService.info(true).getFase());
+        assertNotNull(calentamientoService.info(true).getFin());
+        verifyNoInteractions(productoService, tareaService);
+    }
+}
@@ -0,0 +1,167 @@
+package com.aprendizaje.backend.categorias;
+
+import com.aprendizaje.backend.repository.CategoriaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para DiccionarioCategorias y MigracionCategorias
+ * Verifican el diccionario en memoria, los contadores y la migración por lotes
+ */
+@ExtendWith(MockitoExtension.class)
+class DiccionarioCategoriasTest {
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private TransactionTemplate transaccionPropia;
+
+    @InjectMocks
+    private DiccionarioCategorias diccionarioCategorias;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(diccionarioCategorias, "transaccionPropia", transaccionPropia);
+    }
+
+    private void ejecutarTransacciones() {
+        when(transaccionPropia.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    /**
+     * Test: Una categoría nueva se registra una sola vez y luego se traduce en ambos sentidos sin consultas
+     */
+    @Test
+    void testCodigo_RegistraUnaVez() {
+        // Arrange
+        ejecutarTransacciones();
+        when(categoriaRepository.insertar("Lácteos")).thenReturn((short) 3);
+
+        // Act
+        Short primero = diccionarioCategorias.codigo("Lácteos");
+        Short segundo = diccionarioCategorias.codigo("Lácteos");
+        String nombre = diccionarioCategorias.nombre((short) 3);
+
+        // Assert
+        assertEquals((short) 3, primero);
+        assertEquals((short) 3, segundo);
+        assertEquals("Lácteos", nombre);
+        verify(categoriaRepository, times(1)).insertar("Lácteos");
+        verify(categoriaRepository, never()).buscarNombre(anyShort());
+        assertNull(diccionarioCategorias.codigo(null));
+    }
+
+    /**
+     * Test: Un código creado por otra instancia se busca en la tabla y queda en memoria
+     */
+    @Test
+    void testNombre_BuscaCodigoDesconocido() {
+        // Arrange
+        ejecutarTransacciones();
+        when(categoriaRepository.buscarNombre((short) 7)).thenReturn("Bebidas");
+
+        // Act
+        String nombre = diccionarioCategorias.nombre((short) 7);
+        Short codigo = diccionarioCategorias.codigo("Bebidas");
+
+        // Assert
+        assertEquals("Bebidas", nombre);
+        assertEquals((short) 7, codigo);
+        verify(categoriaRepository, never()).insertar(any());
+    }
+
+    /**
+     * Test: Un cambio de categoría resta en la anterior y suma en la nueva; sin cambio no toca los contadores
+     */
+    @Test
+    void testAjustarCantidad() {
+        // Arrange
+        ReflectionTestUtils.invokeMethod(diccionarioCategorias, "recordar", (short) 1, "Frutas");
+        ReflectionTestUtils.invokeMethod(diccionarioCategorias, "recordar", (short) 2, "Verduras");
+
+        // Act
+        diccionarioCategorias.ajustarCantidad("Frutas", "Frutas");
+        diccionarioCategorias.ajustarCantidad(null, "Frutas");
+        diccionarioCategorias.ajustarCantidad("Frutas", "Verduras");
+
+        // Assert
+        verify(categoriaRepository, times(3)).sumar(anyShort(), anyLong());
+        verify(categoriaRepository).sumar((short) 1, 1);
+        verify(categoriaRepository).sumar((short) 1, -1);
+        verify(categoriaRepository).sumar((short) 2, 1);
+        verify(transaccionPropia, never()).execute(any());
+    }
+
+    /**
+     * Test: El converter solo traduce categorías ya registradas; nunca inserta ni consulta
+     */
+    @Test
+    void testCodigoRegistrado_NoInserta() {
+        // Arrange
+        ejecutarTransacciones();
+        when(categoriaRepository.insertar("Bebidas")).thenReturn((short) 4);
+        diccionarioCategorias.codigo("Bebidas");
+
+        // Act & Assert
+        assertEquals((short) 4, diccionarioCategorias.codigoRegistrado("Bebidas"));
+        assertNull(diccionarioCategorias.codigoRegistrado(null));
+        assertThrows(IllegalStateException.class, () -> diccionarioCategorias.codigoRegistrado("Frutas"));
+        verify(transaccionPropia, times(1)).execute(any());
+    }
+
+    /**
+     * Test: La migración recorre los lotes desde el último ID migrado hasta que no quedan filas
+     */
+    @Test
+    void testMigrar_RecorrePorLotes() {
+        // Arrange
+        MigracionCategorias migracion = new MigracionCategorias();
+        ReflectionTestUtils.setField(migracion, "categoriaRepository", categoriaRepository);
+        ReflectionTestUtils.setField(migracion, "tamanoLote", 100);
+        when(categoriaRepository.migrarLote(0, 100)).thenReturn(120L);
+        when(categoriaRepository.migrarLote(120, 100)).thenReturn(260L);
+        when(categoriaRepository.migrarLote(260, 100)).thenReturn(null);
+
+        // Act
+        int lotes = migracion.migrar();
+
+        // Assert
+        assertEquals(2, lotes);
+        verify(categoriaRepository).internarLote(0, 100);
+        verify(categoriaRepository).internarLote(120, 100);
+        verify(categoriaRepository).internarLote(260, 100);
+    }
+
+    /**
+     * Test: La columna de texto solo se elimina cuando no quedan filas por migrar
+     */
+    @Test
+    void testEliminarColumnaTexto_SoloSiTerminoLaMigracion() {
+        // Arrange
+        MigracionCategorias migracion = new MigracionCategorias();
+        ReflectionTestUtils.setField(migracion, "categoriaRepository", categoriaRepository);
+        when(categoriaRepository.quedanSinMigrar()).thenReturn(true, false);
+
+        // Act
+        boolean pendiente = migracion.eliminarColumnaTexto();
+        boolean terminada = migracion.eliminarColumnaTexto();
+
+        // Assert
+        assertFalse(pendiente);
+        assertTrue(terminada);
+        verify(categoriaRepository, times(1)).eliminarColumnaTexto();
+    }
+}
@@ -1,5 +1,12 @@
 package com.aprendizaje.backend.controller;
 
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.dto.PaginaResultados;
+import com.aprendizaje.backend.dto.ResultadoBusqueda;
+import com.aprendizaje.backend.dto.ResultadoLote;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.dto.ResultadoOperacion;
+import com.aprendizaje.backend.service.LoteRechazadoException;
 import com.aprendizaje.backend.model.Tarea;
 import com.aprendizaje.backend.service.TareaService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,6 +26,8 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -84,6 +93,25 @@ class TareaControllerTest {
         verify(tareaService, times(1)).obtenerTodasLasTareas();
     }
 
+    /**
+     * Test: GET /api/tareas?incluirArchivadas=true - Incluye las tareas archivadas
+     */
+    @Test
+    void testObtenerTodasLasTareas_IncluirArchivadas() throws Exception {
+        // Arrange
+        tarea2.setArchivada(true);
+        when(tareaService.obtenerTodasLasTareasIncluyendoArchivadas()).thenReturn(Arrays.asList(tarea1, tarea2));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tareas").param("incluirArchivadas", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].archivada", is(false)))
+                .andExpect(jsonPath("$[1].archivada", is(true)));
+
+        verify(tareaService, never()).obtenerTodasLasTareas();
+    }
+
     /**
      * Test: GET /api/tareas/{id} - Obtener tarea existente
      */
@@ -199,6 +227,38 @@ class TareaControllerTest {
         verify(tareaService, times(1)).eliminarTarea(1L);
     }
 
+    /**
+     * Test: DELETE /api/tareas?ids= - Eliminar varias tareas
+     */
+    @Test
+    void testEliminarTareasPorIds() throws Exception {
+        // Arrange
+        when(tareaService.eliminarTareasPorIds(List.of(1L, 2L, 9L)))
+                .thenReturn(new ResultadoMultiple<>(List.of(1L, 2L), List.of(9L)));
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/tareas").param("ids", "1,2,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.encontrados", hasSize(2)))
+                .andExpect(jsonPath("$.faltantes[0]", is(9)));
+    }
+
+    /**
+     * Test: DELETE /api/tareas/completadas - Eliminar todas las completadas
+     */
+    @Test
+    void testEliminarTareasCompletadas() throws Exception {
+        // Arrange
+        when(tareaService.eliminarTareasCompletadas()).thenReturn(12);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/tareas/completadas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eliminadas", is(12)));
+
+        verify(tareaService, never()).eliminarTarea(any());
+    }
+
     /**
      * Test: DELETE /api/tareas/{id} - Tarea no encontrada
      */
@@ -213,4 +273,157 @@ class TareaControllerTest {
 
         verify(tareaService, times(1)).eliminarTarea(999L);
     }
+
+    /**
+     * Test: GET /api/tareas/cambios - Sincronización incremental
+     */
+    @Test
+    void testObtenerCambios() throws Exception {
+        // Arrange
+        CambiosDesde<Tarea> cambios = new CambiosDesde<>(List.of(tarea1), List.of(7L), "42", false);
+        when(tareaService.obtenerCambiosDesde("10", null)).thenReturn(cambios);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tareas/cambios").param("desde", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cambios", hasSize(1)))
+                .andExpect(jsonPath("$.eliminados[0]", is(7)))
+                .andExpect(jsonPath("$.token", is("42")))
+                .andExpect(jsonPath("$.hayMas", is(false)));
+
+        verify(tareaService, times(1)).obtenerCambiosDesde("10", null);
+    }
+
+    /**
+     * Test: GET /api/tareas/cambios - Token inválido
+     */
+    @Test
+    void testObtenerCambios_TokenInvalido() throws Exception {
+        // Arrange
+        when(tareaService.obtenerCambiosDesde("abc", null)).thenThrow(new IllegalArgumentException("Token inválido"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tareas/cambios").param("desde", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test: PUT /api/tareas/{id}/completar - Marcar tarea como completada
+     */
+    @Test
+    void testCompletarTarea() throws Exception {
+        // Arrange
+        tarea1.setCompletada(true);
+        when(tareaService.cambiarEstadoTarea(1L, true)).thenReturn(tarea1);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/tareas/1/completar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completada", is(true)));
+
+        verify(tareaService, times(1)).cambiarEstadoTarea(1L, true);
+    }
+
+    /**
+     * Test: PUT /api/tareas/{id}/completar - Con write-behind responde 202 sin leer la tarea
+     */
+    @Test
+    void testCompletarTarea_WriteBehind() throws Exception {
+        // Arrange
+        when(tareaService.cambiarEstadoDiferido(1L, true)).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/tareas/1/completar"))
+                .andExpect(status().isAccepted());
+
+        verify(tareaService, never()).cambiarEstadoTarea(anyLong(), anyBoolean());
+    }
+
+    /**
+     * Test: PUT /api/tareas/{id}/descompletar - Tarea no encontrada
+     */
+    @Test
+    void testDescompletarTarea_TareaNoExiste() throws Exception {
+        // Arrange
+        when(tareaService.cambiarEstadoTarea(999L, false)).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/tareas/999/descompletar"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test: GET /api/tareas?ids=2,1,9 - Obtener varias tareas por ID
+     */
+    @Test
+    void testObtenerTareasPorIds() throws Exception {
+        // Arrange
+        ResultadoMultiple<Tarea> resultado = new ResultadoMultiple<>(List.of(tarea2, tarea1), List.of(9L));
+        when(tareaService.obtenerTareasPorIds(List.of(2L, 1L, 9L))).thenReturn(resultado);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tareas").param("ids", "2,1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.encontrados", hasSize(2)))
+                .andExpect(jsonPath("$.encontrados[0].id", is(2)))
+                .andExpect(jsonPath("$.faltantes[0]", is(9)));
+
+        verify(tareaService, never()).obtenerTodasLasTareas();
+    }
+
+    /**
+     * Test: POST /api/tareas/lote - Un lote TODO_O_NADA rechazado responde 409 con el detalle
+     */
+    @Test
+    void testEjecutarLote_Rechazado() throws Exception {
+        // Arrange
+        ResultadoLote rechazado = new ResultadoLote(false, List.of(
+                new ResultadoOperacion(0, null, 1L, ResultadoOperacion.Estado.NO_ENCONTRADA, null, null)));
+        when(tareaService.ejecutarLote(any())).thenThrow(new LoteRechazadoException(rechazado));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/tareas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operaciones\":[{\"tipo\":\"COMPLETAR\",\"id\":1}]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.exito", is(false)))
+                .andExpect(jsonPath("$.resultados[0].estado", is("NO_ENCONTRADA")));
+    }
+
+    /**
+     * Test: GET /api/tareas/buscar?q=prueba - Búsqueda de texto con resultados resaltados
+     */
+    @Test
+    void testBuscarTareas() throws Exception {
+        // Arrange
+        PaginaResultados<ResultadoBusqueda> pagina = new PaginaResultados<>(
+                List.of(new ResultadoBusqueda(tarea1, 0.8, "Tarea de <mark>prueba</mark> 1", "")), 0, 20, false);
+        when(tareaService.buscarTareas("prueba", null, 0, 20)).thenReturn(pagina);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tareas/buscar").param("q", "prueba"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resultados", hasSize(1)))
+                .andExpect(jsonPath("$.resultados[0].tarea.id", is(1)))
+                .andExpect(jsonPath("$.resultados[0].tituloResaltado", is("Tarea de <mark>prueba</mark> 1")))
+                .andExpect(jsonPath("$.hayMas", is(false)));
+
+        verify(tareaService, never()).obtenerTareaPorId(any());
+    }
+
+    /**
+     * Test: GET /api/tareas/contar?completada=true - No se confunde con GET /api/tareas/{id}
+     */
+    @Test
+    void testContarTareas() throws Exception {
+        // Arrange
+        when(tareaService.contarTareas(true)).thenReturn(7L);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tareas/contar").param("completada", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+
+        verify(tareaService, never()).obtenerTareaPorId(any());
+    }
 }
@@ -0,0 +1,107 @@
+package com.aprendizaje.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests unitarios para EnrutadorLecturasDataSource
+ * Verifican a dónde se envía cada conexión según el tipo de transacción
+ */
+class EnrutadorLecturasDataSourceTest {
+
+    private DataSource primario;
+    private ReplicaLectura replica1;
+    private ReplicaLectura replica2;
+    private EnrutadorLecturasDataSource enrutador;
+
+    @BeforeEach
+    void setUp() {
+        primario = mock(DataSource.class);
+        replica1 = new ReplicaLectura("replica-1", new HikariDataSource());
+        replica2 = new ReplicaLectura("replica-2", new HikariDataSource());
+        replica1.setLagMs(0);
+        replica2.setLagMs(0);
+        enrutador = new EnrutadorLecturasDataSource(primario, List.of(replica1, replica2),
+                EnrutadorLecturasDataSource.Estrategia.ROUND_ROBIN, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ContextoLectura.limpiar();
+    }
+
+    /**
+     * Test: Fuera de una transacción de solo lectura se usa el primario
+     */
+    @Test
+    void testDestino_EscrituraVaAlPrimario() {
+        assertSame(primario, enrutador.destino());
+    }
+
+    /**
+     * Test: Las lecturas se reparten entre las réplicas
+     */
+    @Test
+    void testDestino_LecturaRoundRobin() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        DataSource primera = enrutador.destino();
+        DataSource segunda = enrutador.destino();
+
+        // Assert
+        assertNotSame(primera, segunda);
+        assertNotSame(primario, primera);
+        assertNotSame(primario, segunda);
+    }
+
+    /**
+     * Test: Una réplica muy atrasada no recibe lecturas
+     */
+    @Test
+    void testDestino_IgnoraReplicaAtrasada() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replica1.setLagMs(60_000);
+
+        // Act & Assert
+        assertSame(replica2.getDataSource(), enrutador.destino());
+        assertSame(replica2.getDataSource(), enrutador.destino());
+    }
+
+    /**
+     * Test: Un cliente que acaba de escribir lee del primario
+     */
+    @Test
+    void testDestino_LecturaPropiaVaAlPrimario() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ContextoLectura.forzarPrimario();
+
+        // Act & Assert
+        assertSame(primario, enrutador.destino());
+    }
+
+    /**
+     * Test: El multi-get por POST no cuenta como escritura para la lectura propia
+     */
+    @Test
+    void testEsEscritura_PorIdsEsLectura() {
+        assertFalse(LecturaPropiaInterceptor.esEscritura(new MockHttpServletRequest("POST", "/api/tareas/por-ids")));
+        assertFalse(LecturaPropiaInterceptor.esEscritura(new MockHttpServletRequest("GET", "/api/tareas/5")));
+        assertTrue(LecturaPropiaInterceptor.esEscritura(new MockHttpServletRequest("POST", "/api/tareas/eliminar-por-ids")));
+        assertTrue(LecturaPropiaInterceptor.esEscritura(new MockHttpServletRequest("PUT", "/api/tareas/5")));
+    }
+}
@@ -0,0 +1,153 @@
+package com.aprendizaje.backend.exportacion;
+
+import com.aprendizaje.backend.dto.InfoExportacion;
+import com.aprendizaje.backend.dto.PeticionExportacion;
+import com.aprendizaje.backend.repository.ExportacionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ExportacionService
+ * Verifican la lectura por bloques, el archivo comprimido y el límite de trabajos
+ */
+class ExportacionServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private ExportacionRepository exportacionRepository;
+    private ExportacionService exportacionService;
+
+    @BeforeEach
+    void setUp() {
+        exportacionRepository = mock(ExportacionRepository.class);
+        exportacionService = new ExportacionService(1, 1);
+        ReflectionTestUtils.setField(exportacionService, "exportacionRepository", exportacionRepository);
+        ReflectionTestUtils.setField(exportacionService, "tamanoBloque", 2);
+        ReflectionTestUtils.setField(exportacionService, "directorio", directorio.toString());
+        when(exportacionRepository.columnas("producto")).thenReturn(List.of("id", "nombre"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportacionService.cerrar();
+    }
+
+    private Map<String, Object> fila(long id, String nombre) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        valores.put("id", id);
+        valores.put("nombre", nombre);
+        return valores;
+    }
+
+    private PeticionExportacion peticion(String formato) {
+        PeticionExportacion peticion = new PeticionExportacion();
+        peticion.setEntidad("producto");
+        peticion.setFormato(formato);
+        return peticion;
+    }
+
+    private String leerGzip(Path archivo) throws IOException {
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Test: Recorre los bloques con el último ID como cursor y escribe un CSV comprimido
+     */
+    @Test
+    void testEjecutar_CsvPorBloques() throws IOException {
+        // Arrange
+        PeticionExportacion peticion = peticion("csv");
+        when(exportacionRepository.contar(peticion)).thenReturn(3L);
+        when(exportacionRepository.leerBloque(peticion, 0, 2))
+                .thenReturn(List.of(fila(1L, "Leche"), fila(4L, "Pan, integral")));
+        when(exportacionRepository.leerBloque(peticion, 4, 2))
+                .thenReturn(List.of(fila(9L, "Queso \"fresco\"")));
+        TrabajoExportacion trabajo = new TrabajoExportacion("t1", peticion, FormatoExportacion.CSV);
+
+        // Act
+        exportacionService.ejecutar(trabajo);
+
+        // Assert
+        assertEquals(EstadoExportacion.COMPLETADA, trabajo.estado());
+        InfoExportacion info = trabajo.info();
+        assertEquals(3, info.getFilasEscritas());
+        assertEquals(100, info.getProgreso());
+        assertEquals("id,nombre\n1,Leche\n4,\"Pan, integral\"\n9,\"Queso \"\"fresco\"\"\"\n",
+                leerGzip(trabajo.archivo()));
+        assertEquals(Files.size(trabajo.archivo()), info.getTamanoBytes());
+        assertFalse(Files.exists(directorio.resolve(trabajo.nombreArchivo() + ".parcial")));
+    }
+
+    /**
+     * Test: Si la lectura falla, el trabajo queda FALLIDA y no deja archivos
+     */
+    @Test
+    void testEjecutar_ErrorBorraArchivoParcial() throws IOException {
+        // Arrange
+        PeticionExportacion peticion = peticion("ndjson");
+        when(exportacionRepository.leerBloque(eq(peticion), anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("conexión perdida"));
+        TrabajoExportacion trabajo = new TrabajoExportacion("t2", peticion, FormatoExportacion.NDJSON);
+
+        // Act
+        exportacionService.ejecutar(trabajo);
+
+        // Assert
+        assertEquals(EstadoExportacion.FALLIDA, trabajo.estado());
+        assertEquals("conexión perdida", trabajo.info().getError());
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(0, archivos.count());
+        }
+    }
+
+    /**
+     * Test: Con el hilo ocupado y la cola llena se rechaza la exportación, y no se puede
+     * descargar un trabajo que no terminó
+     */
+    @Test
+    void testEnviar_LimiteDeTrabajos() throws InterruptedException {
+        // Arrange: el primer trabajo se queda bloqueado leyendo
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(exportacionRepository.contar(any())).thenAnswer(invocacion -> {
+            leyendo.countDown();
+            liberar.await();
+            return 0L;
+        });
+        InfoExportacion enCurso = exportacionService.enviar(peticion("csv"));
+        leyendo.await();
+        exportacionService.enviar(peticion("csv"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> exportacionService.enviar(peticion("csv")));
+        assertThrows(IllegalStateException.class, () -> exportacionService.archivo(enCurso.getId()));
+        assertThrows(IllegalArgumentException.class, () -> exportacionService.enviar(peticion("xml")));
+        assertEquals(2, exportacionService.listar().size());
+
+        liberar.countDown();
+    }
+}
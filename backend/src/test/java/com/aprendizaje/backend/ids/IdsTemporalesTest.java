@@ -0,0 +1,112 @@
+package com.aprendizaje.backend.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para IdsTemporales
+ * Usan un reloj controlado para probar el mismo milisegundo y el reloj atrasado
+ */
+class IdsTemporalesTest {
+
+    /**
+     * Test: El ID guarda el instante y el nodo que lo generaron
+     */
+    @Test
+    void testSiguiente_CodificaInstanteYNodo() {
+        // Arrange
+        long ahora = IdsTemporales.EPOCA + 123_456_789L;
+        IdsTemporales ids = new IdsTemporales(23, () -> ahora);
+
+        // Act
+        long id = ids.siguiente();
+
+        // Assert
+        assertTrue(id > 0);
+        assertEquals(ahora, IdsTemporales.instante(id).toEpochMilli());
+        assertEquals(23, IdsTemporales.nodo(id));
+    }
+
+    /**
+     * Test: Hasta el último milisegundo del formato, el ID no pasa de Number.MAX_SAFE_INTEGER de JavaScript
+     */
+    @Test
+    void testSiguiente_CabeEnNumberDeJavaScript() {
+        // Arrange
+        long ultimoMilisegundo = IdsTemporales.EPOCA + (1L << IdsTemporales.BITS_MILISEGUNDOS) - 1;
+        IdsTemporales ids = new IdsTemporales(IdsTemporales.NODO_MAXIMO, () -> ultimoMilisegundo);
+
+        // Act
+        long id = ids.siguiente();
+
+        // Assert
+        assertTrue(id <= (1L << 53) - 1);
+        assertEquals(ultimoMilisegundo, IdsTemporales.instante(id).toEpochMilli());
+        assertEquals(IdsTemporales.NODO_MAXIMO, IdsTemporales.nodo(id));
+    }
+
+    /**
+     * Test: En el mismo milisegundo, o si el reloj retrocede, los IDs siguen creciendo
+     */
+    @Test
+    void testSiguiente_CreceAunqueElRelojRetroceda() {
+        // Arrange
+        AtomicLong reloj = new AtomicLong(IdsTemporales.EPOCA + 10_000);
+        IdsTemporales ids = new IdsTemporales(1, reloj::get);
+
+        // Act
+        long primero = ids.siguiente();
+        long mismoMilisegundo = ids.siguiente();
+        reloj.addAndGet(-5_000);
+        long relojAtrasado = ids.siguiente();
+        reloj.addAndGet(10_000);
+        long relojAdelantado = ids.siguiente();
+
+        // Assert
+        assertTrue(mismoMilisegundo > primero);
+        assertTrue(relojAtrasado > mismoMilisegundo);
+        assertTrue(relojAdelantado > relojAtrasado);
+        assertEquals(reloj.get(), IdsTemporales.instante(relojAdelantado).toEpochMilli());
+    }
+
+    /**
+     * Test: Varios hilos a la vez no obtienen IDs repetidos
+     */
+    @Test
+    void testSiguiente_SinRepetidosConVariosHilos() throws InterruptedException {
+        // Arrange
+        IdsTemporales ids = new IdsTemporales(5);
+        Set<Long> generados = ConcurrentHashMap.newKeySet();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int h = 0; h < 8; h++) {
+            hilos.execute(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    generados.add(ids.siguiente());
+                }
+            });
+        }
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(160_000, generados.size());
+    }
+
+    /**
+     * Test: Un nodo fuera de rango se rechaza
+     */
+    @Test
+    void testConstructor_NodoInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new IdsTemporales(IdsTemporales.NODO_MAXIMO + 1));
+    }
+}
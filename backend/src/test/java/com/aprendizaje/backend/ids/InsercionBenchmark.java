@@ -0,0 +1,128 @@
+package com.aprendizaje.backend.ids;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmark de inserción de tareas con cada estrategia de IDs
+ * No es un test (no lo ejecuta Maven); se lanza a mano contra un PostgreSQL de pruebas:
+ *
+ *   java -cp target/test-classes:target/classes:<classpath> com.aprendizaje.backend.ids.InsercionBenchmark \
+ *        jdbc:postgresql://localhost:5432/tareas_db?reWriteBatchedInserts=true postgres root 100000
+ *
+ * Trabaja sobre tablas temporales con la misma estructura que "tareas", así que no toca los datos:
+ * - IDENTITY: un INSERT ... RETURNING id por fila (lo que hacía Hibernate antes)
+ * - SECUENCIA: un nextval() cada 50 filas e INSERT en lotes JDBC de 50
+ * - TEMPORAL: IDs generados en memoria e INSERT en lotes JDBC de 50
+ */
+public class InsercionBenchmark {
+
+    private static final int TAMANO_LOTE = 50;
+    private static final int RONDAS = 3;
+
+    public static void main(String[] args) throws SQLException {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/tareas_db?reWriteBatchedInserts=true";
+        String usuario = args.length > 1 ? args[1] : "postgres";
+        String clave = args.length > 2 ? args[2] : "root";
+        int filas = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        try (Connection conexion = DriverManager.getConnection(url, usuario, clave)) {
+            conexion.setAutoCommit(false);
+            try (Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("CREATE TEMP TABLE bench_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                        + " titulo VARCHAR(100) NOT NULL, completada BOOLEAN NOT NULL, fecha_creacion TIMESTAMP(6) NOT NULL)");
+                sentencia.execute("CREATE TEMP TABLE bench_asignado (id BIGINT PRIMARY KEY,"
+                        + " titulo VARCHAR(100) NOT NULL, completada BOOLEAN NOT NULL, fecha_creacion TIMESTAMP(6) NOT NULL)");
+                sentencia.execute("CREATE TEMP SEQUENCE bench_seq INCREMENT BY " + TAMANO_LOTE);
+            }
+            conexion.commit();
+
+            System.out.printf("%d filas por ronda, %d rondas, lotes de %d%n", filas, RONDAS, TAMANO_LOTE);
+            for (int ronda = 1; ronda <= RONDAS; ronda++) {
+                medir(conexion, "IDENTITY", filas, () -> insertarIdentity(conexion, filas));
+                medir(conexion, "SECUENCIA", filas, () -> insertarSecuencia(conexion, filas));
+                medir(conexion, "TEMPORAL", filas, () -> insertarTemporal(conexion, filas));
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una estrategia dentro de una transacción, vacía las tablas y muestra las filas por segundo
+     */
+    private static void medir(Connection conexion, String nombre, int filas, Insercion insercion) throws SQLException {
+        long inicio = System.nanoTime();
+        insercion.ejecutar();
+        conexion.commit();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-10s %8.3f s %12.0f filas/s%n", nombre, segundos, filas / segundos);
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("TRUNCATE bench_identity, bench_asignado");
+        }
+        conexion.commit();
+    }
+
+    private static void insertarIdentity(Connection conexion, int filas) throws SQLException {
+        String sql = "INSERT INTO bench_identity (titulo, completada, fecha_creacion) VALUES (?, ?, ?) RETURNING id";
+        try (PreparedStatement insert = conexion.prepareStatement(sql)) {
+            for (int i = 0; i < filas; i++) {
+                asignarDatos(insert, 1, i);
+                try (ResultSet clave = insert.executeQuery()) {
+                    clave.next();
+                }
+            }
+        }
+    }
+
+    private static void insertarSecuencia(Connection conexion, int filas) throws SQLException {
+        SecuenciaAgrupada secuencia = new SecuenciaAgrupada(TAMANO_LOTE);
+        try (PreparedStatement nextval = conexion.prepareStatement("SELECT nextval('bench_seq')")) {
+            insertarEnLotes(conexion, filas, () -> secuencia.siguiente("bench_seq", nombre -> {
+                try (ResultSet resultado = nextval.executeQuery()) {
+                    resultado.next();
+                    return resultado.getLong(1);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+    }
+
+    private static void insertarTemporal(Connection conexion, int filas) throws SQLException {
+        IdsTemporales ids = new IdsTemporales(0);
+        insertarEnLotes(conexion, filas, ids::siguiente);
+    }
+
+    private static void insertarEnLotes(Connection conexion, int filas, LongSupplier ids)
+            throws SQLException {
+        String sql = "INSERT INTO bench_asignado (id, titulo, completada, fecha_creacion) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement insert = conexion.prepareStatement(sql)) {
+            for (int i = 0; i < filas; i++) {
+                insert.setLong(1, ids.getAsLong());
+                asignarDatos(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % TAMANO_LOTE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void asignarDatos(PreparedStatement insert, int desde, int i) throws SQLException {
+        insert.setString(desde, "Tarea " + i);
+        insert.setBoolean(desde + 1, i % 2 == 0);
+        insert.setTimestamp(desde + 2, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @FunctionalInterface
+    private interface Insercion {
+        void ejecutar() throws SQLException;
+    }
+}
@@ -0,0 +1,73 @@
+package com.aprendizaje.backend.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SecuenciaAgrupada
+ * La secuencia se simula con una función que cuenta las llamadas a nextval()
+ */
+class SecuenciaAgrupadaTest {
+
+    /**
+     * Test: Solo se llama a la secuencia una vez por bloque, y cada secuencia tiene su propio bloque
+     */
+    @Test
+    void testSiguiente_UnaLecturaPorBloque() {
+        // Arrange
+        SecuenciaAgrupada secuencia = new SecuenciaAgrupada(3);
+        List<String> lecturas = new ArrayList<>();
+        long[] valor = {100};
+
+        // Act
+        List<Long> tareas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tareas.add(secuencia.siguiente("tareas", nombre -> {
+                lecturas.add(nombre);
+                long inicio = valor[0];
+                valor[0] += 3;
+                return inicio;
+            }));
+        }
+        long producto = secuencia.siguiente("productos", nombre -> {
+            lecturas.add(nombre);
+            return 1;
+        });
+
+        // Assert
+        assertEquals(List.of(100L, 101L, 102L, 103L), tareas);
+        assertEquals(1L, producto);
+        assertEquals(List.of("tareas", "tareas", "productos"), lecturas);
+    }
+
+    /**
+     * Test: Una secuencia con INCREMENT BY distinto del tamaño de bloque detiene el arranque
+     */
+    @Test
+    void testVerificarIncrementos_DistintoDelBloque() {
+        // Arrange
+        Map<String, Long> incrementos = Map.of("tareas_id_seq_pool", 50L, "productos_id_seq_pool", 1L);
+
+        // Act
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> SecuenciaAgrupada.verificarIncrementos(50, incrementos));
+
+        // Assert
+        assertTrue(error.getMessage().contains("productos_id_seq_pool"));
+        assertFalse(error.getMessage().contains("tareas_id_seq_pool"));
+    }
+
+    /**
+     * Test: Si todas las secuencias coinciden con el tamaño de bloque no hay error
+     */
+    @Test
+    void testVerificarIncrementos_Coinciden() {
+        assertDoesNotThrow(() -> SecuenciaAgrupada.verificarIncrementos(50,
+                Map.of("tareas_id_seq_pool", 50L, "productos_id_seq_pool", 50L)));
+    }
+}
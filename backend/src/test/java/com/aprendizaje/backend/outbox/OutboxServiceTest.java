@@ -0,0 +1,98 @@
+package com.aprendizaje.backend.outbox;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.repository.OutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para OutboxService
+ * Verifican que los registros de una transacción se inserten juntos antes del commit
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "habilitado", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (TransactionSynchronizationManager.hasResource(outboxService)) {
+            TransactionSynchronizationManager.unbindResource(outboxService);
+        }
+    }
+
+    /**
+     * Test: Dentro de una transacción nada se inserta hasta beforeCommit, y entonces todo junto tras el flush
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAlCambiarEntidad_InsertaAntesDelCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        outboxService.alCambiarEntidad(new CambioEntidadEvent("tarea", TipoCambio.ELIMINADO, 1L, null));
+        outboxService.alCambiarEntidad(new CambioEntidadEvent("tarea", TipoCambio.ELIMINADO, 2L, null));
+        verify(outboxRepository, never()).insertar(anyList());
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.beforeCommit(false);
+        }
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> registros = ArgumentCaptor.forClass(List.class);
+        var orden = inOrder(entityManager, outboxRepository);
+        orden.verify(entityManager).flush();
+        orden.verify(outboxRepository).insertar(registros.capture());
+        assertEquals(List.of(1L, 2L), registros.getValue().stream().map(r -> r[2]).toList());
+    }
+
+    /**
+     * Test: Sin transacción el registro se inserta de inmediato
+     */
+    @Test
+    void testAlCambiarEntidad_SinTransaccion() {
+        // Act
+        outboxService.alCambiarEntidad(new CambioEntidadEvent("tarea", TipoCambio.ELIMINADO, 3L, null));
+
+        // Assert
+        verify(outboxRepository, times(1)).insertar(anyList());
+        verifyNoInteractions(entityManager);
+    }
+}
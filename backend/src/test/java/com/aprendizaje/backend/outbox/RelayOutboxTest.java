@@ -0,0 +1,168 @@
+package com.aprendizaje.backend.outbox;
+
+import com.aprendizaje.backend.repository.OutboxRepository;
+import com.aprendizaje.backend.shards.ShardsTareas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RelayOutbox
+ * Verifican el avance de offsets por destino, la poda por particiones y el formato NDJSON
+ */
+class RelayOutboxTest {
+
+    @TempDir
+    Path directorio;
+
+    private OutboxRepository outboxRepository;
+    private RelayOutbox relayOutbox;
+    private final List<List<RegistroOutbox>> recibidos = new ArrayList<>();
+
+    /**
+     * Destino que guarda los lotes en memoria
+     */
+    private final DestinoOutbox destinoOk = new DestinoOutbox() {
+        @Override
+        public String getNombre() {
+            return "ok";
+        }
+
+        @Override
+        public void enviar(List<RegistroOutbox> lote) {
+            recibidos.add(lote);
+        }
+    };
+
+    /**
+     * Destino que siempre falla
+     */
+    private final DestinoOutbox destinoCaido = new DestinoOutbox() {
+        @Override
+        public String getNombre() {
+            return "caido";
+        }
+
+        @Override
+        public void enviar(List<RegistroOutbox> lote) throws IOException {
+            throw new IOException("sin conexión");
+        }
+    };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        OutboxService outboxService = mock(OutboxService.class);
+        when(outboxService.estaHabilitado()).thenReturn(true);
+        ObjectProvider<ShardsTareas> shards = mock(ObjectProvider.class);
+
+        relayOutbox = new RelayOutbox();
+        ReflectionTestUtils.setField(relayOutbox, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(relayOutbox, "outboxService", outboxService);
+        ReflectionTestUtils.setField(relayOutbox, "shardsTareas", shards);
+        ReflectionTestUtils.setField(relayOutbox, "destinos", List.of(destinoOk, destinoCaido));
+        ReflectionTestUtils.setField(relayOutbox, "tamanoLote", 2);
+        ReflectionTestUtils.setField(relayOutbox, "lotesPorPasada", 10);
+        ReflectionTestUtils.setField(relayOutbox, "retencionDias", 7);
+        ReflectionTestUtils.setField(relayOutbox, "diasAdelantados", 1);
+    }
+
+    private RegistroOutbox registro(long id) {
+        return new RegistroOutbox(id, "producto", "ACTUALIZADO", id * 10, "{\"id\":" + (id * 10) + "}",
+                LocalDateTime.of(2026, 1, 15, 10, 0));
+    }
+
+    /**
+     * Test: Cada destino avanza su offset por lotes; uno caído no avanza ni frena a los demás
+     */
+    @Test
+    void testEntregar_OffsetPorDestino() {
+        // Arrange
+        when(outboxRepository.offset("ok")).thenReturn(0L);
+        when(outboxRepository.offset("caido")).thenReturn(0L);
+        when(outboxRepository.leerDesde(0L, 2)).thenReturn(List.of(registro(1), registro(2)));
+        when(outboxRepository.leerDesde(2L, 2)).thenReturn(List.of(registro(3)));
+
+        // Act
+        int entregados = relayOutbox.entregar();
+
+        // Assert
+        assertEquals(3, entregados);
+        assertEquals(2, recibidos.size());
+        verify(outboxRepository).guardarOffset("ok", 2L);
+        verify(outboxRepository).guardarOffset("ok", 3L);
+        verify(outboxRepository, never()).guardarOffset(eq("caido"), anyLong());
+        List<?> consumidores = (List<?>) relayOutbox.estado().get(0).get("consumidores");
+        assertEquals("sin conexión", ((Map<?, ?>) consumidores.get(1)).get("error"));
+    }
+
+    /**
+     * Test: Solo se eliminan las particiones vencidas que ya recibieron todos los consumidores
+     */
+    @Test
+    void testMantener_EliminaParticionesEntregadas() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        LocalDate vieja = hoy.minusDays(20);
+        LocalDate pendiente = hoy.minusDays(10);
+        when(outboxRepository.offset("ok")).thenReturn(500L);
+        when(outboxRepository.offset("caido")).thenReturn(100L);
+        when(outboxRepository.diasConParticion()).thenReturn(List.of(vieja, pendiente, hoy));
+        when(outboxRepository.maximoIdParticion(vieja)).thenReturn(90L);
+        when(outboxRepository.maximoIdParticion(pendiente)).thenReturn(150L);
+
+        // Act
+        relayOutbox.mantener();
+
+        // Assert
+        verify(outboxRepository).crearParticion(hoy.minusDays(1));
+        verify(outboxRepository).crearParticion(hoy.plusDays(1));
+        verify(outboxRepository).eliminarParticion(vieja);
+        verify(outboxRepository, never()).eliminarParticion(pendiente);
+        verify(outboxRepository, never()).eliminarParticion(hoy);
+        verify(outboxRepository).podarDefault(100L, hoy.minusDays(7).atStartOfDay());
+    }
+
+    /**
+     * Test: El destino de archivo escribe una línea JSON por registro, con los datos anidados
+     */
+    @Test
+    void testDestinoArchivo_Ndjson() throws IOException {
+        // Arrange
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        DestinoArchivoOutbox destino = new DestinoArchivoOutbox();
+        ReflectionTestUtils.setField(destino, "objectMapper", mapper);
+        ReflectionTestUtils.setField(destino, "directorio", directorio.toString());
+
+        // Act
+        destino.enviar(List.of(registro(1), registro(2)));
+        destino.enviar(List.of(registro(3)));
+
+        // Assert
+        List<String> lineas = Files.readAllLines(directorio.resolve("outbox-2026-01-15.ndjson"));
+        assertEquals(3, lineas.size());
+        assertEquals(10, mapper.readTree(lineas.get(0)).get("datos").get("id").asInt());
+        assertEquals("2026-01-15T10:00:00", mapper.readTree(lineas.get(2)).get("fecha").asText());
+    }
+}
@@ -0,0 +1,115 @@
+package com.aprendizaje.backend.perfilado;
+
+import com.aprendizaje.backend.dto.InfoGrabacion;
+import com.aprendizaje.backend.dto.PeticionGrabacion;
+import com.aprendizaje.backend.service.ProductoService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PerfiladoService y EventosServiciosAspect
+ * Usan grabaciones JFR reales de la JVM que ejecuta los tests
+ */
+class PerfiladoServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private PerfiladoService perfiladoService;
+
+    @BeforeEach
+    void setUp() {
+        perfiladoService = new PerfiladoService();
+        ReflectionTestUtils.setField(perfiladoService, "maximoGrabaciones", 1);
+        ReflectionTestUtils.setField(perfiladoService, "duracionMaximaSegundos", 60L);
+        ReflectionTestUtils.setField(perfiladoService, "directorio", directorio.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        perfiladoService.cerrar();
+    }
+
+    /**
+     * Test: La grabación exportada incluye las operaciones de servicio registradas por el aspecto
+     */
+    @Test
+    void testExportar_IncluyeOperacionesDeServicio() throws Throwable {
+        // Arrange
+        InfoGrabacion grabacion = perfiladoService.iniciar(new PeticionGrabacion());
+        ProceedingJoinPoint llamada = mock(ProceedingJoinPoint.class);
+        Signature firma = mock(Signature.class);
+        when(llamada.getSignature()).thenReturn(firma);
+        when(firma.getDeclaringType()).thenReturn(ProductoService.class);
+        when(firma.getName()).thenReturn("obtenerProductoPorId");
+        when(llamada.getArgs()).thenReturn(new Object[]{42L});
+        when(llamada.proceed()).thenReturn(Optional.of("producto"));
+
+        // Act
+        new EventosServiciosAspect().registrar(llamada);
+        perfiladoService.detener(grabacion.getId());
+        Path archivo = perfiladoService.exportar(grabacion.getId()).orElseThrow();
+
+        // Assert
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(archivo).stream()
+                .filter(e -> e.getEventType().getName().equals("com.aprendizaje.OperacionServicio"))
+                .toList();
+        assertEquals(1, eventos.size());
+        assertEquals("producto", eventos.get(0).getString("entidad"));
+        assertEquals("obtenerProductoPorId", eventos.get(0).getString("operacion"));
+        assertEquals(42L, eventos.get(0).getLong("entidadId"));
+        assertEquals(1, eventos.get(0).getInt("filas"));
+    }
+
+    /**
+     * Test: No se inicia otra grabación si ya se alcanzó el máximo en curso
+     */
+    @Test
+    void testIniciar_MaximoDeGrabaciones() {
+        // Arrange
+        perfiladoService.iniciar(new PeticionGrabacion());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> perfiladoService.iniciar(new PeticionGrabacion()));
+    }
+
+    /**
+     * Test: Una configuración JFR que no existe se rechaza
+     */
+    @Test
+    void testIniciar_ConfiguracionDesconocida() {
+        // Arrange
+        PeticionGrabacion peticion = new PeticionGrabacion();
+        peticion.setConfiguracion("no-existe");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> perfiladoService.iniciar(peticion));
+        assertTrue(perfiladoService.listar().isEmpty());
+    }
+
+    /**
+     * Test: Las filas se cuentan según el tipo de resultado
+     */
+    @Test
+    void testContarFilas() {
+        assertEquals(0, EventosServiciosAspect.contarFilas(null));
+        assertEquals(3, EventosServiciosAspect.contarFilas(List.of(1, 2, 3)));
+        assertEquals(0, EventosServiciosAspect.contarFilas(Optional.empty()));
+        assertEquals(7, EventosServiciosAspect.contarFilas(7));
+        assertEquals(1, EventosServiciosAspect.contarFilas(true));
+    }
+}
@@ -0,0 +1,131 @@
+package com.aprendizaje.backend.ranking;
+
+import com.aprendizaje.backend.categorias.DiccionarioCategorias;
+import com.aprendizaje.backend.dto.InfoCategoria;
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.RankingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RankingService y TopAcotado
+ * Verifican el mantenimiento incremental, la recarga solo al vaciarse y la mezcla entre categorías
+ */
+@ExtendWith(MockitoExtension.class)
+class RankingServiceTest {
+
+    @Mock
+    private RankingRepository rankingRepository;
+
+    @Mock
+    private DiccionarioCategorias diccionarioCategorias;
+
+    @InjectMocks
+    private RankingService rankingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rankingService, "tamanoMaximo", 2);
+        ReflectionTestUtils.setField(rankingService, "holgura", 1);
+    }
+
+    private static Producto producto(long id, String categoria, double precio) {
+        Producto producto = new Producto("Producto " + id, null, precio, 10, categoria);
+        producto.setId(id);
+        return producto;
+    }
+
+    private void cambiar(TipoCambio tipo, long id, Producto producto) {
+        rankingService.alCambiarEntidad(new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_PRODUCTO, tipo, id, producto));
+    }
+
+    private static List<Long> ids(List<Producto> productos) {
+        return productos.stream().map(Producto::getId).toList();
+    }
+
+    /**
+     * Test: Los cambios se aplican en memoria y solo se recarga cuando las bajas dejan menos de los pedidos
+     */
+    @Test
+    void testRanking_RecargaSoloAlVaciarse() {
+        // Arrange: capacidad 3 (tamaño máximo 2 + holgura 1)
+        when(diccionarioCategorias.existe("Frutas")).thenReturn(true);
+        when(rankingRepository.primeros("Frutas", CriterioRanking.MAS_BARATOS, 3))
+                .thenReturn(List.of(producto(1, "Frutas", 1), producto(2, "Frutas", 2), producto(3, "Frutas", 3)))
+                .thenReturn(List.of(producto(2, "Frutas", 2), producto(3, "Frutas", 3), producto(4, "Frutas", 4)));
+        List<Producto> inicial = rankingService.ranking(CriterioRanking.MAS_BARATOS, "Frutas", 2);
+
+        // Act
+        cambiar(TipoCambio.CREADO, 5, producto(5, "Frutas", 0.5));
+        List<Producto> conNuevo = rankingService.ranking(CriterioRanking.MAS_BARATOS, "Frutas", 2);
+        cambiar(TipoCambio.ELIMINADO, 5, null);
+        List<Producto> trasBaja = rankingService.ranking(CriterioRanking.MAS_BARATOS, "Frutas", 2);
+        cambiar(TipoCambio.ACTUALIZADO, 1, producto(1, "Verduras", 1));
+        List<Producto> recargado = rankingService.ranking(CriterioRanking.MAS_BARATOS, "Frutas", 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), ids(inicial));
+        assertEquals(List.of(5L, 1L), ids(conNuevo));
+        assertEquals(List.of(1L, 2L), ids(trasBaja));
+        assertEquals(List.of(2L, 3L), ids(recargado));
+        verify(rankingRepository, times(2)).primeros("Frutas", CriterioRanking.MAS_BARATOS, 3);
+    }
+
+    /**
+     * Test: Una estructura truncada no acepta productos peores que el último guardado
+     */
+    @Test
+    void testTopAcotado_NoGuardaPeoresQueElUltimo() {
+        // Arrange
+        TopAcotado top = new TopAcotado(CriterioRanking.MAS_CAROS.getOrden(), 2);
+        top.recargar(List.of(producto(1, null, 90), producto(2, null, 80)));
+
+        // Act
+        top.actualizar(producto(3, null, 10));
+        top.actualizar(producto(1, null, 5));
+        Long expulsado = top.actualizar(producto(4, null, 100));
+
+        // Assert
+        assertNull(top.buscar(3));
+        assertNull(top.buscar(1));
+        assertNull(expulsado);
+        assertEquals(List.of(4L, 2L), ids(top.primeros(5)));
+        assertFalse(top.necesitaRecarga(2));
+        assertTrue(top.necesitaRecarga(3));
+    }
+
+    /**
+     * Test: El ranking del catálogo completo mezcla los de cada categoría, sin consultas propias
+     */
+    @Test
+    void testRanking_CatalogoCompletoMezclaCategorias() {
+        // Arrange
+        when(diccionarioCategorias.listar()).thenReturn(List.of(new InfoCategoria((short) 1, "Frutas", 2),
+                new InfoCategoria((short) 2, "Verduras", 2)));
+        when(rankingRepository.primeros(isNull(), eq(CriterioRanking.MAS_CAROS), anyInt())).thenReturn(List.of());
+        when(rankingRepository.primeros(eq("Frutas"), eq(CriterioRanking.MAS_CAROS), anyInt()))
+                .thenReturn(List.of(producto(1, "Frutas", 9), producto(2, "Frutas", 3)));
+        when(rankingRepository.primeros(eq("Verduras"), eq(CriterioRanking.MAS_CAROS), anyInt()))
+                .thenReturn(List.of(producto(3, "Verduras", 7), producto(4, "Verduras", 5)));
+
+        // Act
+        List<Producto> ranking = rankingService.ranking(CriterioRanking.MAS_CAROS, null, 2);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), ids(ranking));
+        assertThrows(IllegalArgumentException.class, () -> rankingService.ranking(CriterioRanking.MAS_CAROS, null, 3));
+    }
+}
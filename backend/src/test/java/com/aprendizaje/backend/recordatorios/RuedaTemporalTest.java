@@ -0,0 +1,104 @@
+package com.aprendizaje.backend.recordatorios;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RuedaTemporal
+ * Verifican el disparo en orden entre niveles, las cancelaciones y los límites del horizonte
+ */
+class RuedaTemporalTest {
+
+    /**
+     * Test: Los vencimientos de distintos niveles se disparan en orden y nunca antes de tiempo
+     */
+    @Test
+    void testAvanzar_DisparaEnOrdenEntreNiveles() {
+        // Arrange: tick de 10 ms, 4 ranuras y 3 niveles (horizonte de 640 ms)
+        RuedaTemporal rueda = new RuedaTemporal(10, 4, 3, 0);
+        rueda.programar(3, 500);
+        rueda.programar(1, 25);
+        rueda.programar(2, 130);
+
+        // Act
+        List<Long> antes = rueda.avanzar(24);
+        List<Long> primero = rueda.avanzar(29);
+        List<Long> intermedio = rueda.avanzar(499);
+        List<Long> ultimo = rueda.avanzar(509);
+
+        // Assert
+        assertTrue(antes.isEmpty());
+        assertEquals(List.of(1L), primero);
+        assertEquals(List.of(2L), intermedio);
+        assertEquals(List.of(3L), ultimo);
+        assertEquals(0, rueda.tamano());
+    }
+
+    /**
+     * Test: Un ID cancelado no se dispara y uno reprogramado se dispara solo en su nueva fecha
+     */
+    @Test
+    void testCancelarYReprogramar() {
+        // Arrange
+        RuedaTemporal rueda = new RuedaTemporal(10, 4, 3, 0);
+        rueda.programar(1, 50);
+        rueda.programar(2, 60);
+        rueda.programar(2, 300);
+
+        // Act
+        boolean cancelado = rueda.cancelar(1);
+        List<Long> primera = rueda.avanzar(100);
+        boolean ausente = rueda.programarSiAusente(2, 70);
+        List<Long> segunda = rueda.avanzar(310);
+
+        // Assert
+        assertTrue(cancelado);
+        assertTrue(primera.isEmpty());
+        assertFalse(ausente);
+        assertEquals(List.of(2L), segunda);
+    }
+
+    /**
+     * Test: Un vencimiento ya pasado se dispara en el siguiente avance
+     */
+    @Test
+    void testProgramar_VencimientoPasado() {
+        // Arrange
+        RuedaTemporal rueda = new RuedaTemporal(10, 4, 3, 0);
+        rueda.programar(9, 400);
+        rueda.avanzar(200);
+
+        // Act
+        rueda.programar(5, 20);
+        List<Long> vencidos = rueda.avanzar(200);
+
+        // Assert
+        assertEquals(List.of(5L), vencidos);
+        assertTrue(rueda.contiene(9));
+    }
+
+    /**
+     * Test: Lo que está fuera del horizonte se rechaza y una rueda vacía salta directo al instante actual
+     */
+    @Test
+    void testHorizonteYSaltoSinProgramados() {
+        // Arrange
+        RuedaTemporal rueda = new RuedaTemporal(10, 4, 3, 0);
+
+        // Act
+        boolean fuera = rueda.programar(1, rueda.getHorizonteMs() + 100);
+        List<Long> vencidos = rueda.avanzar(1_000_000);
+
+        // Assert
+        assertEquals(640, rueda.getHorizonteMs());
+        assertFalse(fuera);
+        assertFalse(rueda.contiene(1));
+        assertTrue(vencidos.isEmpty());
+        assertEquals(1_000_000, rueda.getActual());
+        assertTrue(rueda.programar(2, 1_000_050));
+        assertEquals(List.of(2L), rueda.avanzar(1_000_059));
+    }
+}
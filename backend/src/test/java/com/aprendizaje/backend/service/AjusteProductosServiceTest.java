@@ -0,0 +1,177 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.dto.AjusteMasivo;
+import com.aprendizaje.backend.dto.ResultadoAjuste;
+import com.aprendizaje.backend.model.Producto;
+import com.aprendizaje.backend.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AjusteProductosService
+ * Verifican la simulación, el recorrido por lotes y el reintento por bloqueos
+ */
+@ExtendWith(MockitoExtension.class)
+class AjusteProductosServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AjusteProductosService ajusteProductosService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ajusteProductosService, "tamanoLoteInicial", 100);
+        ReflectionTestUtils.setField(ajusteProductosService, "presupuestoBloqueoMs", 60_000L);
+        ReflectionTestUtils.setField(ajusteProductosService, "presupuestoBloqueoMaximoMs", 120_000L);
+    }
+
+    private void ejecutarTransacciones() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static List<Producto> productos(long desde, int cantidad) {
+        List<Producto> lista = new ArrayList<>();
+        for (long id = desde; id < desde + cantidad; id++) {
+            Producto producto = new Producto("P" + id, null, 10.0, 1, "Electrónica");
+            producto.setId(id);
+            lista.add(producto);
+        }
+        return lista;
+    }
+
+    /**
+     * Test: La simulación solo cuenta, sin modificar nada
+     */
+    @Test
+    void testAjustar_Simulacion() {
+        // Arrange
+        AjusteMasivo ajuste = new AjusteMasivo();
+        ajuste.setCategoria("Electrónica");
+        ajuste.setPorcentajePrecio(7.0);
+        ajuste.setSimulacion(true);
+        when(productoRepository.countByCategoria("Electrónica")).thenReturn(1234L);
+
+        // Act
+        ResultadoAjuste resultado = ajusteProductosService.ajustar(ajuste);
+
+        // Assert
+        assertTrue(resultado.isSimulacion());
+        assertEquals(1234, resultado.getAfectados());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    /**
+     * Test: Por categoría se recorren lotes por ID hasta que uno sale incompleto
+     */
+    @Test
+    void testAjustar_PorCategoriaEnLotes() {
+        // Arrange
+        ejecutarTransacciones();
+        AjusteMasivo ajuste = new AjusteMasivo();
+        ajuste.setCategoria("Electrónica");
+        ajuste.setPorcentajePrecio(7.0);
+        when(productoRepository.ajustarLotePorCategoria(eq("Electrónica"), eq(0L), anyInt(), eq(7.0), eq(0.0), eq(0)))
+                .thenAnswer(inv -> productos(1, inv.getArgument(2)));
+        when(productoRepository.ajustarLotePorCategoria(eq("Electrónica"), longThat(d -> d > 0), anyInt(), eq(7.0), eq(0.0), eq(0)))
+                .thenReturn(productos(1000, 3));
+
+        // Act
+        ResultadoAjuste resultado = ajusteProductosService.ajustar(ajuste);
+
+        // Assert
+        assertTrue(resultado.isCompletado());
+        assertEquals(2, resultado.getLotes());
+        assertEquals(103, resultado.getAfectados());
+        verify(eventPublisher, times(103)).publishEvent(any(Object.class));
+    }
+
+    /**
+     * Test: El presupuesto de bloqueo pedido por el cliente se limita al máximo configurado
+     */
+    @Test
+    void testAjustar_LimitaPresupuestoDelCliente() {
+        // Arrange
+        ejecutarTransacciones();
+        AjusteMasivo ajuste = new AjusteMasivo();
+        ajuste.setIds(List.of(1L, 2L));
+        ajuste.setDeltaStock(1);
+        ajuste.setPresupuestoBloqueoMs(600_000L);
+        when(productoRepository.ajustarLotePorIds(any(), anyDouble(), anyDouble(), eq(1)))
+                .thenReturn(productos(1, 2));
+
+        // Act
+        ajusteProductosService.ajustar(ajuste);
+
+        // Assert
+        verify(productoRepository).fijarTiempoEsperaBloqueo("120000ms");
+    }
+
+    /**
+     * Test: Si un lote no consigue los bloqueos, se reintenta con la mitad de filas
+     */
+    @Test
+    void testAjustar_ReintentaConLoteMasChico() {
+        // Arrange
+        ejecutarTransacciones();
+        AjusteMasivo ajuste = new AjusteMasivo();
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            ids.add(id);
+        }
+        ajuste.setIds(ids);
+        ajuste.setDeltaStock(-5);
+        when(productoRepository.ajustarLotePorIds(any(), anyDouble(), anyDouble(), eq(-5)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenAnswer(inv -> productos(1, ((Long[]) inv.getArgument(0)).length));
+
+        // Act
+        ResultadoAjuste resultado = ajusteProductosService.ajustar(ajuste);
+
+        // Assert
+        assertTrue(resultado.isCompletado());
+        assertEquals(1, resultado.getReintentos());
+        assertEquals(100, resultado.getAfectados());
+        verify(productoRepository, atLeast(3)).ajustarLotePorIds(any(), anyDouble(), anyDouble(), eq(-5));
+    }
+
+    /**
+     * Test: Sin filtro o con porcentaje y monto a la vez, la petición no es válida
+     */
+    @Test
+    void testAjustar_PeticionInvalida() {
+        AjusteMasivo sinFiltro = new AjusteMasivo();
+        sinFiltro.setPorcentajePrecio(5.0);
+        assertThrows(IllegalArgumentException.class, () -> ajusteProductosService.ajustar(sinFiltro));
+
+        AjusteMasivo ambos = new AjusteMasivo();
+        ambos.setCategoria("A");
+        ambos.setPorcentajePrecio(5.0);
+        ambos.setMontoPrecio(1.0);
+        assertThrows(IllegalArgumentException.class, () -> ajusteProductosService.ajustar(ambos));
+    }
+}
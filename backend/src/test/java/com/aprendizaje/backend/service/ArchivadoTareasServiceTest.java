@@ -0,0 +1,140 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.repository.TareaArchivadaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ArchivadoTareasService
+ * Verifican el movimiento por lotes y la creación de particiones
+ */
+@ExtendWith(MockitoExtension.class)
+class ArchivadoTareasServiceTest {
+
+    @Mock
+    private TareaArchivadaRepository tareaArchivadaRepository;
+
+    @Mock
+    private EstadoTareaBuffer estadoTareaBuffer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ArchivadoTareasService archivadoTareasService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archivadoTareasService, "antiguedadDias", 90);
+        ReflectionTestUtils.setField(archivadoTareasService, "tamanoLote", 100);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static List<Long> ids(int cantidad) {
+        return LongStream.rangeClosed(1, cantidad).boxed().toList();
+    }
+
+    /**
+     * Test: Se siguen moviendo lotes hasta que uno sale incompleto
+     */
+    @Test
+    void testArchivar_VariosLotes() {
+        // Arrange
+        when(tareaArchivadaRepository.mesesPorArchivar(any())).thenReturn(List.of());
+        when(tareaArchivadaRepository.moverLote(any(), eq(100))).thenReturn(ids(100), ids(100), ids(30));
+
+        // Act
+        int archivadas = archivadoTareasService.archivar();
+
+        // Assert
+        assertEquals(230, archivadas);
+        verify(tareaArchivadaRepository, times(3)).moverLote(any(), eq(100));
+    }
+
+    /**
+     * Test: Si una partición no se puede crear, el archivado continúa (las filas van a DEFAULT)
+     */
+    @Test
+    void testArchivar_ParticionFallida() {
+        // Arrange
+        LocalDate enero = LocalDate.of(2025, 1, 1);
+        LocalDate febrero = LocalDate.of(2025, 2, 1);
+        when(tareaArchivadaRepository.mesesPorArchivar(any())).thenReturn(List.of(enero, febrero));
+        doThrow(new DataAccessResourceFailureException("conflicto con DEFAULT"))
+                .when(tareaArchivadaRepository).crearParticion(enero);
+        when(tareaArchivadaRepository.moverLote(any(), eq(100))).thenReturn(ids(5));
+
+        // Act
+        int archivadas = archivadoTareasService.archivar();
+
+        // Assert
+        assertEquals(5, archivadas);
+        verify(tareaArchivadaRepository).crearParticion(febrero);
+    }
+
+    /**
+     * Test: Con write-behind activo se guardan los estados pendientes antes de archivar
+     */
+    @Test
+    void testArchivar_VaciaBufferPrimero() {
+        // Arrange
+        when(estadoTareaBuffer.estaHabilitado()).thenReturn(true);
+        when(tareaArchivadaRepository.mesesPorArchivar(any())).thenReturn(List.of());
+        when(tareaArchivadaRepository.moverLote(any(), eq(100))).thenReturn(List.of());
+
+        // Act
+        archivadoTareasService.archivar();
+
+        // Assert
+        var orden = inOrder(estadoTareaBuffer, tareaArchivadaRepository);
+        orden.verify(estadoTareaBuffer).vaciar();
+        orden.verify(tareaArchivadaRepository).moverLote(any(), eq(100));
+    }
+
+    /**
+     * Test: Cada tarea archivada publica un ELIMINADO dentro de la transacción de su lote
+     */
+    @Test
+    void testArchivar_PublicaEliminacionPorTarea() {
+        // Arrange
+        when(tareaArchivadaRepository.mesesPorArchivar(any())).thenReturn(List.of());
+        when(tareaArchivadaRepository.moverLote(any(), eq(100))).thenReturn(List.of(7L, 9L));
+
+        // Act
+        archivadoTareasService.archivar();
+
+        // Assert
+        ArgumentCaptor<CambioEntidadEvent> eventos = ArgumentCaptor.forClass(CambioEntidadEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(eventos.capture());
+        assertEquals(List.of(7L, 9L), eventos.getAllValues().stream().map(CambioEntidadEvent::getId).toList());
+        assertTrue(eventos.getAllValues().stream().allMatch(e -> e.getTipo() == TipoCambio.ELIMINADO
+                && CambioEntidadEvent.ENTIDAD_TAREA.equals(e.getEntidad())));
+        verify(estadoTareaBuffer).descartar(7L);
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+}
@@ -0,0 +1,113 @@
+package com.aprendizaje.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CoalescedorLecturas
+ * Verifican que las lecturas simultáneas comparten la consulta, su error y su timeout
+ */
+class CoalescedorLecturasTest {
+
+    private final CoalescedorLecturas coalescedor = new CoalescedorLecturas();
+
+    /**
+     * Test: Dos lecturas simultáneas de la misma clave ejecutan una sola consulta
+     */
+    @Test
+    void testEjecutar_CompartenConsulta() throws Exception {
+        // Arrange
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<String> primera = CompletableFuture.supplyAsync(() ->
+                coalescedor.ejecutar("id:1", 0, () -> {
+                    consultas.incrementAndGet();
+                    enCurso.countDown();
+                    esperar(liberar);
+                    return "producto";
+                }));
+        enCurso.await(2, TimeUnit.SECONDS);
+
+        // Act
+        CompletableFuture<String> segunda = CompletableFuture.supplyAsync(() ->
+                coalescedor.ejecutar("id:1", 0, () -> {
+                    consultas.incrementAndGet();
+                    return "otro";
+                }));
+        Thread.sleep(50);
+        liberar.countDown();
+
+        // Assert
+        assertEquals("producto", primera.get(2, TimeUnit.SECONDS));
+        assertEquals("producto", segunda.get(2, TimeUnit.SECONDS));
+        assertEquals(1, consultas.get());
+        assertEquals(0, coalescedor.contarEnVuelo());
+    }
+
+    /**
+     * Test: El error de la consulta llega a todas las peticiones que la esperaban
+     */
+    @Test
+    void testEjecutar_PropagaError() throws Exception {
+        // Arrange
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Object> primera = CompletableFuture.supplyAsync(() ->
+                coalescedor.ejecutar("categoria:x", 0, () -> {
+                    enCurso.countDown();
+                    esperar(liberar);
+                    throw new IllegalStateException("fallo de conexión");
+                }));
+        enCurso.await(2, TimeUnit.SECONDS);
+        CompletableFuture<Object> segunda = CompletableFuture.supplyAsync(() ->
+                coalescedor.ejecutar("categoria:x", 0, () -> "no debería ejecutarse"));
+        Thread.sleep(50);
+
+        // Act
+        liberar.countDown();
+
+        // Assert
+        Exception error1 = assertThrows(Exception.class, () -> primera.get(2, TimeUnit.SECONDS));
+        Exception error2 = assertThrows(Exception.class, () -> segunda.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error1.getCause());
+        assertSame(error1.getCause(), error2.getCause());
+    }
+
+    /**
+     * Test: Quien espera una consulta lenta recibe un timeout sin cancelar la consulta
+     */
+    @Test
+    void testEjecutar_Timeout() throws Exception {
+        // Arrange
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<String> primera = CompletableFuture.supplyAsync(() ->
+                coalescedor.ejecutar("id:2", 0, () -> {
+                    enCurso.countDown();
+                    esperar(liberar);
+                    return "lenta";
+                }));
+        enCurso.await(2, TimeUnit.SECONDS);
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> coalescedor.ejecutar("id:2", 20, () -> "otra"));
+        liberar.countDown();
+        assertEquals("lenta", primera.get(2, TimeUnit.SECONDS));
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.TareaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para EstadoTareaBuffer
+ * Verifican la agrupación de cambios y la lectura de las propias escrituras
+ */
+@ExtendWith(MockitoExtension.class)
+class EstadoTareaBufferTest {
+
+    @Mock
+    private TareaRepository tareaRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private EstadoTareaBuffer estadoTareaBuffer;
+
+    /**
+     * Test: Varios cambios de la misma tarea se guardan como uno solo
+     */
+    @Test
+    void testVaciar_AgrupaPorId() {
+        // Arrange
+        estadoTareaBuffer.registrar(1L, true);
+        estadoTareaBuffer.registrar(1L, false);
+        estadoTareaBuffer.registrar(1L, true);
+        Tarea guardada = new Tarea("Tarea", "Descripción", true);
+        guardada.setId(1L);
+        when(tareaRepository.actualizarEstados(any(), any(), any(LocalDateTime[].class))).thenReturn(List.of(guardada));
+
+        // Act
+        int filas = estadoTareaBuffer.vaciar();
+
+        // Assert
+        assertEquals(1, filas);
+        assertEquals(0, estadoTareaBuffer.contarPendientes());
+        verify(tareaRepository, times(1))
+                .actualizarEstados(aryEq(new Long[]{1L}), aryEq(new Boolean[]{true}), any(LocalDateTime[].class));
+    }
+
+    /**
+     * Test: Las lecturas ven el estado pendiente
+     */
+    @Test
+    void testAplicar_LeeSuPropiaEscritura() {
+        // Arrange
+        Tarea tarea = new Tarea("Tarea", "Descripción", false);
+        tarea.setId(5L);
+        estadoTareaBuffer.registrar(5L, true);
+
+        // Act
+        estadoTareaBuffer.aplicar(tarea);
+
+        // Assert
+        assertTrue(tarea.getCompletada());
+    }
+
+    /**
+     * Test: Con una tarea compartida, el estado pendiente se aplica sobre una copia
+     */
+    @Test
+    void testConEstadoPendiente_NoModificaLaCompartida() {
+        // Arrange
+        Tarea compartida = new Tarea("Tarea", "Descripción", false);
+        compartida.setId(5L);
+        Tarea sinPendiente = new Tarea("Otra", "Descripción", false);
+        sinPendiente.setId(6L);
+        estadoTareaBuffer.registrar(5L, true);
+
+        // Act
+        Tarea resultado = estadoTareaBuffer.conEstadoPendiente(compartida);
+
+        // Assert
+        assertTrue(resultado.getCompletada());
+        assertFalse(compartida.getCompletada());
+        assertEquals("Tarea", resultado.getTitulo());
+        assertSame(sinPendiente, estadoTareaBuffer.conEstadoPendiente(sinPendiente));
+    }
+
+    /**
+     * Test: Si falla el UPDATE los cambios se conservan para reintentar
+     */
+    @Test
+    void testVaciar_ErrorConservaPendientes() {
+        // Arrange
+        estadoTareaBuffer.registrar(2L, true);
+        when(tareaRepository.actualizarEstados(any(), any(), any(LocalDateTime[].class)))
+                .thenThrow(new RuntimeException("Base de datos no disponible"));
+
+        // Act
+        int filas = estadoTareaBuffer.vaciar();
+
+        // Assert
+        assertEquals(0, filas);
+        assertEquals(1, estadoTareaBuffer.contarPendientes());
+    }
+
+    /**
+     * Test: El UPDATE recibe el momento de cada cambio, para no pisar una actualización posterior
+     */
+    @Test
+    void testVaciar_EnviaMomentoDelCambio() {
+        // Arrange
+        LocalDateTime antes = LocalDateTime.now();
+        estadoTareaBuffer.registrar(3L, false);
+        LocalDateTime despues = LocalDateTime.now();
+
+        // Act
+        estadoTareaBuffer.vaciar();
+
+        // Assert
+        ArgumentCaptor<LocalDateTime[]> fechas = ArgumentCaptor.forClass(LocalDateTime[].class);
+        verify(tareaRepository).actualizarEstados(aryEq(new Long[]{3L}), aryEq(new Boolean[]{false}), fechas.capture());
+        assertEquals(1, fechas.getValue().length);
+        assertFalse(fechas.getValue()[0].isBefore(antes));
+        assertFalse(fechas.getValue()[0].isAfter(despues));
+    }
+
+    /**
+     * Test: Un clic que llega mientras se guarda queda pendiente aunque repita el mismo valor
+     */
+    @Test
+    void testVaciar_ConservaClicDuranteElGuardado() {
+        // Arrange
+        estadoTareaBuffer.registrar(4L, true);
+        when(tareaRepository.actualizarEstados(any(), any(), any(LocalDateTime[].class))).thenAnswer(inv -> {
+            estadoTareaBuffer.registrar(4L, true);
+            return List.of();
+        });
+
+        // Act
+        estadoTareaBuffer.vaciar();
+
+        // Assert
+        assertEquals(1, estadoTareaBuffer.contarPendientes());
+    }
+
+    /**
+     * Test: Al vaciar se publica un ACTUALIZADO por cada tarea guardada; las que no existen se descartan
+     */
+    @Test
+    void testVaciar_PublicaSoloLasGuardadas() {
+        // Arrange
+        estadoTareaBuffer.registrar(7L, true);
+        estadoTareaBuffer.registrar(999L, true);
+        Tarea guardada = new Tarea("Tarea", "Descripción", true);
+        guardada.setId(7L);
+        when(tareaRepository.actualizarEstados(any(), any(), any(LocalDateTime[].class))).thenReturn(List.of(guardada));
+
+        // Act
+        int filas = estadoTareaBuffer.vaciar();
+
+        // Assert
+        assertEquals(1, filas);
+        assertEquals(0, estadoTareaBuffer.contarPendientes());
+        ArgumentCaptor<CambioEntidadEvent> evento = ArgumentCaptor.forClass(CambioEntidadEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(evento.capture());
+        assertEquals(7L, evento.getValue().getId());
+        assertEquals(TipoCambio.ACTUALIZADO, evento.getValue().getTipo());
+        assertSame(guardada, evento.getValue().getDatos());
+    }
+}
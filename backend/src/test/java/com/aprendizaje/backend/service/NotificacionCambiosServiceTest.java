@@ -0,0 +1,85 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.event.CambioEntidadEvent;
+import com.aprendizaje.backend.event.TipoCambio;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para el canal de NotificacionCambiosService
+ * Verifican la reanudación con Last-Event-ID y la política de clientes lentos
+ */
+class NotificacionCambiosServiceTest {
+
+    private CambioEntidadEvent evento(long id) {
+        return new CambioEntidadEvent(CambioEntidadEvent.ENTIDAD_TAREA, TipoCambio.ACTUALIZADO, id, null);
+    }
+
+    /**
+     * Test: Al reconectarse con Last-Event-ID recibe solo los eventos que se perdió
+     */
+    @Test
+    void testRegistrar_ReanudaDesdeUltimoId() {
+        // Arrange
+        NotificacionCambiosService.Canal canal = new NotificacionCambiosService.Canal(8);
+        canal.publicar(evento(10L));
+        canal.publicar(evento(11L));
+        canal.publicar(evento(12L));
+        NotificacionCambiosService.Suscriptor suscriptor =
+                new NotificacionCambiosService.Suscriptor(new SseEmitter(), 8);
+
+        // Act
+        canal.registrar(suscriptor, 1);
+
+        // Assert
+        assertEquals(2, suscriptor.cola.size());
+        assertEquals(2, suscriptor.cola.poll().secuencia);
+        assertEquals(3, suscriptor.cola.poll().secuencia);
+    }
+
+    /**
+     * Test: Si el historial ya no tiene los eventos, se envía un evento de reinicio
+     */
+    @Test
+    void testRegistrar_HistorialInsuficiente() {
+        // Arrange
+        NotificacionCambiosService.Canal canal = new NotificacionCambiosService.Canal(2);
+        for (long i = 1; i <= 5; i++) {
+            canal.publicar(evento(i));
+        }
+        NotificacionCambiosService.Suscriptor suscriptor =
+                new NotificacionCambiosService.Suscriptor(new SseEmitter(), 8);
+
+        // Act
+        canal.registrar(suscriptor, 1);
+
+        // Assert
+        assertEquals(1, suscriptor.cola.size());
+        assertNull(suscriptor.cola.poll().tipo);
+    }
+
+    /**
+     * Test: Un suscriptor con la cola llena se reporta como lento
+     */
+    @Test
+    void testPublicar_SuscriptorLento() {
+        // Arrange
+        NotificacionCambiosService.Canal canal = new NotificacionCambiosService.Canal(8);
+        NotificacionCambiosService.Suscriptor suscriptor =
+                new NotificacionCambiosService.Suscriptor(new SseEmitter(), 2);
+        canal.registrar(suscriptor, -1);
+
+        // Act
+        canal.publicar(evento(1L));
+        canal.publicar(evento(2L));
+        List<NotificacionCambiosService.Suscriptor> lentos = canal.publicar(evento(3L));
+
+        // Assert
+        assertEquals(1, lentos.size());
+        assertSame(suscriptor, lentos.get(0));
+    }
+}
@@ -0,0 +1,142 @@
+package com.aprendizaje.backend.service;
+
+import com.aprendizaje.backend.dto.CambiosDesde;
+import com.aprendizaje.backend.model.RegistroEliminacion;
+import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.RegistroEliminacionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SincronizacionService
+ * Verifican la mezcla de modificaciones y eliminaciones por xid y versión
+ */
+@ExtendWith(MockitoExtension.class)
+class SincronizacionServiceTest {
+
+    @Mock
+    private RegistroEliminacionRepository registroEliminacionRepository;
+
+    @InjectMocks
+    private SincronizacionService sincronizacionService;
+
+    private Tarea tarea(long id, long xid, long version) {
+        Tarea tarea = new Tarea("Tarea " + id, null);
+        tarea.setId(id);
+        tarea.setVersionCambio(version);
+        ReflectionTestUtils.setField(tarea, "xidCambio", xid);
+        return tarea;
+    }
+
+    private RegistroEliminacion eliminacion(long id, long xid, long version) {
+        RegistroEliminacion eliminacion = new RegistroEliminacion("tarea", id, version);
+        ReflectionTestUtils.setField(eliminacion, "xidCambio", xid);
+        return eliminacion;
+    }
+
+    /**
+     * Test: Mezcla por xid y versión, y el token avanza hasta el último elemento entregado
+     */
+    @Test
+    void testCombinar_MezclaPorXidYVersion() {
+        // Arrange
+        SincronizacionService.Marca desde = new SincronizacionService.Marca(100L, 10L);
+        List<Tarea> modificadas = List.of(tarea(1L, 100L, 11L), tarea(2L, 101L, 9L), tarea(3L, 102L, 15L));
+        when(registroEliminacionRepository.buscarDesde(eq("tarea"), eq(100L), eq(10L), eq(200L), any()))
+                .thenReturn(List.of(eliminacion(9L, 101L, 8L)));
+
+        // Act
+        CambiosDesde<Tarea> resultado = sincronizacionService.combinar(
+                "tarea", desde, 3, modificadas, 200L, Tarea::getXidCambio, Tarea::getVersionCambio);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), resultado.getCambios().stream().map(Tarea::getId).toList());
+        assertEquals(List.of(9L), resultado.getEliminados());
+        assertEquals("101:9", resultado.getToken());
+        assertTrue(resultado.isHayMas());
+    }
+
+    /**
+     * Test: Una versión menor confirmada por una transacción posterior no se salta
+     * (el orden lo da el xid, no la versión)
+     */
+    @Test
+    void testCombinar_VersionMenorEnTransaccionPosterior() {
+        // Arrange
+        SincronizacionService.Marca desde = new SincronizacionService.Marca(100L, 50L);
+        List<Tarea> modificadas = List.of(tarea(1L, 105L, 40L));
+        when(registroEliminacionRepository.buscarDesde(eq("tarea"), eq(100L), eq(50L), eq(110L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        CambiosDesde<Tarea> resultado = sincronizacionService.combinar(
+                "tarea", desde, 10, modificadas, 110L, Tarea::getXidCambio, Tarea::getVersionCambio);
+
+        // Assert
+        assertEquals(1, resultado.getCambios().size());
+        assertEquals("110:0", resultado.getToken());
+        assertFalse(resultado.isHayMas());
+    }
+
+    /**
+     * Test: Sin cambios el token avanza hasta el horizonte de transacciones
+     */
+    @Test
+    void testCombinar_SinCambiosAvanzaAlHorizonte() {
+        // Arrange
+        SincronizacionService.Marca desde = new SincronizacionService.Marca(20L, 3L);
+        when(registroEliminacionRepository.buscarDesde(eq("tarea"), eq(20L), eq(3L), eq(35L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        CambiosDesde<Tarea> resultado = sincronizacionService.combinar(
+                "tarea", desde, 100, List.of(), 35L, Tarea::getXidCambio, Tarea::getVersionCambio);
+
+        // Assert
+        assertTrue(resultado.getCambios().isEmpty());
+        assertEquals("35:0", resultado.getToken());
+        assertFalse(resultado.isHayMas());
+    }
+
+    /**
+     * Test: Si el horizonte quedó detrás del token (otra réplica), el token no retrocede
+     */
+    @Test
+    void testCombinar_HorizonteDetrasDelToken() {
+        // Arrange
+        SincronizacionService.Marca desde = new SincronizacionService.Marca(40L, 3L);
+        when(registroEliminacionRepository.buscarDesde(eq("tarea"), eq(40L), eq(3L), eq(35L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        CambiosDesde<Tarea> resultado = sincronizacionService.combinar(
+                "tarea", desde, 100, List.of(), 35L, Tarea::getXidCambio, Tarea::getVersionCambio);
+
+        // Assert
+        assertEquals("40:3", resultado.getToken());
+    }
+
+    /**
+     * Test: El token es "xid:versión"; uno vacío o del formato anterior empieza desde cero
+     */
+    @Test
+    void testParsearToken_Invalido() {
+        assertEquals(SincronizacionService.Marca.INICIO, sincronizacionService.parsearToken(null));
+        assertEquals(SincronizacionService.Marca.INICIO, sincronizacionService.parsearToken("35"));
+        assertEquals(new SincronizacionService.Marca(120L, 35L), sincronizacionService.parsearToken("120:35"));
+        assertThrows(IllegalArgumentException.class, () -> sincronizacionService.parsearToken("abc"));
+        assertThrows(IllegalArgumentException.class, () -> sincronizacionService.parsearToken("1:2:3"));
+        assertThrows(IllegalArgumentException.class, () -> sincronizacionService.parsearToken("1:x"));
+    }
+}
@@ -1,6 +1,15 @@
 package com.aprendizaje.backend.service;
 
+import com.aprendizaje.backend.dto.OperacionLote;
+import com.aprendizaje.backend.dto.PaginaResultados;
+import com.aprendizaje.backend.dto.PeticionLote;
+import com.aprendizaje.backend.dto.ResultadoBusqueda;
+import com.aprendizaje.backend.dto.ResultadoLote;
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import com.aprendizaje.backend.dto.ResultadoOperacion;
 import com.aprendizaje.backend.model.Tarea;
+import com.aprendizaje.backend.repository.BusquedaTareasRepository;
+import com.aprendizaje.backend.repository.TareaArchivadaRepository;
 import com.aprendizaje.backend.repository.TareaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,13 +17,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -28,6 +43,24 @@ class TareaServiceTest {
     @Mock
     private TareaRepository tareaRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SincronizacionService sincronizacionService;
+
+    @Mock
+    private EstadoTareaBuffer estadoTareaBuffer;
+
+    @Mock
+    private TareaArchivadaRepository tareaArchivadaRepository;
+
+    @Mock
+    private BusquedaTareasRepository busquedaTareasRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private TareaService tareaService;
 
@@ -55,6 +88,29 @@ class TareaServiceTest {
         tarea2.setFechaCreacion(LocalDateTime.now());
     }
 
+    private void ejecutarTransacciones() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    /**
+     * Test: Con incluirArchivadas se agregan las tareas del archivo después de las activas
+     */
+    @Test
+    void testObtenerTodasLasTareasIncluyendoArchivadas() {
+        // Arrange
+        tarea2.setArchivada(true);
+        when(tareaRepository.findAll()).thenReturn(List.of(tarea1));
+        when(tareaArchivadaRepository.findAll()).thenReturn(List.of(tarea2));
+
+        // Act
+        List<Tarea> resultado = tareaService.obtenerTodasLasTareasIncluyendoArchivadas();
+
+        // Assert
+        assertEquals(List.of(tarea1, tarea2), resultado);
+        verify(estadoTareaBuffer, times(1)).aplicar(anyList());
+    }
+
     /**
      * Test: Obtener todas las tareas
      */
@@ -80,6 +136,7 @@ class TareaServiceTest {
     void testObtenerTareaPorId_TareaExiste() {
         // Arrange
         when(tareaRepository.findById(1L)).thenReturn(Optional.of(tarea1));
+        when(estadoTareaBuffer.conEstadoPendiente(tarea1)).thenReturn(tarea1);
 
         // Act
         Optional<Tarea> resultado = tareaService.obtenerTareaPorId(1L);
@@ -163,21 +220,22 @@ class TareaServiceTest {
     }
 
     /**
-     * Test: Eliminar tarea - Tarea existe
+     * Test: Eliminar tarea - Tarea existe (una sola sentencia DELETE ... RETURNING)
      */
     @Test
     void testEliminarTarea_TareaExiste() {
         // Arrange
-        when(tareaRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(tareaRepository).deleteById(1L);
+        when(tareaRepository.eliminarPorIds(aryEq(new Long[]{1L}))).thenReturn(List.of(1L));
 
         // Act
         boolean resultado = tareaService.eliminarTarea(1L);
 
         // Assert
         assertTrue(resultado);
-        verify(tareaRepository, times(1)).existsById(1L);
-        verify(tareaRepository, times(1)).deleteById(1L);
+        verify(tareaRepository, never()).existsById(any());
+        verify(tareaRepository, never()).deleteById(any());
+        verify(estadoTareaBuffer, times(1)).descartar(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
     }
 
     /**
@@ -186,14 +244,249 @@ class TareaServiceTest {
     @Test
     void testEliminarTarea_TareaNoExiste() {
         // Arrange
-        when(tareaRepository.existsById(999L)).thenReturn(false);
+        when(tareaRepository.eliminarPorIds(aryEq(new Long[]{999L}))).thenReturn(List.of());
 
         // Act
         boolean resultado = tareaService.eliminarTarea(999L);
 
         // Assert
         assertFalse(resultado);
-        verify(tareaRepository, times(1)).existsById(999L);
-        verify(tareaRepository, never()).deleteById(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * Test: Eliminar varias tareas - reporta las que no existían
+     */
+    @Test
+    void testEliminarTareasPorIds() {
+        // Arrange
+        ejecutarTransacciones();
+        when(tareaRepository.eliminarPorIds(aryEq(new Long[]{3L, 1L, 7L}))).thenReturn(List.of(1L, 3L));
+
+        // Act
+        ResultadoMultiple<Long> resultado = tareaService.eliminarTareasPorIds(Arrays.asList(3L, 1L, 7L, 3L));
+
+        // Assert
+        assertEquals(List.of(3L, 1L), resultado.getEncontrados());
+        assertEquals(List.of(7L), resultado.getFaltantes());
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        // Los eventos (y el outbox) se publican dentro de la transacción del lote
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    /**
+     * Test: Eliminar completadas - sigue por lotes hasta que uno sale incompleto
+     */
+    @Test
+    void testEliminarTareasCompletadas_PorLotes() {
+        // Arrange
+        List<Long> loteCompleto = new ArrayList<>();
+        for (long id = 1; id <= EliminacionPorLotes.TAMANO_LOTE; id++) {
+            loteCompleto.add(id);
+        }
+        ejecutarTransacciones();
+        when(tareaRepository.eliminarLoteCompletadas(EliminacionPorLotes.TAMANO_LOTE))
+                .thenReturn(loteCompleto, List.of(5000L));
+
+        // Act
+        int eliminadas = tareaService.eliminarTareasCompletadas();
+
+        // Assert
+        assertEquals(EliminacionPorLotes.TAMANO_LOTE + 1, eliminadas);
+        verify(tareaRepository, times(2)).eliminarLoteCompletadas(EliminacionPorLotes.TAMANO_LOTE);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(eventPublisher, times(EliminacionPorLotes.TAMANO_LOTE + 1)).publishEvent(any(Object.class));
+    }
+
+    /**
+     * Test: Cambiar estado en modo write-behind - solo se registra, sin leer ni guardar
+     */
+    @Test
+    void testCambiarEstadoDiferido_WriteBehind() {
+        // Arrange
+        when(estadoTareaBuffer.estaHabilitado()).thenReturn(true);
+
+        // Act
+        boolean registrado = tareaService.cambiarEstadoDiferido(1L, true);
+
+        // Assert
+        assertTrue(registrado);
+        verify(estadoTareaBuffer, times(1)).registrar(1L, true);
+        verifyNoInteractions(tareaRepository, transactionTemplate, eventPublisher);
+    }
+
+    /**
+     * Test: Sin write-behind el cambio diferido no se registra
+     */
+    @Test
+    void testCambiarEstadoDiferido_Deshabilitado() {
+        // Arrange
+        when(estadoTareaBuffer.estaHabilitado()).thenReturn(false);
+
+        // Act
+        boolean registrado = tareaService.cambiarEstadoDiferido(1L, true);
+
+        // Assert
+        assertFalse(registrado);
+        verify(estadoTareaBuffer, never()).registrar(any(), any());
+    }
+
+    /**
+     * Test: Obtener varias tareas por ID - respeta el orden y reporta las faltantes
+     */
+    @Test
+    void testObtenerTareasPorIds() {
+        // Arrange
+        when(tareaRepository.findAllById(List.of(2L, 999L, 1L))).thenReturn(Arrays.asList(tarea1, tarea2));
+
+        // Act
+        ResultadoMultiple<Tarea> resultado = tareaService.obtenerTareasPorIds(List.of(2L, 999L, 1L, 2L));
+
+        // Assert
+        assertEquals(2, resultado.getEncontrados().size());
+        assertEquals(2L, resultado.getEncontrados().get(0).getId());
+        assertEquals(1L, resultado.getEncontrados().get(1).getId());
+        assertEquals(List.of(999L), resultado.getFaltantes());
+        verify(tareaRepository, times(1)).findAllById(any());
+    }
+
+    private OperacionLote operacion(OperacionLote.Tipo tipo, Long id, Tarea tarea) {
+        OperacionLote operacion = new OperacionLote();
+        operacion.setTipo(tipo);
+        operacion.setId(id);
+        operacion.setTarea(tarea);
+        return operacion;
+    }
+
+    /**
+     * Test: Un lote en modo MEJOR_ESFUERZO aplica las válidas e informa las que fallaron
+     */
+    @Test
+    void testEjecutarLote_MejorEsfuerzo() {
+        // Arrange
+        ReflectionTestUtils.setField(tareaService, "maximoOperacionesLote", 1000);
+        Tarea nueva = new Tarea("Nueva", "Desde el lote", false);
+        PeticionLote peticion = new PeticionLote();
+        peticion.setModo(PeticionLote.Modo.MEJOR_ESFUERZO);
+        peticion.setOperaciones(List.of(
+                operacion(OperacionLote.Tipo.CREAR, null, nueva),
+                operacion(OperacionLote.Tipo.COMPLETAR, 1L, null),
+                operacion(OperacionLote.Tipo.ELIMINAR, 2L, null),
+                operacion(OperacionLote.Tipo.COMPLETAR, 999L, null)));
+        when(tareaRepository.findAllById(any())).thenReturn(List.of(tarea1, tarea2));
+        when(sincronizacionService.siguientesVersiones(3)).thenReturn(List.of(10L, 11L, 12L));
+        when(tareaRepository.save(any(Tarea.class))).thenAnswer(invocacion -> {
+            Tarea guardada = invocacion.getArgument(0);
+            guardada.setId(3L);
+            return guardada;
+        });
+
+        // Act
+        ResultadoLote resultado = tareaService.ejecutarLote(peticion);
+
+        // Assert
+        assertFalse(resultado.isExito());
+        assertEquals(ResultadoOperacion.Estado.OK, resultado.getResultados().get(0).getEstado());
+        assertEquals(3L, resultado.getResultados().get(0).getId());
+        assertEquals(ResultadoOperacion.Estado.OK, resultado.getResultados().get(1).getEstado());
+        assertTrue(tarea1.getCompletada());
+        assertEquals(11L, tarea1.getVersionCambio());
+        assertEquals(ResultadoOperacion.Estado.NO_ENCONTRADA, resultado.getResultados().get(3).getEstado());
+        verify(tareaRepository, times(1)).findAllById(any());
+        verify(tareaRepository, times(1)).flush();
+        verify(tareaRepository, times(1)).eliminarPorIds(aryEq(new Long[]{2L}));
+    }
+
+    /**
+     * Test: Un lote TODO_O_NADA con una operación inválida se rechaza y no escribe nada
+     */
+    @Test
+    void testEjecutarLote_TodoONadaRevierte() {
+        // Arrange
+        ReflectionTestUtils.setField(tareaService, "maximoOperacionesLote", 1000);
+        PeticionLote peticion = new PeticionLote();
+        peticion.setOperaciones(List.of(
+                operacion(OperacionLote.Tipo.COMPLETAR, 1L, null),
+                operacion(OperacionLote.Tipo.ACTUALIZAR, 2L, new Tarea("", null, false))));
+        when(tareaRepository.findAllById(any())).thenReturn(List.of(tarea1, tarea2));
+        when(sincronizacionService.siguientesVersiones(2)).thenReturn(List.of(10L, 11L));
+
+        // Act & Assert
+        LoteRechazadoException excepcion = assertThrows(LoteRechazadoException.class,
+                () -> tareaService.ejecutarLote(peticion));
+        assertEquals(ResultadoOperacion.Estado.REVERTIDA, excepcion.getResultado().getResultados().get(0).getEstado());
+        assertEquals(ResultadoOperacion.Estado.INVALIDA, excepcion.getResultado().getResultados().get(1).getEstado());
+        verify(tareaRepository, never()).flush();
+        verify(tareaRepository, never()).eliminarPorIds(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Test: Un lote vacío o demasiado grande se rechaza antes de tocar la base de datos
+     */
+    @Test
+    void testEjecutarLote_TamanoInvalido() {
+        // Arrange
+        ReflectionTestUtils.setField(tareaService, "maximoOperacionesLote", 1);
+        PeticionLote peticion = new PeticionLote();
+        peticion.setOperaciones(List.of(
+                operacion(OperacionLote.Tipo.COMPLETAR, 1L, null),
+                operacion(OperacionLote.Tipo.COMPLETAR, 2L, null)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tareaService.ejecutarLote(peticion));
+        verify(tareaRepository, never()).findAllById(any());
+    }
+
+    /**
+     * Test: La búsqueda pide un resultado de más para saber si hay otra página
+     */
+    @Test
+    void testBuscarTareas_HayMas() {
+        // Arrange
+        ReflectionTestUtils.setField(tareaService, "tamanoMaximoBusqueda", 50);
+        ReflectionTestUtils.setField(tareaService, "maximoResultadosBusqueda", 1000);
+        when(busquedaTareasRepository.buscar("compras", false, 2, 3)).thenReturn(List.of(
+                new ResultadoBusqueda(tarea1, 0.9, "<mark>Compras</mark>", ""),
+                new ResultadoBusqueda(tarea2, 0.5, "<mark>Compras</mark> 2", ""),
+                new ResultadoBusqueda(tarea1, 0.1, "Otra", "")));
+
+        // Act
+        PaginaResultados<ResultadoBusqueda> pagina = tareaService.buscarTareas(" compras ", false, 1, 2);
+
+        // Assert
+        assertEquals(2, pagina.getResultados().size());
+        assertTrue(pagina.isHayMas());
+        assertEquals(0.9, pagina.getResultados().get(0).getRelevancia());
+        verify(estadoTareaBuffer, times(2)).aplicar(any(Tarea.class));
+    }
+
+    /**
+     * Test: Sin texto, o con una página demasiado lejana, no se consulta la base de datos
+     */
+    @Test
+    void testBuscarTareas_ParametrosInvalidos() {
+        // Arrange
+        ReflectionTestUtils.setField(tareaService, "tamanoMaximoBusqueda", 50);
+        ReflectionTestUtils.setField(tareaService, "maximoResultadosBusqueda", 1000);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tareaService.buscarTareas("  ", null, 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> tareaService.buscarTareas("compras", null, 100, 20));
+        verify(busquedaTareasRepository, never()).buscar(any(), any(), anyInt(), anyInt());
+    }
+
+    /**
+     * Test: Contar sin filtro usa count(); con filtro, cuenta por estado
+     */
+    @Test
+    void testContarTareas() {
+        // Arrange
+        when(tareaRepository.count()).thenReturn(5L);
+        when(tareaRepository.countByCompletada(true)).thenReturn(2L);
+
+        // Act & Assert
+        assertEquals(5L, tareaService.contarTareas(null));
+        assertEquals(2L, tareaService.contarTareas(true));
     }
 }
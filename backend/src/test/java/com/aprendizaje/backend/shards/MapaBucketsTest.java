@@ -0,0 +1,101 @@
+package com.aprendizaje.backend.shards;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para MapaBuckets
+ * Verifican el reparto de IDs en buckets y la validación del mapa
+ */
+class MapaBucketsTest {
+
+    /**
+     * Hilo que hace de rebalanceador en los tests de candados
+     */
+    private static final ExecutorService HILO = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "test-corte");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Test: IDs consecutivos (secuencia agrupada) se reparten entre todos los buckets
+     */
+    @Test
+    void testBucketDe_RepartoUniforme() {
+        // Arrange
+        int[] cantidades = new int[MapaBuckets.BUCKETS];
+
+        // Act
+        for (long id = 1; id <= 1024 * 100; id++) {
+            cantidades[MapaBuckets.bucketDe(id)]++;
+        }
+
+        // Assert
+        int minimo = Arrays.stream(cantidades).min().orElseThrow();
+        int maximo = Arrays.stream(cantidades).max().orElseThrow();
+        assertTrue(minimo > 50, "bucket con pocos IDs: " + minimo);
+        assertTrue(maximo < 150, "bucket con demasiados IDs: " + maximo);
+        // El rango de IDs de otro shard (s << 48) también cae en buckets válidos
+        int bucket = MapaBuckets.bucketDe((3L << 48) + 7);
+        assertTrue(bucket >= 0 && bucket < MapaBuckets.BUCKETS);
+    }
+
+    /**
+     * Test: No se acepta un mapa que asigna buckets a un shard no configurado
+     */
+    @Test
+    void testCargar_ValidaShards() {
+        // Arrange
+        MapaBuckets mapa = new MapaBuckets(2);
+        int[] asignacion = new int[MapaBuckets.BUCKETS];
+        asignacion[5] = 1;
+
+        // Act
+        mapa.cargar(asignacion);
+        asignacion[6] = 2;
+
+        // Assert
+        assertEquals(1, mapa.shardDeBucket(5));
+        assertEquals(0, mapa.shardDeBucket(6));
+        assertThrows(IllegalStateException.class, () -> mapa.cargar(asignacion));
+        assertThrows(IllegalArgumentException.class, () -> mapa.cargar(new int[10]));
+        assertArrayEquals(new int[]{MapaBuckets.BUCKETS - 1, 1}, mapa.bucketsPorShard());
+    }
+
+    /**
+     * Test: Mientras un bucket se mueve, las escrituras no pueden tomar su candado
+     */
+    @Test
+    void testCandados_CorteBloqueaEscrituras() throws Exception {
+        // Arrange: el corte lo hace otro hilo (el dueño del candado exclusivo sí podría escribir)
+        MapaBuckets mapa = new MapaBuckets(2);
+        ejecutarEnOtroHilo(() -> mapa.candadoMovimiento(10).lock());
+
+        // Act
+        boolean escrituraEnCorte = mapa.candadoEscritura(10).tryLock();
+        boolean escrituraEnOtroBucket = mapa.candadoEscritura(11).tryLock();
+        mapa.asignar(10, 1);
+        ejecutarEnOtroHilo(() -> mapa.candadoMovimiento(10).unlock());
+
+        // Assert
+        assertFalse(escrituraEnCorte);
+        assertTrue(escrituraEnOtroBucket);
+        assertEquals(1, mapa.shardDeBucket(10));
+        assertFalse(mapa.estaMoviendose(10));
+    }
+
+    /**
+     * Ejecuta la acción en un hilo aparte y espera a que termine
+     * Un ReentrantReadWriteLock se libera desde el mismo hilo que lo tomó, así que se reutiliza el hilo
+     */
+    static void ejecutarEnOtroHilo(Runnable accion) throws Exception {
+        HILO.submit(accion).get();
+    }
+
+}
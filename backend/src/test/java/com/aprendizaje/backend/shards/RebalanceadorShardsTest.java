@@ -0,0 +1,347 @@
+package com.aprendizaje.backend.shards;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para RebalanceadorShards
+ * El movimiento de buckets se prueba sobre shards en memoria (ShardsFalsos), que simulan las
+ * transacciones con su xid y el horizonte de transacciones abiertas
+ */
+class RebalanceadorShardsTest {
+
+    private static final int BUCKET = 10;
+
+    private final MapaBuckets mapa = new MapaBuckets(2);
+
+    private final ShardsTareas shards = mock(ShardsTareas.class);
+
+    private final ShardsFalsos falsos = new ShardsFalsos();
+
+    private RebalanceadorShards rebalanceador;
+
+    @BeforeEach
+    void setUp() {
+        when(shards.getMapa()).thenReturn(mapa);
+        when(shards.cantidad()).thenReturn(2);
+        rebalanceador = new RebalanceadorShards(shards, falsos, 10, 50, 200);
+    }
+
+    @AfterEach
+    void cerrar() {
+        rebalanceador.close();
+    }
+
+    /**
+     * Test: Al agregar shards, el plan solo mueve los buckets necesarios para nivelarlos
+     */
+    @Test
+    void testPlanNivelado_MueveLoMinimo() {
+        // Arrange: todos los buckets en el shard 0 y se agregan dos shards
+        int[] asignacion = new int[MapaBuckets.BUCKETS];
+
+        // Act
+        Map<Integer, Integer> plan = RebalanceadorShards.planNivelado(asignacion, 3);
+
+        // Assert
+        int[] despues = asignacion.clone();
+        plan.forEach((bucket, destino) -> despues[bucket] = destino);
+        MapaBuckets mapa = new MapaBuckets(3);
+        mapa.cargar(despues);
+        assertArrayEquals(new int[]{342, 341, 341}, mapa.bucketsPorShard());
+        assertEquals(682, plan.size());
+        assertTrue(RebalanceadorShards.planNivelado(despues, 3).isEmpty());
+    }
+
+    /**
+     * Test: Se copian todas las filas del bucket por tramos y el origen queda solo con los demás buckets
+     */
+    @Test
+    void testMoverBucket_CopiaTodo() throws Throwable {
+        // Arrange
+        List<Long> ids = idsDelBucket(BUCKET, 25);
+        ids.forEach(id -> falsos.guardar(0, id, "tarea " + id));
+        long otro = idsDelBucket(BUCKET + 1, 1).get(0);
+        falsos.guardar(0, otro, "otra");
+        RebalanceadorShards.Estado progreso = new RebalanceadorShards.Estado();
+
+        // Act
+        rebalanceador.moverBucket(BUCKET, 0, 1, progreso);
+
+        // Assert
+        assertEquals(ids, new ArrayList<>(falsos.tareas.get(1).keySet()));
+        assertEquals(List.of(otro), new ArrayList<>(falsos.tareas.get(0).keySet()));
+        assertEquals(25, progreso.filasCopiadas);
+        assertEquals(1, mapa.shardDeBucket(BUCKET));
+        assertFalse(mapa.estaMoviendose(BUCKET));
+    }
+
+    /**
+     * Test: Lo escrito durante la copia se pone al día, también lo de una transacción abierta
+     * antes de empezar que confirma después de que su fila ya se copió
+     */
+    @Test
+    void testMoverBucket_PoneAlDia() throws Throwable {
+        // Arrange
+        List<Long> ids = idsDelBucket(BUCKET, 26);
+        ids.subList(0, 25).forEach(id -> falsos.guardar(0, id, "vieja"));
+        long lenta = falsos.abrir();
+        falsos.alLeer = lectura -> {
+            if (lectura == 2) {
+                // La primera fila ya se copió: la transacción lenta la modifica y confirma
+                falsos.guardar(0, ids.get(0), "modificada", lenta);
+                falsos.cerrar(lenta);
+                falsos.guardar(0, ids.get(25), "nueva");
+            }
+        };
+
+        // Act
+        rebalanceador.moverBucket(BUCKET, 0, 1, new RebalanceadorShards.Estado());
+
+        // Assert
+        assertEquals(26, falsos.tareas.get(1).size());
+        assertEquals("modificada", falsos.tareas.get(1).get(ids.get(0)).titulo);
+        assertEquals("nueva", falsos.tareas.get(1).get(ids.get(25)).titulo);
+        assertTrue(falsos.tareas.get(0).isEmpty());
+    }
+
+    /**
+     * Test: El corte cede el bucket con las escrituras locales detenidas, copia lo que escribieron
+     * las que estaban en curso y recién después cambia el dueño; el origen se purga al final
+     */
+    @Test
+    void testMoverBucket_Corte() throws Throwable {
+        // Arrange
+        List<Long> ids = idsDelBucket(BUCKET, 3);
+        ids.subList(0, 2).forEach(id -> falsos.guardar(0, id, "vieja"));
+        List<Boolean> duranteElCorte = new ArrayList<>();
+        falsos.alCeder = () -> {
+            duranteElCorte.add(mapa.estaMoviendose(BUCKET));
+            duranteElCorte.add(mapa.shardDeBucket(BUCKET) == 0);
+            // Escritura de otra instancia que termina justo antes del bloqueo del corte
+            falsos.guardar(0, ids.get(2), "ultima");
+        };
+
+        // Act
+        rebalanceador.moverBucket(BUCKET, 0, 1, new RebalanceadorShards.Estado());
+
+        // Assert
+        assertEquals(List.of(true, true), duranteElCorte);
+        assertEquals("ultima", falsos.tareas.get(1).get(ids.get(2)).titulo);
+        assertEquals(List.of("reclamar 1", "ceder 0", "cambiarDueno 1", "confirmar", "purgar 0"),
+                falsos.pasos.subList(0, 5));
+        assertTrue(falsos.cedidos.get(0).contains(BUCKET));
+        assertEquals(1, mapa.shardDeBucket(BUCKET));
+        assertTrue(falsos.tareas.get(0).isEmpty());
+    }
+
+    /**
+     * Test: Lo que se eliminó en el origen después de copiarse también se elimina en el destino
+     */
+    @Test
+    void testMoverBucket_EliminacionesDuranteLaCopia() throws Throwable {
+        // Arrange
+        List<Long> ids = idsDelBucket(BUCKET, 25);
+        ids.forEach(id -> falsos.guardar(0, id, "tarea"));
+        falsos.alLeer = lectura -> {
+            if (lectura == 2) {
+                falsos.borrar(0, ids.get(0));
+            }
+        };
+        falsos.alCeder = () -> falsos.borrar(0, ids.get(24));
+
+        // Act
+        rebalanceador.moverBucket(BUCKET, 0, 1, new RebalanceadorShards.Estado());
+
+        // Assert
+        assertEquals(ids.subList(1, 24), new ArrayList<>(falsos.tareas.get(1).keySet()));
+        assertTrue(falsos.tareas.get(0).isEmpty());
+    }
+
+    /**
+     * Test: El origen no se purga hasta que todas las instancias confirman la versión nueva del mapa
+     */
+    @Test
+    void testMoverBucket_PurgaTrasConfirmar() throws Throwable {
+        // Arrange
+        falsos.guardar(0, idsDelBucket(BUCKET, 1).get(0), "tarea");
+        falsos.atrasadas = 2;
+
+        // Act
+        rebalanceador.moverBucket(BUCKET, 0, 1, new RebalanceadorShards.Estado());
+
+        // Assert
+        int purga = falsos.pasos.indexOf("purgar 0");
+        assertEquals(Collections.nCopies(3, "confirmar"), falsos.pasos.subList(purga - 3, purga));
+        assertEquals(0, falsos.atrasadas);
+        assertTrue(falsos.tareas.get(0).isEmpty());
+    }
+
+    /**
+     * IDs consecutivos cuyo bucket es el indicado
+     */
+    private static List<Long> idsDelBucket(int bucket, int cantidad) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; ids.size() < cantidad; id++) {
+            if (MapaBuckets.bucketDe(id) == bucket) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static class Fila {
+        final String titulo;
+        final long xid;
+
+        Fila(String titulo, long xid) {
+            this.titulo = titulo;
+            this.xid = xid;
+        }
+    }
+
+    /**
+     * Dos shards en memoria con filas confirmadas: cada una guarda la transacción que la escribió,
+     * y el horizonte es la transacción abierta más antigua (o la siguiente, si no hay abiertas)
+     */
+    private static class ShardsFalsos extends OperacionesRebalanceo {
+        final List<TreeMap<Long, Fila>> tareas = List.of(new TreeMap<>(), new TreeMap<>());
+        final List<Map<Long, Long>> eliminaciones = List.of(new HashMap<>(), new HashMap<>());
+        final List<TreeSet<Integer>> cedidos = List.of(new TreeSet<>(), new TreeSet<>());
+        final TreeSet<Long> abiertas = new TreeSet<>();
+        final List<String> pasos = new ArrayList<>();
+        long siguienteXid = 100;
+        int lecturas;
+        int atrasadas;
+        IntConsumer alLeer = lectura -> { };
+        Runnable alCeder = () -> { };
+
+        ShardsFalsos() {
+            super(null);
+        }
+
+        long abrir() {
+            abiertas.add(siguienteXid);
+            return siguienteXid++;
+        }
+
+        void cerrar(long xid) {
+            abiertas.remove(xid);
+        }
+
+        void guardar(int shard, long id, String titulo, long xid) {
+            tareas.get(shard).put(id, new Fila(titulo, xid));
+        }
+
+        void guardar(int shard, long id, String titulo) {
+            guardar(shard, id, titulo, siguienteXid++);
+        }
+
+        void borrar(int shard, long id) {
+            tareas.get(shard).remove(id);
+            eliminaciones.get(shard).put(id, siguienteXid++);
+        }
+
+        @Override
+        long horizonte(int shard) {
+            return abiertas.isEmpty() ? siguienteXid : abiertas.first();
+        }
+
+        @Override
+        List<Object[]> leer(int shard, int bucket, long desdeId, long desdeXid, int cantidad) {
+            alLeer.accept(++lecturas);
+            List<Object[]> filas = new ArrayList<>();
+            for (Map.Entry<Long, Fila> fila : tareas.get(shard).tailMap(desdeId, false).entrySet()) {
+                if (filas.size() == cantidad) {
+                    break;
+                }
+                if (MapaBuckets.bucketDe(fila.getKey()) == bucket && (desdeXid < 0 || fila.getValue().xid >= desdeXid)) {
+                    filas.add(new Object[]{fila.getKey(), fila.getValue().titulo});
+                }
+            }
+            return filas;
+        }
+
+        @Override
+        void escribir(int shard, List<Object[]> filas) {
+            for (Object[] fila : filas) {
+                guardar(shard, (Long) fila[0], (String) fila[1]);
+            }
+        }
+
+        @Override
+        List<Long> eliminadasDesde(int shard, int bucket, long xid) {
+            List<Long> ids = new ArrayList<>();
+            eliminaciones.get(shard).forEach((id, xidEliminacion) -> {
+                if (xidEliminacion >= xid && MapaBuckets.bucketDe(id) == bucket) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+
+        @Override
+        void eliminar(int shard, List<Long> ids) {
+            ids.forEach(tareas.get(shard)::remove);
+        }
+
+        @Override
+        void reclamar(int shard, int bucket) {
+            pasos.add("reclamar " + shard);
+            cedidos.get(shard).remove(bucket);
+        }
+
+        @Override
+        void ceder(int shard, int bucket, long esperaMs, Runnable corte) {
+            pasos.add("ceder " + shard);
+            alCeder.run();
+            cedidos.get(shard).add(bucket);
+            corte.run();
+        }
+
+        @Override
+        long cambiarDueno(int bucket, int shard) {
+            pasos.add("cambiarDueno " + shard);
+            return 1;
+        }
+
+        @Override
+        int instanciasAtrasadas(long version, long vigenciaMs) {
+            pasos.add("confirmar");
+            return atrasadas > 0 ? atrasadas-- : 0;
+        }
+
+        @Override
+        int purgar(int shard, int bucket, int lote) {
+            pasos.add("purgar " + shard);
+            List<Long> ids = new ArrayList<>();
+            for (Long id : tareas.get(shard).keySet()) {
+                if (ids.size() < lote && MapaBuckets.bucketDe(id) == bucket) {
+                    ids.add(id);
+                }
+            }
+            ids.forEach(tareas.get(shard)::remove);
+            return ids.size();
+        }
+
+        @Override
+        <T> T conCandado(int shard, long clave, long esperaMs, String ocupado,
+                         ShardsTareas.Operacion<T> operacion) throws Throwable {
+            return operacion.ejecutar();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.aprendizaje.backend.shards;
+
+import com.aprendizaje.backend.dto.ResultadoMultiple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ShardsTareas
+ * Verifican la mezcla de resultados, el enrutamiento y los candados, sin bases de datos reales
+ */
+class ShardsTareasTest {
+
+    private final MapaBuckets mapa = new MapaBuckets(2);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private final ShardsTareas shards = new ShardsTareas(
+            new EnrutadorShardsDataSource(List.of(mock(DataSource.class), mock(DataSource.class))), mapa,
+            jdbcTemplate, transactionTemplate, 2, 50);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void cerrar() {
+        shards.close();
+    }
+
+    /**
+     * Busca un ID cuyo bucket sea del shard indicado
+     */
+    private long idEn(int shard, long desde) {
+        long id = desde;
+        while (mapa.shardDe(id) != shard) {
+            id++;
+        }
+        return id;
+    }
+
+    /**
+     * Test: La mezcla de listas ordenadas devuelve la página pedida del orden global
+     */
+    @Test
+    void testMezclar_Paginacion() {
+        // Arrange
+        List<List<Integer>> porShard = List.of(List.of(1, 4, 7, 10), List.of(2, 3, 8), List.of());
+
+        // Act
+        List<Integer> primera = ShardsTareas.mezclar(porShard, Comparator.naturalOrder(), 0, 3);
+        List<Integer> segunda = ShardsTareas.mezclar(porShard, Comparator.naturalOrder(), 3, 3);
+        List<Integer> ultima = ShardsTareas.mezclar(porShard, Comparator.naturalOrder(), 6, 3);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3), primera);
+        assertEquals(List.of(4, 7, 8), segunda);
+        assertEquals(List.of(10), ultima);
+    }
+
+    /**
+     * Test: Los resultados por shard se devuelven en el orden pedido, con los faltantes
+     */
+    @Test
+    void testCombinar_OrdenPedido() {
+        // Arrange
+        List<ResultadoMultiple<Long>> partes = List.of(
+                new ResultadoMultiple<>(List.of(3L), List.of()),
+                new ResultadoMultiple<>(List.of(1L), List.of(2L)));
+
+        // Act
+        ResultadoMultiple<Long> resultado = ShardsTareas.combinar(List.of(1L, 2L, 3L, 1L), partes, id -> id);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), resultado.getEncontrados());
+        assertEquals(List.of(2L), resultado.getFaltantes());
+    }
+
+    /**
+     * Test: Una escritura va al shard de sus tareas y retiene el candado del bucket hasta terminar
+     */
+    @Test
+    void testEscribir_EnrutaYBloquea() throws Throwable {
+        // Arrange
+        int[] asignacion = new int[MapaBuckets.BUCKETS];
+        for (int bucket = 0; bucket < asignacion.length; bucket++) {
+            asignacion[bucket] = bucket % 2;
+        }
+        mapa.cargar(asignacion);
+        long id = idEn(1, 1);
+        int bucket = MapaBuckets.bucketDe(id);
+
+        // Act
+        Integer shardUsado = shards.escribir(List.of(id), () -> {
+            assertFalse(mapa.candadoMovimiento(bucket).tryLock());
+            return ContextoShard.actual();
+        });
+
+        // Assert
+        assertEquals(1, shardUsado);
+        assertNull(ContextoShard.actual());
+        assertEquals(0, ContextoShard.cantidadBloqueos());
+        assertTrue(mapa.candadoMovimiento(bucket).tryLock());
+        mapa.candadoMovimiento(bucket).unlock();
+    }
+
+    /**
+     * Test: Una escritura sobre tareas de distintos shards se rechaza, y no espera si el bucket se mueve
+     */
+    @Test
+    void testEscribir_Rechazos() throws Exception {
+        // Arrange
+        int[] asignacion = new int[MapaBuckets.BUCKETS];
+        for (int bucket = 0; bucket < asignacion.length; bucket++) {
+            asignacion[bucket] = bucket % 2;
+        }
+        mapa.cargar(asignacion);
+        long enCero = idEn(0, 1);
+        long enUno = idEn(1, 1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        int bucket = MapaBuckets.bucketDe(enUno);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> shards.escribir(List.of(enCero, enUno), ejecuciones::incrementAndGet));
+        MapaBucketsTest.ejecutarEnOtroHilo(() -> mapa.candadoMovimiento(bucket).lock());
+        assertThrows(IllegalStateException.class,
+                () -> shards.escribir(List.of(enUno), ejecuciones::incrementAndGet));
+        assertEquals(0, ejecuciones.get());
+        assertEquals(0, ContextoShard.cantidadBloqueos());
+        MapaBucketsTest.ejecutarEnOtroHilo(() -> mapa.candadoMovimiento(bucket).unlock());
+    }
+
+    /**
+     * Simula que buckets_locales marca como cedidos los buckets de las primeras consultas
+     * @param rechazos - cantidad de consultas que encuentran el bucket cedido
+     */
+    private AtomicInteger cederBuckets(int rechazos) throws Exception {
+        AtomicInteger consultas = new AtomicInteger();
+        doAnswer(inv -> {
+            Integer[] buckets = (Integer[]) inv.getArgument(2);
+            if (consultas.incrementAndGet() <= rechazos) {
+                ResultSet fila = mock(ResultSet.class);
+                when(fila.getBoolean("cedido")).thenReturn(true);
+                when(fila.getInt("bucket")).thenReturn(buckets[0]);
+                inv.<RowCallbackHandler>getArgument(1).processRow(fila);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any());
+        return consultas;
+    }
+
+    /**
+     * Test: Si otra instancia ya cedió el bucket, la escritura no se ejecuta y se reintenta
+     */
+    @Test
+    void testEscribir_BucketCedidoReintenta() throws Throwable {
+        // Arrange
+        long id = idEn(0, 1);
+        AtomicInteger consultas = cederBuckets(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // Act
+        int resultado = shards.escribir(List.of(id), ejecuciones::incrementAndGet);
+
+        // Assert
+        assertEquals(1, resultado);
+        assertEquals(1, ejecuciones.get());
+        assertEquals(2, consultas.get());
+        assertEquals(0, ContextoShard.cantidadBloqueos());
+    }
+
+    /**
+     * Test: Si el bucket sigue cedido después de la espera, la escritura se rechaza sin ejecutarse
+     */
+    @Test
+    void testEscribir_BucketCedidoRechaza() throws Exception {
+        // Arrange
+        long id = idEn(0, 1);
+        cederBuckets(Integer.MAX_VALUE);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> shards.escribir(List.of(id), ejecuciones::incrementAndGet));
+        assertEquals(0, ejecuciones.get());
+        assertEquals(0, ContextoShard.cantidadBloqueos());
+    }
+
+    /**
+     * Test: La consulta repartida devuelve un resultado por shard, en orden
+     */
+    @Test
+    void testEnTodos_UnResultadoPorShard() throws Throwable {
+        // Act
+        List<String> resultados = shards.enTodos(shard -> shard + ":" + ContextoShard.actual());
+
+        // Assert
+        assertEquals(List.of("0:0", "1:1"), resultados);
+    }
+}
@@ -0,0 +1,90 @@
+package com.aprendizaje.backend.trazas;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para AlmacenTrazas
+ * Verifican el muestreo por cola, el límite de capacidad y la exportación NDJSON
+ */
+class AlmacenTrazasTest {
+
+    @TempDir
+    Path directorio;
+
+    private Traza traza(String id, long duracionMs, int estado) {
+        return new Traza(id, "GET", "/api/tareas", estado, Instant.now(), duracionMs * 1_000,
+                estado >= 500, List.of(), 0);
+    }
+
+    /**
+     * Test: Se guardan las trazas lentas y las que fallaron; las rápidas se descartan
+     */
+    @Test
+    void testRegistrar_MuestreoPorCola() {
+        // Arrange
+        AlmacenTrazas almacen = new AlmacenTrazas(10, 100, 0.0, null);
+
+        // Act
+        boolean rapida = almacen.registrar(traza("a", 5, 200));
+        boolean lenta = almacen.registrar(traza("b", 250, 200));
+        boolean fallida = almacen.registrar(traza("c", 5, 500));
+
+        // Assert
+        assertFalse(rapida);
+        assertTrue(lenta);
+        assertTrue(fallida);
+        assertEquals(3, almacen.getVistas());
+        assertEquals(2, almacen.getGuardadas());
+        assertNull(almacen.buscar("a"));
+        assertEquals(List.of("c"), almacen.recientes(10, true).stream().map(Traza::getTraceId).toList());
+    }
+
+    /**
+     * Test: Al llenarse se descartan las trazas más antiguas
+     */
+    @Test
+    void testRegistrar_DescartaLasMasAntiguas() {
+        // Arrange
+        AlmacenTrazas almacen = new AlmacenTrazas(2, 0, 0.0, null);
+
+        // Act
+        almacen.registrar(traza("a", 1, 200));
+        almacen.registrar(traza("b", 1, 200));
+        almacen.registrar(traza("c", 1, 200));
+
+        // Assert
+        assertEquals(List.of("c", "b"), almacen.recientes(10, false).stream().map(Traza::getTraceId).toList());
+    }
+
+    /**
+     * Test: Las trazas guardadas se agregan al archivo como una línea JSON cada una
+     */
+    @Test
+    void testRegistrar_ExportaNdjson() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("trazas.ndjson");
+        AlmacenTrazas almacen = new AlmacenTrazas(10, 0, 0.0, archivo);
+
+        // Act
+        almacen.registrar(traza("abc", 1, 200));
+        almacen.registrar(traza("def", 1, 200));
+        almacen.cerrar();
+
+        // Assert
+        List<String> lineas = List.of();
+        for (int intento = 0; intento < 50 && lineas.size() < 2; intento++) {
+            Thread.sleep(100);
+            lineas = Files.exists(archivo) ? Files.readAllLines(archivo) : List.of();
+        }
+        assertEquals(2, lineas.size());
+        assertTrue(lineas.get(0).contains("\"traceId\":\"abc\""));
+    }
+}
@@ -0,0 +1,74 @@
+package com.aprendizaje.backend.trazas;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TrazasFilter
+ * La cadena de filtros simulada abre spans como lo haría TrazasAspect
+ */
+class TrazasFilterTest {
+
+    /**
+     * Test: El X-Trace-Id recibido se devuelve en la respuesta y los spans quedan anidados
+     */
+    @Test
+    void testFiltro_PropagaTraceIdYAnidaSpans() throws Exception {
+        // Arrange
+        AlmacenTrazas almacen = new AlmacenTrazas(10, 0, 0.0, null);
+        TrazasFilter filtro = new TrazasFilter(almacen, 10);
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/tareas/1/completar");
+        request.addHeader(TrazasFilter.CABECERA, "0123456789abcdef");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filtro.doFilter(request, response, (req, res) -> {
+            ContextoTraza contexto = ContextoTraza.actual();
+            int servicio = contexto.abrir("TareaService.cambiarEstadoTarea", "servicio");
+            int repositorio = contexto.abrir("TareaRepository.findById", "repositorio");
+            contexto.cerrar(repositorio, null);
+            contexto.cerrar(servicio, null);
+        });
+
+        // Assert
+        assertEquals("0123456789abcdef", response.getHeader(TrazasFilter.CABECERA));
+        assertNull(ContextoTraza.actual());
+        Traza traza = almacen.buscar("0123456789abcdef");
+        assertNotNull(traza);
+        assertEquals(3, traza.getSpans().size());
+        assertEquals(-1, traza.getSpans().get(0).getPadre());
+        assertEquals(0, traza.getSpans().get(1).getPadre());
+        assertEquals(1, traza.getSpans().get(2).getPadre());
+    }
+
+    /**
+     * Test: Un X-Trace-Id inválido se reemplaza, y los spans por encima del máximo solo se cuentan
+     */
+    @Test
+    void testFiltro_TraceIdInvalidoYMaximoDeSpans() throws Exception {
+        // Arrange
+        AlmacenTrazas almacen = new AlmacenTrazas(10, 0, 0.0, null);
+        TrazasFilter filtro = new TrazasFilter(almacen, 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tareas");
+        request.addHeader(TrazasFilter.CABECERA, "<script>");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filtro.doFilter(request, response, (req, res) -> {
+            ContextoTraza contexto = ContextoTraza.actual();
+            for (int i = 0; i < 3; i++) {
+                contexto.cerrar(contexto.abrir("TareaRepository.findAll", "repositorio"), null);
+            }
+        });
+
+        // Assert
+        String traceId = response.getHeader(TrazasFilter.CABECERA);
+        assertTrue(traceId.matches("[0-9a-f]{16}"));
+        Traza traza = almacen.buscar(traceId);
+        assertEquals(2, traza.getSpans().size());
+        assertEquals(2, traza.getSpansDescartados());
+    }
+}
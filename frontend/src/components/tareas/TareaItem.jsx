@@ -28,9 +28,9 @@ function TareaItem({ tarea, onTareaActualizada, onTareaEliminada }) {
         tareaActualizada = await tareaService.completar(tarea.id);
       }
 
-      // Notificar al componente padre
+      // Notificar al componente padre (sin tarea en la respuesta, el cambio quedó pendiente en el servidor)
       if (onTareaActualizada) {
-        onTareaActualizada(tareaActualizada);
+        onTareaActualizada(tareaActualizada ?? { ...tarea, completada: !tarea.completada });
       }
 
     } catch (error) {
@@ -153,6 +153,44 @@ const productoService = {
     }
   },
 
+  /**
+   * Obtiene las categorías existentes con su cantidad de productos
+   * @returns {Promise<Array>} Lista de { id, nombre, cantidad } ordenada por nombre
+   */
+  obtenerCategorias: async () => {
+    try {
+      const respuesta = await fetch(`${API_URL}/categorias`);
+      if (!respuesta.ok) {
+        throw new Error('Error al obtener las categorías');
+      }
+      return await respuesta.json();
+    } catch (error) {
+      console.error('Error en obtenerCategorias:', error);
+      throw error;
+    }
+  },
+
+  /**
+   * Obtiene un ranking de productos calculado en el servidor
+   * @param {string} criterio - 'mas-baratos', 'mas-caros', 'menos-stock' o 'mas-nuevos'
+   * @param {string} categoria - Categoría (opcional; sin ella, todo el catálogo)
+   * @param {number} limite - Cantidad de productos
+   * @returns {Promise<Array>} Productos en el orden del ranking
+   */
+  obtenerRanking: async (criterio, categoria = null, limite = 20) => {
+    try {
+      const filtro = categoria ? `&categoria=${encodeURIComponent(categoria)}` : '';
+      const respuesta = await fetch(`${API_URL}/ranking/${criterio}?limite=${limite}${filtro}`);
+      if (!respuesta.ok) {
+        throw new Error('Error al obtener el ranking de productos');
+      }
+      return await respuesta.json();
+    } catch (error) {
+      console.error('Error en obtenerRanking:', error);
+      throw error;
+    }
+  },
+
   /**
    * Obtiene productos con stock mínimo
    * @param {number} stockMinimo - Cantidad mínima de stock
@@ -169,6 +207,44 @@ const productoService = {
       console.error('Error en obtenerConStock:', error);
       throw error;
     }
+  },
+
+  /**
+   * Obtiene las alertas de stock bajo posteriores a un cursor
+   * @param {number} desde - Secuencia de la última alerta ya leída (0 para empezar)
+   * @param {number} limite - Máximo de alertas
+   * @returns {Promise<Array>} Alertas BAJO y RECUPERADO en orden de secuencia
+   */
+  obtenerAlertasStock: async (desde = 0, limite = 100) => {
+    try {
+      const respuesta = await fetch(`${API_URL}/alertas-stock?desde=${desde}&limite=${limite}`);
+      if (!respuesta.ok) {
+        throw new Error('Error al obtener las alertas de stock');
+      }
+      return await respuesta.json();
+    } catch (error) {
+      console.error('Error en obtenerAlertasStock:', error);
+      throw error;
+    }
+  },
+
+  /**
+   * Sugiere productos cuyo nombre tiene una palabra que empieza con el prefijo
+   * @param {string} prefijo - Texto escrito por el usuario
+   * @param {number} limite - Máximo de sugerencias
+   * @returns {Promise<Array>} Sugerencias ordenadas por relevancia
+   */
+  autocompletar: async (prefijo, limite = 10) => {
+    try {
+      const respuesta = await fetch(`${API_URL}/autocompletar?prefijo=${encodeURIComponent(prefijo)}&limite=${limite}`);
+      if (!respuesta.ok) {
+        throw new Error('Error al obtener sugerencias');
+      }
+      return await respuesta.json();
+    } catch (error) {
+      console.error('Error en autocompletar:', error);
+      throw error;
+    }
   }
 };
 
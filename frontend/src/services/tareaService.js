@@ -102,7 +102,7 @@ const tareaService = {
   /**
    * Marca una tarea como completada
    * @param {number} id - ID de la tarea a completar
-   * @returns {Promise<Object>} La tarea actualizada
+   * @returns {Promise<Object|null>} La tarea actualizada, o null si el cambio quedó pendiente (202)
    */
   completar: async (id) => {
     try {
@@ -114,6 +114,11 @@ const tareaService = {
         throw new Error('Error al completar la tarea');
       }
       
+      // 202: el servidor guardará el cambio en segundo plano (write-behind) y no devuelve la tarea
+      if (respuesta.status === 202) {
+        return null;
+      }
+      
       return await respuesta.json();
     } catch (error) {
       console.error('Error en completar:', error);
@@ -124,7 +129,7 @@ const tareaService = {
   /**
    * Marca una tarea como no completada
    * @param {number} id - ID de la tarea a descompletar
-   * @returns {Promise<Object>} La tarea actualizada
+   * @returns {Promise<Object|null>} La tarea actualizada, o null si el cambio quedó pendiente (202)
    */
   descompletar: async (id) => {
     try {
@@ -136,11 +141,41 @@ const tareaService = {
         throw new Error('Error al descompletar la tarea');
       }
       
+      // 202: el servidor guardará el cambio en segundo plano (write-behind) y no devuelve la tarea
+      if (respuesta.status === 202) {
+        return null;
+      }
+      
       return await respuesta.json();
     } catch (error) {
       console.error('Error en descompletar:', error);
       throw error;
     }
+  },
+
+  /**
+   * Busca tareas por texto en el título y la descripción
+   * @param {string} texto - Palabras a buscar
+   * @param {Object} opciones - completada (opcional), pagina y tamano
+   * @returns {Promise<Object>} Página con resultados (tarea, tituloResaltado, descripcionResaltada) y hayMas
+   */
+  buscar: async (texto, { completada, pagina = 0, tamano = 20 } = {}) => {
+    try {
+      const parametros = new URLSearchParams({ q: texto, pagina, tamano });
+      if (completada !== undefined && completada !== null) {
+        parametros.append('completada', completada);
+      }
+      const respuesta = await fetch(`${API_URL}/buscar?${parametros}`);
+      
+      if (!respuesta.ok) {
+        throw new Error('Error al buscar tareas');
+      }
+      
+      return await respuesta.json();
+    } catch (error) {
+      console.error('Error en buscar:', error);
+      throw error;
+    }
   }
 };
 